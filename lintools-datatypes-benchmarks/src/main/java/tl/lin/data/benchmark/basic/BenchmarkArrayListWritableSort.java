@@ -0,0 +1,118 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.benchmark.basic;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.apache.hadoop.io.WritableComparator;
+
+import tl.lin.data.array.ArrayListOfIntsWritable;
+
+/**
+ * <p>
+ * Benchmark for sorting serialized {@link ArrayListOfIntsWritable} keys, as in the sort phase of
+ * the MapReduce shuffle. Keys are sorted by their serialized bytes, first with the registered raw
+ * comparator, which compares the bytes directly, and then with Hadoop's default comparator, which
+ * deserializes both keys for every comparison. Keys are short lists over a small range of values,
+ * so that many comparisons have to look past the first element.
+ * </p>
+ *
+ * <p>
+ * Usage: {@code BenchmarkArrayListWritableSort [number of keys] [max list size]}
+ * </p>
+ */
+public class BenchmarkArrayListWritableSort {
+  private static final int TRIALS = 5;
+
+  private BenchmarkArrayListWritableSort() {
+  }
+
+  private static Integer[] sort(final WritableComparator comparator, final byte[] bytes,
+      final int[] offsets, final int[] lengths) {
+    Integer[] order = new Integer[offsets.length];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+
+    Arrays.sort(order, new Comparator<Integer>() {
+      public int compare(Integer i, Integer j) {
+        return comparator.compare(bytes, offsets[i], lengths[i], bytes, offsets[j], lengths[j]);
+      }
+    });
+    return order;
+  }
+
+  /**
+   * Runs this benchmark.
+   */
+  public static void main(String[] args) throws Exception {
+    int numKeys = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+    int maxSize = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+    System.out.println("Number of keys: " + numKeys + ", max list size: " + maxSize);
+
+    Random r = new Random();
+    DataOutputBuffer out = new DataOutputBuffer();
+    int[] offsets = new int[numKeys];
+    int[] lengths = new int[numKeys];
+    ArrayListOfIntsWritable key = new ArrayListOfIntsWritable();
+    for (int i = 0; i < numKeys; i++) {
+      key.clear();
+      int size = 1 + r.nextInt(maxSize);
+      for (int j = 0; j < size; j++) {
+        key.add(r.nextInt(4));
+      }
+      offsets[i] = out.getLength();
+      key.write(out);
+      lengths[i] = out.getLength() - offsets[i];
+    }
+    byte[] bytes = out.getData();
+
+    WritableComparator raw = WritableComparator.get(ArrayListOfIntsWritable.class);
+    WritableComparator deserializing =
+        new WritableComparator(ArrayListOfIntsWritable.class, true) {};
+    System.out.println("Raw comparator: " + raw.getClass().getName());
+
+    long startTime;
+    Integer[] rawOrder = null;
+    Integer[] deserializingOrder = null;
+
+    // The first trial serves as warmup.
+    for (int t = 0; t < TRIALS; t++) {
+      System.out.println("Trial " + t + (t == 0 ? " (warmup)" : ""));
+
+      startTime = System.currentTimeMillis();
+      rawOrder = sort(raw, bytes, offsets, lengths);
+      long duration = System.currentTimeMillis() - startTime;
+      System.out.println(String.format("%-16s %6d ms, %10.0f keys/s", "raw", duration,
+          numKeys * 1000.0 / Math.max(duration, 1)));
+
+      startTime = System.currentTimeMillis();
+      deserializingOrder = sort(deserializing, bytes, offsets, lengths);
+      duration = System.currentTimeMillis() - startTime;
+      System.out.println(String.format("%-16s %6d ms, %10.0f keys/s", "deserializing", duration,
+          numKeys * 1000.0 / Math.max(duration, 1)));
+    }
+
+    // Both sorts are stable, so they produce the same permutation if the comparators agree.
+    if (!Arrays.equals(rawOrder, deserializingOrder)) {
+      throw new RuntimeException("Raw and deserializing comparators disagree!");
+    }
+  }
+}
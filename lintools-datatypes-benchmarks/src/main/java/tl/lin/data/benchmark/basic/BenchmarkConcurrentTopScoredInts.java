@@ -0,0 +1,129 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.benchmark.basic;
+
+import tl.lin.data.queue.ConcurrentTopScoredInts;
+import tl.lin.data.queue.TopScoredInts;
+
+/**
+ * <p>
+ * Scaling benchmark for {@link ConcurrentTopScoredInts}: several threads score disjoint ranges of
+ * candidates and keep the top <i>k</i>. It is compared to threads sharing one
+ * {@link TopScoredInts}, on which they synchronize.
+ * </p>
+ *
+ * <p>
+ * Usage: {@code BenchmarkConcurrentTopScoredInts [number of candidates] [k] [max threads]}
+ * </p>
+ */
+public class BenchmarkConcurrentTopScoredInts {
+  private static final int TRIALS = 5;
+
+  private BenchmarkConcurrentTopScoredInts() {
+  }
+
+  // Random score of a candidate, from a xorshift generator, see BenchmarkTopScoredInts.
+  private static float score(long x) {
+    x ^= x << 13;
+    x ^= x >>> 7;
+    x ^= x << 17;
+    return (x >>> 40) * 0x1p-24f;
+  }
+
+  // Runs the threads, and returns the elapsed time in nanoseconds.
+  private static long run(Thread[] threads) throws InterruptedException {
+    long start = System.nanoTime();
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    return System.nanoTime() - start;
+  }
+
+  private static long runSynchronized(final int numCandidates, final int numThreads,
+      final TopScoredInts top) throws InterruptedException {
+    Thread[] threads = new Thread[numThreads];
+    for (int t = 0; t < numThreads; t++) {
+      final int start = (int) ((long) numCandidates * t / numThreads);
+      final int end = (int) ((long) numCandidates * (t + 1) / numThreads);
+      threads[t] = new Thread() {
+        @Override
+        public void run() {
+          for (int i = start; i < end; i++) {
+            float f = score(i + 1);
+            synchronized (top) {
+              top.add(i, f);
+            }
+          }
+        }
+      };
+    }
+    return run(threads);
+  }
+
+  private static long runConcurrent(final int numCandidates, final int numThreads,
+      final ConcurrentTopScoredInts top) throws InterruptedException {
+    Thread[] threads = new Thread[numThreads];
+    for (int t = 0; t < numThreads; t++) {
+      final int start = (int) ((long) numCandidates * t / numThreads);
+      final int end = (int) ((long) numCandidates * (t + 1) / numThreads);
+      threads[t] = new Thread() {
+        @Override
+        public void run() {
+          for (int i = start; i < end; i++) {
+            top.add(i, score(i + 1));
+          }
+        }
+      };
+    }
+    return run(threads);
+  }
+
+  /**
+   * Runs this benchmark.
+   */
+  public static void main(String[] args) throws InterruptedException {
+    int numCandidates = args.length > 0 ? Integer.parseInt(args[0]) : 100000000;
+    int k = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+    int maxThreads = args.length > 2 ? Integer.parseInt(args[2])
+        : Runtime.getRuntime().availableProcessors();
+    System.out.println("Number of candidates: " + numCandidates + ", k: " + k + ", processors: "
+        + Runtime.getRuntime().availableProcessors());
+
+    for (int numThreads = 1; numThreads <= Math.max(1, maxThreads); numThreads *= 2) {
+      for (int t = 0; t < TRIALS; t++) {
+        // The first trial is a warmup.
+        TopScoredInts shared = new TopScoredInts(k);
+        long sharedTime = runSynchronized(numCandidates, numThreads, shared);
+
+        ConcurrentTopScoredInts concurrent = new ConcurrentTopScoredInts(k);
+        long concurrentTime = runConcurrent(numCandidates, numThreads, concurrent);
+
+        if (k > 0 && shared.extractAll()[0].getLeftElement()
+            != concurrent.extractAll()[0].getLeftElement()) {
+          throw new IllegalStateException("Results differ!");
+        }
+        System.out.println(String.format("Threads %d, trial %d: synchronized %.1f ms (%.1f M/s), "
+            + "concurrent %.1f ms (%.1f M/s)", numThreads, t, sharedTime / 1e6,
+            numCandidates * 1e3 / sharedTime, concurrentTime / 1e6,
+            numCandidates * 1e3 / concurrentTime));
+      }
+    }
+  }
+}
@@ -0,0 +1,212 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.benchmark.basic;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import tl.lin.data.exp.FibonacciHeap;
+import tl.lin.data.exp.FibonacciHeapInt;
+import tl.lin.data.queue.DaryHeapIF;
+import tl.lin.data.queue.PairingHeapIF;
+
+/**
+ * <p>
+ * Benchmark for the indexed heaps {@link DaryHeapIF} and {@link PairingHeapIF}: runs Dijkstra's
+ * shortest paths on a random graph, and compares them to the Fibonacci heaps
+ * {@link FibonacciHeapInt} and {@link FibonacciHeap}, which allocate a node per element.
+ * </p>
+ *
+ * <p>
+ * Usage: {@code BenchmarkDijkstra [number of nodes] [out-degree]}
+ * </p>
+ */
+public class BenchmarkDijkstra {
+  private static final int TRIALS = 5;
+
+  private BenchmarkDijkstra() {
+  }
+
+  // Random graph in compressed sparse row format: the edges of node u are targets[offsets[u]]
+  // to targets[offsets[u + 1] - 1], with the corresponding weights.
+  private static class Graph {
+    private final int[] offsets;
+    private final int[] targets;
+    private final float[] weights;
+
+    private Graph(int numNodes, int degree, Random r) {
+      offsets = new int[numNodes + 1];
+      targets = new int[numNodes * degree];
+      weights = new float[numNodes * degree];
+      for (int u = 0; u < numNodes; u++) {
+        offsets[u + 1] = offsets[u] + degree;
+        for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+          targets[e] = r.nextInt(numNodes);
+          weights[e] = r.nextFloat();
+        }
+      }
+    }
+  }
+
+  private static float[] newDistances(int n) {
+    float[] dist = new float[n];
+    Arrays.fill(dist, Float.POSITIVE_INFINITY);
+    dist[0] = 0.0f;
+    return dist;
+  }
+
+  private static float[] dary(Graph g, int arity) {
+    int n = g.offsets.length - 1;
+    float[] dist = newDistances(n);
+    DaryHeapIF heap = new DaryHeapIF(n, arity);
+    heap.add(0, 0.0f);
+    while (!heap.isEmpty()) {
+      int u = heap.poll();
+      for (int e = g.offsets[u]; e < g.offsets[u + 1]; e++) {
+        int v = g.targets[e];
+        float d = dist[u] + g.weights[e];
+        if (d < dist[v]) {
+          dist[v] = d;
+          heap.addOrDecrease(v, d);
+        }
+      }
+    }
+    return dist;
+  }
+
+  private static float[] pairing(Graph g) {
+    int n = g.offsets.length - 1;
+    float[] dist = newDistances(n);
+    PairingHeapIF heap = new PairingHeapIF(n);
+    heap.add(0, 0.0f);
+    while (!heap.isEmpty()) {
+      int u = heap.poll();
+      for (int e = g.offsets[u]; e < g.offsets[u + 1]; e++) {
+        int v = g.targets[e];
+        float d = dist[u] + g.weights[e];
+        if (d < dist[v]) {
+          dist[v] = d;
+          heap.addOrDecrease(v, d);
+        }
+      }
+    }
+    return dist;
+  }
+
+  private static float[] fibonacciInt(Graph g) {
+    int n = g.offsets.length - 1;
+    float[] dist = newDistances(n);
+    FibonacciHeapInt heap = new FibonacciHeapInt();
+    FibonacciHeapInt.Node[] nodes = new FibonacciHeapInt.Node[n];
+    boolean[] done = new boolean[n];
+    nodes[0] = heap.insert(0, 0.0f);
+    while (!heap.isEmpty()) {
+      int u = heap.removeMin().getDatum();
+      done[u] = true;
+      for (int e = g.offsets[u]; e < g.offsets[u + 1]; e++) {
+        int v = g.targets[e];
+        float d = dist[u] + g.weights[e];
+        if (d < dist[v] && !done[v]) {
+          dist[v] = d;
+          if (nodes[v] == null) {
+            nodes[v] = heap.insert(v, d);
+          } else {
+            heap.decreaseKey(nodes[v], d);
+          }
+        }
+      }
+    }
+    return dist;
+  }
+
+  private static float[] fibonacci(Graph g) {
+    int n = g.offsets.length - 1;
+    float[] dist = newDistances(n);
+    FibonacciHeap<Integer> heap = new FibonacciHeap<Integer>();
+    @SuppressWarnings("unchecked")
+    FibonacciHeap.Node<Integer>[] nodes = new FibonacciHeap.Node[n];
+    boolean[] done = new boolean[n];
+    nodes[0] = heap.insert(0, 0.0f);
+    while (!heap.isEmpty()) {
+      int u = heap.removeMin().getDatum();
+      done[u] = true;
+      for (int e = g.offsets[u]; e < g.offsets[u + 1]; e++) {
+        int v = g.targets[e];
+        float d = dist[u] + g.weights[e];
+        if (d < dist[v] && !done[v]) {
+          dist[v] = d;
+          if (nodes[v] == null) {
+            nodes[v] = heap.insert(v, d);
+          } else {
+            heap.decreaseKey(nodes[v], d);
+          }
+        }
+      }
+    }
+    return dist;
+  }
+
+  /**
+   * Runs this benchmark.
+   */
+  public static void main(String[] args) {
+    int numNodes = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+    int degree = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+    System.out.println("Number of nodes: " + numNodes + ", out-degree: " + degree);
+    Graph g = new Graph(numNodes, degree, new Random(1));
+
+    String[] names = { "binary heap", "4-ary heap", "8-ary heap", "pairing heap",
+        "FibonacciHeapInt", "FibonacciHeap" };
+    for (int t = 0; t < TRIALS; t++) {
+      // The first trial is a warmup.
+      StringBuilder sb = new StringBuilder("Trial " + t + ":");
+      float[] expected = null;
+      for (int h = 0; h < names.length; h++) {
+        long start = System.nanoTime();
+        float[] dist;
+        switch (h) {
+        case 0:
+          dist = dary(g, 2);
+          break;
+        case 1:
+          dist = dary(g, 4);
+          break;
+        case 2:
+          dist = dary(g, 8);
+          break;
+        case 3:
+          dist = pairing(g);
+          break;
+        case 4:
+          dist = fibonacciInt(g);
+          break;
+        default:
+          dist = fibonacci(g);
+        }
+        long time = System.nanoTime() - start;
+
+        if (expected == null) {
+          expected = dist;
+        } else if (!Arrays.equals(expected, dist)) {
+          throw new IllegalStateException("Distances differ!");
+        }
+        sb.append(String.format(" %s %.1f ms,", names[h], time / 1e6));
+      }
+      System.out.println(sb.substring(0, sb.length() - 1));
+    }
+  }
+}
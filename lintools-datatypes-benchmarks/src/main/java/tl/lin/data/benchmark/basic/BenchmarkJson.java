@@ -16,6 +16,11 @@
 
 package tl.lin.data.benchmark.basic;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -23,6 +28,10 @@ import java.util.Random;
 
 import org.apache.hadoop.io.WritableComparable;
 
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import tl.lin.data.BinaryJsonWritable;
 import tl.lin.data.JsonWritable;
 
 /**
@@ -30,6 +39,7 @@ import tl.lin.data.JsonWritable;
  */
 public class BenchmarkJson {
   private static final int SAMPLES = 1000000;
+  private static final int ENCODING_SAMPLES = 100000;
   
   private BenchmarkJson() {}
 
@@ -101,5 +111,57 @@ public class BenchmarkJson {
     duration = (System.currentTimeMillis() - startTime) / 1000.0;
 
     System.out.println("Sorted JSON Objects in " + duration + " seconds");
+
+    // Compare the text and binary encodings on records with a nested array of objects.
+    List<JsonWritable> text = new ArrayList<JsonWritable>();
+    List<JsonWritable> binary = new ArrayList<JsonWritable>();
+    for (int i = 0; i < ENCODING_SAMPLES; i++) {
+      JsonArray tags = new JsonArray();
+      for (int k = 0; k < 3; k++) {
+        JsonObject tag = new JsonObject();
+        tag.addProperty("name", "tag" + (i + k) % 100);
+        tag.addProperty("score", (i * 7 + k) % 100 / 4.0);
+        tags.add(tag);
+      }
+
+      // Both objects share the same values.
+      JsonWritable t = new JsonWritable();
+      JsonWritable b = new BinaryJsonWritable();
+      for (JsonWritable j : new JsonWritable[] { t, b }) {
+        j.getJsonObject().addProperty("id", i);
+        j.getJsonObject().add("left", listJSONObjects1.get(i).getJsonObject().get("left"));
+        j.getJsonObject().add("right", listJSONObjects1.get(i).getJsonObject().get("right"));
+        j.getJsonObject().add("tags", tags);
+      }
+      text.add(t);
+      binary.add(b);
+    }
+    compareEncodings("text", text, new JsonWritable());
+    compareEncodings("binary", binary, new BinaryJsonWritable());
+  }
+
+  private static void compareEncodings(String name, List<JsonWritable> list, JsonWritable reader)
+      throws IOException {
+    long startTime = System.currentTimeMillis();
+    ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
+    DataOutputStream dataOut = new DataOutputStream(bytesOut);
+    for (JsonWritable j : list) {
+      j.write(dataOut);
+    }
+    double duration = (System.currentTimeMillis() - startTime) / 1000.0;
+    byte[] bytes = bytesOut.toByteArray();
+    System.out.println("Serialized " + list.size() + " JSON Objects as " + name + " ("
+        + bytes.length + " bytes) in " + duration + " seconds");
+
+    startTime = System.currentTimeMillis();
+    DataInputStream dataIn = new DataInputStream(new ByteArrayInputStream(bytes));
+    int fields = 0;
+    for (int i = 0; i < list.size(); i++) {
+      reader.readFields(dataIn);
+      fields += reader.getJsonObject().entrySet().size();
+    }
+    duration = (System.currentTimeMillis() - startTime) / 1000.0;
+    System.out.println("Deserialized " + list.size() + " JSON Objects (" + fields
+        + " fields) from " + name + " in " + duration + " seconds");
   }
 }
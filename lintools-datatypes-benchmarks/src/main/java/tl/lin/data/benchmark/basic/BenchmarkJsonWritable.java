@@ -0,0 +1,148 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.benchmark.basic;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import tl.lin.data.JsonWritable;
+import tl.lin.data.LazyJsonWritable;
+
+/**
+ * <p>
+ * Benchmark for {@link JsonWritable} on serialized records: forwarding records, i.e., reading and
+ * writing them back, with eager and lazy parsing ({@link LazyJsonWritable}), and sorting records
+ * by two fields, either by deserializing both records of each comparison, as
+ * {@link BenchmarkJson} does, or with {@link JsonWritable.FieldComparator}, which scans the
+ * serialized bytes.
+ * </p>
+ *
+ * <p>
+ * Usage: {@code BenchmarkJsonWritable [number of records]}
+ * </p>
+ */
+public class BenchmarkJsonWritable {
+  private static final int TRIALS = 5;
+
+  private BenchmarkJsonWritable() {
+  }
+
+  // Records serialized one after the other, starting at the given offsets.
+  private static byte[] data;
+  private static int[] offsets;
+
+  private static long forward(JsonWritable w) throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+    ByteArrayOutputStream bytesOut = new ByteArrayOutputStream(data.length);
+    DataOutputStream out = new DataOutputStream(bytesOut);
+    long start = System.nanoTime();
+    for (int i = 0; i < offsets.length - 1; i++) {
+      w.readFields(in);
+      w.write(out);
+    }
+    long time = System.nanoTime() - start;
+    if (bytesOut.size() != data.length) {
+      throw new IllegalStateException("Output differs!");
+    }
+    return time;
+  }
+
+  private static long sort(Comparator<Integer> comparator, Integer[] order) {
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+    long start = System.nanoTime();
+    Arrays.sort(order, comparator);
+    return System.nanoTime() - start;
+  }
+
+  /**
+   * Runs this benchmark.
+   */
+  public static void main(String[] args) throws IOException {
+    int numRecords = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+    System.out.println("Number of records: " + numRecords);
+
+    Random r = new Random(1);
+    ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytesOut);
+    offsets = new int[numRecords + 1];
+    for (int i = 0; i < numRecords; i++) {
+      JsonWritable w = new JsonWritable();
+      w.getJsonObject().addProperty("id", i);
+      w.getJsonObject().addProperty("text", "record number " + i + " of the benchmark");
+      w.getJsonObject().addProperty("left", r.nextInt(1000));
+      w.getJsonObject().addProperty("right", r.nextInt(1000));
+      w.write(out);
+      offsets[i + 1] = bytesOut.size();
+    }
+    data = bytesOut.toByteArray();
+
+    final JsonWritable.FieldComparator raw = new JsonWritable.FieldComparator("left", "right");
+    Comparator<Integer> rawComparator = new Comparator<Integer>() {
+      public int compare(Integer a, Integer b) {
+        return raw.compare(data, offsets[a], offsets[a + 1] - offsets[a], data, offsets[b],
+            offsets[b + 1] - offsets[b]);
+      }
+    };
+    Comparator<Integer> parsingComparator = new Comparator<Integer>() {
+      private final JsonWritable w1 = new JsonWritable();
+      private final JsonWritable w2 = new JsonWritable();
+
+      public int compare(Integer a, Integer b) {
+        try {
+          w1.readFields(new DataInputStream(new ByteArrayInputStream(data, offsets[a],
+              offsets[a + 1] - offsets[a])));
+          w2.readFields(new DataInputStream(new ByteArrayInputStream(data, offsets[b],
+              offsets[b + 1] - offsets[b])));
+        } catch (IOException e) {
+          throw new RuntimeException(e);
+        }
+        int l1 = w1.get("left").getAsInt();
+        int l2 = w2.get("left").getAsInt();
+        if (l1 != l2) {
+          return l1 < l2 ? -1 : 1;
+        }
+        int r1 = w1.get("right").getAsInt();
+        int r2 = w2.get("right").getAsInt();
+        return r1 < r2 ? -1 : (r1 == r2 ? 0 : 1);
+      }
+    };
+
+    Integer[] order = new Integer[numRecords];
+    Integer[] expected = new Integer[numRecords];
+    for (int t = 0; t < TRIALS; t++) {
+      // The first trial is a warmup.
+      long eagerTime = forward(new JsonWritable());
+      long lazyTime = forward(new LazyJsonWritable());
+      long parsingTime = sort(parsingComparator, expected);
+      long rawTime = sort(rawComparator, order);
+      if (!Arrays.equals(expected, order)) {
+        throw new IllegalStateException("Orders differ!");
+      }
+      System.out.println(String.format("Trial %d: forward eager %.1f ms, lazy %.1f ms; "
+          + "sort parsing %.1f ms, raw %.1f ms", t, eagerTime / 1e6, lazyTime / 1e6,
+          parsingTime / 1e6, rawTime / 1e6));
+    }
+  }
+}
@@ -0,0 +1,194 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.benchmark.basic;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import org.apache.hadoop.io.WritableComparator;
+
+import tl.lin.data.pair.PairOfStringInt;
+import tl.lin.data.pair.TupleKey;
+import tl.lin.data.util.OrderedBytes;
+
+/**
+ * <p>
+ * Benchmark for sorting serialized composite keys, as the shuffle does. Random
+ * {@link PairOfStringInt} keys are serialized back to back into one buffer, both as pairs and as
+ * {@link TupleKey}s, and the keys are sorted (by their offsets) with the raw comparator of the
+ * pair, which parses the string lengths and reads the ints field by field, with the raw
+ * comparator of {@link TupleKey}, which is a single byte comparison, and with normalized key
+ * prefixes of the {@link TupleKey}s, falling back to byte comparison only on equal prefixes.
+ * </p>
+ *
+ * <p>
+ * Usage: {@code BenchmarkOrderedKeys [number of keys]}
+ * </p>
+ */
+public class BenchmarkOrderedKeys {
+  private static final int TRIALS = 5;
+  private static final int VOCABULARY = 50000;
+
+  private BenchmarkOrderedKeys() {
+  }
+
+  private static class Keys {
+    final byte[] bytes;
+    final int[] offsets;
+
+    Keys(ByteArrayOutputStream bytesOut, int[] offsets) {
+      this.bytes = bytesOut.toByteArray();
+      this.offsets = offsets;
+    }
+
+    int length(int i) {
+      return (i + 1 < offsets.length ? offsets[i + 1] : bytes.length) - offsets[i];
+    }
+  }
+
+  // Sorts keys by their indexes with a quicksort, as in a sort buffer. If prefixes are given, they
+  // are kept in a parallel array and compared first.
+  private static void sort(Keys keys, WritableComparator comparator, int[] order, long[] prefixes,
+      int lo, int hi) {
+    while (hi - lo > 16) {
+      int mid = (lo + hi) >>> 1;
+      swap(order, prefixes, mid, hi - 1);
+      int p = lo;
+      for (int i = lo; i < hi - 1; i++) {
+        if (compare(keys, comparator, order, prefixes, i, hi - 1) < 0) {
+          swap(order, prefixes, i, p++);
+        }
+      }
+      swap(order, prefixes, p, hi - 1);
+      // Recurse into the smaller half.
+      if (p - lo < hi - p) {
+        sort(keys, comparator, order, prefixes, lo, p);
+        lo = p + 1;
+      } else {
+        sort(keys, comparator, order, prefixes, p + 1, hi);
+        hi = p;
+      }
+    }
+    for (int i = lo + 1; i < hi; i++) {
+      for (int j = i; j > lo && compare(keys, comparator, order, prefixes, j - 1, j) > 0; j--) {
+        swap(order, prefixes, j - 1, j);
+      }
+    }
+  }
+
+  private static int compare(Keys keys, WritableComparator comparator, int[] order,
+      long[] prefixes, int i, int j) {
+    if (prefixes != null) {
+      int cmp = OrderedBytes.compareUnsigned(prefixes[i], prefixes[j]);
+      if (cmp != 0) {
+        return cmp;
+      }
+    }
+    int a = order[i];
+    int b = order[j];
+    return comparator.compare(keys.bytes, keys.offsets[a], keys.length(a), keys.bytes,
+        keys.offsets[b], keys.length(b));
+  }
+
+  private static void swap(int[] order, long[] prefixes, int i, int j) {
+    int t = order[i];
+    order[i] = order[j];
+    order[j] = t;
+    if (prefixes != null) {
+      long u = prefixes[i];
+      prefixes[i] = prefixes[j];
+      prefixes[j] = u;
+    }
+  }
+
+  private static long sort(Keys keys, WritableComparator comparator, boolean usePrefixes) {
+    int[] order = new int[keys.offsets.length];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+
+    long start = System.nanoTime();
+    long[] prefixes = null;
+    if (usePrefixes) {
+      // Computing prefixes is part of the sort, as it would be in a sort buffer.
+      prefixes = new long[order.length];
+      for (int i = 0; i < order.length; i++) {
+        // Skip the length of the key, a single byte for short keys.
+        prefixes[i] = OrderedBytes.prefix(keys.bytes, keys.offsets[i] + 1, keys.length(i) - 1);
+      }
+    }
+    sort(keys, comparator, order, prefixes, 0, order.length);
+    long duration = System.nanoTime() - start;
+
+    for (int i = 1; i < order.length; i++) {
+      if (comparator.compare(keys.bytes, keys.offsets[order[i - 1]], keys.length(order[i - 1]),
+          keys.bytes, keys.offsets[order[i]], keys.length(order[i])) > 0) {
+        throw new IllegalStateException("Keys are not sorted!");
+      }
+    }
+    return duration;
+  }
+
+  /**
+   * Runs this benchmark.
+   */
+  public static void main(String[] args) throws IOException {
+    int numKeys = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+    System.out.println("Number of keys: " + numKeys);
+
+    Random r = new Random();
+    String[] vocabulary = new String[VOCABULARY];
+    for (int i = 0; i < VOCABULARY; i++) {
+      char[] chars = new char[3 + r.nextInt(10)];
+      for (int j = 0; j < chars.length; j++) {
+        chars[j] = (char) ('a' + r.nextInt(26));
+      }
+      vocabulary[i] = new String(chars);
+    }
+
+    ByteArrayOutputStream pairBytes = new ByteArrayOutputStream();
+    ByteArrayOutputStream tupleBytes = new ByteArrayOutputStream();
+    DataOutputStream pairOut = new DataOutputStream(pairBytes);
+    DataOutputStream tupleOut = new DataOutputStream(tupleBytes);
+    int[] pairOffsets = new int[numKeys];
+    int[] tupleOffsets = new int[numKeys];
+    PairOfStringInt pair = new PairOfStringInt();
+    TupleKey key = new TupleKey();
+    for (int i = 0; i < numKeys; i++) {
+      pair.set(vocabulary[r.nextInt(VOCABULARY)], r.nextInt(1000));
+      pairOffsets[i] = pairOut.size();
+      pair.write(pairOut);
+      tupleOffsets[i] = tupleOut.size();
+      pair.appendTo(key.clear()).write(tupleOut);
+    }
+    Keys pairs = new Keys(pairBytes, pairOffsets);
+    Keys tuples = new Keys(tupleBytes, tupleOffsets);
+    System.out.println(String.format("Serialized: %d bytes as pairs, %d bytes as tuple keys",
+        pairs.bytes.length, tuples.bytes.length));
+
+    WritableComparator pairComparator = new PairOfStringInt.Comparator();
+    WritableComparator tupleComparator = new TupleKey.Comparator();
+    for (int t = 0; t < TRIALS; t++) {
+      // The first trial is a warmup.
+      System.out.println(String.format("Trial %d: pairs %.1f ms, tuple keys %.1f ms, "
+          + "tuple key prefixes %.1f ms", t, sort(pairs, pairComparator, false) / 1e6,
+          sort(tuples, tupleComparator, false) / 1e6, sort(tuples, tupleComparator, true) / 1e6));
+    }
+  }
+}
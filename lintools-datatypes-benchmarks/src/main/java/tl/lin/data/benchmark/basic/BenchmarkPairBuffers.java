@@ -0,0 +1,120 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.benchmark.basic;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import tl.lin.data.benchmark.MemoryUsageUtils;
+import tl.lin.data.pair.PairOfInts;
+import tl.lin.data.pair.PairOfIntsBuffer;
+
+/**
+ * <p>
+ * Benchmark for {@link PairOfIntsBuffer}, on the task of {@link BenchmarkPairOfInts}: random pairs
+ * of ints between 0 and 1000 are added to an <code>ArrayList</code> of {@link PairOfInts} and to a
+ * buffer, and sorted. The time to add, sort, and sum the right elements group by group, and the
+ * memory held by each representation, are reported.
+ * </p>
+ *
+ * <p>
+ * Usage: {@code BenchmarkPairBuffers [number of pairs]}
+ * </p>
+ */
+public class BenchmarkPairBuffers {
+  private static final int TRIALS = 5;
+
+  private BenchmarkPairBuffers() {
+  }
+
+  private static long usedMemory() {
+    MemoryUsageUtils.gc();
+    return MemoryUsageUtils.getUsedMemory();
+  }
+
+  /**
+   * Runs this benchmark.
+   */
+  public static void main(String[] args) {
+    int numPairs = args.length > 0 ? Integer.parseInt(args[0]) : 2000000;
+    System.out.println("Number of pairs: " + numPairs);
+
+    Random r = new Random();
+    int[] lefts = new int[numPairs];
+    int[] rights = new int[numPairs];
+    for (int i = 0; i < numPairs; i++) {
+      lefts[i] = r.nextInt(1000);
+      rights[i] = r.nextInt(1000);
+    }
+
+    for (int t = 0; t < TRIALS; t++) {
+      // The first trial is a warmup.
+      long usedMemory = usedMemory();
+      long start = System.nanoTime();
+      List<PairOfInts> list = new ArrayList<PairOfInts>();
+      for (int i = 0; i < numPairs; i++) {
+        list.add(new PairOfInts(lefts[i], rights[i]));
+      }
+      long added = System.nanoTime();
+      Collections.sort(list);
+      long sorted = System.nanoTime();
+      long sum = 0;
+      for (int i = 0; i < numPairs;) {
+        int left = list.get(i).getLeftElement();
+        int j = i;
+        while (j < numPairs && list.get(j).getLeftElement() == left) {
+          sum += list.get(j++).getRightElement();
+        }
+        i = j;
+      }
+      long grouped = System.nanoTime();
+      long listMemory = usedMemory() - usedMemory;
+      System.out.println(String.format("Trial %d: list   add %6.1f ms, sort %6.1f ms, "
+          + "group %5.1f ms, %5.1f bytes/pair (sum %d)", t, (added - start) / 1e6,
+          (sorted - added) / 1e6, (grouped - sorted) / 1e6, (double) listMemory / list.size(),
+          sum));
+      list = null;
+
+      usedMemory = usedMemory();
+      start = System.nanoTime();
+      PairOfIntsBuffer buffer = new PairOfIntsBuffer();
+      for (int i = 0; i < numPairs; i++) {
+        buffer.add(lefts[i], rights[i]);
+      }
+      added = System.nanoTime();
+      buffer.sort();
+      sorted = System.nanoTime();
+      sum = 0;
+      for (int i = 0; i < numPairs;) {
+        int end = buffer.groupEnd(i);
+        for (int j = i; j < end; j++) {
+          sum += buffer.getRightElement(j);
+        }
+        i = end;
+      }
+      grouped = System.nanoTime();
+      long bufferMemory = usedMemory() - usedMemory;
+      System.out.println(String.format("Trial %d: buffer add %6.1f ms, sort %6.1f ms, "
+          + "group %5.1f ms, %5.1f bytes/pair (sum %d)", t, (added - start) / 1e6,
+          (sorted - added) / 1e6, (grouped - sorted) / 1e6, (double) bufferMemory / buffer.size(),
+          sum));
+      buffer = null;
+    }
+  }
+}
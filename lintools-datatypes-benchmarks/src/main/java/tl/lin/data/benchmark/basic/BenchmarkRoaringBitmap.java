@@ -0,0 +1,136 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.benchmark.basic;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import tl.lin.data.array.ArrayListOfInts;
+import tl.lin.data.array.RoaringBitmapWritable;
+
+/**
+ * <p>
+ * Benchmark for intersecting docid sets stored as {@link RoaringBitmapWritable} and as sorted
+ * {@link ArrayListOfInts}, at various densities. For each density, two random sets over the same
+ * range of docids are intersected repeatedly, both materializing the result and (for bitmaps)
+ * only counting it, and random membership tests are timed with
+ * {@link RoaringBitmapWritable#contains(int)} against binary search in the sorted list. The
+ * serialized size of both representations is reported as well.
+ * </p>
+ *
+ * <p>
+ * Usage: {@code BenchmarkRoaringBitmap [number of docids] [repetitions]}
+ * </p>
+ */
+public class BenchmarkRoaringBitmap {
+  private static final int TRIALS = 5;
+  private static final double[] DENSITIES = new double[] { 0.001, 0.01, 0.1, 0.5 };
+  private static final int LOOKUPS = 1000000;
+
+  private BenchmarkRoaringBitmap() {
+  }
+
+  private static ArrayListOfInts randomSet(Random r, int numDocs, double density) {
+    ArrayListOfInts list = new ArrayListOfInts();
+    for (int i = 0; i < numDocs; i++) {
+      if (r.nextDouble() < density) {
+        list.add(i);
+      }
+    }
+    return list;
+  }
+
+  private static void print(String name, long nanos, int repetitions) {
+    System.out.println(String.format("  %-24s %10.3f ms/op", name, nanos / 1e6 / repetitions));
+  }
+
+  /**
+   * Runs this benchmark.
+   */
+  public static void main(String[] args) {
+    int numDocs = args.length > 0 ? Integer.parseInt(args[0]) : 1 << 23;
+    int repetitions = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+    System.out.println("Number of docids: " + numDocs + ", repetitions: " + repetitions);
+
+    Random r = new Random();
+    int[] probes = new int[LOOKUPS];
+    for (int i = 0; i < LOOKUPS; i++) {
+      probes[i] = r.nextInt(numDocs);
+    }
+
+    for (double density : DENSITIES) {
+      ArrayListOfInts x = randomSet(r, numDocs, density);
+      ArrayListOfInts y = randomSet(r, numDocs, density);
+      RoaringBitmapWritable a = new RoaringBitmapWritable(x);
+      RoaringBitmapWritable b = new RoaringBitmapWritable(y);
+      System.out.println(String.format("Density %.3f: %d and %d docids; %d vs. %d bytes serialized",
+          density, x.size(), y.size(), 4 + 4L * x.size(), a.getSerializedSize()));
+
+      ArrayListOfInts result = new ArrayListOfInts();
+      long count = 0;
+      long startTime;
+
+      // The first trial serves as warmup.
+      for (int t = 0; t < TRIALS; t++) {
+        System.out.println(" Trial " + t + (t == 0 ? " (warmup)" : ""));
+
+        startTime = System.nanoTime();
+        for (int i = 0; i < repetitions; i++) {
+          x.intersection(y, result);
+        }
+        print("list intersection", System.nanoTime() - startTime, repetitions);
+
+        startTime = System.nanoTime();
+        for (int i = 0; i < repetitions; i++) {
+          count = RoaringBitmapWritable.and(a, b).getCardinality();
+        }
+        print("bitmap and", System.nanoTime() - startTime, repetitions);
+
+        startTime = System.nanoTime();
+        for (int i = 0; i < repetitions; i++) {
+          count = RoaringBitmapWritable.andCardinality(a, b);
+        }
+        print("bitmap andCardinality", System.nanoTime() - startTime, repetitions);
+
+        int found = 0;
+        int[] array = x.getArray();
+        startTime = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+          if (Arrays.binarySearch(array, 0, x.size(), probes[i]) >= 0) {
+            found++;
+          }
+        }
+        System.out.println(String.format("  %-24s %10.1f ns/op", "list binary search",
+            (double) (System.nanoTime() - startTime) / LOOKUPS));
+
+        int foundBitmap = 0;
+        startTime = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+          if (a.contains(probes[i])) {
+            foundBitmap++;
+          }
+        }
+        System.out.println(String.format("  %-24s %10.1f ns/op", "bitmap contains",
+            (double) (System.nanoTime() - startTime) / LOOKUPS));
+
+        if (count != result.size() || found != foundBitmap) {
+          throw new RuntimeException("Bitmaps and lists disagree!");
+        }
+      }
+    }
+  }
+}
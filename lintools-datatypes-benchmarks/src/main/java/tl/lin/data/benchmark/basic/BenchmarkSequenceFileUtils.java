@@ -0,0 +1,146 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package tl.lin.data.benchmark.basic;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.SequenceFile;
+
+import tl.lin.data.array.ArrayListOfIntsWritable;
+import tl.lin.data.pair.PairOfWritables;
+import tl.lin.data.util.SequenceFileIterator;
+import tl.lin.data.util.SequenceFileUtils;
+
+/**
+ * <p>
+ * Benchmark for reading a {@code SequenceFile} with {@link SequenceFileUtils}: materializing all
+ * pairs with {@link SequenceFileUtils#readFile(Path, FileSystem)} is compared to streaming them
+ * with {@link SequenceFileUtils#iterateFile(Path, FileSystem, boolean)}, both in copy mode and
+ * with reused keys and values. Each record is a small array of ints, whose elements are summed.
+ * The memory retained by the materialized list, which the streaming readers do not need, is
+ * reported as well.
+ * </p>
+ *
+ * <p>
+ * Usage: {@code BenchmarkSequenceFileUtils [number of records]}
+ * </p>
+ */
+public class BenchmarkSequenceFileUtils {
+  private static final int TRIALS = 5;
+  private static final int VALUE_LENGTH = 16;
+
+  private BenchmarkSequenceFileUtils() {
+  }
+
+  private static long sum(ArrayListOfIntsWritable value) {
+    long sum = 0;
+    for (int i = 0; i < value.size(); i++) {
+      sum += value.get(i);
+    }
+    return sum;
+  }
+
+  private static long usedMemory() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  private static long iterate(Path path, FileSystem fs, boolean copy) throws IOException {
+    long sum = 0;
+    SequenceFileIterator<IntWritable, ArrayListOfIntsWritable> iter =
+        SequenceFileUtils.<IntWritable, ArrayListOfIntsWritable> iterateFile(path, fs, copy);
+    try {
+      while (iter.hasNext()) {
+        PairOfWritables<IntWritable, ArrayListOfIntsWritable> pair = iter.next();
+        sum += pair.getKey().get() + sum(pair.getValue());
+      }
+    } finally {
+      iter.close();
+    }
+    return sum;
+  }
+
+  /**
+   * Runs this benchmark.
+   */
+  public static void main(String[] args) throws IOException {
+    int numRecords = args.length > 0 ? Integer.parseInt(args[0]) : 2000000;
+    System.out.println("Number of records: " + numRecords);
+
+    FileSystem fs = FileSystem.get(new Configuration());
+    File file = File.createTempFile("BenchmarkSequenceFileUtils", ".seq");
+    file.deleteOnExit();
+    Path path = new Path(file.getAbsolutePath());
+
+    SequenceFile.Writer w = SequenceFile.createWriter(fs, fs.getConf(), path, IntWritable.class,
+        ArrayListOfIntsWritable.class);
+    IntWritable key = new IntWritable();
+    ArrayListOfIntsWritable value = new ArrayListOfIntsWritable(VALUE_LENGTH);
+    for (int i = 0; i < numRecords; i++) {
+      key.set(i);
+      value.clear();
+      for (int j = 0; j < VALUE_LENGTH; j++) {
+        value.add(i ^ j);
+      }
+      w.append(key, value);
+    }
+    w.close();
+
+    for (int t = 0; t < TRIALS; t++) {
+      // The first trial is a warmup.
+      long before = usedMemory();
+      long start = System.nanoTime();
+      List<PairOfWritables<IntWritable, ArrayListOfIntsWritable>> pairs =
+          SequenceFileUtils.<IntWritable, ArrayListOfIntsWritable> readFile(path, fs);
+      long listSum = 0;
+      for (PairOfWritables<IntWritable, ArrayListOfIntsWritable> pair : pairs) {
+        listSum += pair.getKey().get() + sum(pair.getValue());
+      }
+      long listTime = System.nanoTime() - start;
+      long retained = usedMemory() - before;
+      if (pairs.size() != numRecords) {
+        throw new IllegalStateException("Records are missing!");
+      }
+      pairs = null;
+
+      start = System.nanoTime();
+      long copySum = iterate(path, fs, true);
+      long copyTime = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      long reuseSum = iterate(path, fs, false);
+      long reuseTime = System.nanoTime() - start;
+
+      if (listSum != copySum || listSum != reuseSum) {
+        throw new IllegalStateException("Results differ!");
+      }
+      System.out.println(String.format("Trial %d: readFile %.1f ms (retains %.1f MB), "
+          + "iterateFile copying %.1f ms, iterateFile reusing %.1f ms", t, listTime / 1e6,
+          retained / 1e6, copyTime / 1e6, reuseTime / 1e6));
+    }
+  }
+}
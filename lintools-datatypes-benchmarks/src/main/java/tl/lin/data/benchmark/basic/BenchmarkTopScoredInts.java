@@ -0,0 +1,116 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.benchmark.basic;
+
+import org.apache.hadoop.util.PriorityQueue;
+
+import tl.lin.data.pair.PairOfIntFloat;
+import tl.lin.data.queue.TopScoredInts;
+
+/**
+ * <p>
+ * Benchmark for {@link TopScoredInts}: keeps the top <i>k</i> of a stream of candidates with
+ * random scores, e.g., documents scored against a query. It is compared to a bounded Hadoop
+ * {@link PriorityQueue} of {@link PairOfIntFloat}, which allocates one pair per candidate, even
+ * for candidates that are rejected right away, and to splitting the stream into chunks whose
+ * results are combined with {@link TopScoredInts#merge(TopScoredInts)}, as separate threads or
+ * mappers would.
+ * </p>
+ *
+ * <p>
+ * Usage: {@code BenchmarkTopScoredInts [number of candidates] [k]}
+ * </p>
+ */
+public class BenchmarkTopScoredInts {
+  private static final int TRIALS = 5;
+  private static final int CHUNKS = 8;
+
+  private BenchmarkTopScoredInts() {
+  }
+
+  private static class PairQueue extends PriorityQueue<PairOfIntFloat> {
+    private PairQueue(int maxSize) {
+      initialize(maxSize);
+    }
+
+    @Override
+    protected boolean lessThan(Object obj0, Object obj1) {
+      PairOfIntFloat p0 = (PairOfIntFloat) obj0;
+      PairOfIntFloat p1 = (PairOfIntFloat) obj1;
+      if (p0.getRightElement() == p1.getRightElement()) {
+        return p0.getLeftElement() < p1.getLeftElement();
+      }
+      return p0.getRightElement() < p1.getRightElement();
+    }
+  }
+
+  // Random score of a candidate, from a xorshift generator, so that candidates need not be stored.
+  private static float score(long x) {
+    x ^= x << 13;
+    x ^= x >>> 7;
+    x ^= x << 17;
+    return (x >>> 40) * 0x1p-24f;
+  }
+
+  /**
+   * Runs this benchmark.
+   */
+  public static void main(String[] args) {
+    int numCandidates = args.length > 0 ? Integer.parseInt(args[0]) : 100000000;
+    int k = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+    System.out.println("Number of candidates: " + numCandidates + ", k: " + k);
+
+    for (int t = 0; t < TRIALS; t++) {
+      // The first trial is a warmup.
+      long start = System.nanoTime();
+      PairQueue queue = new PairQueue(k);
+      for (int i = 0; i < numCandidates; i++) {
+        queue.insert(new PairOfIntFloat(i, score(i + 1)));
+      }
+      long queueTime = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      TopScoredInts top = new TopScoredInts(k);
+      for (int i = 0; i < numCandidates; i++) {
+        top.add(i, score(i + 1));
+      }
+      long topTime = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      TopScoredInts merged = new TopScoredInts(k);
+      int chunk = (numCandidates + CHUNKS - 1) / CHUNKS;
+      for (int c = 0; c < numCandidates; c += chunk) {
+        TopScoredInts part = new TopScoredInts(k);
+        int end = Math.min(numCandidates, c + chunk);
+        for (int i = c; i < end; i++) {
+          part.add(i, score(i + 1));
+        }
+        merged.merge(part);
+      }
+      long mergedTime = System.nanoTime() - start;
+
+      if (queue.top().getRightElement() != top.extractAll()[k - 1].getRightElement()
+          || top.extractAll()[0].getLeftElement() != merged.extractAll()[0].getLeftElement()) {
+        throw new IllegalStateException("Results differ!");
+      }
+      System.out.println(String.format("Trial %d: PriorityQueue %.1f ms (%.1f M/s), "
+          + "TopScoredInts %.1f ms (%.1f M/s), %d merged chunks %.1f ms", t, queueTime / 1e6,
+          numCandidates * 1e3 / queueTime, topTime / 1e6, numCandidates * 1e3 / topTime, CHUNKS,
+          mergedTime / 1e6));
+    }
+  }
+}
@@ -0,0 +1,134 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.benchmark.basic;
+
+import java.util.Random;
+
+import tl.lin.data.array.VectorMath;
+
+/**
+ * <p>
+ * Benchmark for the vector kernels in {@link VectorMath}, against simple loops. The first part
+ * computes dot products and cosine similarities between pairs of vectors; the second scores a
+ * query against every row of a matrix by cosine similarity, as in brute-force nearest neighbor
+ * search over embeddings, first with one {@link VectorMath#cosine} call per row and then with the
+ * batched {@link VectorMath#cosines}, which does not recompute the norm of the query.
+ * </p>
+ *
+ * <p>
+ * Usage: {@code BenchmarkVectorMath [dimension] [number of rows]}
+ * </p>
+ */
+public class BenchmarkVectorMath {
+  private static final int TRIALS = 5;
+
+  private BenchmarkVectorMath() {
+  }
+
+  private static float simpleDot(float[] a, int aOff, float[] b, int bOff, int len) {
+    float sum = 0;
+    for (int i = 0; i < len; i++) {
+      sum += a[aOff + i] * b[bOff + i];
+    }
+    return sum;
+  }
+
+  private static float simpleCosine(float[] a, int aOff, float[] b, int bOff, int len) {
+    float ab = 0, aa = 0, bb = 0;
+    for (int i = 0; i < len; i++) {
+      ab += a[aOff + i] * b[bOff + i];
+      aa += a[aOff + i] * a[aOff + i];
+      bb += b[bOff + i] * b[bOff + i];
+    }
+    double denominator = Math.sqrt((double) aa * bb);
+    return denominator == 0 ? 0 : (float) (ab / denominator);
+  }
+
+  private static void print(String name, long nanos, long operations, double checksum) {
+    System.out.println(String.format("%-16s %8.1f ms, %8.2f ns/op (checksum %.4g)", name,
+        nanos / 1e6, (double) nanos / operations, checksum));
+  }
+
+  /**
+   * Runs this benchmark.
+   */
+  public static void main(String[] args) {
+    int dim = args.length > 0 ? Integer.parseInt(args[0]) : 256;
+    int numRows = args.length > 1 ? Integer.parseInt(args[1]) : 100000;
+    System.out.println("Dimension: " + dim + ", number of rows: " + numRows);
+
+    Random r = new Random();
+    float[] matrix = new float[dim * numRows];
+    for (int i = 0; i < matrix.length; i++) {
+      matrix[i] = (float) r.nextGaussian();
+    }
+    float[] query = new float[dim];
+    for (int i = 0; i < dim; i++) {
+      query[i] = (float) r.nextGaussian();
+    }
+    float[] scores = new float[numRows];
+
+    // The first trial serves as warmup.
+    for (int t = 0; t < TRIALS; t++) {
+      System.out.println("Trial " + t + (t == 0 ? " (warmup)" : ""));
+      double checksum;
+      long startTime;
+
+      // Pairs of consecutive rows.
+      checksum = 0;
+      startTime = System.nanoTime();
+      for (int i = 1; i < numRows; i++) {
+        checksum += simpleDot(matrix, (i - 1) * dim, matrix, i * dim, dim);
+      }
+      print("dot, simple", System.nanoTime() - startTime, numRows - 1, checksum);
+
+      checksum = 0;
+      startTime = System.nanoTime();
+      for (int i = 1; i < numRows; i++) {
+        checksum += VectorMath.dot(matrix, (i - 1) * dim, matrix, i * dim, dim);
+      }
+      print("dot, unrolled", System.nanoTime() - startTime, numRows - 1, checksum);
+
+      checksum = 0;
+      startTime = System.nanoTime();
+      for (int i = 1; i < numRows; i++) {
+        checksum += simpleCosine(matrix, (i - 1) * dim, matrix, i * dim, dim);
+      }
+      print("cosine, simple", System.nanoTime() - startTime, numRows - 1, checksum);
+
+      checksum = 0;
+      startTime = System.nanoTime();
+      for (int i = 1; i < numRows; i++) {
+        checksum += VectorMath.cosine(matrix, (i - 1) * dim, matrix, i * dim, dim);
+      }
+      print("cosine, unrolled", System.nanoTime() - startTime, numRows - 1, checksum);
+
+      // One query against all rows.
+      startTime = System.nanoTime();
+      for (int i = 0; i < numRows; i++) {
+        scores[i] = VectorMath.cosine(query, 0, matrix, i * dim, dim);
+      }
+      long duration = System.nanoTime() - startTime;
+      print("query, per row", duration, numRows, scores[VectorMath.argmax(scores, 0, numRows)]);
+
+      startTime = System.nanoTime();
+      VectorMath.cosines(query, 0, matrix, 0, dim, numRows, scores, 0);
+      duration = System.nanoTime() - startTime;
+      print("query, batched", duration, numRows, scores[VectorMath.argmax(scores, 0, numRows)]);
+    }
+  }
+}
@@ -23,9 +23,12 @@ import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.util.Arrays;
 
+import tl.lin.data.fd.FrequencyDistributionStatistics;
 import tl.lin.data.fd.Int2IntFrequencyDistributionFastutil;
 import tl.lin.data.fd.Int2LongFrequencyDistributionFastutil;
+import tl.lin.data.pair.PairOfIntLong;
 import tl.lin.data.pair.PairOfInts;
 
 /**
@@ -39,6 +42,11 @@ public class Int2IntConditionalFrequencyDistributionFastutil implements
   private final Int2LongFrequencyDistributionFastutil marginals = new Int2LongFrequencyDistributionFastutil();
 
   private long sumOfAllFrequencies = 0;
+  // Sums of c log c over the counts of (event, condition) pairs, the sums of counts of conditions,
+  // and the marginal counts of events, from which entropies can be computed in constant time.
+  private double sumOfCellCountLogCounts = 0.0;
+  private double sumOfConditionCountLogCounts = 0.0;
+  private double sumOfMarginalCountLogCounts = 0.0;
 
   @Override
   public void set(int k, int cond, int v) {
@@ -46,21 +54,35 @@ public class Int2IntConditionalFrequencyDistributionFastutil implements
       Int2IntFrequencyDistributionFastutil fd = new Int2IntFrequencyDistributionFastutil();
       fd.set(k, v);
       distributions.put(cond, fd);
+      updateStatistics(k, 0, v, 0, v);
       marginals.increment(k, v);
 
       sumOfAllFrequencies += v;
     } else {
       Int2IntFrequencyDistributionFastutil fd = distributions.get(cond);
       int rv = fd.get(k);
+      long condSum = fd.getSumOfCounts();
 
       fd.set(k, v);
       distributions.put(cond, fd);
+      updateStatistics(k, rv, v, condSum, fd.getSumOfCounts());
       marginals.increment(k, -rv + v);
 
       sumOfAllFrequencies = sumOfAllFrequencies - rv + v;
     }
   }
 
+  // Must be called before the marginal count of k is updated.
+  private void updateStatistics(int k, int rv, int v, long condSumBefore, long condSumAfter) {
+    long m = marginals.get(k);
+    sumOfCellCountLogCounts +=
+        FrequencyDistributionStatistics.xlogx(v) - FrequencyDistributionStatistics.xlogx(rv);
+    sumOfConditionCountLogCounts += FrequencyDistributionStatistics.xlogx(condSumAfter)
+        - FrequencyDistributionStatistics.xlogx(condSumBefore);
+    sumOfMarginalCountLogCounts += FrequencyDistributionStatistics.xlogx(m - rv + v)
+        - FrequencyDistributionStatistics.xlogx(m);
+  }
+
   @Override
   public void increment(int k, int cond) {
     increment(k, cond, 1);
@@ -99,11 +121,39 @@ public class Int2IntConditionalFrequencyDistributionFastutil implements
     return new Int2IntFrequencyDistributionFastutil();
   }
 
+  @Override
+  public int[] getConditions() {
+    int[] conditions = distributions.keySet().toIntArray();
+    Arrays.sort(conditions);
+
+    return conditions;
+  }
+
   @Override
   public long getSumOfAllCounts() {
     return sumOfAllFrequencies;
   }
 
+  @Override
+  public double computeConditionalEntropy() {
+    if (sumOfAllFrequencies == 0) {
+      return 0.0;
+    }
+
+    return Math.max(0.0, (sumOfConditionCountLogCounts - sumOfCellCountLogCounts)
+        / sumOfAllFrequencies);
+  }
+
+  @Override
+  public double computeMutualInformation() {
+    if (sumOfAllFrequencies == 0) {
+      return 0.0;
+    }
+
+    return Math.max(0.0, Math.log(sumOfAllFrequencies) - (sumOfMarginalCountLogCounts
+        + sumOfConditionCountLogCounts - sumOfCellCountLogCounts) / sumOfAllFrequencies);
+  }
+
   @Override
   public void check() {
     Int2IntFrequencyDistributionFastutil m = new Int2IntFrequencyDistributionFastutil();
@@ -153,6 +203,24 @@ public class Int2IntConditionalFrequencyDistributionFastutil implements
       map.readFields(in);
       distributions.put(key, map);
     }
+
+    recomputeStatistics();
+  }
+
+  private void recomputeStatistics() {
+    sumOfCellCountLogCounts = 0.0;
+    sumOfConditionCountLogCounts = 0.0;
+    for (Int2IntFrequencyDistributionFastutil fd : distributions.values()) {
+      for (PairOfInts pair : fd) {
+        sumOfCellCountLogCounts += FrequencyDistributionStatistics.xlogx(pair.getRightElement());
+      }
+      sumOfConditionCountLogCounts += FrequencyDistributionStatistics.xlogx(fd.getSumOfCounts());
+    }
+
+    sumOfMarginalCountLogCounts = 0.0;
+    for (PairOfIntLong pair : marginals) {
+      sumOfMarginalCountLogCounts += FrequencyDistributionStatistics.xlogx(pair.getRightElement());
+    }
   }
 
   @Override
@@ -18,6 +18,11 @@ package tl.lin.data.cfd;
 
 import it.unimi.dsi.fastutil.objects.Object2ObjectMap;
 import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+
+import java.util.Collections;
+import java.util.Set;
+
+import tl.lin.data.fd.FrequencyDistributionStatistics;
 import tl.lin.data.fd.Object2IntFrequencyDistribution;
 import tl.lin.data.fd.Object2IntFrequencyDistributionFastutil;
 import tl.lin.data.fd.Object2LongFrequencyDistribution;
@@ -36,6 +41,11 @@ public class Object2IntConditionalFrequencyDistributionFastutil<K extends Compar
   private final Object2LongFrequencyDistribution<K> marginals = new Object2LongFrequencyDistributionFastutil<K>();
 
   private long sumOfAllCounts = 0;
+  // Sums of c log c over the counts of (event, condition) pairs, the sums of counts of conditions,
+  // and the marginal counts of events, from which entropies can be computed in constant time.
+  private double sumOfCellCountLogCounts = 0.0;
+  private double sumOfConditionCountLogCounts = 0.0;
+  private double sumOfMarginalCountLogCounts = 0.0;
 
   @Override
   public void set(K k, K cond, int v) {
@@ -43,21 +53,35 @@ public class Object2IntConditionalFrequencyDistributionFastutil<K extends Compar
       Object2IntFrequencyDistributionFastutil<K> fd = new Object2IntFrequencyDistributionFastutil<K>();
       fd.set(k, v);
       distributions.put(cond, fd);
+      updateStatistics(k, 0, v, 0, v);
       marginals.increment(k, v);
 
       sumOfAllCounts += v;
     } else {
       Object2IntFrequencyDistribution<K> fd = distributions.get(cond);
       int rv = fd.get(k);
+      long condSum = fd.getSumOfCounts();
 
       fd.set(k, v);
       distributions.put(cond, fd);
+      updateStatistics(k, rv, v, condSum, fd.getSumOfCounts());
       marginals.increment(k, -rv + v);
 
       sumOfAllCounts = sumOfAllCounts - rv + v;
     }
   }
 
+  // Must be called before the marginal count of k is updated.
+  private void updateStatistics(K k, int rv, int v, long condSumBefore, long condSumAfter) {
+    long m = marginals.get(k);
+    sumOfCellCountLogCounts +=
+        FrequencyDistributionStatistics.xlogx(v) - FrequencyDistributionStatistics.xlogx(rv);
+    sumOfConditionCountLogCounts += FrequencyDistributionStatistics.xlogx(condSumAfter)
+        - FrequencyDistributionStatistics.xlogx(condSumBefore);
+    sumOfMarginalCountLogCounts += FrequencyDistributionStatistics.xlogx(m - rv + v)
+        - FrequencyDistributionStatistics.xlogx(m);
+  }
+
   @Override
   public void increment(K k, K cond) {
     increment(k, cond, 1);
@@ -96,11 +120,36 @@ public class Object2IntConditionalFrequencyDistributionFastutil<K extends Compar
     return new Object2IntFrequencyDistributionFastutil<K>();
   }
 
+  @Override
+  public Set<K> getConditions() {
+    return Collections.unmodifiableSet(distributions.keySet());
+  }
+
   @Override
   public long getSumOfAllCounts() {
     return sumOfAllCounts;
   }
 
+  @Override
+  public double computeConditionalEntropy() {
+    if (sumOfAllCounts == 0) {
+      return 0.0;
+    }
+
+    return Math.max(0.0, (sumOfConditionCountLogCounts - sumOfCellCountLogCounts)
+        / sumOfAllCounts);
+  }
+
+  @Override
+  public double computeMutualInformation() {
+    if (sumOfAllCounts == 0) {
+      return 0.0;
+    }
+
+    return Math.max(0.0, Math.log(sumOfAllCounts) - (sumOfMarginalCountLogCounts
+        + sumOfConditionCountLogCounts - sumOfCellCountLogCounts) / sumOfAllCounts);
+  }
+
   @Override
   public void check() {
     Object2IntFrequencyDistributionFastutil<K> m = new Object2IntFrequencyDistributionFastutil<K>();
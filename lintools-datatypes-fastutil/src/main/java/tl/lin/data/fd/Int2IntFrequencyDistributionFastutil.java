@@ -19,6 +19,7 @@ package tl.lin.data.fd;
 import it.unimi.dsi.fastutil.ints.Int2IntMap;
 import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
 import it.unimi.dsi.fastutil.ints.IntCollection;
+import it.unimi.dsi.fastutil.ints.IntIterator;
 import it.unimi.dsi.fastutil.ints.IntSet;
 
 import java.io.DataInput;
@@ -40,6 +41,7 @@ import com.google.common.collect.Lists;
 public class Int2IntFrequencyDistributionFastutil implements Int2IntFrequencyDistribution {
   private Int2IntOpenHashMapWritable counts = new Int2IntOpenHashMapWritable();
   private long sumOfCounts = 0;
+  private double sumOfCountLogCounts = 0.0;
 
   @Override
   public void increment(int key) {
@@ -109,10 +111,22 @@ public class Int2IntFrequencyDistributionFastutil implements Int2IntFrequencyDis
     return Math.log(counts.get(k)) - Math.log(getSumOfCounts());
   }
 
+  @Override
+  public FrozenInt2LogProbabilityTable freeze() {
+    return freeze(Double.NEGATIVE_INFINITY, false);
+  }
+
+  @Override
+  public FrozenInt2LogProbabilityTable freeze(double defaultLogProbability, boolean quantize) {
+    return FrozenInt2LogProbabilityTable.freeze(this, defaultLogProbability, quantize);
+  }
+
   @Override
   public int set(int key, int cnt) {
     int rv = counts.put(key, cnt);
     sumOfCounts = sumOfCounts - rv + cnt;
+    sumOfCountLogCounts +=
+        FrequencyDistributionStatistics.xlogx(cnt) - FrequencyDistributionStatistics.xlogx(rv);
 
     return rv;
   }
@@ -121,6 +135,7 @@ public class Int2IntFrequencyDistributionFastutil implements Int2IntFrequencyDis
   public int remove(int key) {
     int rv = counts.remove(key);
     sumOfCounts -= rv;
+    sumOfCountLogCounts -= FrequencyDistributionStatistics.xlogx(rv);
 
     return rv;
   }
@@ -129,6 +144,7 @@ public class Int2IntFrequencyDistributionFastutil implements Int2IntFrequencyDis
   public void clear() {
     counts.clear();
     sumOfCounts = 0;
+    sumOfCountLogCounts = 0.0;
   }
 
   /**
@@ -162,6 +178,11 @@ public class Int2IntFrequencyDistributionFastutil implements Int2IntFrequencyDis
     return sumOfCounts;
   }
 
+  @Override
+  public double computeEntropy() {
+    return FrequencyDistributionStatistics.entropy(sumOfCounts, sumOfCountLogCounts);
+  }
+
   /**
    * Iterator returns the same object every time, just with a different payload.
    */
@@ -308,6 +329,12 @@ public class Int2IntFrequencyDistributionFastutil implements Int2IntFrequencyDis
   public void readFields(DataInput in) throws IOException {
     sumOfCounts = in.readLong();
     counts.readFields(in);
+
+    sumOfCountLogCounts = 0.0;
+    IntIterator iter = counts.values().iterator();
+    while (iter.hasNext()) {
+      sumOfCountLogCounts += FrequencyDistributionStatistics.xlogx(iter.nextInt());
+    }
   }
 
   @Override
@@ -20,6 +20,7 @@ import it.unimi.dsi.fastutil.ints.Int2LongMap;
 import it.unimi.dsi.fastutil.ints.Int2LongOpenHashMap;
 import it.unimi.dsi.fastutil.ints.IntSet;
 import it.unimi.dsi.fastutil.longs.LongCollection;
+import it.unimi.dsi.fastutil.longs.LongIterator;
 
 import java.io.DataInput;
 import java.io.DataOutput;
@@ -40,6 +41,7 @@ import com.google.common.collect.Lists;
 public class Int2LongFrequencyDistributionFastutil implements Int2LongFrequencyDistribution {
   private Int2LongOpenHashMapWritable counts = new Int2LongOpenHashMapWritable();
   private long sumOfCounts = 0;
+  private double sumOfCountLogCounts = 0.0;
 
   @Override
   public void increment(int key) {
@@ -109,10 +111,22 @@ public class Int2LongFrequencyDistributionFastutil implements Int2LongFrequencyD
     return Math.log(counts.get(k)) - Math.log(getSumOfCounts());
   }
 
+  @Override
+  public FrozenInt2LogProbabilityTable freeze() {
+    return freeze(Double.NEGATIVE_INFINITY, false);
+  }
+
+  @Override
+  public FrozenInt2LogProbabilityTable freeze(double defaultLogProbability, boolean quantize) {
+    return FrozenInt2LogProbabilityTable.freeze(this, defaultLogProbability, quantize);
+  }
+
   @Override
   public long set(int k, long v) {
     long rv = counts.put(k, v);
     sumOfCounts = sumOfCounts - rv + v;
+    sumOfCountLogCounts +=
+        FrequencyDistributionStatistics.xlogx(v) - FrequencyDistributionStatistics.xlogx(rv);
 
     return rv;
   }
@@ -121,6 +135,7 @@ public class Int2LongFrequencyDistributionFastutil implements Int2LongFrequencyD
   public long remove(int k) {
     long rv = counts.remove(k);
     sumOfCounts -= rv;
+    sumOfCountLogCounts -= FrequencyDistributionStatistics.xlogx(rv);
 
     return rv;
   }
@@ -129,6 +144,7 @@ public class Int2LongFrequencyDistributionFastutil implements Int2LongFrequencyD
   public void clear() {
     counts.clear();
     sumOfCounts = 0;
+    sumOfCountLogCounts = 0.0;
   }
 
   /**
@@ -162,6 +178,11 @@ public class Int2LongFrequencyDistributionFastutil implements Int2LongFrequencyD
     return sumOfCounts;
   }
 
+  @Override
+  public double computeEntropy() {
+    return FrequencyDistributionStatistics.entropy(sumOfCounts, sumOfCountLogCounts);
+  }
+
   /**
    * Iterator returns the same object every time, just with a different payload.
    */
@@ -308,6 +329,12 @@ public class Int2LongFrequencyDistributionFastutil implements Int2LongFrequencyD
   public void readFields(DataInput in) throws IOException {
     sumOfCounts = in.readLong();
     counts.readFields(in);
+
+    sumOfCountLogCounts = 0.0;
+    LongIterator iter = counts.values().iterator();
+    while (iter.hasNext()) {
+      sumOfCountLogCounts += FrequencyDistributionStatistics.xlogx(iter.nextLong());
+    }
   }
 
   @Override
@@ -38,6 +38,7 @@ public class Object2IntFrequencyDistributionFastutil<K extends Comparable<K>>
 
   private Object2IntOpenHashMap<K> counts = new Object2IntOpenHashMap<K>();
   private long sumOfCounts = 0;
+  private double sumOfCountLogCounts = 0.0;
 
   @Override
   public void increment(K key) {
@@ -99,10 +100,23 @@ public class Object2IntFrequencyDistributionFastutil<K extends Comparable<K>>
     return Math.log(counts.getInt(k)) - Math.log(getSumOfCounts());
   }
 
+  @Override
+  public FrozenObject2LogProbabilityTable<K> freeze() {
+    return freeze(Double.NEGATIVE_INFINITY, false);
+  }
+
+  @Override
+  public FrozenObject2LogProbabilityTable<K> freeze(double defaultLogProbability,
+      boolean quantize) {
+    return FrozenObject2LogProbabilityTable.freeze(this, defaultLogProbability, quantize);
+  }
+
   @Override
   public int set(K k, int v) {
     int rv = counts.put(k, v);
     sumOfCounts = sumOfCounts - rv + v;
+    sumOfCountLogCounts +=
+        FrequencyDistributionStatistics.xlogx(v) - FrequencyDistributionStatistics.xlogx(rv);
 
     return rv;
   }
@@ -111,6 +125,7 @@ public class Object2IntFrequencyDistributionFastutil<K extends Comparable<K>>
   public int remove(K k) {
     int rv = counts.remove(k);
     sumOfCounts -= rv;
+    sumOfCountLogCounts -= FrequencyDistributionStatistics.xlogx(rv);
 
     return rv;
   }
@@ -119,6 +134,7 @@ public class Object2IntFrequencyDistributionFastutil<K extends Comparable<K>>
   public void clear() {
     counts.clear();
     sumOfCounts = 0;
+    sumOfCountLogCounts = 0.0;
   }
 
   /**
@@ -153,6 +169,11 @@ public class Object2IntFrequencyDistributionFastutil<K extends Comparable<K>>
     return sumOfCounts;
   }
 
+  @Override
+  public double computeEntropy() {
+    return FrequencyDistributionStatistics.entropy(sumOfCounts, sumOfCountLogCounts);
+  }
+
   @Override
   public Set<K> keySet() {
     return counts.keySet();
@@ -290,10 +311,13 @@ public class Object2IntFrequencyDistributionFastutil<K extends Comparable<K>>
 
     fd.counts = map;
     long cnt = 0;
+    double cntLogCnt = 0.0;
     for (Object2IntMap.Entry<T> entry : map.object2IntEntrySet()) {
       cnt += entry.getIntValue();
+      cntLogCnt += FrequencyDistributionStatistics.xlogx(entry.getIntValue());
     }
     fd.sumOfCounts = cnt;
+    fd.sumOfCountLogCounts = cntLogCnt;
 
     return fd;
   }
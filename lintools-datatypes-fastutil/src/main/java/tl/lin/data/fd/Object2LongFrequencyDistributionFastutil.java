@@ -39,6 +39,7 @@ public class Object2LongFrequencyDistributionFastutil<K extends Comparable<K>>
 
   private Object2LongOpenHashMap<K> counts = new Object2LongOpenHashMap<K>();
   private long sumOfCounts = 0;
+  private double sumOfCountLogCounts = 0.0;
 
   @Override
   public void increment(K key) {
@@ -108,10 +109,23 @@ public class Object2LongFrequencyDistributionFastutil<K extends Comparable<K>>
     return Math.log(counts.get(k)) - Math.log(getSumOfCounts());
   }
 
+  @Override
+  public FrozenObject2LogProbabilityTable<K> freeze() {
+    return freeze(Double.NEGATIVE_INFINITY, false);
+  }
+
+  @Override
+  public FrozenObject2LogProbabilityTable<K> freeze(double defaultLogProbability,
+      boolean quantize) {
+    return FrozenObject2LogProbabilityTable.freeze(this, defaultLogProbability, quantize);
+  }
+
   @Override
   public long set(K k, long v) {
     long rv = counts.put(k, v);
     sumOfCounts = sumOfCounts - rv + v;
+    sumOfCountLogCounts +=
+        FrequencyDistributionStatistics.xlogx(v) - FrequencyDistributionStatistics.xlogx(rv);
 
     return rv;
   }
@@ -120,6 +134,7 @@ public class Object2LongFrequencyDistributionFastutil<K extends Comparable<K>>
   public long remove(K k) {
     long rv = counts.remove(k);
     sumOfCounts -= rv;
+    sumOfCountLogCounts -= FrequencyDistributionStatistics.xlogx(rv);
 
     return rv;
   }
@@ -128,6 +143,7 @@ public class Object2LongFrequencyDistributionFastutil<K extends Comparable<K>>
   public void clear() {
     counts.clear();
     sumOfCounts = 0;
+    sumOfCountLogCounts = 0.0;
   }
 
   /**
@@ -154,6 +170,11 @@ public class Object2LongFrequencyDistributionFastutil<K extends Comparable<K>>
     return sumOfCounts;
   }
 
+  @Override
+  public double computeEntropy() {
+    return FrequencyDistributionStatistics.entropy(sumOfCounts, sumOfCountLogCounts);
+  }
+
   @Override
   public Set<K> keySet() {
     return counts.keySet();
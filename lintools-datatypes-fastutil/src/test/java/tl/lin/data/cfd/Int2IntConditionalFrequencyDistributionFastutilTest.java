@@ -85,6 +85,12 @@ public class Int2IntConditionalFrequencyDistributionFastutilTest extends
     testSerialization(fd, Int2IntConditionalFrequencyDistributionFastutil.class);
   }
 
+  @Test
+  public void testEntropyFastutil() throws Exception {
+    Int2IntConditionalFrequencyDistribution cfd = new Int2IntConditionalFrequencyDistributionFastutil();
+    testEntropyCommon(cfd, Int2IntConditionalFrequencyDistributionFastutil.class);
+  }
+
   public static junit.framework.Test suite() {
     return new JUnit4TestAdapter(
         Int2IntConditionalFrequencyDistributionFastutilTest.class);
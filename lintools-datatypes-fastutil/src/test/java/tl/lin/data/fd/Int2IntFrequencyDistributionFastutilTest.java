@@ -83,6 +83,18 @@ public class Int2IntFrequencyDistributionFastutilTest extends
     testSerialization(fd, Int2IntFrequencyDistributionFastutil.class);
   }
 
+  @Test
+  public void testFreezeFastutil() {
+    Int2IntFrequencyDistribution fd = new Int2IntFrequencyDistributionFastutil();
+    testFreezeCommon(fd);
+  }
+
+  @Test
+  public void testEntropyFastutil() {
+    Int2IntFrequencyDistribution fd = new Int2IntFrequencyDistributionFastutil();
+    testEntropyCommon(fd);
+  }
+
   public static junit.framework.Test suite() {
     return new JUnit4TestAdapter(Int2IntFrequencyDistributionFastutilTest.class);
   }
@@ -86,6 +86,12 @@ public class Object2IntFrequencyDistributionFastutilTest extends
     testIterableCommon(fd);
   }
 
+  @Test
+  public void testFreezeFastutil() {
+    Object2IntFrequencyDistribution<String> fd = new Object2IntFrequencyDistributionFastutil<String>();
+    testFreezeCommon(fd);
+  }
+
   public static junit.framework.Test suite() {
     return new JUnit4TestAdapter(Object2IntFrequencyDistributionFastutilTest.class);
   }
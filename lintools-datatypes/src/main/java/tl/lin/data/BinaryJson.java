@@ -0,0 +1,420 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonPrimitive;
+
+/**
+ * <p>
+ * Compact binary encoding of JSON values, modeled after CBOR (RFC 7049), which is smaller than
+ * JSON text and decodes directly into a Gson tree, without tokenizing text or parsing numbers.
+ * Each value starts with a byte holding its type in the upper three bits and, in the lower five
+ * bits, either a small argument (0 to 23) or the number of bytes (1, 2, 4 or 8) of a big-endian
+ * argument that follows:
+ * </p>
+ *
+ * <ul>
+ * <li>type 0: non-negative integer, the argument;</li>
+ * <li>type 1: negative integer, -1 minus the argument;</li>
+ * <li>type 2: field name that already occurred, the argument being its index in the key
+ * dictionary;</li>
+ * <li>type 3: string, the argument being its length in UTF-8 bytes, which follow;</li>
+ * <li>type 4: array, the argument being its number of elements, which follow;</li>
+ * <li>type 5: object, the argument being its number of fields, which follow as pairs of names
+ * (type 2 or 3) and values;</li>
+ * <li>type 7: false, true and null (arguments 20, 21 and 22), and floats and doubles (arguments
+ * 26 and 27, followed by their four or eight bytes).</li>
+ * </ul>
+ *
+ * <p>
+ * Apart from type 2, this is CBOR. Field names are written in full the first time they occur in a
+ * value, and are then added to the key dictionary, so that names repeated in nested objects, e.g.,
+ * in arrays of objects, take a byte or two. The dictionary can also be seeded with names known in
+ * advance, e.g., the fields of a schema, which are then never written in full; values must be
+ * decoded with the same names they were encoded with.
+ * </p>
+ *
+ * <p>
+ * Integers that fit in a long are encoded as such; other numbers are encoded as floats if that is
+ * exact, and as doubles otherwise. Instances are immutable, hence thread-safe.
+ * </p>
+ */
+public class BinaryJson {
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
+  private static final int UNSIGNED = 0;
+  private static final int NEGATIVE = 1;
+  private static final int KEY = 2;
+  private static final int STRING = 3;
+  private static final int ARRAY = 4;
+  private static final int OBJECT = 5;
+  private static final int SIMPLE = 7;
+
+  private static final int FALSE = 20;
+  private static final int TRUE = 21;
+  private static final int NULL = 22;
+  private static final int FLOAT = 26;
+  private static final int DOUBLE = 27;
+
+  private final String[] keys;
+  private final Map<String, Integer> keyIndex = new HashMap<String, Integer>();
+
+  /**
+   * Creates an encoding with an empty key dictionary.
+   */
+  public BinaryJson() {
+    this(new String[0]);
+  }
+
+  /**
+   * Creates an encoding whose key dictionary is seeded with the specified field names.
+   *
+   * @param keys field names known in advance
+   */
+  public BinaryJson(String... keys) {
+    this.keys = keys.clone();
+    for (int i = 0; i < keys.length; i++) {
+      if (keyIndex.put(keys[i], i) != null) {
+        throw new IllegalArgumentException("Duplicate key " + keys[i] + "!");
+      }
+    }
+  }
+
+  /**
+   * Encodes a value.
+   *
+   * @param value the value
+   * @return the encoded value
+   */
+  public byte[] encode(JsonElement value) {
+    Encoder encoder = new Encoder();
+    encoder.write(value);
+    return Arrays.copyOf(encoder.buf, encoder.len);
+  }
+
+  /**
+   * Decodes a value.
+   *
+   * @param b buffer holding the encoded value
+   * @param off offset of the encoded value
+   * @param len length of the encoded value
+   * @return the value
+   * @throws JsonParseException if the bytes do not hold an encoded value
+   */
+  public JsonElement decode(byte[] b, int off, int len) {
+    Decoder decoder = new Decoder(b, off, off + len);
+    JsonElement value = decoder.read();
+    if (decoder.pos != off + len) {
+      throw new JsonParseException("Trailing bytes after binary JSON value!");
+    }
+    return value;
+  }
+
+  private class Encoder {
+    private byte[] buf = new byte[64];
+    private int len;
+    // Field names written in full so far, beyond the seeded ones.
+    private Map<String, Integer> newKeys;
+
+    private void ensure(int n) {
+      if (len + n > buf.length) {
+        buf = Arrays.copyOf(buf, Math.max(len + n, buf.length * 2));
+      }
+    }
+
+    private void writeHead(int type, long arg) {
+      ensure(9);
+      int t = type << 5;
+      if (arg >= 0 && arg < 24) {
+        buf[len++] = (byte) (t | arg);
+      } else if (arg >= 0 && arg < 0x100) {
+        buf[len++] = (byte) (t | 24);
+        buf[len++] = (byte) arg;
+      } else if (arg >= 0 && arg < 0x10000) {
+        buf[len++] = (byte) (t | 25);
+        writeBytes(arg, 2);
+      } else if (arg >= 0 && arg < 0x100000000L) {
+        buf[len++] = (byte) (t | 26);
+        writeBytes(arg, 4);
+      } else {
+        buf[len++] = (byte) (t | 27);
+        writeBytes(arg, 8);
+      }
+    }
+
+    private void writeBytes(long v, int n) {
+      for (int i = n - 1; i >= 0; i--) {
+        buf[len++] = (byte) (v >>> (8 * i));
+      }
+    }
+
+    private void writeString(int type, String s) {
+      byte[] bytes = s.getBytes(UTF8);
+      writeHead(type, bytes.length);
+      ensure(bytes.length);
+      System.arraycopy(bytes, 0, buf, len, bytes.length);
+      len += bytes.length;
+    }
+
+    private void writeKey(String key) {
+      Integer index = keyIndex.get(key);
+      if (index == null && newKeys != null) {
+        index = newKeys.get(key);
+      }
+      if (index != null) {
+        writeHead(KEY, index);
+        return;
+      }
+
+      if (newKeys == null) {
+        newKeys = new HashMap<String, Integer>();
+      }
+      newKeys.put(key, keys.length + newKeys.size());
+      writeString(STRING, key);
+    }
+
+    private void writeLong(long v) {
+      if (v >= 0) {
+        writeHead(UNSIGNED, v);
+      } else {
+        writeHead(NEGATIVE, -1 - v);
+      }
+    }
+
+    private void writeNumber(Number n) {
+      if (n instanceof Integer || n instanceof Long || n instanceof Short || n instanceof Byte) {
+        writeLong(n.longValue());
+        return;
+      }
+
+      double d;
+      if (n instanceof Double || n instanceof Float) {
+        d = n.doubleValue();
+      } else {
+        // Numbers parsed from text, or big numbers: encode integers exactly, if they fit.
+        String s = n.toString();
+        if (isInteger(s)) {
+          try {
+            writeLong(Long.parseLong(s));
+            return;
+          } catch (NumberFormatException e) {
+            // Too large for a long.
+          }
+        }
+        d = Double.parseDouble(s);
+      }
+
+      float f = (float) d;
+      ensure(9);
+      if (f == d || d != d) {
+        buf[len++] = (byte) (SIMPLE << 5 | FLOAT);
+        writeBytes(Float.floatToIntBits(f), 4);
+      } else {
+        buf[len++] = (byte) (SIMPLE << 5 | DOUBLE);
+        writeBytes(Double.doubleToLongBits(d), 8);
+      }
+    }
+
+    private void write(JsonElement value) {
+      if (value == null || value.isJsonNull()) {
+        writeHead(SIMPLE, NULL);
+      } else if (value.isJsonObject()) {
+        JsonObject obj = value.getAsJsonObject();
+        writeHead(OBJECT, obj.entrySet().size());
+        for (Map.Entry<String, JsonElement> e : obj.entrySet()) {
+          writeKey(e.getKey());
+          write(e.getValue());
+        }
+      } else if (value.isJsonArray()) {
+        JsonArray arr = value.getAsJsonArray();
+        writeHead(ARRAY, arr.size());
+        for (JsonElement e : arr) {
+          write(e);
+        }
+      } else {
+        JsonPrimitive p = value.getAsJsonPrimitive();
+        if (p.isBoolean()) {
+          writeHead(SIMPLE, p.getAsBoolean() ? TRUE : FALSE);
+        } else if (p.isNumber()) {
+          writeNumber(p.getAsNumber());
+        } else {
+          writeString(STRING, p.getAsString());
+        }
+      }
+    }
+  }
+
+  private static boolean isInteger(String s) {
+    int i = s.startsWith("-") ? 1 : 0;
+    if (i == s.length()) {
+      return false;
+    }
+    for (; i < s.length(); i++) {
+      if (s.charAt(i) < '0' || s.charAt(i) > '9') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private class Decoder {
+    private final byte[] b;
+    private final int end;
+    private int pos;
+    // Field names read in full so far, beyond the seeded ones.
+    private List<String> newKeys;
+
+    private Decoder(byte[] b, int off, int end) {
+      this.b = b;
+      this.pos = off;
+      this.end = end;
+    }
+
+    private long readBytes(int n) {
+      if (pos + n > end) {
+        throw new JsonParseException("Truncated binary JSON value!");
+      }
+      long v = 0;
+      for (int i = 0; i < n; i++) {
+        v = (v << 8) | (b[pos++] & 0xff);
+      }
+      return v;
+    }
+
+    private long readArg(int info) {
+      if (info < 24) {
+        return info;
+      }
+      if (info > 27) {
+        throw new JsonParseException("Invalid binary JSON argument " + info + "!");
+      }
+      return readBytes(1 << (info - 24));
+    }
+
+    private int readLength(int info) {
+      long n = readArg(info);
+      if (n < 0 || n > end - pos) {
+        throw new JsonParseException("Invalid binary JSON length " + n + "!");
+      }
+      return (int) n;
+    }
+
+    private String readString(int info) {
+      int n = readLength(info);
+      String s = new String(b, pos, n, UTF8);
+      pos += n;
+      return s;
+    }
+
+    private String readKey() {
+      if (pos >= end) {
+        throw new JsonParseException("Truncated binary JSON value!");
+      }
+      int head = b[pos++] & 0xff;
+      int type = head >>> 5;
+      if (type == STRING) {
+        String key = readString(head & 0x1f);
+        if (newKeys == null) {
+          newKeys = new ArrayList<String>();
+        }
+        newKeys.add(key);
+        return key;
+      }
+      if (type != KEY) {
+        throw new JsonParseException("Invalid binary JSON field name!");
+      }
+
+      long index = readArg(head & 0x1f);
+      if (index >= 0 && index < keys.length) {
+        return keys[(int) index];
+      }
+      if (newKeys == null || index < 0 || index - keys.length >= newKeys.size()) {
+        throw new JsonParseException("Invalid binary JSON key " + index + "!");
+      }
+      return newKeys.get((int) (index - keys.length));
+    }
+
+    private JsonElement read() {
+      if (pos >= end) {
+        throw new JsonParseException("Truncated binary JSON value!");
+      }
+      int head = b[pos++] & 0xff;
+      int info = head & 0x1f;
+      switch (head >>> 5) {
+      case UNSIGNED:
+        return number(readArg(info));
+      case NEGATIVE:
+        return number(-1 - readArg(info));
+      case STRING:
+        return new JsonPrimitive(readString(info));
+      case ARRAY: {
+        int n = readLength(info);
+        JsonArray arr = new JsonArray();
+        for (int i = 0; i < n; i++) {
+          arr.add(read());
+        }
+        return arr;
+      }
+      case OBJECT: {
+        int n = readLength(info);
+        JsonObject obj = new JsonObject();
+        for (int i = 0; i < n; i++) {
+          String key = readKey();
+          obj.add(key, read());
+        }
+        return obj;
+      }
+      case SIMPLE:
+        switch (info) {
+        case FALSE:
+          return new JsonPrimitive(Boolean.FALSE);
+        case TRUE:
+          return new JsonPrimitive(Boolean.TRUE);
+        case NULL:
+          return JsonNull.INSTANCE;
+        case FLOAT:
+          return new JsonPrimitive(Float.intBitsToFloat((int) readBytes(4)));
+        case DOUBLE:
+          return new JsonPrimitive(Double.longBitsToDouble(readBytes(8)));
+        default:
+          throw new JsonParseException("Invalid binary JSON simple value " + info + "!");
+        }
+      default:
+        throw new JsonParseException("Invalid binary JSON type " + (head >>> 5) + "!");
+      }
+    }
+
+    private JsonPrimitive number(long v) {
+      if (v >= Integer.MIN_VALUE && v <= Integer.MAX_VALUE) {
+        return new JsonPrimitive((int) v);
+      }
+      return new JsonPrimitive(v);
+    }
+  }
+}
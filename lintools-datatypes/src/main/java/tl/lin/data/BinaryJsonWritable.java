@@ -0,0 +1,76 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data;
+
+import com.google.gson.JsonObject;
+
+/**
+ * <p>
+ * {@link JsonWritable} serialized with the binary encoding {@link BinaryJson} instead of JSON
+ * text, which is smaller and faster to decode. Objects are decoded only when they are accessed,
+ * directly into a Gson tree; until then, and as long as they are not modified, they are written
+ * back as the bytes read. {@link JsonWritable.FieldComparator} does not apply to this encoding.
+ * </p>
+ *
+ * <p>
+ * Field names that all records share can be written as small integers, by seeding the key
+ * dictionary of the encoding in a subclass, e.g.,
+ * </p>
+ *
+ * <pre>
+ * public class Tweet extends BinaryJsonWritable {
+ *   private static final BinaryJson ENCODING =
+ *       new BinaryJson(&quot;id&quot;, &quot;user&quot;, &quot;text&quot;);
+ *
+ *   public Tweet() {
+ *     super(ENCODING);
+ *   }
+ * }
+ * </pre>
+ */
+public class BinaryJsonWritable extends JsonWritable {
+  private static final BinaryJson DEFAULT_ENCODING = new BinaryJson();
+
+  private final BinaryJson encoding;
+
+  /**
+   * Creates an empty {@code BinaryJsonWritable}, whose key dictionary starts empty.
+   */
+  public BinaryJsonWritable() {
+    this(DEFAULT_ENCODING);
+  }
+
+  /**
+   * Creates an empty {@code BinaryJsonWritable} with the specified encoding.
+   *
+   * @param encoding the encoding, which must be the same for writing and reading objects
+   */
+  protected BinaryJsonWritable(BinaryJson encoding) {
+    super(true);
+    this.encoding = encoding;
+  }
+
+  @Override
+  protected JsonObject decode(byte[] b, int len) {
+    return encoding.decode(b, 0, len).getAsJsonObject();
+  }
+
+  @Override
+  protected byte[] encode(JsonObject obj) {
+    return encoding.encode(obj);
+  }
+}
@@ -23,25 +23,65 @@ import java.io.DataInputStream;
 import java.io.DataOutput;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
 
+import org.apache.hadoop.conf.Configurable;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.RawComparator;
 import org.apache.hadoop.io.Writable;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
 
 /**
- * Writable representing a JSON object.
+ * <p>
+ * Writable representing a JSON object, serialized as UTF-8 text.
+ * </p>
+ *
+ * <p>
+ * The bytes read by {@link #readFields(DataInput)} are retained, and written back unchanged by
+ * {@link #write(DataOutput)} as long as the object has not been handed out for modification with
+ * {@link #getJsonObject()}, so that records that are only forwarded, or only read with
+ * {@link #get(String)}, are not serialized again. In lazy mode (see {@link LazyJsonWritable}),
+ * the bytes are not even parsed until the object is accessed.
+ * </p>
+ *
+ * <p>
+ * Serialized objects can be sorted by the values of some of their fields, without being parsed,
+ * with {@link FieldComparator}.
+ * </p>
  */
 public class JsonWritable implements Writable {
   private static final Gson GSON = new Gson();
   private static final JsonParser PARSER = new JsonParser();
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
+  private final boolean lazy;
+  // Parsed object, or null if the bytes have not been parsed yet.
   private JsonObject json;
+  // Serialized object, if length is not negative. The buffer is reused across calls to readFields.
+  private byte[] bytes = new byte[0];
+  private int length = -1;
 
   /**
    * Creates an empty {@code JsonWritable}.
    */
   public JsonWritable() {
+    this(false);
+  }
+
+  /**
+   * Creates an empty {@code JsonWritable}.
+   *
+   * @param lazy whether to parse objects read by {@link #readFields(DataInput)} only when they are
+   *        accessed
+   */
+  protected JsonWritable(boolean lazy) {
+    this.lazy = lazy;
     json = new JsonObject();
   }
 
@@ -49,9 +89,17 @@ public class JsonWritable implements Writable {
    * Creates a {@code JsonWritable} with an initial value.
    */
   public JsonWritable(String s) {
+    lazy = false;
     json = (JsonObject) PARSER.parse(s);
   }
 
+  /**
+   * Returns <tt>true</tt> if objects are parsed only when they are accessed.
+   */
+  public boolean isLazy() {
+    return lazy;
+  }
+
   /**
    * Deserializes a {@code JsonWritable} object.
    *
@@ -59,9 +107,46 @@ public class JsonWritable implements Writable {
    */
   public void readFields(DataInput in) throws IOException {
     int cnt = in.readInt();
-    byte[] buf = new byte[cnt];
-    in.readFully(buf);
-    json = (JsonObject) PARSER.parse(new String(buf, "UTF-8"));
+    if (bytes.length < cnt) {
+      bytes = new byte[cnt];
+    }
+    in.readFully(bytes, 0, cnt);
+    length = cnt;
+    json = null;
+    if (!lazy) {
+      parse();
+    }
+  }
+
+  private JsonObject parse() {
+    if (json == null) {
+      json = decode(bytes, length);
+    }
+    return json;
+  }
+
+  /**
+   * Decodes a serialized object. By default, objects are serialized as JSON text, which is parsed
+   * with a streaming reader, without decoding it into a string first. Subclasses may use other
+   * encodings, along with {@link #encode(JsonObject)}.
+   *
+   * @param b buffer holding the serialized object
+   * @param len length of the serialized object
+   * @return the object
+   */
+  protected JsonObject decode(byte[] b, int len) {
+    return (JsonObject) PARSER.parse(new JsonReader(new InputStreamReader(
+        new ByteArrayInputStream(b, 0, len), UTF8)));
+  }
+
+  /**
+   * Serializes an object, as JSON text by default, see {@link #decode(byte[], int)}.
+   *
+   * @param obj the object
+   * @return the serialized object
+   */
+  protected byte[] encode(JsonObject obj) {
+    return GSON.toJson(obj).getBytes(UTF8);
   }
 
   /**
@@ -70,7 +155,13 @@ public class JsonWritable implements Writable {
    * @param out where to write the raw byte representation
    */
   public void write(DataOutput out) throws IOException {
-    byte[] buf = GSON.toJson(json).getBytes();
+    if (length >= 0) {
+      out.writeInt(length);
+      out.write(bytes, 0, length);
+      return;
+    }
+
+    byte[] buf = encode(json);
     out.writeInt(buf.length);
     out.write(buf);
   }
@@ -89,13 +180,31 @@ public class JsonWritable implements Writable {
     return bytesOut.toByteArray();
   }
 
+  /**
+   * Returns the JSON object, which may be modified. Since this object can no longer tell whether it
+   * has been, it is serialized again when written. To only read fields, use {@link #get(String)}.
+   */
   public JsonObject getJsonObject() {
+    parse();
+    length = -1;
     return json;
   }
 
+  /**
+   * Returns the value of a field, or <code>null</code> if there is none. Unlike
+   * {@link #getJsonObject()}, this method does not discard the serialized bytes; the value must
+   * not be modified.
+   *
+   * @param field name of the field
+   * @return value of the field
+   */
+  public JsonElement get(String field) {
+    return parse().get(field);
+  }
+
   @Override
   public String toString() {
-    return getJsonObject().toString();
+    return parse().toString();
   }
 
   public static JsonWritable create(DataInput in) throws IOException {
@@ -108,4 +217,114 @@ public class JsonWritable implements Writable {
   public static JsonWritable create(byte[] bytes) throws IOException {
     return create(new DataInputStream(new ByteArrayInputStream(bytes)));
   }
+
+  /**
+   * <p>
+   * Comparator for {@code JsonWritable} objects serialized as text that compares the values of
+   * one or more fields, e.g., to sort records by a timestamp. Fields are given as paths of field
+   * names separated by dots, e.g., {@code "user.id"}. Values are found by scanning the serialized
+   * bytes, without parsing them into a tree. Missing values sort first, then values of different
+   * types sort in the order null, false, true, number, string, array and object; numbers compare
+   * by value and strings by code point.
+   * </p>
+   *
+   * <p>
+   * In a Hadoop job, this comparator is configured with
+   * {@link #setFields(Configuration, String...)}, e.g.,
+   * </p>
+   *
+   * <pre>
+   * job.setSortComparatorClass(JsonWritable.FieldComparator.class);
+   * JsonWritable.FieldComparator.setFields(job.getConfiguration(), &quot;user.id&quot;,
+   *     &quot;time&quot;);
+   * </pre>
+   */
+  public static class FieldComparator implements RawComparator<JsonWritable>, Configurable {
+    /**
+     * Configuration property holding the fields to compare, separated by commas.
+     */
+    public static final String FIELDS_PROPERTY = "tl.lin.data.JsonWritable.FieldComparator.fields";
+
+    private Configuration conf;
+    private byte[][][] paths;
+
+    /**
+     * Creates a comparator whose fields are set by {@link #setConf(Configuration)}.
+     */
+    public FieldComparator() {
+    }
+
+    /**
+     * Creates a comparator for the specified fields.
+     *
+     * @param fields paths of the fields to compare, in order of precedence
+     */
+    public FieldComparator(String... fields) {
+      setFields(fields);
+    }
+
+    /**
+     * Sets the fields to compare in a configuration.
+     *
+     * @param conf the configuration
+     * @param fields paths of the fields to compare, in order of precedence
+     */
+    public static void setFields(Configuration conf, String... fields) {
+      StringBuilder sb = new StringBuilder();
+      for (int i = 0; i < fields.length; i++) {
+        sb.append(i == 0 ? "" : ",").append(fields[i]);
+      }
+      conf.set(FIELDS_PROPERTY, sb.toString());
+    }
+
+    private void setFields(String... fields) {
+      if (fields.length == 0) {
+        throw new IllegalArgumentException("No fields to compare!");
+      }
+      paths = new byte[fields.length][][];
+      for (int i = 0; i < fields.length; i++) {
+        paths[i] = RawJson.encodePath(fields[i]);
+      }
+    }
+
+    public void setConf(Configuration conf) {
+      this.conf = conf;
+      String fields = conf.get(FIELDS_PROPERTY);
+      if (fields == null) {
+        throw new IllegalArgumentException("Property " + FIELDS_PROPERTY + " is not set!");
+      }
+      setFields(fields.split(","));
+    }
+
+    public Configuration getConf() {
+      return conf;
+    }
+
+    public int compare(byte[] b1, int s1, int l1, byte[] b2, int s2, int l2) {
+      if (paths == null) {
+        throw new IllegalStateException("No fields to compare!");
+      }
+      int end1 = s1 + l1;
+      int end2 = s2 + l2;
+      for (byte[][] path : paths) {
+        // Objects start after their 4-byte lengths.
+        int cmp = RawJson.compareValues(b1, RawJson.find(b1, s1 + 4, end1, path), end1, b2,
+            RawJson.find(b2, s2 + 4, end2, path), end2);
+        if (cmp != 0) {
+          return cmp;
+        }
+      }
+      return 0;
+    }
+
+    public int compare(JsonWritable a, JsonWritable b) {
+      try {
+        byte[] b1 = a.serialize();
+        byte[] b2 = b.serialize();
+        return compare(b1, 0, b1.length, b2, 0, b2.length);
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+  }
 }
@@ -0,0 +1,35 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data;
+
+import java.io.DataInput;
+
+/**
+ * <p>
+ * {@link JsonWritable} that parses objects read by {@link #readFields(DataInput)} only when they
+ * are accessed, e.g., for jobs that forward most records unchanged or read only some of them.
+ * Until then, the object is held as its serialized bytes, which are written back unchanged.
+ * </p>
+ */
+public class LazyJsonWritable extends JsonWritable {
+  /**
+   * Creates an empty {@code LazyJsonWritable}.
+   */
+  public LazyJsonWritable() {
+    super(true);
+  }
+}
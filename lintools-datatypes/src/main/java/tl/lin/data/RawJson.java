@@ -0,0 +1,348 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data;
+
+import java.nio.charset.Charset;
+
+/**
+ * <p>
+ * Scans serialized JSON text, as UTF-8 bytes, without parsing it into a tree: finds the value of a
+ * field and compares values in place, e.g., to sort serialized {@link JsonWritable} objects by a
+ * field. Input is assumed to be well-formed; objects with duplicate field names are not supported,
+ * since the first occurrence of a field is used.
+ * </p>
+ *
+ * <p>
+ * Values compare first by type, in the order missing, null, false, true, number, string, array and
+ * object; numbers compare by value, strings by code point, and arrays and objects by their bytes.
+ * </p>
+ */
+final class RawJson {
+  private static final Charset ASCII = Charset.forName("US-ASCII");
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
+  private static final int MISSING = 0;
+  private static final int NULL = 1;
+  private static final int FALSE = 2;
+  private static final int TRUE = 3;
+  private static final int NUMBER = 4;
+  private static final int STRING = 5;
+  private static final int ARRAY = 6;
+  private static final int OBJECT = 7;
+
+  private RawJson() {
+  }
+
+  /**
+   * Encodes a field path, e.g., {@code "user.id"}, for {@link #find(byte[], int, int, byte[][])}.
+   */
+  static byte[][] encodePath(String path) {
+    String[] names = path.split("\\.");
+    byte[][] encoded = new byte[names.length][];
+    for (int i = 0; i < names.length; i++) {
+      encoded[i] = names[i].getBytes(UTF8);
+    }
+    return encoded;
+  }
+
+  /**
+   * Finds the value of a field path in the object starting at offset {@code i}.
+   *
+   * @return offset of the value, or -1 if some field on the path is missing
+   */
+  static int find(byte[] b, int i, int end, byte[][] path) {
+    for (int p = 0; p < path.length && i >= 0; p++) {
+      i = skipWhitespace(b, i, end);
+      if (i >= end || b[i] != '{') {
+        return -1;
+      }
+      i = findField(b, i + 1, end, path[p]);
+    }
+    return i;
+  }
+
+  // Scans the fields of an object, from just past its opening brace, for a field name.
+  private static int findField(byte[] b, int i, int end, byte[] name) {
+    while (true) {
+      i = skipWhitespace(b, i, end);
+      if (i >= end || b[i] == '}') {
+        return -1;
+      }
+      if (b[i] == ',') {
+        i++;
+        continue;
+      }
+
+      int nameEnd = skipString(b, i, end);
+      boolean match = nameEquals(b, i + 1, nameEnd - 1, name);
+      // Skip the colon.
+      i = skipWhitespace(b, skipWhitespace(b, nameEnd, end) + 1, end);
+      if (match) {
+        return i;
+      }
+      i = skipValue(b, i, end);
+    }
+  }
+
+  private static boolean nameEquals(byte[] b, int start, int end, byte[] name) {
+    for (int i = start; i < end; i++) {
+      if (b[i] == '\\') {
+        return decodeString(b, start, end).equals(new String(name, UTF8));
+      }
+    }
+    if (end - start != name.length) {
+      return false;
+    }
+    for (int i = 0; i < name.length; i++) {
+      if (b[start + i] != name[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  static int skipWhitespace(byte[] b, int i, int end) {
+    while (i < end && (b[i] == ' ' || b[i] == '\n' || b[i] == '\r' || b[i] == '\t')) {
+      i++;
+    }
+    return i;
+  }
+
+  /**
+   * Returns the offset just past the value starting at offset {@code i}.
+   */
+  static int skipValue(byte[] b, int i, int end) {
+    byte c = b[i];
+    if (c == '"') {
+      return skipString(b, i, end);
+    }
+    if (c == '{' || c == '[') {
+      int depth = 0;
+      while (i < end) {
+        c = b[i];
+        if (c == '"') {
+          i = skipString(b, i, end);
+          continue;
+        }
+        if (c == '{' || c == '[') {
+          depth++;
+        } else if ((c == '}' || c == ']') && --depth == 0) {
+          return i + 1;
+        }
+        i++;
+      }
+      throw new IllegalArgumentException("Unterminated JSON value!");
+    }
+
+    // Numbers and literals run until a delimiter.
+    while (i < end && b[i] != ',' && b[i] != '}' && b[i] != ']' && b[i] != ' ' && b[i] != '\n'
+        && b[i] != '\r' && b[i] != '\t') {
+      i++;
+    }
+    return i;
+  }
+
+  // Returns the offset just past the string starting at offset i.
+  private static int skipString(byte[] b, int i, int end) {
+    i++;
+    while (i < end) {
+      if (b[i] == '\\') {
+        i += 2;
+      } else if (b[i] == '"') {
+        return i + 1;
+      } else {
+        i++;
+      }
+    }
+    throw new IllegalArgumentException("Unterminated JSON string!");
+  }
+
+  private static int type(byte[] b, int i) {
+    if (i < 0) {
+      return MISSING;
+    }
+    switch (b[i]) {
+    case 'n':
+      return NULL;
+    case 'f':
+      return FALSE;
+    case 't':
+      return TRUE;
+    case '"':
+      return STRING;
+    case '[':
+      return ARRAY;
+    case '{':
+      return OBJECT;
+    default:
+      return NUMBER;
+    }
+  }
+
+  /**
+   * Compares the values starting at offsets {@code i1} and {@code i2}, either of which may be -1
+   * for a missing value.
+   */
+  static int compareValues(byte[] b1, int i1, int end1, byte[] b2, int i2, int end2) {
+    int t1 = type(b1, i1);
+    int t2 = type(b2, i2);
+    if (t1 != t2) {
+      return t1 < t2 ? -1 : 1;
+    }
+
+    switch (t1) {
+    case NUMBER:
+      return compareNumbers(b1, i1, skipValue(b1, i1, end1), b2, i2, skipValue(b2, i2, end2));
+    case STRING:
+      return compareStrings(b1, i1 + 1, skipString(b1, i1, end1) - 1, b2, i2 + 1,
+          skipString(b2, i2, end2) - 1);
+    case ARRAY:
+    case OBJECT:
+      return compareBytes(b1, i1, skipValue(b1, i1, end1), b2, i2, skipValue(b2, i2, end2));
+    default:
+      return 0;
+    }
+  }
+
+  private static int compareNumbers(byte[] b1, int s1, int e1, byte[] b2, int s2, int e2) {
+    // Most numbers are small integers, which are compared without decoding them as text.
+    if (isSmallInteger(b1, s1, e1) && isSmallInteger(b2, s2, e2)) {
+      long v1 = parseLong(b1, s1, e1);
+      long v2 = parseLong(b2, s2, e2);
+      return v1 < v2 ? -1 : (v1 == v2 ? 0 : 1);
+    }
+    // JSON has no NaN, and -0.0 equals 0.0, as it does for integers.
+    double d1 = parseDouble(b1, s1, e1);
+    double d2 = parseDouble(b2, s2, e2);
+    return d1 < d2 ? -1 : (d1 == d2 ? 0 : 1);
+  }
+
+  private static boolean isSmallInteger(byte[] b, int start, int end) {
+    int i = start < end && b[start] == '-' ? start + 1 : start;
+    if (i == end || end - i > 18) {
+      return false;
+    }
+    for (; i < end; i++) {
+      if (b[i] < '0' || b[i] > '9') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static long parseLong(byte[] b, int start, int end) {
+    boolean negative = b[start] == '-';
+    long v = 0;
+    for (int i = negative ? start + 1 : start; i < end; i++) {
+      v = v * 10 + (b[i] - '0');
+    }
+    return negative ? -v : v;
+  }
+
+  private static double parseDouble(byte[] b, int start, int end) {
+    return Double.parseDouble(new String(b, start, end - start, ASCII));
+  }
+
+  // Compares the contents of two strings, without quotes, by code point.
+  private static int compareStrings(byte[] b1, int s1, int e1, byte[] b2, int s2, int e2) {
+    if (!hasEscapes(b1, s1, e1) && !hasEscapes(b2, s2, e2)) {
+      // The order of UTF-8 bytes is the order of code points.
+      return compareBytes(b1, s1, e1, b2, s2, e2);
+    }
+
+    String str1 = decodeString(b1, s1, e1);
+    String str2 = decodeString(b2, s2, e2);
+    int i = 0;
+    int j = 0;
+    while (i < str1.length() && j < str2.length()) {
+      int c1 = str1.codePointAt(i);
+      int c2 = str2.codePointAt(j);
+      if (c1 != c2) {
+        return c1 < c2 ? -1 : 1;
+      }
+      i += Character.charCount(c1);
+      j += Character.charCount(c2);
+    }
+    // At least one of the strings is exhausted.
+    return (str1.length() - i) - (str2.length() - j);
+  }
+
+  private static boolean hasEscapes(byte[] b, int start, int end) {
+    for (int i = start; i < end; i++) {
+      if (b[i] == '\\') {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // Decodes the contents of a string, without quotes.
+  private static String decodeString(byte[] b, int start, int end) {
+    StringBuilder sb = new StringBuilder(end - start);
+    int i = start;
+    while (i < end) {
+      int run = i;
+      while (i < end && b[i] != '\\') {
+        i++;
+      }
+      sb.append(new String(b, run, i - run, UTF8));
+      if (i == end) {
+        break;
+      }
+
+      char c = (char) b[i + 1];
+      i += 2;
+      switch (c) {
+      case 'b':
+        sb.append('\b');
+        break;
+      case 'f':
+        sb.append('\f');
+        break;
+      case 'n':
+        sb.append('\n');
+        break;
+      case 'r':
+        sb.append('\r');
+        break;
+      case 't':
+        sb.append('\t');
+        break;
+      case 'u':
+        sb.append((char) Integer.parseInt(new String(b, i, 4, ASCII), 16));
+        i += 4;
+        break;
+      default:
+        // Quotes, backslashes and slashes stand for themselves.
+        sb.append(c);
+      }
+    }
+    return sb.toString();
+  }
+
+  private static int compareBytes(byte[] b1, int s1, int e1, byte[] b2, int s2, int e2) {
+    int n = Math.min(e1 - s1, e2 - s2);
+    for (int k = 0; k < n; k++) {
+      int a = b1[s1 + k] & 0xff;
+      int c = b2[s2 + k] & 0xff;
+      if (a != c) {
+        return a - c;
+      }
+    }
+    return (e1 - s1) - (e2 - s2);
+  }
+}
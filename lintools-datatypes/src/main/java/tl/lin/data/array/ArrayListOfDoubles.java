@@ -266,12 +266,31 @@ public class ArrayListOfDoubles implements RandomAccess, Cloneable, Iterable<Dou
   }
 
   /**
-   * Returns an iterator for this list. Note that this method is included only for convenience to
-   * conform to the <code>Iterable</code> interface; this method is not efficient because of
-   * autoboxing.
+   * Iterator over the doubles in a list, which can also return them without boxing.
    */
-  public Iterator<Double> iterator() {
-    return new Iterator<Double>() {
+  public static interface DoubleIterator extends Iterator<Double> {
+    /**
+     * Returns the next double in the iteration, without boxing it.
+     *
+     * @return the next double in the iteration
+     */
+    double nextDouble();
+  }
+
+  /**
+   * Callback for visiting the doubles in a list.
+   */
+  public static interface DoubleProcedure {
+    void apply(double value);
+  }
+
+  /**
+   * Returns an iterator for this list. Elements can be read without autoboxing with
+   * {@link DoubleIterator#nextDouble()}; note that {@code next()}, which the enhanced for loop
+   * uses, boxes each element.
+   */
+  public DoubleIterator iterator() {
+    return new DoubleIterator() {
       int cnt = 0;
 
       public boolean hasNext() {
@@ -285,9 +304,42 @@ public class ArrayListOfDoubles implements RandomAccess, Cloneable, Iterable<Dou
       public Double next() {
         return get(cnt++);
       }
+
+      public double nextDouble() {
+        return get(cnt++);
+      }
     };
   }
 
+  /**
+   * Applies a procedure to every element of this list, in order, without boxing.
+   *
+   * @param procedure procedure to apply
+   */
+  public void forEachDouble(DoubleProcedure procedure) {
+    forEachDouble(0, size, procedure);
+  }
+
+  /**
+   * Applies a procedure to the elements of this list from index {@code from} (inclusive) to index
+   * {@code to} (exclusive), in order, without boxing. Large lists can be processed in parallel by
+   * handing disjoint ranges to different threads.
+   *
+   * @param from index of the first element
+   * @param to index after the last element
+   * @param procedure procedure to apply
+   */
+  public void forEachDouble(int from, int to, DoubleProcedure procedure) {
+    if (from < 0 || to > size || from > to) {
+      throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") out of bounds for size "
+          + size);
+    }
+    double[] a = array;
+    for (int i = from; i < to; i++) {
+      procedure.apply(a[i]);
+    }
+  }
+
   /**
    * Returns a string representation of the object, explicitly printing out the first <i>n</i>
    * elements of this list.
@@ -266,12 +266,31 @@ public class ArrayListOfFloats implements RandomAccess, Cloneable, Iterable<Floa
   }
 
   /**
-   * Returns an iterator for this list. Note that this method is included only for convenience to
-   * conform to the <code>Iterable</code> interface; this method is not efficient because of
-   * autoboxing.
+   * Iterator over the floats in a list, which can also return them without boxing.
    */
-  public Iterator<Float> iterator() {
-    return new Iterator<Float>() {
+  public static interface FloatIterator extends Iterator<Float> {
+    /**
+     * Returns the next float in the iteration, without boxing it.
+     *
+     * @return the next float in the iteration
+     */
+    float nextFloat();
+  }
+
+  /**
+   * Callback for visiting the floats in a list.
+   */
+  public static interface FloatProcedure {
+    void apply(float value);
+  }
+
+  /**
+   * Returns an iterator for this list. Elements can be read without autoboxing with
+   * {@link FloatIterator#nextFloat()}; note that {@code next()}, which the enhanced for loop
+   * uses, boxes each element.
+   */
+  public FloatIterator iterator() {
+    return new FloatIterator() {
       int cnt = 0;
 
       public boolean hasNext() {
@@ -285,9 +304,42 @@ public class ArrayListOfFloats implements RandomAccess, Cloneable, Iterable<Floa
       public Float next() {
         return get(cnt++);
       }
+
+      public float nextFloat() {
+        return get(cnt++);
+      }
     };
   }
 
+  /**
+   * Applies a procedure to every element of this list, in order, without boxing.
+   *
+   * @param procedure procedure to apply
+   */
+  public void forEachFloat(FloatProcedure procedure) {
+    forEachFloat(0, size, procedure);
+  }
+
+  /**
+   * Applies a procedure to the elements of this list from index {@code from} (inclusive) to index
+   * {@code to} (exclusive), in order, without boxing. Large lists can be processed in parallel by
+   * handing disjoint ranges to different threads.
+   *
+   * @param from index of the first element
+   * @param to index after the last element
+   * @param procedure procedure to apply
+   */
+  public void forEachFloat(int from, int to, FloatProcedure procedure) {
+    if (from < 0 || to > size || from > to) {
+      throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") out of bounds for size "
+          + size);
+    }
+    float[] a = array;
+    for (int i = from; i < to; i++) {
+      procedure.apply(a[i]);
+    }
+  }
+
   /**
    * Returns a string representation of the object, explicitly printing out the first <i>n</i>
    * elements of this list.
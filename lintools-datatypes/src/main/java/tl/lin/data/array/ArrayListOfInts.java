@@ -265,12 +265,31 @@ public class ArrayListOfInts implements RandomAccess, Cloneable, Iterable<Intege
   }
 
   /**
-   * Returns an iterator for this list. Note that this method is included only for convenience to
-   * conform to the <code>Iterable</code> interface; this method is not efficient because of
-   * autoboxing.
+   * Iterator over the ints in a list, which can also return them without boxing.
    */
-  public Iterator<Integer> iterator() {
-    return new Iterator<Integer>() {
+  public static interface IntIterator extends Iterator<Integer> {
+    /**
+     * Returns the next int in the iteration, without boxing it.
+     *
+     * @return the next int in the iteration
+     */
+    int nextInt();
+  }
+
+  /**
+   * Callback for visiting the ints in a list.
+   */
+  public static interface IntProcedure {
+    void apply(int value);
+  }
+
+  /**
+   * Returns an iterator for this list. Elements can be read without autoboxing with
+   * {@link IntIterator#nextInt()}; note that {@code next()}, which the enhanced for loop
+   * uses, boxes each element.
+   */
+  public IntIterator iterator() {
+    return new IntIterator() {
       int cnt = 0;
 
       public boolean hasNext() {
@@ -284,9 +303,42 @@ public class ArrayListOfInts implements RandomAccess, Cloneable, Iterable<Intege
       public Integer next() {
         return get(cnt++);
       }
+
+      public int nextInt() {
+        return get(cnt++);
+      }
     };
   }
 
+  /**
+   * Applies a procedure to every element of this list, in order, without boxing.
+   *
+   * @param procedure procedure to apply
+   */
+  public void forEachInt(IntProcedure procedure) {
+    forEachInt(0, size, procedure);
+  }
+
+  /**
+   * Applies a procedure to the elements of this list from index {@code from} (inclusive) to index
+   * {@code to} (exclusive), in order, without boxing. Large lists can be processed in parallel by
+   * handing disjoint ranges to different threads.
+   *
+   * @param from index of the first element
+   * @param to index after the last element
+   * @param procedure procedure to apply
+   */
+  public void forEachInt(int from, int to, IntProcedure procedure) {
+    if (from < 0 || to > size || from > to) {
+      throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") out of bounds for size "
+          + size);
+    }
+    int[] a = array;
+    for (int i = from; i < to; i++) {
+      procedure.apply(a[i]);
+    }
+  }
+
   /**
    * Returns a string representation of the object, explicitly printing out the first <i>n</i>
    * elements of this list.
@@ -329,35 +381,24 @@ public class ArrayListOfInts implements RandomAccess, Cloneable, Iterable<Intege
    * @return intersection of the two lists
    */
   public ArrayListOfInts intersection(ArrayListOfInts other) {
-    ArrayListOfInts result = new ArrayListOfInts();
-    int len, curPos = 0;
-    if (size() < other.size()) {
-      len = size();
-      for (int i = 0; i < len; i++) {
-        int elt = this.get(i);
-        while (curPos < other.size() && other.get(curPos) < elt) {
-          curPos++;
-        }
-        if (curPos >= other.size()) {
-          return result;
-        } else if (other.get(curPos) == elt) {
-          result.add(elt);
-        }
-      }
-    } else {
-      len = other.size();
-      for (int i = 0; i < len; i++) {
-        int elt = other.get(i);
-        while (curPos < size() && get(curPos) < elt) {
-          curPos++;
-        }
-        if (curPos >= size()) {
-          return result;
-        } else if (get(curPos) == elt) {
-          result.add(elt);
-        }
-      }
-    }
+    return intersection(other, new ArrayListOfInts(Math.min(size, other.size)));
+  }
+
+  /**
+   * Computes the intersection of two sorted lists of unique ints into a caller-provided list,
+   * which is overwritten. Galloping search is used if one list is much shorter than the other.
+   * The result may be this list, in which case it is intersected in place.
+   *
+   * @param other other list to be intersected with this list
+   * @param result list to hold the intersection
+   * @return <code>result</code>, holding the intersection of the two lists
+   * @see SortedIntArrays#intersect(int[], int, int[], int, int[])
+   */
+  public ArrayListOfInts intersection(ArrayListOfInts other, ArrayListOfInts result) {
+    int aLen = size;
+    int bLen = other.size;
+    result.ensureCapacity(Math.min(aLen, bLen));
+    result.size = SortedIntArrays.intersect(array, aLen, other.array, bLen, result.array);
     return result;
   }
 
@@ -400,38 +441,26 @@ public class ArrayListOfInts implements RandomAccess, Cloneable, Iterable<Intege
    * @return merged sorted (ascending order) union of this and sortedLst
    */
   public ArrayListOfInts mergeNoDuplicates(ArrayListOfInts sortedLst) {
-    ArrayListOfInts result = new ArrayListOfInts();
-    int indA = 0, indB = 0;
-    while (indA < this.size() || indB < sortedLst.size()) {
-      // if we've iterated to the end, then add from the other
-      if (indA == this.size()) {
-        if (!result.contains(sortedLst.get(indB))) {
-          result.add(sortedLst.get(indB));
-        }
-        indB++;
-        continue;
-      } else if (indB == sortedLst.size()) {
-        if (!result.contains(this.get(indA))) {
-          result.add(this.get(indA));
-        }
-        indA++;
-        continue;
-      } else {
-        // append the lesser value
-        if (this.get(indA) < sortedLst.get(indB)) {
-          if (!result.contains(this.get(indA))) {
-            result.add(this.get(indA));
-          }
-          indA++;
-        } else {
-          if (!result.contains(sortedLst.get(indB))) {
-            result.add(sortedLst.get(indB));
-          }
-          indB++;
-        }
-      }
-    }
+    return mergeNoDuplicates(sortedLst, new ArrayListOfInts(size + sortedLst.size));
+  }
 
+  /**
+   * Merges two sorted (ascending order) lists into one sorted union, held in a caller-provided
+   * list, which is overwritten. Duplicate items are discarded in the merged list. The result must
+   * not be either of the input lists.
+   *
+   * @param sortedLst list to be merged into this
+   * @param result list to hold the union
+   * @return <code>result</code>, holding the merged sorted (ascending order) union of this and
+   *         sortedLst
+   * @see SortedIntArrays#union(int[], int, int[], int, int[])
+   */
+  public ArrayListOfInts mergeNoDuplicates(ArrayListOfInts sortedLst, ArrayListOfInts result) {
+    if (result == this || result == sortedLst) {
+      throw new IllegalArgumentException("Result must not be one of the merged lists!");
+    }
+    result.ensureCapacity(size + sortedLst.size);
+    result.size = SortedIntArrays.union(array, size, sortedLst.array, sortedLst.size, result.array);
     return result;
   }
 
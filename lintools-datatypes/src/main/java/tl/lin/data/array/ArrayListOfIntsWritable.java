@@ -22,6 +22,9 @@ import java.io.IOException;
 import java.util.Arrays;
 
 import org.apache.hadoop.io.WritableComparable;
+import org.apache.hadoop.io.WritableComparator;
+
+import tl.lin.data.util.PrimitiveArrayIO;
 
 /**
  * Writable extension of the {@code ArrayListOfInts} class. This class provides an efficient data
@@ -82,11 +85,12 @@ public class ArrayListOfIntsWritable extends ArrayListOfInts implements
    * @param in source for raw byte representation
    */
   public void readFields(DataInput in) throws IOException {
-    this.clear();
     int size = in.readInt();
-    for (int i = 0; i < size; i++) {
-      add(i, in.readInt());
+    if (array.length < size) {
+      array = new int[size];
     }
+    PrimitiveArrayIO.readInts(in, array, 0, size);
+    this.size = size;
   }
 
   /**
@@ -95,11 +99,8 @@ public class ArrayListOfIntsWritable extends ArrayListOfInts implements
    * @param out where to write the raw byte representation
    */
   public void write(DataOutput out) throws IOException {
-    int size = size();
     out.writeInt(size);
-    for (int i = 0; i < size; i++) {
-      out.writeInt(get(i));
-    }
+    PrimitiveArrayIO.writeInts(out, array, 0, size);
   }
 
   @Override
@@ -152,4 +153,45 @@ public class ArrayListOfIntsWritable extends ArrayListOfInts implements
       return 0;
     }
   }
+
+  /** Comparator optimized for <code>ArrayListOfIntsWritable</code>. */
+  public static class Comparator extends WritableComparator {
+
+    /**
+     * Creates a new Comparator optimized for <code>ArrayListOfIntsWritable</code>.
+     */
+    public Comparator() {
+      super(ArrayListOfIntsWritable.class);
+    }
+
+    /**
+     * Optimization hook. Compares the serialized lists element by element, in the same order as
+     * {@link ArrayListOfIntsWritable#compareTo}, without deserializing them.
+     */
+    public int compare(byte[] b1, int s1, int l1, byte[] b2, int s2, int l2) {
+      int size1 = readInt(b1, s1);
+      int size2 = readInt(b2, s2);
+      int n = Math.min(size1, size2);
+
+      int o1 = s1 + 4;
+      int o2 = s2 + 4;
+      for (int i = 0; i < n; i++) {
+        int v1 = readInt(b1, o1);
+        int v2 = readInt(b2, o2);
+        if (v1 < v2) {
+          return -1;
+        } else if (v1 > v2) {
+          return 1;
+        }
+        o1 += 4;
+        o2 += 4;
+      }
+
+      return (size1 < size2 ? -1 : (size1 == size2 ? 0 : 1));
+    }
+  }
+
+  static { // register this comparator
+    WritableComparator.define(ArrayListOfIntsWritable.class, new Comparator());
+  }
 }
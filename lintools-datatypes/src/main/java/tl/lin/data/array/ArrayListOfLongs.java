@@ -266,12 +266,31 @@ public class ArrayListOfLongs implements RandomAccess, Cloneable, Iterable<Long>
   }
 
   /**
-   * Returns an iterator for this list. Note that this method is included only for convenience to
-   * conform to the <code>Iterable</code> interface; this method is not efficient because of
-   * autoboxing.
+   * Iterator over the longs in a list, which can also return them without boxing.
    */
-  public Iterator<Long> iterator() {
-    return new Iterator<Long>() {
+  public static interface LongIterator extends Iterator<Long> {
+    /**
+     * Returns the next long in the iteration, without boxing it.
+     *
+     * @return the next long in the iteration
+     */
+    long nextLong();
+  }
+
+  /**
+   * Callback for visiting the longs in a list.
+   */
+  public static interface LongProcedure {
+    void apply(long value);
+  }
+
+  /**
+   * Returns an iterator for this list. Elements can be read without autoboxing with
+   * {@link LongIterator#nextLong()}; note that {@code next()}, which the enhanced for loop
+   * uses, boxes each element.
+   */
+  public LongIterator iterator() {
+    return new LongIterator() {
       int cnt = 0;
 
       public boolean hasNext() {
@@ -285,9 +304,42 @@ public class ArrayListOfLongs implements RandomAccess, Cloneable, Iterable<Long>
       public Long next() {
         return get(cnt++);
       }
+
+      public long nextLong() {
+        return get(cnt++);
+      }
     };
   }
 
+  /**
+   * Applies a procedure to every element of this list, in order, without boxing.
+   *
+   * @param procedure procedure to apply
+   */
+  public void forEachLong(LongProcedure procedure) {
+    forEachLong(0, size, procedure);
+  }
+
+  /**
+   * Applies a procedure to the elements of this list from index {@code from} (inclusive) to index
+   * {@code to} (exclusive), in order, without boxing. Large lists can be processed in parallel by
+   * handing disjoint ranges to different threads.
+   *
+   * @param from index of the first element
+   * @param to index after the last element
+   * @param procedure procedure to apply
+   */
+  public void forEachLong(int from, int to, LongProcedure procedure) {
+    if (from < 0 || to > size || from > to) {
+      throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") out of bounds for size "
+          + size);
+    }
+    long[] a = array;
+    for (int i = from; i < to; i++) {
+      procedure.apply(a[i]);
+    }
+  }
+
   /**
    * Returns a string representation of the object, explicitly printing out the first <i>n</i>
    * elements of this list.
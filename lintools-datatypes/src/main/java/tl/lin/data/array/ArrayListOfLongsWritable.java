@@ -22,6 +22,9 @@ import java.io.IOException;
 import java.util.Arrays;
 
 import org.apache.hadoop.io.WritableComparable;
+import org.apache.hadoop.io.WritableComparator;
+
+import tl.lin.data.util.PrimitiveArrayIO;
 
 /**
  * Writable extension of the {@code ArrayListOfLongs} class. This class provides an efficient data
@@ -82,11 +85,12 @@ public class ArrayListOfLongsWritable extends ArrayListOfLongs implements
    * @param in source for raw byte representation
    */
   public void readFields(DataInput in) throws IOException {
-    this.clear();
     int size = in.readInt();
-    for (int i = 0; i < size; i++) {
-      add(i, in.readLong());
+    if (array.length < size) {
+      array = new long[size];
     }
+    PrimitiveArrayIO.readLongs(in, array, 0, size);
+    this.size = size;
   }
 
   /**
@@ -95,11 +99,8 @@ public class ArrayListOfLongsWritable extends ArrayListOfLongs implements
    * @param out where to write the raw byte representation
    */
   public void write(DataOutput out) throws IOException {
-    int size = size();
     out.writeInt(size);
-    for (int i = 0; i < size; i++) {
-      out.writeLong(get(i));
-    }
+    PrimitiveArrayIO.writeLongs(out, array, 0, size);
   }
 
   @Override
@@ -152,4 +153,45 @@ public class ArrayListOfLongsWritable extends ArrayListOfLongs implements
       return 0;
     }
   }
+
+  /** Comparator optimized for <code>ArrayListOfLongsWritable</code>. */
+  public static class Comparator extends WritableComparator {
+
+    /**
+     * Creates a new Comparator optimized for <code>ArrayListOfLongsWritable</code>.
+     */
+    public Comparator() {
+      super(ArrayListOfLongsWritable.class);
+    }
+
+    /**
+     * Optimization hook. Compares the serialized lists element by element, in the same order as
+     * {@link ArrayListOfLongsWritable#compareTo}, without deserializing them.
+     */
+    public int compare(byte[] b1, int s1, int l1, byte[] b2, int s2, int l2) {
+      int size1 = readInt(b1, s1);
+      int size2 = readInt(b2, s2);
+      int n = Math.min(size1, size2);
+
+      int o1 = s1 + 4;
+      int o2 = s2 + 4;
+      for (int i = 0; i < n; i++) {
+        long v1 = readLong(b1, o1);
+        long v2 = readLong(b2, o2);
+        if (v1 < v2) {
+          return -1;
+        } else if (v1 > v2) {
+          return 1;
+        }
+        o1 += 8;
+        o2 += 8;
+      }
+
+      return (size1 < size2 ? -1 : (size1 == size2 ? 0 : 1));
+    }
+  }
+
+  static { // register this comparator
+    WritableComparator.define(ArrayListOfLongsWritable.class, new Comparator());
+  }
 }
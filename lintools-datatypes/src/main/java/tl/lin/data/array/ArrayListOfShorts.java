@@ -267,12 +267,31 @@ public class ArrayListOfShorts implements RandomAccess, Cloneable, Iterable<Shor
   }
 
   /**
-   * Returns an iterator for this list. Note that this method is included only for convenience to
-   * conform to the <code>Iterable</code> interface; this method is not efficient because of
-   * autoboxing.
+   * Iterator over the shorts in a list, which can also return them without boxing.
    */
-  public Iterator<Short> iterator() {
-    return new Iterator<Short>() {
+  public static interface ShortIterator extends Iterator<Short> {
+    /**
+     * Returns the next short in the iteration, without boxing it.
+     *
+     * @return the next short in the iteration
+     */
+    short nextShort();
+  }
+
+  /**
+   * Callback for visiting the shorts in a list.
+   */
+  public static interface ShortProcedure {
+    void apply(short value);
+  }
+
+  /**
+   * Returns an iterator for this list. Elements can be read without autoboxing with
+   * {@link ShortIterator#nextShort()}; note that {@code next()}, which the enhanced for loop
+   * uses, boxes each element.
+   */
+  public ShortIterator iterator() {
+    return new ShortIterator() {
       int cnt = 0;
 
       public boolean hasNext() {
@@ -286,9 +305,42 @@ public class ArrayListOfShorts implements RandomAccess, Cloneable, Iterable<Shor
       public Short next() {
         return get(cnt++);
       }
+
+      public short nextShort() {
+        return get(cnt++);
+      }
     };
   }
 
+  /**
+   * Applies a procedure to every element of this list, in order, without boxing.
+   *
+   * @param procedure procedure to apply
+   */
+  public void forEachShort(ShortProcedure procedure) {
+    forEachShort(0, size, procedure);
+  }
+
+  /**
+   * Applies a procedure to the elements of this list from index {@code from} (inclusive) to index
+   * {@code to} (exclusive), in order, without boxing. Large lists can be processed in parallel by
+   * handing disjoint ranges to different threads.
+   *
+   * @param from index of the first element
+   * @param to index after the last element
+   * @param procedure procedure to apply
+   */
+  public void forEachShort(int from, int to, ShortProcedure procedure) {
+    if (from < 0 || to > size || from > to) {
+      throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") out of bounds for size "
+          + size);
+    }
+    short[] a = array;
+    for (int i = from; i < to; i++) {
+      procedure.apply(a[i]);
+    }
+  }
+
   /**
    * Returns a string representation of the object, explicitly printing out the first <i>n</i>
    * elements of this list.
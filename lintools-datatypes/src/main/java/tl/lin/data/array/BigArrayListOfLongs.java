@@ -0,0 +1,339 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.array;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import tl.lin.data.util.PrimitiveArrayIO;
+
+/**
+ * <p>
+ * List of longs indexed by longs, which can hold more than 2<sup>31</sup> elements, e.g., a
+ * docid-to-offset table for a large collection. Elements are stored in segments of
+ * 2<sup>27</sup> longs; only the last segment grows as elements are added, so appending never
+ * copies more than one segment.
+ * </p>
+ *
+ * <p>
+ * A list can be saved to a file with {@link #save(File)}, and either loaded back onto the heap
+ * with {@link #load(File)} or memory mapped with {@link MappedArrayOfLongs#map(File)}, which
+ * gives read-only access without reading the file in. The file holds a 16-byte header (a magic
+ * number, the element width and the size) followed by the elements, big-endian.
+ * </p>
+ *
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ */
+public class BigArrayListOfLongs {
+  // Header of saved lists: magic number, element width in bytes, and size.
+  static final int MAGIC = 0x4c544241;
+  static final int HEADER_LENGTH = 16;
+
+  static final int DEFAULT_SEGMENT_SHIFT = 27;
+
+  private static final int INITIAL_SEGMENT_CAPACITY = 16;
+
+  private final int segmentShift;
+  private final int segmentSize;
+  private final long segmentMask;
+
+  private long[][] segments = new long[0][];
+  private long capacity;
+  private long size;
+
+  /**
+   * Constructs an empty list.
+   */
+  public BigArrayListOfLongs() {
+    this(DEFAULT_SEGMENT_SHIFT);
+  }
+
+  // Package-private so that tests can use small segments.
+  BigArrayListOfLongs(int segmentShift) {
+    this.segmentShift = segmentShift;
+    this.segmentSize = 1 << segmentShift;
+    this.segmentMask = segmentSize - 1;
+  }
+
+  /**
+   * Returns the number of elements in this list.
+   */
+  public long size() {
+    return size;
+  }
+
+  /**
+   * Returns <tt>true</tt> if this list contains no elements.
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Removes all elements from this list, and releases its storage.
+   */
+  public void clear() {
+    segments = new long[0][];
+    capacity = 0;
+    size = 0;
+  }
+
+  /**
+   * Increases the capacity of this list, if necessary, to hold at least the specified number of
+   * elements.
+   *
+   * @param minCapacity the desired minimum capacity
+   */
+  public void ensureCapacity(long minCapacity) {
+    if (minCapacity <= capacity) {
+      return;
+    }
+
+    int numSegments = (int) ((minCapacity + segmentSize - 1) >>> segmentShift);
+    if (numSegments > segments.length) {
+      segments = Arrays.copyOf(segments, numSegments);
+    }
+
+    for (int s = 0; s < numSegments; s++) {
+      int needed = s < numSegments - 1 ? segmentSize
+          : (int) (minCapacity - ((long) s << segmentShift));
+      int current = segments[s] == null ? 0 : segments[s].length;
+      if (current < needed) {
+        // Grow the last segment geometrically, as in ArrayListOfLongs, up to the segment size.
+        int newLength = (int) Math.min(segmentSize,
+            Math.max(needed, Math.max(INITIAL_SEGMENT_CAPACITY, (current * 3L) / 2 + 1)));
+        segments[s] = segments[s] == null ? new long[newLength]
+            : Arrays.copyOf(segments[s], newLength);
+      }
+    }
+
+    int last = numSegments - 1;
+    capacity = ((long) last << segmentShift) + segments[last].length;
+  }
+
+  private void checkIndex(long index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+    }
+  }
+
+  /**
+   * Returns the element at the specified position in this list.
+   *
+   * @param index index of the element to return
+   * @return the element at the specified position in this list
+   */
+  public long get(long index) {
+    checkIndex(index);
+    return segments[(int) (index >>> segmentShift)][(int) (index & segmentMask)];
+  }
+
+  /**
+   * Replaces the element at the specified position in this list with the specified element.
+   *
+   * @param index index of the element to replace
+   * @param element element to be stored at the specified position
+   * @return the element previously at the specified position
+   */
+  public long set(long index, long element) {
+    checkIndex(index);
+    long[] segment = segments[(int) (index >>> segmentShift)];
+    int i = (int) (index & segmentMask);
+    long oldValue = segment[i];
+    segment[i] = element;
+    return oldValue;
+  }
+
+  /**
+   * Appends the specified element to the end of this list.
+   *
+   * @param e element to be appended to this list
+   * @return this object
+   */
+  public BigArrayListOfLongs add(long e) {
+    if (size == capacity) {
+      ensureCapacity(size + 1);
+    }
+    segments[(int) (size >>> segmentShift)][(int) (size & segmentMask)] = e;
+    size++;
+    return this;
+  }
+
+  /**
+   * Appends {@code len} elements of an array, starting at offset {@code off}, to the end of this
+   * list.
+   *
+   * @param a source array
+   * @param off offset of the first element to append
+   * @param len number of elements to append
+   * @return this object
+   */
+  public BigArrayListOfLongs addAll(long[] a, int off, int len) {
+    if (off < 0 || len < 0 || off > a.length - len) {
+      throw new IndexOutOfBoundsException("Range [" + off + ", " + off + " + " + len
+          + ") out of bounds for length " + a.length);
+    }
+
+    ensureCapacity(size + len);
+    while (len > 0) {
+      int i = (int) (size & segmentMask);
+      int n = Math.min(len, segmentSize - i);
+      System.arraycopy(a, off, segments[(int) (size >>> segmentShift)], i, n);
+      size += n;
+      off += n;
+      len -= n;
+    }
+    return this;
+  }
+
+  /**
+   * Appends all elements of a list to the end of this list.
+   *
+   * @param list list of elements to append
+   * @return this object
+   */
+  public BigArrayListOfLongs addAll(ArrayListOfLongs list) {
+    return addAll(list.getArray(), 0, list.size());
+  }
+
+  /**
+   * Copies {@code len} elements of this list, starting at position {@code index}, into an array.
+   *
+   * @param index position of the first element to copy
+   * @param dst destination array
+   * @param off offset in the destination array
+   * @param len number of elements to copy
+   */
+  public void get(long index, long[] dst, int off, int len) {
+    if (index < 0 || len < 0 || index > size - len) {
+      throw new IndexOutOfBoundsException("Range [" + index + ", " + index + " + " + len
+          + ") out of bounds for size " + size);
+    }
+
+    while (len > 0) {
+      int i = (int) (index & segmentMask);
+      int n = Math.min(len, segmentSize - i);
+      System.arraycopy(segments[(int) (index >>> segmentShift)], i, dst, off, n);
+      index += n;
+      off += n;
+      len -= n;
+    }
+  }
+
+  /**
+   * Searches this list, which must be sorted in ascending order, for a key.
+   *
+   * @param key the value to search for
+   * @return index of the key, if it is in this list; otherwise, <code>(-(insertion point) -
+   *         1)</code>, where the insertion point is the index of the first element greater than the
+   *         key, or the size of this list if there is none
+   */
+  public long binarySearch(long key) {
+    long lo = 0;
+    long hi = size - 1;
+    while (lo <= hi) {
+      long mid = (lo + hi) >>> 1;
+      long v = segments[(int) (mid >>> segmentShift)][(int) (mid & segmentMask)];
+      if (v < key) {
+        lo = mid + 1;
+      } else if (v > key) {
+        hi = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -(lo + 1);
+  }
+
+  /**
+   * Saves this list to a file, which can be loaded back with {@link #load(File)} or memory mapped
+   * with {@link MappedArrayOfLongs#map(File)}.
+   *
+   * @param file the file
+   * @throws IOException if an I/O error occurs
+   */
+  public void save(File file) throws IOException {
+    DataOutputStream out =
+        new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+    try {
+      out.writeInt(MAGIC);
+      out.writeInt(8);
+      out.writeLong(size);
+      long remaining = size;
+      for (int s = 0; remaining > 0; s++) {
+        int n = (int) Math.min(remaining, segmentSize);
+        PrimitiveArrayIO.writeLongs(out, segments[s], 0, n);
+        remaining -= n;
+      }
+    } finally {
+      out.close();
+    }
+  }
+
+  /**
+   * Loads a list saved with {@link #save(File)} onto the heap.
+   *
+   * @param file the file
+   * @return the list
+   * @throws IOException if an I/O error occurs, or if the file does not hold a list of longs
+   */
+  public static BigArrayListOfLongs load(File file) throws IOException {
+    DataInputStream in =
+        new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16));
+    try {
+      long size = readHeader(in, 8, file);
+      BigArrayListOfLongs list = new BigArrayListOfLongs();
+      list.ensureCapacity(size);
+      long remaining = size;
+      for (int s = 0; remaining > 0; s++) {
+        int n = (int) Math.min(remaining, list.segmentSize);
+        PrimitiveArrayIO.readLongs(in, list.segments[s], 0, n);
+        remaining -= n;
+      }
+      list.size = size;
+      return list;
+    } finally {
+      in.close();
+    }
+  }
+
+  // Checks the header of a saved list and returns its size.
+  static long readHeader(DataInput in, int width, File file) throws IOException {
+    if (in.readInt() != MAGIC) {
+      throw new IOException("Not a saved list: " + file);
+    }
+    int w = in.readInt();
+    if (w != width) {
+      throw new IOException("Expected elements of " + width + " bytes, found " + w + ": " + file);
+    }
+    long size = in.readLong();
+    if (size < 0) {
+      throw new IOException("Invalid size " + size + ": " + file);
+    }
+    return size;
+  }
+}
@@ -0,0 +1,518 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.array;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.io.WritableUtils;
+
+/**
+ * <p>
+ * Writable for compressed lists of sorted ints, such as postings or docid lists, as a compact
+ * alternative to {@link ArrayListOfIntsWritable}. Values are split into blocks of
+ * {@value #BLOCK_SIZE}; the first value of each block is kept in a skip table, and the remaining
+ * values are stored as differences from their predecessors (d-gaps) with one of two encodings:
+ * </p>
+ *
+ * <ul>
+ * <li>{@link Encoding#VBYTE}: each gap is written in groups of seven bits, low-order group first,
+ * with the high bit of each byte marking continuation.</li>
+ *
+ * <li>{@link Encoding#PFOR}: all gaps of a block are bit packed with a common width, chosen to
+ * minimize the size of the block; the few gaps that do not fit (exceptions) have their high-order
+ * bits patched in from a list stored after the packed data.</li>
+ * </ul>
+ *
+ * <p>
+ * Values are kept compressed in memory as well. Lists can be decoded as a whole into a reusable
+ * {@code int[]} with {@link #decode(int[])}, or one block at a time with
+ * {@link #decodeBlock(int, int[], int)}; {@link #get(int)} and {@link #contains(int)} use the skip
+ * table to decode only the block of interest. Values must be in non-decreasing order, and may be
+ * negative.
+ * </p>
+ */
+public class CompressedSortedIntsWritable implements Writable {
+  /**
+   * Number of values per block.
+   */
+  public static final int BLOCK_SIZE = 128;
+
+  /**
+   * Encodings of d-gaps within blocks.
+   */
+  public static enum Encoding {
+    /**
+     * Variable-byte encoding.
+     */
+    VBYTE,
+
+    /**
+     * Bit packing with patched exceptions.
+     */
+    PFOR
+  }
+
+  // Upper bound on the encoded size of a block, in bytes.
+  private static final int MAX_BLOCK_BYTES = 2 + BLOCK_SIZE * 6;
+
+  private Encoding encoding;
+  private int size = 0;
+  private int numBlocks = 0;
+  private int[] blockFirst = new int[0];
+  private int[] blockOffset = new int[1];
+  private byte[] data = new byte[0];
+
+  // Scratch space for decoding, and the most recently decoded block for random access.
+  private final int[] gaps = new int[BLOCK_SIZE];
+  private final int[] histogram = new int[33];
+  private final int[] cache = new int[BLOCK_SIZE];
+  private int cachedBlock = -1;
+
+  /**
+   * Creates an empty list that will be encoded with {@link Encoding#PFOR}.
+   */
+  public CompressedSortedIntsWritable() {
+    this(Encoding.PFOR);
+  }
+
+  /**
+   * Creates an empty list with a specific encoding.
+   *
+   * @param encoding encoding of d-gaps
+   */
+  public CompressedSortedIntsWritable(Encoding encoding) {
+    this.encoding = encoding;
+  }
+
+  /**
+   * Creates a list holding an array of sorted values.
+   *
+   * @param values values in non-decreasing order
+   * @param encoding encoding of d-gaps
+   */
+  public CompressedSortedIntsWritable(int[] values, Encoding encoding) {
+    this.encoding = encoding;
+    set(values, 0, values.length);
+  }
+
+  /**
+   * Replaces the contents of this list with a list of sorted values.
+   *
+   * @param list values in non-decreasing order
+   */
+  public void set(ArrayListOfInts list) {
+    set(list.getArray(), 0, list.size());
+  }
+
+  /**
+   * Replaces the contents of this list with a range of sorted values.
+   *
+   * @param values source array
+   * @param off offset of the first value
+   * @param len number of values
+   * @exception IllegalArgumentException if values are out of order
+   */
+  public void set(int[] values, int off, int len) {
+    for (int i = off + 1; i < off + len; i++) {
+      if (values[i] < values[i - 1]) {
+        throw new IllegalArgumentException("Values must be sorted in non-decreasing order!");
+      }
+    }
+
+    size = len;
+    numBlocks = (len + BLOCK_SIZE - 1) / BLOCK_SIZE;
+    if (blockFirst.length < numBlocks) {
+      blockFirst = new int[numBlocks];
+      blockOffset = new int[numBlocks + 1];
+    }
+
+    int pos = 0;
+    for (int b = 0; b < numBlocks; b++) {
+      int start = off + b * BLOCK_SIZE;
+      int n = Math.min(BLOCK_SIZE, len - b * BLOCK_SIZE);
+      for (int i = 1; i < n; i++) {
+        gaps[i - 1] = values[start + i] - values[start + i - 1];
+      }
+
+      blockFirst[b] = values[start];
+      blockOffset[b] = pos;
+      ensureCapacity(pos + MAX_BLOCK_BYTES);
+      pos = encoding == Encoding.VBYTE ? encodeVByte(n - 1, pos) : encodePFor(n - 1, pos);
+    }
+    blockOffset[numBlocks] = pos;
+    cachedBlock = -1;
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (data.length < capacity) {
+      data = Arrays.copyOf(data, Math.max(capacity, data.length * 3 / 2));
+    }
+  }
+
+  private int encodeVByte(int n, int pos) {
+    for (int i = 0; i < n; i++) {
+      pos = writeVByte(gaps[i], pos);
+    }
+    return pos;
+  }
+
+  private int writeVByte(int v, int pos) {
+    while ((v & ~0x7F) != 0) {
+      data[pos++] = (byte) ((v & 0x7F) | 0x80);
+      v >>>= 7;
+    }
+    data[pos++] = (byte) v;
+    return pos;
+  }
+
+  private int encodePFor(int n, int pos) {
+    // Gaps are treated as unsigned, so bit widths range from 0 to 32.
+    Arrays.fill(histogram, 0);
+    for (int i = 0; i < n; i++) {
+      histogram[32 - Integer.numberOfLeadingZeros(gaps[i])]++;
+    }
+    int maxBits = 32;
+    while (maxBits > 0 && histogram[maxBits] == 0) {
+      maxBits--;
+    }
+
+    // Pick the width that minimizes packed size plus (an upper bound on) the size of exceptions,
+    // each of which takes a one-byte position and the variable-byte high-order bits.
+    int bits = maxBits;
+    int exceptions = 0;
+    int bestCost = (n * maxBits + 7) / 8;
+    int bestExceptions = 0;
+    for (int b = maxBits - 1; b >= 0; b--) {
+      exceptions += histogram[b + 1];
+      int cost = (n * b + 7) / 8 + exceptions * (1 + (maxBits - b + 6) / 7);
+      if (cost < bestCost) {
+        bestCost = cost;
+        bits = b;
+        bestExceptions = exceptions;
+      }
+    }
+
+    data[pos++] = (byte) bits;
+    data[pos++] = (byte) bestExceptions;
+
+    long mask = (1L << bits) - 1;
+    long acc = 0;
+    int accBits = 0;
+    for (int i = 0; i < n; i++) {
+      acc |= (gaps[i] & mask) << accBits;
+      accBits += bits;
+      while (accBits >= 8) {
+        data[pos++] = (byte) acc;
+        acc >>>= 8;
+        accBits -= 8;
+      }
+    }
+    if (accBits > 0) {
+      data[pos++] = (byte) acc;
+    }
+
+    if (bestExceptions > 0) {
+      for (int i = 0; i < n; i++) {
+        if ((gaps[i] & 0xFFFFFFFFL) > mask) {
+          data[pos++] = (byte) i;
+          pos = writeVByte(gaps[i] >>> bits, pos);
+        }
+      }
+    }
+
+    return pos;
+  }
+
+  private void decodeGaps(int block, int n) {
+    int pos = blockOffset[block];
+    if (encoding == Encoding.VBYTE) {
+      for (int i = 0; i < n; i++) {
+        int b = data[pos++];
+        int v = b & 0x7F;
+        for (int shift = 7; b < 0; shift += 7) {
+          b = data[pos++];
+          v |= (b & 0x7F) << shift;
+        }
+        gaps[i] = v;
+      }
+      return;
+    }
+
+    int bits = data[pos++] & 0xFF;
+    int exceptions = data[pos++] & 0xFF;
+
+    long mask = (1L << bits) - 1;
+    long acc = 0;
+    int accBits = 0;
+    for (int i = 0; i < n; i++) {
+      while (accBits < bits) {
+        acc |= (data[pos++] & 0xFFL) << accBits;
+        accBits += 8;
+      }
+      gaps[i] = (int) (acc & mask);
+      acc >>>= bits;
+      accBits -= bits;
+    }
+
+    for (int e = 0; e < exceptions; e++) {
+      int i = data[pos++] & 0xFF;
+      int b = data[pos++];
+      int high = b & 0x7F;
+      for (int shift = 7; b < 0; shift += 7) {
+        b = data[pos++];
+        high |= (b & 0x7F) << shift;
+      }
+      gaps[i] |= high << bits;
+    }
+  }
+
+  /**
+   * Decodes a block of values.
+   *
+   * @param block index of the block
+   * @param dst destination array
+   * @param off offset in the destination array
+   * @return number of values in the block
+   */
+  public int decodeBlock(int block, int[] dst, int off) {
+    if (block < 0 || block >= numBlocks) {
+      throw new IndexOutOfBoundsException("Block " + block + " out of bounds!");
+    }
+
+    int n = getBlockLength(block);
+    decodeGaps(block, n - 1);
+
+    int v = blockFirst[block];
+    dst[off] = v;
+    for (int i = 1; i < n; i++) {
+      v += gaps[i - 1];
+      dst[off + i] = v;
+    }
+    return n;
+  }
+
+  /**
+   * Decodes all values into an array, which may be reused across calls.
+   *
+   * @param dst destination array, of length at least {@link #size()}
+   * @return number of values decoded
+   */
+  public int decode(int[] dst) {
+    if (dst.length < size) {
+      throw new IllegalArgumentException("Destination array too small: " + dst.length + " < "
+          + size);
+    }
+
+    for (int b = 0; b < numBlocks; b++) {
+      decodeBlock(b, dst, b * BLOCK_SIZE);
+    }
+    return size;
+  }
+
+  /**
+   * Returns all values in a new array.
+   */
+  public int[] toArray() {
+    int[] arr = new int[size];
+    decode(arr);
+    return arr;
+  }
+
+  /**
+   * Returns all values in a new {@link ArrayListOfIntsWritable}.
+   */
+  public ArrayListOfIntsWritable toArrayListOfIntsWritable() {
+    ArrayListOfIntsWritable list = new ArrayListOfIntsWritable(size);
+    decode(list.getArray());
+    list.setSize(size);
+    return list;
+  }
+
+  /**
+   * Returns the value at a position. Consecutive accesses within the same block decode the block
+   * only once.
+   *
+   * @param i position
+   */
+  public int get(int i) {
+    if (i < 0 || i >= size) {
+      throw new IndexOutOfBoundsException("Index " + i + " out of bounds for size " + size);
+    }
+
+    int block = i / BLOCK_SIZE;
+    if (block != cachedBlock) {
+      decodeBlock(block, cache, 0);
+      cachedBlock = block;
+    }
+    return cache[i % BLOCK_SIZE];
+  }
+
+  /**
+   * Returns whether this list contains a value, decoding at most one block.
+   *
+   * @param v value to search for
+   */
+  public boolean contains(int v) {
+    int block = findBlock(v);
+    if (block < 0) {
+      return false;
+    }
+
+    if (block != cachedBlock) {
+      decodeBlock(block, cache, 0);
+      cachedBlock = block;
+    }
+    return Arrays.binarySearch(cache, 0, getBlockLength(block), v) >= 0;
+  }
+
+  /**
+   * Returns the index of the last block whose first value is no larger than {@code v}, which holds
+   * {@code v} if this list contains it, or -1 if {@code v} is smaller than all values.
+   *
+   * @param v value to search for
+   */
+  public int findBlock(int v) {
+    int lo = 0;
+    int hi = numBlocks - 1;
+    int found = -1;
+    while (lo <= hi) {
+      int mid = (lo + hi) >>> 1;
+      if (blockFirst[mid] <= v) {
+        found = mid;
+        lo = mid + 1;
+      } else {
+        hi = mid - 1;
+      }
+    }
+
+    return found;
+  }
+
+  /**
+   * Returns the first value of a block.
+   *
+   * @param block index of the block
+   */
+  public int getBlockFirst(int block) {
+    return blockFirst[block];
+  }
+
+  /**
+   * Returns the number of values in a block.
+   *
+   * @param block index of the block
+   */
+  public int getBlockLength(int block) {
+    return block == numBlocks - 1 ? size - block * BLOCK_SIZE : BLOCK_SIZE;
+  }
+
+  /**
+   * Returns the number of blocks.
+   */
+  public int getNumberOfBlocks() {
+    return numBlocks;
+  }
+
+  /**
+   * Returns the number of values.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns whether this list is empty.
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Returns the encoding of d-gaps.
+   */
+  public Encoding getEncoding() {
+    return encoding;
+  }
+
+  /**
+   * Returns the size of the encoded d-gaps in bytes, excluding the skip table.
+   */
+  public int getCompressedSize() {
+    return blockOffset[numBlocks];
+  }
+
+  /**
+   * Deserializes this object.
+   *
+   * @param in source for raw byte representation
+   */
+  @Override
+  public void readFields(DataInput in) throws IOException {
+    encoding = Encoding.values()[in.readByte()];
+    size = WritableUtils.readVInt(in);
+    numBlocks = (size + BLOCK_SIZE - 1) / BLOCK_SIZE;
+    if (blockFirst.length < numBlocks) {
+      blockFirst = new int[numBlocks];
+      blockOffset = new int[numBlocks + 1];
+    }
+
+    int first = 0;
+    int pos = 0;
+    for (int b = 0; b < numBlocks; b++) {
+      first += WritableUtils.readVInt(in);
+      blockFirst[b] = first;
+      blockOffset[b] = pos;
+      pos += WritableUtils.readVInt(in);
+    }
+    blockOffset[numBlocks] = pos;
+
+    if (data.length < pos) {
+      data = new byte[pos];
+    }
+    in.readFully(data, 0, pos);
+    cachedBlock = -1;
+  }
+
+  /**
+   * Serializes this object.
+   *
+   * @param out where to write the raw byte representation
+   */
+  @Override
+  public void write(DataOutput out) throws IOException {
+    out.writeByte(encoding.ordinal());
+    WritableUtils.writeVInt(out, size);
+
+    // The skip table: gaps between first values of blocks, and lengths of blocks.
+    int first = 0;
+    for (int b = 0; b < numBlocks; b++) {
+      WritableUtils.writeVInt(out, blockFirst[b] - first);
+      WritableUtils.writeVInt(out, blockOffset[b + 1] - blockOffset[b]);
+      first = blockFirst[b];
+    }
+    out.write(data, 0, blockOffset[numBlocks]);
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(toArray());
+  }
+}
@@ -23,6 +23,8 @@ import java.util.Arrays;
 
 import org.apache.hadoop.io.Writable;
 
+import tl.lin.data.util.PrimitiveArrayIO;
+
 public class FloatArrayWritable implements Writable {
   private float[] array;
   private int length = 0;
@@ -64,17 +66,13 @@ public class FloatArrayWritable implements Writable {
   public void readFields(DataInput in) throws IOException {
     this.length = in.readInt();
     array = new float[length];
-    for (int i = 0; i < length; i++) {
-      array[i] = in.readFloat();
-    }
+    PrimitiveArrayIO.readFloats(in, array, 0, length);
   }
 
   @Override
   public void write(DataOutput out) throws IOException {
     out.writeInt(length);
-    for (int i = 0; i < length; i++) {
-      out.writeFloat(array[i]);
-    }
+    PrimitiveArrayIO.writeFloats(out, array, 0, length);
   }
 
   /**
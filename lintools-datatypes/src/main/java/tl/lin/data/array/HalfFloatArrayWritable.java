@@ -0,0 +1,340 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.array;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.hadoop.io.Writable;
+
+import tl.lin.data.util.PrimitiveArrayIO;
+
+/**
+ * <p>
+ * Writable for vectors of floats stored at half precision (IEEE 754 binary16, or float16), as a
+ * compact alternative to {@link FloatArrayWritable} for embeddings and other vectors that do not
+ * need full precision. Each value takes two bytes, both in memory and serialized, and keeps 11
+ * significant bits, i.e., a relative error of at most 2<sup>-11</sup>, within the range of
+ * float16 (magnitudes up to 65504; larger values become infinite).
+ * </p>
+ *
+ * <p>
+ * Vectors are encoded from and decoded to float arrays in bulk. {@link #dot(float[], int)},
+ * {@link #cosine(float[], int)} and their variants between two half-precision vectors work
+ * directly on the encoded values, through a lookup table, without decoding into a temporary array.
+ * </p>
+ */
+public class HalfFloatArrayWritable implements Writable {
+  private static final float[] EMPTY_FLOATS = new float[0];
+
+  // All 65536 half-precision values, indexed by their bits.
+  private static final float[] HALF_TO_FLOAT = new float[1 << 16];
+
+  static {
+    for (int h = 0; h < HALF_TO_FLOAT.length; h++) {
+      HALF_TO_FLOAT[h] = toFloat((short) h);
+    }
+  }
+
+  private short[] data = new short[0];
+  private int size = 0;
+
+  /**
+   * Creates an empty vector.
+   */
+  public HalfFloatArrayWritable() {
+  }
+
+  /**
+   * Creates a vector holding an array of values, rounded to half precision.
+   *
+   * @param values values to encode
+   */
+  public HalfFloatArrayWritable(float[] values) {
+    set(values, 0, values.length);
+  }
+
+  /**
+   * Converts a float to the bits of the nearest half-precision value, rounding ties to even.
+   *
+   * @param f value to convert
+   * @return bits of the half-precision value
+   */
+  public static short toHalf(float f) {
+    int bits = Float.floatToRawIntBits(f);
+    int sign = (bits >>> 16) & 0x8000;
+    int abs = bits & 0x7fffffff;
+
+    if (abs >= 0x7f800000) {
+      // Infinity or NaN; NaNs stay quiet NaNs.
+      return (short) (sign | 0x7c00 | (abs > 0x7f800000 ? 0x200 : 0));
+    }
+    if (abs >= 0x477ff000) {
+      // At least halfway between the largest half (65504) and the next power of two.
+      return (short) (sign | 0x7c00);
+    }
+    if (abs < 0x38800000) {
+      // Below the smallest normal half (2^-14): subnormal, in units of 2^-24, or zero.
+      if (abs <= 0x33000000) {
+        return (short) sign;
+      }
+      int shift = 126 - (abs >>> 23);
+      int mantissa = (abs & 0x7fffff) | 0x800000;
+      int h = mantissa >>> shift;
+      int rest = mantissa & ((1 << shift) - 1);
+      int halfway = 1 << (shift - 1);
+      if (rest > halfway || (rest == halfway && (h & 1) != 0)) {
+        h++;
+      }
+      return (short) (sign | h);
+    }
+
+    // Normal: rebias the exponent and round off 13 bits of mantissa. A carry out of the mantissa
+    // correctly increments the exponent.
+    int h = (abs - 0x38000000) >>> 13;
+    int rest = abs & 0x1fff;
+    if (rest > 0x1000 || (rest == 0x1000 && (h & 1) != 0)) {
+      h++;
+    }
+    return (short) (sign | h);
+  }
+
+  /**
+   * Converts the bits of a half-precision value to a float, which is exact.
+   *
+   * @param h bits of the half-precision value
+   * @return the value as a float
+   */
+  public static float toFloat(short h) {
+    int bits = h & 0xffff;
+    int sign = (bits & 0x8000) << 16;
+    int exponent = (bits >>> 10) & 0x1f;
+    int mantissa = bits & 0x3ff;
+
+    if (exponent == 0x1f) {
+      return Float.intBitsToFloat(sign | 0x7f800000 | (mantissa << 13));
+    }
+    if (exponent == 0) {
+      // Zero or subnormal, in units of 2^-24.
+      float v = mantissa * 0x1p-24f;
+      return sign == 0 ? v : -v;
+    }
+    return Float.intBitsToFloat(sign | ((exponent + 112) << 23) | (mantissa << 13));
+  }
+
+  /**
+   * Replaces the contents of this vector with a list of values, rounded to half precision.
+   *
+   * @param list values to encode
+   */
+  public void set(ArrayListOfFloats list) {
+    set(list.getArray(), 0, list.size());
+  }
+
+  /**
+   * Replaces the contents of this vector with the values of a {@link FloatArrayWritable}, rounded
+   * to half precision.
+   *
+   * @param array values to encode
+   */
+  public void set(FloatArrayWritable array) {
+    // An empty FloatArrayWritable may have no backing array at all.
+    set(array.size() == 0 ? EMPTY_FLOATS : array.getArray(), 0, array.size());
+  }
+
+  /**
+   * Replaces the contents of this vector with a range of values, rounded to half precision.
+   *
+   * @param values source array
+   * @param off offset of the first value
+   * @param len number of values
+   */
+  public void set(float[] values, int off, int len) {
+    if (off < 0 || len < 0 || off > values.length - len) {
+      throw new IndexOutOfBoundsException("Range [" + off + ", " + off + " + " + len
+          + ") out of bounds for length " + values.length);
+    }
+
+    ensureCapacity(len);
+    for (int i = 0; i < len; i++) {
+      data[i] = toHalf(values[off + i]);
+    }
+    size = len;
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (data.length < capacity) {
+      data = new short[Math.max(capacity, data.length * 3 / 2)];
+    }
+  }
+
+  /**
+   * Decodes all values into an array, which may be reused across calls.
+   *
+   * @param dst destination array
+   * @param off offset in the destination array
+   * @return number of values decoded
+   */
+  public int decode(float[] dst, int off) {
+    if (off < 0 || off > dst.length - size) {
+      throw new IndexOutOfBoundsException("Range [" + off + ", " + off + " + " + size
+          + ") out of bounds for length " + dst.length);
+    }
+
+    for (int i = 0; i < size; i++) {
+      dst[off + i] = HALF_TO_FLOAT[data[i] & 0xffff];
+    }
+    return size;
+  }
+
+  /**
+   * Returns all values in a new array.
+   */
+  public float[] toArray() {
+    float[] arr = new float[size];
+    decode(arr, 0);
+    return arr;
+  }
+
+  /**
+   * Returns the value at a position.
+   *
+   * @param i position
+   */
+  public float get(int i) {
+    if (i < 0 || i >= size) {
+      throw new IndexOutOfBoundsException("Index " + i + " out of bounds for size " + size);
+    }
+    return HALF_TO_FLOAT[data[i] & 0xffff];
+  }
+
+  /**
+   * Returns the dot product of this vector with a full-precision query vector.
+   *
+   * @param query query vector
+   * @param off offset of the query vector, which has {@link #size()} elements
+   */
+  public float dot(float[] query, int off) {
+    checkQuery(query, off);
+
+    float s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+    int i = 0;
+    for (; i <= size - 4; i += 4) {
+      s0 += query[off + i] * HALF_TO_FLOAT[data[i] & 0xffff];
+      s1 += query[off + i + 1] * HALF_TO_FLOAT[data[i + 1] & 0xffff];
+      s2 += query[off + i + 2] * HALF_TO_FLOAT[data[i + 2] & 0xffff];
+      s3 += query[off + i + 3] * HALF_TO_FLOAT[data[i + 3] & 0xffff];
+    }
+    for (; i < size; i++) {
+      s0 += query[off + i] * HALF_TO_FLOAT[data[i] & 0xffff];
+    }
+    return (s0 + s1) + (s2 + s3);
+  }
+
+  /**
+   * Returns the dot product of this vector with another half-precision vector of the same size.
+   *
+   * @param other the other vector
+   */
+  public float dot(HalfFloatArrayWritable other) {
+    checkSize(other.size);
+
+    short[] otherData = other.data;
+    float s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+    int i = 0;
+    for (; i <= size - 4; i += 4) {
+      s0 += HALF_TO_FLOAT[data[i] & 0xffff] * HALF_TO_FLOAT[otherData[i] & 0xffff];
+      s1 += HALF_TO_FLOAT[data[i + 1] & 0xffff] * HALF_TO_FLOAT[otherData[i + 1] & 0xffff];
+      s2 += HALF_TO_FLOAT[data[i + 2] & 0xffff] * HALF_TO_FLOAT[otherData[i + 2] & 0xffff];
+      s3 += HALF_TO_FLOAT[data[i + 3] & 0xffff] * HALF_TO_FLOAT[otherData[i + 3] & 0xffff];
+    }
+    for (; i < size; i++) {
+      s0 += HALF_TO_FLOAT[data[i] & 0xffff] * HALF_TO_FLOAT[otherData[i] & 0xffff];
+    }
+    return (s0 + s1) + (s2 + s3);
+  }
+
+  /**
+   * Returns the Euclidean norm of this vector.
+   */
+  public float norm() {
+    return (float) Math.sqrt(dot(this));
+  }
+
+  /**
+   * Returns the cosine similarity of this vector with a full-precision query vector, or zero if
+   * either vector is all zeros.
+   *
+   * @param query query vector
+   * @param off offset of the query vector, which has {@link #size()} elements
+   */
+  public float cosine(float[] query, int off) {
+    double denominator = (double) norm() * VectorMath.norm(query, off, size);
+    return denominator == 0 ? 0 : (float) (dot(query, off) / denominator);
+  }
+
+  /**
+   * Returns the cosine similarity of this vector with another half-precision vector of the same
+   * size, or zero if either vector is all zeros.
+   *
+   * @param other the other vector
+   */
+  public float cosine(HalfFloatArrayWritable other) {
+    double denominator = (double) norm() * other.norm();
+    return denominator == 0 ? 0 : (float) (dot(other) / denominator);
+  }
+
+  private void checkQuery(float[] query, int off) {
+    if (off < 0 || off > query.length - size) {
+      throw new IndexOutOfBoundsException("Range [" + off + ", " + off + " + " + size
+          + ") out of bounds for length " + query.length);
+    }
+  }
+
+  private void checkSize(int otherSize) {
+    if (otherSize != size) {
+      throw new IllegalArgumentException("Vectors must have the same length!");
+    }
+  }
+
+  /**
+   * Returns the number of values.
+   */
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public void readFields(DataInput in) throws IOException {
+    size = in.readInt();
+    ensureCapacity(size);
+    PrimitiveArrayIO.readShorts(in, data, 0, size);
+  }
+
+  @Override
+  public void write(DataOutput out) throws IOException {
+    out.writeInt(size);
+    PrimitiveArrayIO.writeShorts(out, data, 0, size);
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(toArray());
+  }
+}
@@ -23,6 +23,8 @@ import java.util.Arrays;
 
 import org.apache.hadoop.io.Writable;
 
+import tl.lin.data.util.PrimitiveArrayIO;
+
 public class IntArrayWritable implements Writable {
   private int[] array;
   private int length = 0;
@@ -64,17 +66,13 @@ public class IntArrayWritable implements Writable {
   public void readFields(DataInput in) throws IOException {
     this.length = in.readInt();
     array = new int[length];
-    for (int i = 0; i < length; i++) {
-      array[i] = in.readInt();
-    }
+    PrimitiveArrayIO.readInts(in, array, 0, length);
   }
 
   @Override
   public void write(DataOutput out) throws IOException {
     out.writeInt(length);
-    for (int i = 0; i < length; i++) {
-      out.writeInt(array[i]);
-    }
+    PrimitiveArrayIO.writeInts(out, array, 0, length);
   }
 
   /**
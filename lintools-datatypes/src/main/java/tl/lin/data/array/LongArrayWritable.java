@@ -23,6 +23,8 @@ import java.util.Arrays;
 
 import org.apache.hadoop.io.Writable;
 
+import tl.lin.data.util.PrimitiveArrayIO;
+
 public class LongArrayWritable implements Writable {
   private long[] array;
   private int length = 0;
@@ -64,17 +66,13 @@ public class LongArrayWritable implements Writable {
   public void readFields(DataInput in) throws IOException {
     this.length = in.readInt();
     array = new long[length];
-    for (int i = 0; i < length; i++) {
-      array[i] = in.readLong();
-    }
+    PrimitiveArrayIO.readLongs(in, array, 0, length);
   }
 
   @Override
   public void write(DataOutput out) throws IOException {
     out.writeInt(length);
-    for (int i = 0; i < length; i++) {
-      out.writeLong(array[i]);
-    }
+    PrimitiveArrayIO.writeLongs(out, array, 0, length);
   }
 
   /**
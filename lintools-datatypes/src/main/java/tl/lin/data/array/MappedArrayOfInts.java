@@ -0,0 +1,166 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.array;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * <p>
+ * Read-only, memory-mapped view of a list of ints saved with
+ * {@link BigArrayListOfInts#save(File)}. Mapping a file does not read it: elements live off the
+ * heap, in the operating system's page cache, and are paged in as they are accessed, so even
+ * tables larger than the heap can be opened instantly. Since a single mapping is limited to
+ * 2<sup>31</sup> bytes, the file is mapped in segments of 2<sup>27</sup> ints.
+ * </p>
+ *
+ * <p>
+ * The view is safe for concurrent reads. It remains valid after the file is closed, which happens
+ * as soon as it has been mapped; the mapping itself is released when the view is garbage
+ * collected.
+ * </p>
+ */
+public class MappedArrayOfInts {
+  private final IntBuffer[] buffers;
+  private final int segmentShift;
+  private final long segmentMask;
+  private final long size;
+
+  private MappedArrayOfInts(IntBuffer[] buffers, int segmentShift, long size) {
+    this.buffers = buffers;
+    this.segmentShift = segmentShift;
+    this.segmentMask = (1L << segmentShift) - 1;
+    this.size = size;
+  }
+
+  /**
+   * Maps a file saved with {@link BigArrayListOfInts#save(File)}.
+   *
+   * @param file the file
+   * @return read-only view of the list saved in the file
+   * @throws IOException if an I/O error occurs, or if the file does not hold a list of ints
+   */
+  public static MappedArrayOfInts map(File file) throws IOException {
+    return map(file, BigArrayListOfInts.DEFAULT_SEGMENT_SHIFT);
+  }
+
+  // Package-private so that tests can use small segments.
+  static MappedArrayOfInts map(File file, int segmentShift) throws IOException {
+    RandomAccessFile raf = new RandomAccessFile(file, "r");
+    try {
+      long size = BigArrayListOfLongs.readHeader(raf, 4, file);
+      if (raf.length() < BigArrayListOfLongs.HEADER_LENGTH + size * 4) {
+        throw new IOException("File is too short for " + size + " ints: " + file);
+      }
+
+      FileChannel channel = raf.getChannel();
+      long segmentSize = 1L << segmentShift;
+      IntBuffer[] buffers = new IntBuffer[(int) ((size + segmentSize - 1) >>> segmentShift)];
+      for (int s = 0; s < buffers.length; s++) {
+        long start = (long) s << segmentShift;
+        long n = Math.min(segmentSize, size - start);
+        buffers[s] = channel.map(FileChannel.MapMode.READ_ONLY,
+            BigArrayListOfLongs.HEADER_LENGTH + start * 4, n * 4).asIntBuffer();
+      }
+      return new MappedArrayOfInts(buffers, segmentShift, size);
+    } finally {
+      raf.close();
+    }
+  }
+
+  /**
+   * Returns the number of elements.
+   */
+  public long size() {
+    return size;
+  }
+
+  /**
+   * Returns <tt>true</tt> if there are no elements.
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Returns the element at the specified position.
+   *
+   * @param index index of the element to return
+   * @return the element at the specified position
+   */
+  public int get(long index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+    }
+    return buffers[(int) (index >>> segmentShift)].get((int) (index & segmentMask));
+  }
+
+  /**
+   * Copies {@code len} elements, starting at position {@code index}, into an array.
+   *
+   * @param index position of the first element to copy
+   * @param dst destination array
+   * @param off offset in the destination array
+   * @param len number of elements to copy
+   */
+  public void get(long index, int[] dst, int off, int len) {
+    if (index < 0 || len < 0 || index > size - len) {
+      throw new IndexOutOfBoundsException("Range [" + index + ", " + index + " + " + len
+          + ") out of bounds for size " + size);
+    }
+
+    while (len > 0) {
+      int i = (int) (index & segmentMask);
+      // Duplicate the buffer, since bulk reads move its position.
+      IntBuffer buffer = buffers[(int) (index >>> segmentShift)].duplicate();
+      int n = Math.min(len, buffer.limit() - i);
+      buffer.position(i);
+      buffer.get(dst, off, n);
+      index += n;
+      off += n;
+      len -= n;
+    }
+  }
+
+  /**
+   * Searches the elements, which must be sorted in ascending order, for a key.
+   *
+   * @param key the value to search for
+   * @return index of the key, if it is present; otherwise, <code>(-(insertion point) - 1)</code>,
+   *         where the insertion point is the index of the first element greater than the key, or
+   *         the size if there is none
+   */
+  public long binarySearch(int key) {
+    long lo = 0;
+    long hi = size - 1;
+    while (lo <= hi) {
+      long mid = (lo + hi) >>> 1;
+      int v = buffers[(int) (mid >>> segmentShift)].get((int) (mid & segmentMask));
+      if (v < key) {
+        lo = mid + 1;
+      } else if (v > key) {
+        hi = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -(lo + 1);
+  }
+}
@@ -0,0 +1,330 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.array;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.hadoop.io.Writable;
+
+/**
+ * <p>
+ * Writable for vectors of floats quantized to eight bits per value, as a compact alternative to
+ * {@link FloatArrayWritable} for embeddings and other vectors that tolerate approximation. Each
+ * vector has its own offset (its minimum value) and scale, and each value is stored as an
+ * unsigned byte {@code c}, standing for {@code offset + scale * c}. The scale is chosen so that
+ * codes span the range of the vector, so the error of each value is at most half a step, i.e.,
+ * {@code (max - min) / 510}. A vector takes one byte per value plus 12 bytes, both in memory and
+ * serialized.
+ * </p>
+ *
+ * <p>
+ * Vectors are encoded from and decoded to float arrays in bulk. Dot products and cosine
+ * similarities work directly on the codes, without decoding into a temporary array. Between two
+ * quantized vectors, they reduce to integer sums of products of codes, plus terms that depend
+ * only on the sums of codes, which are computed once per vector.
+ * </p>
+ */
+public class QuantizedFloatArrayWritable implements Writable {
+  private static final int LEVELS = 255;
+  private static final float[] EMPTY_FLOATS = new float[0];
+
+  private byte[] codes = new byte[0];
+  private int size = 0;
+  private float offset = 0.0f;
+  private float scale = 0.0f;
+
+  // Sum of codes and sum of squared codes, derived from the codes.
+  private long codeSum = 0;
+  private long codeSquareSum = 0;
+
+  /**
+   * Creates an empty vector.
+   */
+  public QuantizedFloatArrayWritable() {
+  }
+
+  /**
+   * Creates a vector holding an array of quantized values.
+   *
+   * @param values values to encode
+   */
+  public QuantizedFloatArrayWritable(float[] values) {
+    set(values, 0, values.length);
+  }
+
+  /**
+   * Replaces the contents of this vector with a list of quantized values.
+   *
+   * @param list values to encode
+   */
+  public void set(ArrayListOfFloats list) {
+    set(list.getArray(), 0, list.size());
+  }
+
+  /**
+   * Replaces the contents of this vector with the quantized values of a
+   * {@link FloatArrayWritable}.
+   *
+   * @param array values to encode
+   */
+  public void set(FloatArrayWritable array) {
+    // A default-constructed FloatArrayWritable has a null array.
+    set(array.size() == 0 ? EMPTY_FLOATS : array.getArray(), 0, array.size());
+  }
+
+  /**
+   * Replaces the contents of this vector with a range of quantized values.
+   *
+   * @param values source array
+   * @param off offset of the first value
+   * @param len number of values
+   * @exception IllegalArgumentException if a value is infinite or NaN
+   */
+  public void set(float[] values, int off, int len) {
+    if (off < 0 || len < 0 || off > values.length - len) {
+      throw new IndexOutOfBoundsException("Range [" + off + ", " + off + " + " + len
+          + ") out of bounds for length " + values.length);
+    }
+
+    float min = Float.POSITIVE_INFINITY;
+    float max = Float.NEGATIVE_INFINITY;
+    for (int i = off; i < off + len; i++) {
+      float v = values[i];
+      if (Float.isNaN(v) || Float.isInfinite(v)) {
+        throw new IllegalArgumentException("Values must be finite!");
+      }
+      min = Math.min(min, v);
+      max = Math.max(max, v);
+    }
+
+    if (codes.length < len) {
+      codes = new byte[Math.max(len, codes.length * 3 / 2)];
+    }
+    size = len;
+    offset = len == 0 ? 0.0f : min;
+    // Compute the range in double, which cannot overflow.
+    double range = len == 0 ? 0.0 : (double) max - min;
+    scale = (float) (range / LEVELS);
+
+    double inverse = range == 0.0 ? 0.0 : LEVELS / range;
+    for (int i = 0; i < len; i++) {
+      int c = (int) ((values[off + i] - (double) min) * inverse + 0.5);
+      codes[i] = (byte) Math.min(c, LEVELS);
+    }
+    computeSums();
+  }
+
+  private void computeSums() {
+    long sum = 0;
+    long squareSum = 0;
+    for (int i = 0; i < size; i++) {
+      int c = codes[i] & 0xff;
+      sum += c;
+      squareSum += c * c;
+    }
+    codeSum = sum;
+    codeSquareSum = squareSum;
+  }
+
+  /**
+   * Decodes all values into an array, which may be reused across calls.
+   *
+   * @param dst destination array
+   * @param off offset in the destination array
+   * @return number of values decoded
+   */
+  public int decode(float[] dst, int off) {
+    if (off < 0 || off > dst.length - size) {
+      throw new IndexOutOfBoundsException("Range [" + off + ", " + off + " + " + size
+          + ") out of bounds for length " + dst.length);
+    }
+
+    for (int i = 0; i < size; i++) {
+      dst[off + i] = offset + scale * (codes[i] & 0xff);
+    }
+    return size;
+  }
+
+  /**
+   * Returns all values in a new array.
+   */
+  public float[] toArray() {
+    float[] arr = new float[size];
+    decode(arr, 0);
+    return arr;
+  }
+
+  /**
+   * Returns the value at a position.
+   *
+   * @param i position
+   */
+  public float get(int i) {
+    if (i < 0 || i >= size) {
+      throw new IndexOutOfBoundsException("Index " + i + " out of bounds for size " + size);
+    }
+    return offset + scale * (codes[i] & 0xff);
+  }
+
+  /**
+   * Returns the dot product of this vector with a full-precision query vector.
+   *
+   * @param query query vector
+   * @param off offset of the query vector, which has {@link #size()} elements
+   */
+  public float dot(float[] query, int off) {
+    if (off < 0 || off > query.length - size) {
+      throw new IndexOutOfBoundsException("Range [" + off + ", " + off + " + " + size
+          + ") out of bounds for length " + query.length);
+    }
+
+    // sum(q * (offset + scale * c)) = offset * sum(q) + scale * sum(q * c)
+    float q0 = 0, q1 = 0, qc0 = 0, qc1 = 0;
+    int i = 0;
+    for (; i <= size - 2; i += 2) {
+      float x0 = query[off + i];
+      float x1 = query[off + i + 1];
+      q0 += x0;
+      q1 += x1;
+      qc0 += x0 * (codes[i] & 0xff);
+      qc1 += x1 * (codes[i + 1] & 0xff);
+    }
+    if (i < size) {
+      float x = query[off + i];
+      q0 += x;
+      qc0 += x * (codes[i] & 0xff);
+    }
+    return (float) ((double) offset * (q0 + q1) + (double) scale * (qc0 + qc1));
+  }
+
+  /**
+   * Returns the dot product of this vector with another quantized vector of the same size.
+   *
+   * @param other the other vector
+   */
+  public float dot(QuantizedFloatArrayWritable other) {
+    if (other.size != size) {
+      throw new IllegalArgumentException("Vectors must have the same length!");
+    }
+
+    byte[] otherCodes = other.codes;
+    long s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+    int i = 0;
+    for (; i <= size - 4; i += 4) {
+      s0 += (codes[i] & 0xff) * (otherCodes[i] & 0xff);
+      s1 += (codes[i + 1] & 0xff) * (otherCodes[i + 1] & 0xff);
+      s2 += (codes[i + 2] & 0xff) * (otherCodes[i + 2] & 0xff);
+      s3 += (codes[i + 3] & 0xff) * (otherCodes[i + 3] & 0xff);
+    }
+    for (; i < size; i++) {
+      s0 += (codes[i] & 0xff) * (otherCodes[i] & 0xff);
+    }
+    long products = (s0 + s1) + (s2 + s3);
+
+    // sum((a + s c) * (b + t d)) = n a b + a t sum(d) + b s sum(c) + s t sum(c d)
+    double a = offset;
+    double s = scale;
+    double b = other.offset;
+    double t = other.scale;
+    return (float) (size * a * b + a * t * other.codeSum + b * s * codeSum + s * t * products);
+  }
+
+  /**
+   * Returns the Euclidean norm of this vector, computed from the sums of codes.
+   */
+  public float norm() {
+    // sum((a + s c)^2) = n a^2 + 2 a s sum(c) + s^2 sum(c^2)
+    double a = offset;
+    double s = scale;
+    double squared = size * a * a + 2 * a * s * codeSum + s * s * codeSquareSum;
+    return (float) Math.sqrt(Math.max(squared, 0.0));
+  }
+
+  /**
+   * Returns the cosine similarity of this vector with a full-precision query vector, or zero if
+   * either vector is all zeros.
+   *
+   * @param query query vector
+   * @param off offset of the query vector, which has {@link #size()} elements
+   */
+  public float cosine(float[] query, int off) {
+    float dot = dot(query, off);
+    double denominator = (double) norm() * VectorMath.norm(query, off, size);
+    return denominator == 0 ? 0 : (float) (dot / denominator);
+  }
+
+  /**
+   * Returns the cosine similarity of this vector with another quantized vector of the same size,
+   * or zero if either vector is all zeros.
+   *
+   * @param other the other vector
+   */
+  public float cosine(QuantizedFloatArrayWritable other) {
+    float dot = dot(other);
+    double denominator = (double) norm() * other.norm();
+    return denominator == 0 ? 0 : (float) (dot / denominator);
+  }
+
+  /**
+   * Returns the number of values.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the offset, i.e., the value that code zero stands for.
+   */
+  public float getOffset() {
+    return offset;
+  }
+
+  /**
+   * Returns the scale, i.e., the difference between the values of consecutive codes.
+   */
+  public float getScale() {
+    return scale;
+  }
+
+  @Override
+  public void readFields(DataInput in) throws IOException {
+    size = in.readInt();
+    offset = in.readFloat();
+    scale = in.readFloat();
+    if (codes.length < size) {
+      codes = new byte[size];
+    }
+    in.readFully(codes, 0, size);
+    computeSums();
+  }
+
+  @Override
+  public void write(DataOutput out) throws IOException {
+    out.writeInt(size);
+    out.writeFloat(offset);
+    out.writeFloat(scale);
+    out.write(codes, 0, size);
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(toArray());
+  }
+}
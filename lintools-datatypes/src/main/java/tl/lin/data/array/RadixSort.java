@@ -0,0 +1,889 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.array;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * <p>
+ * Least-significant-digit radix sorts for arrays of primitives and for the primitive array lists,
+ * one byte at a time. Besides sorting keys in place, these methods can compute the permutation
+ * that sorts an array of keys ({@code argsort}), and sort an array of keys while permuting a
+ * parallel array of int values along with it ({@code sortByKey}), e.g., to order document ids by
+ * score without boxing them into pairs. All sorts are stable.
+ * </p>
+ *
+ * <p>
+ * Floats and doubles are sorted in the same order as {@link Arrays#sort(float[])}: -0.0 before
+ * 0.0, and NaN after positive infinity. NaN keys are replaced by the canonical NaN. Passes in which
+ * all keys share the same byte are skipped, so keys drawn from a narrow range sort faster.
+ * </p>
+ *
+ * <p>
+ * The {@code parallelSort} methods sort chunks of the array in a pool of threads, one per
+ * processor, and then merge the sorted chunks pairwise, also in parallel. Arrays shorter than
+ * {@link #PARALLEL_THRESHOLD} are sorted sequentially.
+ * </p>
+ */
+public class RadixSort {
+  /** Arrays with fewer elements than this are sorted sequentially by {@code parallelSort}. */
+  public static final int PARALLEL_THRESHOLD = 1 << 18;
+
+  // Below this length, insertion sort is faster than radix sort.
+  private static final int INSERTION_THRESHOLD = 64;
+
+  // Number of threads used by parallelSort; package-private so that tests can override it.
+  static int parallelism = Runtime.getRuntime().availableProcessors();
+
+  private RadixSort() {
+  }
+
+  // Keys are mapped to ints or longs whose signed order is the sort order: ints and longs are
+  // sorted as they are, and the bits of negative floats and doubles have all but their sign bit
+  // flipped, so that more negative values become smaller. The mapping is its own inverse.
+
+  private static int toSortable(float f) {
+    int bits = Float.floatToIntBits(f);
+    return bits ^ ((bits >> 31) & 0x7fffffff);
+  }
+
+  private static float fromSortable(int bits) {
+    return Float.intBitsToFloat(bits ^ ((bits >> 31) & 0x7fffffff));
+  }
+
+  private static long toSortable(double d) {
+    long bits = Double.doubleToLongBits(d);
+    return bits ^ ((bits >> 63) & 0x7fffffffffffffffL);
+  }
+
+  private static double fromSortable(long bits) {
+    return Double.longBitsToDouble(bits ^ ((bits >> 63) & 0x7fffffffffffffffL));
+  }
+
+  private static int[] toSortable(float[] a, int off, int len) {
+    int[] keys = new int[len];
+    for (int i = 0; i < len; i++) {
+      keys[i] = toSortable(a[off + i]);
+    }
+    return keys;
+  }
+
+  private static long[] toSortable(double[] a, int off, int len) {
+    long[] keys = new long[len];
+    for (int i = 0; i < len; i++) {
+      keys[i] = toSortable(a[off + i]);
+    }
+    return keys;
+  }
+
+  private static int[] identity(int off, int len) {
+    int[] perm = new int[len];
+    for (int i = 0; i < len; i++) {
+      perm[i] = off + i;
+    }
+    return perm;
+  }
+
+  private static void checkBounds(int arrayLength, int off, int len) {
+    if (off < 0 || len < 0 || off > arrayLength - len) {
+      throw new IndexOutOfBoundsException("Range [" + off + ", " + off + " + " + len
+          + ") out of bounds for length " + arrayLength);
+    }
+  }
+
+  /**
+   * Sorts {@code len} ints of an array, starting at offset {@code off}, in ascending order.
+   */
+  public static void sort(int[] a, int off, int len) {
+    checkBounds(a.length, off, len);
+    sort(a, off, null, 0, len, new int[len], null, 0);
+  }
+
+  /**
+   * Sorts {@code len} longs of an array, starting at offset {@code off}, in ascending order.
+   */
+  public static void sort(long[] a, int off, int len) {
+    checkBounds(a.length, off, len);
+    sort(a, off, null, 0, len, new long[len], null, 0);
+  }
+
+  /**
+   * Sorts {@code len} floats of an array, starting at offset {@code off}, in ascending order.
+   */
+  public static void sort(float[] a, int off, int len) {
+    checkBounds(a.length, off, len);
+    int[] keys = toSortable(a, off, len);
+    sort(keys, 0, null, 0, len, new int[len], null, 0);
+    for (int i = 0; i < len; i++) {
+      a[off + i] = fromSortable(keys[i]);
+    }
+  }
+
+  /**
+   * Sorts {@code len} doubles of an array, starting at offset {@code off}, in ascending order.
+   */
+  public static void sort(double[] a, int off, int len) {
+    checkBounds(a.length, off, len);
+    long[] keys = toSortable(a, off, len);
+    sort(keys, 0, null, 0, len, new long[len], null, 0);
+    for (int i = 0; i < len; i++) {
+      a[off + i] = fromSortable(keys[i]);
+    }
+  }
+
+  /**
+   * Returns the indexes of {@code len} keys, starting at offset {@code off}, in ascending order of
+   * key; that is, {@code keys[perm[0]] <= keys[perm[1]] <= ...}. Equal keys keep their original
+   * order. The keys are left unchanged.
+   *
+   * @return indexes into {@code keys}, between {@code off} and {@code off + len - 1}
+   */
+  public static int[] argsort(int[] keys, int off, int len) {
+    checkBounds(keys.length, off, len);
+    int[] copy = Arrays.copyOfRange(keys, off, off + len);
+    int[] perm = identity(off, len);
+    sort(copy, 0, perm, 0, len, new int[len], new int[len], 0);
+    return perm;
+  }
+
+  /**
+   * Returns the indexes of {@code len} keys, starting at offset {@code off}, in ascending order of
+   * key. Equal keys keep their original order. The keys are left unchanged.
+   *
+   * @return indexes into {@code keys}, between {@code off} and {@code off + len - 1}
+   */
+  public static int[] argsort(long[] keys, int off, int len) {
+    checkBounds(keys.length, off, len);
+    long[] copy = Arrays.copyOfRange(keys, off, off + len);
+    int[] perm = identity(off, len);
+    sort(copy, 0, perm, 0, len, new long[len], new int[len], 0);
+    return perm;
+  }
+
+  /**
+   * Returns the indexes of {@code len} keys, starting at offset {@code off}, in ascending order of
+   * key. Equal keys keep their original order. The keys are left unchanged.
+   *
+   * @return indexes into {@code keys}, between {@code off} and {@code off + len - 1}
+   */
+  public static int[] argsort(float[] keys, int off, int len) {
+    checkBounds(keys.length, off, len);
+    int[] sortable = toSortable(keys, off, len);
+    int[] perm = identity(off, len);
+    sort(sortable, 0, perm, 0, len, new int[len], new int[len], 0);
+    return perm;
+  }
+
+  /**
+   * Returns the indexes of {@code len} keys, starting at offset {@code off}, in ascending order of
+   * key. Equal keys keep their original order. The keys are left unchanged.
+   *
+   * @return indexes into {@code keys}, between {@code off} and {@code off + len - 1}
+   */
+  public static int[] argsort(double[] keys, int off, int len) {
+    checkBounds(keys.length, off, len);
+    long[] sortable = toSortable(keys, off, len);
+    int[] perm = identity(off, len);
+    sort(sortable, 0, perm, 0, len, new long[len], new int[len], 0);
+    return perm;
+  }
+
+  /**
+   * Sorts {@code len} keys, starting at offset {@code off}, in ascending order, and permutes the
+   * values at the same positions in the same way. Equal keys keep their original order.
+   */
+  public static void sortByKey(int[] keys, int[] values, int off, int len) {
+    checkBounds(keys.length, off, len);
+    checkBounds(values.length, off, len);
+    sort(keys, off, values, off, len, new int[len], new int[len], 0);
+  }
+
+  /**
+   * Sorts {@code len} keys, starting at offset {@code off}, in ascending order, and permutes the
+   * values at the same positions in the same way. Equal keys keep their original order.
+   */
+  public static void sortByKey(long[] keys, int[] values, int off, int len) {
+    checkBounds(keys.length, off, len);
+    checkBounds(values.length, off, len);
+    sort(keys, off, values, off, len, new long[len], new int[len], 0);
+  }
+
+  /**
+   * Sorts {@code len} keys, starting at offset {@code off}, in ascending order, and permutes the
+   * values at the same positions in the same way. Equal keys keep their original order.
+   */
+  public static void sortByKey(float[] keys, int[] values, int off, int len) {
+    checkBounds(keys.length, off, len);
+    checkBounds(values.length, off, len);
+    int[] sortable = toSortable(keys, off, len);
+    sort(sortable, 0, values, off, len, new int[len], new int[len], 0);
+    for (int i = 0; i < len; i++) {
+      keys[off + i] = fromSortable(sortable[i]);
+    }
+  }
+
+  /**
+   * Sorts {@code len} keys, starting at offset {@code off}, in ascending order, and permutes the
+   * values at the same positions in the same way. Equal keys keep their original order.
+   */
+  public static void sortByKey(double[] keys, int[] values, int off, int len) {
+    checkBounds(keys.length, off, len);
+    checkBounds(values.length, off, len);
+    long[] sortable = toSortable(keys, off, len);
+    sort(sortable, 0, values, off, len, new long[len], new int[len], 0);
+    for (int i = 0; i < len; i++) {
+      keys[off + i] = fromSortable(sortable[i]);
+    }
+  }
+
+  /**
+   * Sorts {@code len} ints of an array, starting at offset {@code off}, in ascending order, in
+   * parallel if the range is long enough.
+   */
+  public static void parallelSort(int[] a, int off, int len) {
+    checkBounds(a.length, off, len);
+    parallelSort(a, off, null, 0, len);
+  }
+
+  /**
+   * Sorts {@code len} longs of an array, starting at offset {@code off}, in ascending order, in
+   * parallel if the range is long enough.
+   */
+  public static void parallelSort(long[] a, int off, int len) {
+    checkBounds(a.length, off, len);
+    parallelSort(a, off, null, 0, len);
+  }
+
+  /**
+   * Sorts {@code len} floats of an array, starting at offset {@code off}, in ascending order, in
+   * parallel if the range is long enough.
+   */
+  public static void parallelSort(float[] a, int off, int len) {
+    checkBounds(a.length, off, len);
+    int[] keys = toSortable(a, off, len);
+    parallelSort(keys, 0, null, 0, len);
+    for (int i = 0; i < len; i++) {
+      a[off + i] = fromSortable(keys[i]);
+    }
+  }
+
+  /**
+   * Sorts {@code len} doubles of an array, starting at offset {@code off}, in ascending order, in
+   * parallel if the range is long enough.
+   */
+  public static void parallelSort(double[] a, int off, int len) {
+    checkBounds(a.length, off, len);
+    long[] keys = toSortable(a, off, len);
+    parallelSort(keys, 0, null, 0, len);
+    for (int i = 0; i < len; i++) {
+      a[off + i] = fromSortable(keys[i]);
+    }
+  }
+
+  /**
+   * Sorts {@code len} keys, starting at offset {@code off}, in ascending order, and permutes the
+   * values at the same positions in the same way, in parallel if the range is long enough.
+   */
+  public static void parallelSortByKey(int[] keys, int[] values, int off, int len) {
+    checkBounds(keys.length, off, len);
+    checkBounds(values.length, off, len);
+    parallelSort(keys, off, values, off, len);
+  }
+
+  /**
+   * Sorts {@code len} keys, starting at offset {@code off}, in ascending order, and permutes the
+   * values at the same positions in the same way, in parallel if the range is long enough.
+   */
+  public static void parallelSortByKey(long[] keys, int[] values, int off, int len) {
+    checkBounds(keys.length, off, len);
+    checkBounds(values.length, off, len);
+    parallelSort(keys, off, values, off, len);
+  }
+
+  /**
+   * Sorts {@code len} keys, starting at offset {@code off}, in ascending order, and permutes the
+   * values at the same positions in the same way, in parallel if the range is long enough.
+   */
+  public static void parallelSortByKey(float[] keys, int[] values, int off, int len) {
+    checkBounds(keys.length, off, len);
+    checkBounds(values.length, off, len);
+    int[] sortable = toSortable(keys, off, len);
+    parallelSort(sortable, 0, values, off, len);
+    for (int i = 0; i < len; i++) {
+      keys[off + i] = fromSortable(sortable[i]);
+    }
+  }
+
+  /**
+   * Sorts {@code len} keys, starting at offset {@code off}, in ascending order, and permutes the
+   * values at the same positions in the same way, in parallel if the range is long enough.
+   */
+  public static void parallelSortByKey(double[] keys, int[] values, int off, int len) {
+    checkBounds(keys.length, off, len);
+    checkBounds(values.length, off, len);
+    long[] sortable = toSortable(keys, off, len);
+    parallelSort(sortable, 0, values, off, len);
+    for (int i = 0; i < len; i++) {
+      keys[off + i] = fromSortable(sortable[i]);
+    }
+  }
+
+  /**
+   * Sorts a list in ascending order. Unlike {@link ArrayListOfInts#sort}, the backing array is
+   * not trimmed.
+   */
+  public static void sort(ArrayListOfInts list) {
+    sort(list.getArray(), 0, list.size());
+  }
+
+  /**
+   * Sorts a list in ascending order. Unlike {@link ArrayListOfLongs#sort}, the backing array is
+   * not trimmed.
+   */
+  public static void sort(ArrayListOfLongs list) {
+    sort(list.getArray(), 0, list.size());
+  }
+
+  /**
+   * Sorts a list in ascending order. Unlike {@link ArrayListOfFloats#sort}, the backing array is
+   * not trimmed.
+   */
+  public static void sort(ArrayListOfFloats list) {
+    sort(list.getArray(), 0, list.size());
+  }
+
+  /**
+   * Sorts a list in ascending order. Unlike {@link ArrayListOfDoubles#sort}, the backing array is
+   * not trimmed.
+   */
+  public static void sort(ArrayListOfDoubles list) {
+    sort(list.getArray(), 0, list.size());
+  }
+
+  /**
+   * Sorts a list in ascending order, in parallel if the list is long enough.
+   */
+  public static void parallelSort(ArrayListOfInts list) {
+    parallelSort(list.getArray(), 0, list.size());
+  }
+
+  /**
+   * Sorts a list in ascending order, in parallel if the list is long enough.
+   */
+  public static void parallelSort(ArrayListOfLongs list) {
+    parallelSort(list.getArray(), 0, list.size());
+  }
+
+  /**
+   * Sorts a list in ascending order, in parallel if the list is long enough.
+   */
+  public static void parallelSort(ArrayListOfFloats list) {
+    parallelSort(list.getArray(), 0, list.size());
+  }
+
+  /**
+   * Sorts a list in ascending order, in parallel if the list is long enough.
+   */
+  public static void parallelSort(ArrayListOfDoubles list) {
+    parallelSort(list.getArray(), 0, list.size());
+  }
+
+  private static void checkSizes(int keys, int values) {
+    if (keys != values) {
+      throw new IllegalArgumentException("Keys and values must have the same size!");
+    }
+  }
+
+  /**
+   * Sorts a list of keys in ascending order, and permutes a list of values of the same size in
+   * the same way.
+   */
+  public static void sortByKey(ArrayListOfInts keys, ArrayListOfInts values) {
+    checkSizes(keys.size(), values.size());
+    sortByKey(keys.getArray(), values.getArray(), 0, keys.size());
+  }
+
+  /**
+   * Sorts a list of keys in ascending order, and permutes a list of values of the same size in
+   * the same way.
+   */
+  public static void sortByKey(ArrayListOfLongs keys, ArrayListOfInts values) {
+    checkSizes(keys.size(), values.size());
+    sortByKey(keys.getArray(), values.getArray(), 0, keys.size());
+  }
+
+  /**
+   * Sorts a list of keys in ascending order, and permutes a list of values of the same size in
+   * the same way.
+   */
+  public static void sortByKey(ArrayListOfFloats keys, ArrayListOfInts values) {
+    checkSizes(keys.size(), values.size());
+    sortByKey(keys.getArray(), values.getArray(), 0, keys.size());
+  }
+
+  /**
+   * Sorts a list of keys in ascending order, and permutes a list of values of the same size in
+   * the same way.
+   */
+  public static void sortByKey(ArrayListOfDoubles keys, ArrayListOfInts values) {
+    checkSizes(keys.size(), values.size());
+    sortByKey(keys.getArray(), values.getArray(), 0, keys.size());
+  }
+
+  // Sorts keys[kOff, kOff + len), and values[vOff, vOff + len) along with them unless values is
+  // null, using tmpKeys[tOff, tOff + len) and tmpValues[tOff, tOff + len) as scratch space.
+  private static void sort(int[] keys, int kOff, int[] values, int vOff, int len, int[] tmpKeys,
+      int[] tmpValues, int tOff) {
+    if (len < INSERTION_THRESHOLD) {
+      insertionSort(keys, kOff, values, vOff, len);
+      return;
+    }
+
+    // Histograms for all four bytes, computed in a single pass. The top byte has its sign bit
+    // flipped, so that negative keys come first.
+    int[] counts = new int[4 * 256];
+    for (int i = kOff, end = kOff + len; i < end; i++) {
+      int k = keys[i];
+      counts[k & 0xff]++;
+      counts[256 + ((k >>> 8) & 0xff)]++;
+      counts[512 + ((k >>> 16) & 0xff)]++;
+      counts[768 + ((k >>> 24) ^ 0x80)]++;
+    }
+
+    int[] srcKeys = keys;
+    int[] srcValues = values;
+    int srcKOff = kOff;
+    int srcVOff = vOff;
+    int[] dstKeys = tmpKeys;
+    int[] dstValues = tmpValues;
+    int dstKOff = tOff;
+    int dstVOff = tOff;
+    int[] pos = new int[256];
+
+    for (int pass = 0; pass < 4; pass++) {
+      int shift = pass * 8;
+      int flip = pass == 3 ? 0x80 : 0;
+      int base = pass * 256;
+      if (counts[base + (((srcKeys[srcKOff] >>> shift) & 0xff) ^ flip)] == len) {
+        continue;
+      }
+
+      int sum = 0;
+      for (int d = 0; d < 256; d++) {
+        pos[d] = sum;
+        sum += counts[base + d];
+      }
+
+      if (srcValues == null) {
+        for (int i = 0; i < len; i++) {
+          int k = srcKeys[srcKOff + i];
+          dstKeys[dstKOff + pos[((k >>> shift) & 0xff) ^ flip]++] = k;
+        }
+      } else {
+        for (int i = 0; i < len; i++) {
+          int k = srcKeys[srcKOff + i];
+          int p = pos[((k >>> shift) & 0xff) ^ flip]++;
+          dstKeys[dstKOff + p] = k;
+          dstValues[dstVOff + p] = srcValues[srcVOff + i];
+        }
+      }
+
+      int[] t = srcKeys;
+      srcKeys = dstKeys;
+      dstKeys = t;
+      t = srcValues;
+      srcValues = dstValues;
+      dstValues = t;
+      int o = srcKOff;
+      srcKOff = dstKOff;
+      dstKOff = o;
+      o = srcVOff;
+      srcVOff = dstVOff;
+      dstVOff = o;
+    }
+
+    if (srcKeys != keys) {
+      System.arraycopy(srcKeys, srcKOff, keys, kOff, len);
+      if (values != null) {
+        System.arraycopy(srcValues, srcVOff, values, vOff, len);
+      }
+    }
+  }
+
+  private static void sort(long[] keys, int kOff, int[] values, int vOff, int len, long[] tmpKeys,
+      int[] tmpValues, int tOff) {
+    if (len < INSERTION_THRESHOLD) {
+      insertionSort(keys, kOff, values, vOff, len);
+      return;
+    }
+
+    int[] counts = new int[8 * 256];
+    for (int i = kOff, end = kOff + len; i < end; i++) {
+      long k = keys[i];
+      for (int pass = 0; pass < 7; pass++) {
+        counts[pass * 256 + (int) ((k >>> (pass * 8)) & 0xff)]++;
+      }
+      counts[7 * 256 + (int) ((k >>> 56) ^ 0x80)]++;
+    }
+
+    long[] srcKeys = keys;
+    int[] srcValues = values;
+    int srcKOff = kOff;
+    int srcVOff = vOff;
+    long[] dstKeys = tmpKeys;
+    int[] dstValues = tmpValues;
+    int dstKOff = tOff;
+    int dstVOff = tOff;
+    int[] pos = new int[256];
+
+    for (int pass = 0; pass < 8; pass++) {
+      int shift = pass * 8;
+      int flip = pass == 7 ? 0x80 : 0;
+      int base = pass * 256;
+      if (counts[base + ((int) ((srcKeys[srcKOff] >>> shift) & 0xff) ^ flip)] == len) {
+        continue;
+      }
+
+      int sum = 0;
+      for (int d = 0; d < 256; d++) {
+        pos[d] = sum;
+        sum += counts[base + d];
+      }
+
+      if (srcValues == null) {
+        for (int i = 0; i < len; i++) {
+          long k = srcKeys[srcKOff + i];
+          dstKeys[dstKOff + pos[(int) ((k >>> shift) & 0xff) ^ flip]++] = k;
+        }
+      } else {
+        for (int i = 0; i < len; i++) {
+          long k = srcKeys[srcKOff + i];
+          int p = pos[(int) ((k >>> shift) & 0xff) ^ flip]++;
+          dstKeys[dstKOff + p] = k;
+          dstValues[dstVOff + p] = srcValues[srcVOff + i];
+        }
+      }
+
+      long[] t = srcKeys;
+      srcKeys = dstKeys;
+      dstKeys = t;
+      int[] tv = srcValues;
+      srcValues = dstValues;
+      dstValues = tv;
+      int o = srcKOff;
+      srcKOff = dstKOff;
+      dstKOff = o;
+      o = srcVOff;
+      srcVOff = dstVOff;
+      dstVOff = o;
+    }
+
+    if (srcKeys != keys) {
+      System.arraycopy(srcKeys, srcKOff, keys, kOff, len);
+      if (values != null) {
+        System.arraycopy(srcValues, srcVOff, values, vOff, len);
+      }
+    }
+  }
+
+  private static void insertionSort(int[] keys, int kOff, int[] values, int vOff, int len) {
+    for (int i = 1; i < len; i++) {
+      int k = keys[kOff + i];
+      int v = values == null ? 0 : values[vOff + i];
+      int j = i - 1;
+      while (j >= 0 && keys[kOff + j] > k) {
+        keys[kOff + j + 1] = keys[kOff + j];
+        if (values != null) {
+          values[vOff + j + 1] = values[vOff + j];
+        }
+        j--;
+      }
+      keys[kOff + j + 1] = k;
+      if (values != null) {
+        values[vOff + j + 1] = v;
+      }
+    }
+  }
+
+  private static void insertionSort(long[] keys, int kOff, int[] values, int vOff, int len) {
+    for (int i = 1; i < len; i++) {
+      long k = keys[kOff + i];
+      int v = values == null ? 0 : values[vOff + i];
+      int j = i - 1;
+      while (j >= 0 && keys[kOff + j] > k) {
+        keys[kOff + j + 1] = keys[kOff + j];
+        if (values != null) {
+          values[vOff + j + 1] = values[vOff + j];
+        }
+        j--;
+      }
+      keys[kOff + j + 1] = k;
+      if (values != null) {
+        values[vOff + j + 1] = v;
+      }
+    }
+  }
+
+  // Merges the sorted runs [lo, mid) and [mid, hi) from src into dst, taking from the left run on
+  // ties so that the merge is stable. Positions are relative to the given offsets.
+  private static void merge(int[] srcKeys, int srcKOff, int[] srcValues, int srcVOff,
+      int[] dstKeys, int dstKOff, int[] dstValues, int dstVOff, int lo, int mid, int hi) {
+    int i = lo;
+    int j = mid;
+    for (int p = lo; p < hi; p++) {
+      int from;
+      if (j >= hi || (i < mid && srcKeys[srcKOff + i] <= srcKeys[srcKOff + j])) {
+        from = i++;
+      } else {
+        from = j++;
+      }
+      dstKeys[dstKOff + p] = srcKeys[srcKOff + from];
+      if (srcValues != null) {
+        dstValues[dstVOff + p] = srcValues[srcVOff + from];
+      }
+    }
+  }
+
+  private static void merge(long[] srcKeys, int srcKOff, int[] srcValues, int srcVOff,
+      long[] dstKeys, int dstKOff, int[] dstValues, int dstVOff, int lo, int mid, int hi) {
+    int i = lo;
+    int j = mid;
+    for (int p = lo; p < hi; p++) {
+      int from;
+      if (j >= hi || (i < mid && srcKeys[srcKOff + i] <= srcKeys[srcKOff + j])) {
+        from = i++;
+      } else {
+        from = j++;
+      }
+      dstKeys[dstKOff + p] = srcKeys[srcKOff + from];
+      if (srcValues != null) {
+        dstValues[dstVOff + p] = srcValues[srcVOff + from];
+      }
+    }
+  }
+
+  private static int numberOfChunks(int len) {
+    if (len < PARALLEL_THRESHOLD || parallelism < 2) {
+      return 1;
+    }
+    return Math.min(parallelism, len / (PARALLEL_THRESHOLD / 4));
+  }
+
+  private static void runAll(ExecutorService pool, List<Runnable> tasks) {
+    List<Future<?>> futures = new ArrayList<Future<?>>(tasks.size());
+    for (Runnable task : tasks) {
+      futures.add(pool.submit(task));
+    }
+    try {
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      throw new RuntimeException(e.getCause());
+    }
+  }
+
+  private static void parallelSort(final int[] keys, final int kOff, final int[] values,
+      final int vOff, final int len) {
+    final int chunks = numberOfChunks(len);
+    final int[] tmpKeys = new int[len];
+    final int[] tmpValues = values == null ? null : new int[len];
+    if (chunks == 1) {
+      sort(keys, kOff, values, vOff, len, tmpKeys, tmpValues, 0);
+      return;
+    }
+
+    final int[] bounds = new int[chunks + 1];
+    for (int c = 0; c <= chunks; c++) {
+      bounds[c] = (int) ((long) len * c / chunks);
+    }
+
+    ExecutorService pool = Executors.newFixedThreadPool(chunks);
+    try {
+      List<Runnable> tasks = new ArrayList<Runnable>();
+      for (int c = 0; c < chunks; c++) {
+        final int lo = bounds[c];
+        final int hi = bounds[c + 1];
+        tasks.add(new Runnable() {
+          public void run() {
+            sort(keys, kOff + lo, values, vOff + lo, hi - lo, tmpKeys, tmpValues, lo);
+          }
+        });
+      }
+      runAll(pool, tasks);
+
+      // Merge adjacent runs pairwise, alternating between the input and the scratch arrays.
+      int[] srcKeys = keys;
+      int[] srcValues = values;
+      int srcKOff = kOff;
+      int srcVOff = vOff;
+      int[] dstKeys = tmpKeys;
+      int[] dstValues = tmpValues;
+      int dstKOff = 0;
+      int dstVOff = 0;
+      int[] runs = bounds;
+      while (runs.length > 2) {
+        int numRuns = runs.length - 1;
+        int[] merged = new int[(numRuns + 1) / 2 + 1];
+        tasks.clear();
+        for (int r = 0; r < numRuns; r += 2) {
+          merged[r / 2] = runs[r];
+          final int lo = runs[r];
+          final int mid = runs[r + 1];
+          final int hi = r + 1 < numRuns ? runs[r + 2] : runs[r + 1];
+          final int[] sk = srcKeys;
+          final int[] sv = srcValues;
+          final int[] dk = dstKeys;
+          final int[] dv = dstValues;
+          final int sko = srcKOff;
+          final int svo = srcVOff;
+          final int dko = dstKOff;
+          final int dvo = dstVOff;
+          tasks.add(new Runnable() {
+            public void run() {
+              merge(sk, sko, sv, svo, dk, dko, dv, dvo, lo, mid, hi);
+            }
+          });
+        }
+        merged[merged.length - 1] = len;
+        runAll(pool, tasks);
+
+        int[] t = srcKeys;
+        srcKeys = dstKeys;
+        dstKeys = t;
+        t = srcValues;
+        srcValues = dstValues;
+        dstValues = t;
+        int o = srcKOff;
+        srcKOff = dstKOff;
+        dstKOff = o;
+        o = srcVOff;
+        srcVOff = dstVOff;
+        dstVOff = o;
+        runs = merged;
+      }
+
+      if (srcKeys != keys) {
+        System.arraycopy(srcKeys, srcKOff, keys, kOff, len);
+        if (values != null) {
+          System.arraycopy(srcValues, srcVOff, values, vOff, len);
+        }
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private static void parallelSort(final long[] keys, final int kOff, final int[] values,
+      final int vOff, final int len) {
+    final int chunks = numberOfChunks(len);
+    final long[] tmpKeys = new long[len];
+    final int[] tmpValues = values == null ? null : new int[len];
+    if (chunks == 1) {
+      sort(keys, kOff, values, vOff, len, tmpKeys, tmpValues, 0);
+      return;
+    }
+
+    final int[] bounds = new int[chunks + 1];
+    for (int c = 0; c <= chunks; c++) {
+      bounds[c] = (int) ((long) len * c / chunks);
+    }
+
+    ExecutorService pool = Executors.newFixedThreadPool(chunks);
+    try {
+      List<Runnable> tasks = new ArrayList<Runnable>();
+      for (int c = 0; c < chunks; c++) {
+        final int lo = bounds[c];
+        final int hi = bounds[c + 1];
+        tasks.add(new Runnable() {
+          public void run() {
+            sort(keys, kOff + lo, values, vOff + lo, hi - lo, tmpKeys, tmpValues, lo);
+          }
+        });
+      }
+      runAll(pool, tasks);
+
+      long[] srcKeys = keys;
+      int[] srcValues = values;
+      int srcKOff = kOff;
+      int srcVOff = vOff;
+      long[] dstKeys = tmpKeys;
+      int[] dstValues = tmpValues;
+      int dstKOff = 0;
+      int dstVOff = 0;
+      int[] runs = bounds;
+      while (runs.length > 2) {
+        int numRuns = runs.length - 1;
+        int[] merged = new int[(numRuns + 1) / 2 + 1];
+        tasks.clear();
+        for (int r = 0; r < numRuns; r += 2) {
+          merged[r / 2] = runs[r];
+          final int lo = runs[r];
+          final int mid = runs[r + 1];
+          final int hi = r + 1 < numRuns ? runs[r + 2] : runs[r + 1];
+          final long[] sk = srcKeys;
+          final int[] sv = srcValues;
+          final long[] dk = dstKeys;
+          final int[] dv = dstValues;
+          final int sko = srcKOff;
+          final int svo = srcVOff;
+          final int dko = dstKOff;
+          final int dvo = dstVOff;
+          tasks.add(new Runnable() {
+            public void run() {
+              merge(sk, sko, sv, svo, dk, dko, dv, dvo, lo, mid, hi);
+            }
+          });
+        }
+        merged[merged.length - 1] = len;
+        runAll(pool, tasks);
+
+        long[] t = srcKeys;
+        srcKeys = dstKeys;
+        dstKeys = t;
+        int[] tv = srcValues;
+        srcValues = dstValues;
+        dstValues = tv;
+        int o = srcKOff;
+        srcKOff = dstKOff;
+        dstKOff = o;
+        o = srcVOff;
+        srcVOff = dstVOff;
+        dstVOff = o;
+        runs = merged;
+      }
+
+      if (srcKeys != keys) {
+        System.arraycopy(srcKeys, srcKOff, keys, kOff, len);
+        if (values != null) {
+          System.arraycopy(srcValues, srcVOff, values, vOff, len);
+        }
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+}
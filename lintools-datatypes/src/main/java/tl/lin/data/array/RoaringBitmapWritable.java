@@ -0,0 +1,1084 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.array;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import org.apache.hadoop.io.Writable;
+
+import tl.lin.data.util.PrimitiveArrayIO;
+
+/**
+ * <p>
+ * Writable for sets of ints, such as docid sets, stored as a compressed bitmap in the style of
+ * Roaring bitmaps. Values are split by their high 16 bits into chunks of 2<sup>16</sup>, and the
+ * low 16 bits of the values in each chunk are stored in a container of one of three kinds:
+ * </p>
+ *
+ * <ul>
+ * <li>an array container, a sorted array of 16-bit values, for sparse chunks of at most
+ * {@value #ARRAY_MAX_SIZE} values (2 bytes per value);</li>
+ *
+ * <li>a bitmap container, a 2<sup>16</sup>-bit bitmap, for dense chunks (8 KB);</li>
+ *
+ * <li>a run container, a list of runs of consecutive values (4 bytes per run), for chunks made of
+ * long runs, such as ranges of docids. Run containers are only created by {@link #runOptimize()},
+ * which picks the smallest kind for every container.</li>
+ * </ul>
+ *
+ * <p>
+ * Membership tests look up the chunk by binary search and then test a single container. The set
+ * operations {@link #and}, {@link #or} and {@link #andNot}, and {@link #andCardinality}, work
+ * container by container, with merges or galloping over arrays and word-wise operations over
+ * bitmaps; their results use array and bitmap containers. Values are ordered as unsigned ints,
+ * which is the natural order for non-negative values such as docids.
+ * </p>
+ *
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ */
+public class RoaringBitmapWritable implements Writable, Iterable<Integer> {
+  /**
+   * Maximum number of values in an array container.
+   */
+  public static final int ARRAY_MAX_SIZE = 4096;
+
+  private static final int BITMAP_WORDS = 1 << 10;
+
+  // Kinds of containers, as serialized.
+  private static final byte ARRAY = 0;
+  private static final byte BITMAP = 1;
+  private static final byte RUN = 2;
+
+  private short[] keys = new short[0];
+  private Container[] containers = new Container[0];
+  private int size = 0;
+
+  /**
+   * Creates an empty set.
+   */
+  public RoaringBitmapWritable() {
+  }
+
+  /**
+   * Creates a set holding the values of a list.
+   *
+   * @param list values, in any order
+   */
+  public RoaringBitmapWritable(ArrayListOfInts list) {
+    addAll(list);
+  }
+
+  // Containers hold the low 16 bits of values, as ints between 0 and 65535.
+  private abstract static class Container {
+    int cardinality;
+
+    abstract boolean contains(int low);
+
+    // Returns the container holding the value, which may be a new one.
+    abstract Container add(int low);
+
+    // Writes the values, with the high bits of the chunk, to dst; returns the next offset.
+    abstract int fill(int high, int[] dst, int off);
+
+    abstract void forEach(int high, ArrayListOfInts.IntProcedure procedure);
+
+    abstract int numberOfRuns();
+
+    abstract Container copy();
+  }
+
+  private static final class ArrayContainer extends Container {
+    short[] values;
+
+    ArrayContainer(short[] values, int cardinality) {
+      this.values = values;
+      this.cardinality = cardinality;
+    }
+
+    int indexOf(int low) {
+      int lo = 0;
+      int hi = cardinality - 1;
+      while (lo <= hi) {
+        int mid = (lo + hi) >>> 1;
+        int v = values[mid] & 0xffff;
+        if (v < low) {
+          lo = mid + 1;
+        } else if (v > low) {
+          hi = mid - 1;
+        } else {
+          return mid;
+        }
+      }
+      return -(lo + 1);
+    }
+
+    @Override
+    boolean contains(int low) {
+      return indexOf(low) >= 0;
+    }
+
+    @Override
+    Container add(int low) {
+      // Appending in order is the common case when building a set.
+      int i = cardinality == 0 || (values[cardinality - 1] & 0xffff) < low ? -(cardinality + 1)
+          : indexOf(low);
+      if (i >= 0) {
+        return this;
+      }
+      if (cardinality == ARRAY_MAX_SIZE) {
+        return toBitmap().add(low);
+      }
+
+      i = -(i + 1);
+      if (cardinality == values.length) {
+        values = Arrays.copyOf(values, Math.min(ARRAY_MAX_SIZE,
+            Math.max(4, cardinality + (cardinality >> 1))));
+      }
+      System.arraycopy(values, i, values, i + 1, cardinality - i);
+      values[i] = (short) low;
+      cardinality++;
+      return this;
+    }
+
+    BitmapContainer toBitmap() {
+      long[] words = new long[BITMAP_WORDS];
+      for (int i = 0; i < cardinality; i++) {
+        int v = values[i] & 0xffff;
+        words[v >>> 6] |= 1L << v;
+      }
+      return new BitmapContainer(words, cardinality);
+    }
+
+    @Override
+    int fill(int high, int[] dst, int off) {
+      for (int i = 0; i < cardinality; i++) {
+        dst[off++] = high | (values[i] & 0xffff);
+      }
+      return off;
+    }
+
+    @Override
+    void forEach(int high, ArrayListOfInts.IntProcedure procedure) {
+      for (int i = 0; i < cardinality; i++) {
+        procedure.apply(high | (values[i] & 0xffff));
+      }
+    }
+
+    @Override
+    int numberOfRuns() {
+      int runs = cardinality == 0 ? 0 : 1;
+      for (int i = 1; i < cardinality; i++) {
+        if ((values[i] & 0xffff) != (values[i - 1] & 0xffff) + 1) {
+          runs++;
+        }
+      }
+      return runs;
+    }
+
+    @Override
+    Container copy() {
+      return new ArrayContainer(Arrays.copyOf(values, cardinality), cardinality);
+    }
+  }
+
+  private static final class BitmapContainer extends Container {
+    final long[] words;
+
+    BitmapContainer(long[] words, int cardinality) {
+      this.words = words;
+      this.cardinality = cardinality;
+    }
+
+    @Override
+    boolean contains(int low) {
+      return (words[low >>> 6] & (1L << low)) != 0;
+    }
+
+    @Override
+    Container add(int low) {
+      long before = words[low >>> 6];
+      long after = before | (1L << low);
+      if (before != after) {
+        words[low >>> 6] = after;
+        cardinality++;
+      }
+      return this;
+    }
+
+    // Returns the smallest container for these words: an array if there are few values.
+    Container normalize() {
+      if (cardinality == 0) {
+        return null;
+      }
+      if (cardinality > ARRAY_MAX_SIZE) {
+        return this;
+      }
+      short[] values = new short[cardinality];
+      int n = 0;
+      for (int w = 0; w < BITMAP_WORDS; w++) {
+        long word = words[w];
+        while (word != 0) {
+          values[n++] = (short) ((w << 6) + Long.numberOfTrailingZeros(word));
+          word &= word - 1;
+        }
+      }
+      return new ArrayContainer(values, cardinality);
+    }
+
+    @Override
+    int fill(int high, int[] dst, int off) {
+      for (int w = 0; w < BITMAP_WORDS; w++) {
+        long word = words[w];
+        while (word != 0) {
+          dst[off++] = high | ((w << 6) + Long.numberOfTrailingZeros(word));
+          word &= word - 1;
+        }
+      }
+      return off;
+    }
+
+    @Override
+    void forEach(int high, ArrayListOfInts.IntProcedure procedure) {
+      for (int w = 0; w < BITMAP_WORDS; w++) {
+        long word = words[w];
+        while (word != 0) {
+          procedure.apply(high | ((w << 6) + Long.numberOfTrailingZeros(word)));
+          word &= word - 1;
+        }
+      }
+    }
+
+    @Override
+    int numberOfRuns() {
+      // A run starts at every set bit whose predecessor is clear.
+      int runs = 0;
+      long carry = 0;
+      for (int w = 0; w < BITMAP_WORDS; w++) {
+        long word = words[w];
+        runs += Long.bitCount(word & ~((word << 1) | carry));
+        carry = word >>> 63;
+      }
+      return runs;
+    }
+
+    @Override
+    Container copy() {
+      return new BitmapContainer(words.clone(), cardinality);
+    }
+  }
+
+  private static final class RunContainer extends Container {
+    // Pairs of (start, length - 1), sorted by start, non-overlapping and non-adjacent.
+    final short[] runs;
+    final int numRuns;
+
+    RunContainer(short[] runs, int numRuns) {
+      this.runs = runs;
+      this.numRuns = numRuns;
+      int c = 0;
+      for (int r = 0; r < numRuns; r++) {
+        c += (runs[2 * r + 1] & 0xffff) + 1;
+      }
+      this.cardinality = c;
+    }
+
+    @Override
+    boolean contains(int low) {
+      // Find the last run starting at or before the value.
+      int lo = 0;
+      int hi = numRuns - 1;
+      while (lo <= hi) {
+        int mid = (lo + hi) >>> 1;
+        if ((runs[2 * mid] & 0xffff) <= low) {
+          lo = mid + 1;
+        } else {
+          hi = mid - 1;
+        }
+      }
+      return hi >= 0 && low - (runs[2 * hi] & 0xffff) <= (runs[2 * hi + 1] & 0xffff);
+    }
+
+    @Override
+    Container add(int low) {
+      return contains(low) ? this : expand().add(low);
+    }
+
+    // Converts to an array or a bitmap container, whichever fits the cardinality.
+    Container expand() {
+      if (cardinality <= ARRAY_MAX_SIZE) {
+        short[] values = new short[cardinality];
+        int n = 0;
+        for (int r = 0; r < numRuns; r++) {
+          int start = runs[2 * r] & 0xffff;
+          int end = start + (runs[2 * r + 1] & 0xffff);
+          for (int v = start; v <= end; v++) {
+            values[n++] = (short) v;
+          }
+        }
+        return new ArrayContainer(values, cardinality);
+      }
+
+      long[] words = new long[BITMAP_WORDS];
+      for (int r = 0; r < numRuns; r++) {
+        int start = runs[2 * r] & 0xffff;
+        int end = start + (runs[2 * r + 1] & 0xffff);
+        for (int v = start; v <= end; v++) {
+          words[v >>> 6] |= 1L << v;
+        }
+      }
+      return new BitmapContainer(words, cardinality);
+    }
+
+    @Override
+    int fill(int high, int[] dst, int off) {
+      for (int r = 0; r < numRuns; r++) {
+        int start = runs[2 * r] & 0xffff;
+        int end = start + (runs[2 * r + 1] & 0xffff);
+        for (int v = start; v <= end; v++) {
+          dst[off++] = high | v;
+        }
+      }
+      return off;
+    }
+
+    @Override
+    void forEach(int high, ArrayListOfInts.IntProcedure procedure) {
+      for (int r = 0; r < numRuns; r++) {
+        int start = runs[2 * r] & 0xffff;
+        int end = start + (runs[2 * r + 1] & 0xffff);
+        for (int v = start; v <= end; v++) {
+          procedure.apply(high | v);
+        }
+      }
+    }
+
+    @Override
+    int numberOfRuns() {
+      return numRuns;
+    }
+
+    @Override
+    Container copy() {
+      // Run containers are never modified in place.
+      return this;
+    }
+  }
+
+  // Builds a run container from any container.
+  private static RunContainer toRuns(Container c) {
+    short[] runs = new short[2 * c.numberOfRuns()];
+    int[] values = new int[c.cardinality];
+    c.fill(0, values, 0);
+
+    int n = 0;
+    int start = values[0];
+    for (int i = 1; i <= values.length; i++) {
+      if (i == values.length || values[i] != values[i - 1] + 1) {
+        runs[2 * n] = (short) start;
+        runs[2 * n + 1] = (short) (values[i - 1] - start);
+        n++;
+        if (i < values.length) {
+          start = values[i];
+        }
+      }
+    }
+    return new RunContainer(runs, n);
+  }
+
+  private static Container expand(Container c) {
+    return c instanceof RunContainer ? ((RunContainer) c).expand() : c;
+  }
+
+  private int indexOfKey(int high) {
+    // Appending in order is the common case when building a set.
+    if (size > 0 && (keys[size - 1] & 0xffff) == high) {
+      return size - 1;
+    }
+
+    int lo = 0;
+    int hi = size - 1;
+    while (lo <= hi) {
+      int mid = (lo + hi) >>> 1;
+      int k = keys[mid] & 0xffff;
+      if (k < high) {
+        lo = mid + 1;
+      } else if (k > high) {
+        hi = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -(lo + 1);
+  }
+
+  private void append(int high, Container c) {
+    if (size == keys.length) {
+      int capacity = Math.max(4, size + (size >> 1));
+      keys = Arrays.copyOf(keys, capacity);
+      containers = Arrays.copyOf(containers, capacity);
+    }
+    keys[size] = (short) high;
+    containers[size] = c;
+    size++;
+  }
+
+  /**
+   * Adds a value to this set.
+   *
+   * @param value value to add
+   * @return this object
+   */
+  public RoaringBitmapWritable add(int value) {
+    int high = value >>> 16;
+    int i = indexOfKey(high);
+    if (i >= 0) {
+      containers[i] = containers[i].add(value & 0xffff);
+      return this;
+    }
+
+    i = -(i + 1);
+    append(high, null);
+    System.arraycopy(keys, i, keys, i + 1, size - 1 - i);
+    System.arraycopy(containers, i, containers, i + 1, size - 1 - i);
+    keys[i] = (short) high;
+    containers[i] = new ArrayContainer(new short[] { (short) value }, 1);
+    return this;
+  }
+
+  /**
+   * Adds the values of a list to this set. Adding values in ascending order is fastest.
+   *
+   * @param list values to add, in any order
+   * @return this object
+   */
+  public RoaringBitmapWritable addAll(ArrayListOfInts list) {
+    int[] values = list.getArray();
+    for (int i = 0, n = list.size(); i < n; i++) {
+      add(values[i]);
+    }
+    return this;
+  }
+
+  /**
+   * Returns whether this set contains a value.
+   *
+   * @param value value to search for
+   */
+  public boolean contains(int value) {
+    int i = indexOfKey(value >>> 16);
+    return i >= 0 && containers[i].contains(value & 0xffff);
+  }
+
+  /**
+   * Returns the number of values in this set.
+   */
+  public long getCardinality() {
+    long cardinality = 0;
+    for (int i = 0; i < size; i++) {
+      cardinality += containers[i].cardinality;
+    }
+    return cardinality;
+  }
+
+  /**
+   * Returns whether this set is empty.
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Removes all values from this set.
+   */
+  public void clear() {
+    keys = new short[0];
+    containers = new Container[0];
+    size = 0;
+  }
+
+  /**
+   * Converts every container to the kind that takes the least space, which turns chunks made of
+   * long runs of consecutive values into run containers.
+   *
+   * @return whether any container was converted
+   */
+  public boolean runOptimize() {
+    boolean changed = false;
+    for (int i = 0; i < size; i++) {
+      Container c = containers[i];
+      int cardinality = c.cardinality;
+      int runBytes = 2 + 4 * c.numberOfRuns();
+      int otherBytes = cardinality <= ARRAY_MAX_SIZE ? 2 * cardinality : BITMAP_WORDS * 8;
+
+      Container optimized;
+      if (runBytes < otherBytes) {
+        optimized = c instanceof RunContainer ? c : toRuns(c);
+      } else {
+        optimized = expand(c);
+      }
+      if (optimized != c) {
+        containers[i] = optimized;
+        changed = true;
+      }
+    }
+    return changed;
+  }
+
+  /**
+   * Returns the intersection of two sets.
+   */
+  public static RoaringBitmapWritable and(RoaringBitmapWritable a, RoaringBitmapWritable b) {
+    RoaringBitmapWritable result = new RoaringBitmapWritable();
+    int i = 0;
+    int j = 0;
+    while (i < a.size && j < b.size) {
+      int ka = a.keys[i] & 0xffff;
+      int kb = b.keys[j] & 0xffff;
+      if (ka < kb) {
+        i++;
+      } else if (ka > kb) {
+        j++;
+      } else {
+        Container c = and(expand(a.containers[i]), expand(b.containers[j]));
+        if (c != null) {
+          result.append(ka, c);
+        }
+        i++;
+        j++;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the number of values in the intersection of two sets, without computing it.
+   */
+  public static long andCardinality(RoaringBitmapWritable a, RoaringBitmapWritable b) {
+    long cardinality = 0;
+    int i = 0;
+    int j = 0;
+    while (i < a.size && j < b.size) {
+      int ka = a.keys[i] & 0xffff;
+      int kb = b.keys[j] & 0xffff;
+      if (ka < kb) {
+        i++;
+      } else if (ka > kb) {
+        j++;
+      } else {
+        cardinality += andCardinality(expand(a.containers[i]), expand(b.containers[j]));
+        i++;
+        j++;
+      }
+    }
+    return cardinality;
+  }
+
+  /**
+   * Returns the union of two sets.
+   */
+  public static RoaringBitmapWritable or(RoaringBitmapWritable a, RoaringBitmapWritable b) {
+    RoaringBitmapWritable result = new RoaringBitmapWritable();
+    int i = 0;
+    int j = 0;
+    while (i < a.size || j < b.size) {
+      int ka = i < a.size ? a.keys[i] & 0xffff : Integer.MAX_VALUE;
+      int kb = j < b.size ? b.keys[j] & 0xffff : Integer.MAX_VALUE;
+      if (ka < kb) {
+        result.append(ka, a.containers[i++].copy());
+      } else if (ka > kb) {
+        result.append(kb, b.containers[j++].copy());
+      } else {
+        result.append(ka, or(expand(a.containers[i++]), expand(b.containers[j++])));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the values of the first set that are not in the second set.
+   */
+  public static RoaringBitmapWritable andNot(RoaringBitmapWritable a, RoaringBitmapWritable b) {
+    RoaringBitmapWritable result = new RoaringBitmapWritable();
+    int j = 0;
+    for (int i = 0; i < a.size; i++) {
+      int ka = a.keys[i] & 0xffff;
+      while (j < b.size && (b.keys[j] & 0xffff) < ka) {
+        j++;
+      }
+      if (j < b.size && (b.keys[j] & 0xffff) == ka) {
+        Container c = andNot(expand(a.containers[i]), expand(b.containers[j]));
+        if (c != null) {
+          result.append(ka, c);
+        }
+      } else {
+        result.append(ka, a.containers[i].copy());
+      }
+    }
+    return result;
+  }
+
+  // Operations on array and bitmap containers. Empty results are null.
+
+  private static Container and(Container a, Container b) {
+    if (a instanceof ArrayContainer && b instanceof ArrayContainer) {
+      ArrayContainer x = (ArrayContainer) a;
+      ArrayContainer y = (ArrayContainer) b;
+      short[] out = new short[Math.min(x.cardinality, y.cardinality)];
+      int n = intersect(x, y, out);
+      return n == 0 ? null : new ArrayContainer(out, n);
+    }
+    if (a instanceof BitmapContainer && b instanceof BitmapContainer) {
+      long[] x = ((BitmapContainer) a).words;
+      long[] y = ((BitmapContainer) b).words;
+      long[] words = new long[BITMAP_WORDS];
+      int cardinality = 0;
+      for (int w = 0; w < BITMAP_WORDS; w++) {
+        words[w] = x[w] & y[w];
+        cardinality += Long.bitCount(words[w]);
+      }
+      return new BitmapContainer(words, cardinality).normalize();
+    }
+
+    ArrayContainer array = (ArrayContainer) (a instanceof ArrayContainer ? a : b);
+    BitmapContainer bitmap = (BitmapContainer) (a instanceof ArrayContainer ? b : a);
+    short[] out = new short[array.cardinality];
+    int n = 0;
+    for (int i = 0; i < array.cardinality; i++) {
+      if (bitmap.contains(array.values[i] & 0xffff)) {
+        out[n++] = array.values[i];
+      }
+    }
+    return n == 0 ? null : new ArrayContainer(out, n);
+  }
+
+  private static int andCardinality(Container a, Container b) {
+    if (a instanceof ArrayContainer && b instanceof ArrayContainer) {
+      return intersect((ArrayContainer) a, (ArrayContainer) b, null);
+    }
+    if (a instanceof BitmapContainer && b instanceof BitmapContainer) {
+      long[] x = ((BitmapContainer) a).words;
+      long[] y = ((BitmapContainer) b).words;
+      int cardinality = 0;
+      for (int w = 0; w < BITMAP_WORDS; w++) {
+        cardinality += Long.bitCount(x[w] & y[w]);
+      }
+      return cardinality;
+    }
+
+    ArrayContainer array = (ArrayContainer) (a instanceof ArrayContainer ? a : b);
+    BitmapContainer bitmap = (BitmapContainer) (a instanceof ArrayContainer ? b : a);
+    int n = 0;
+    for (int i = 0; i < array.cardinality; i++) {
+      if (bitmap.contains(array.values[i] & 0xffff)) {
+        n++;
+      }
+    }
+    return n;
+  }
+
+  // Intersects two array containers into out, or only counts if out is null. When one is much
+  // smaller, each of its values is found in the other by galloping.
+  private static int intersect(ArrayContainer x, ArrayContainer y, short[] out) {
+    if (x.cardinality > y.cardinality) {
+      ArrayContainer t = x;
+      x = y;
+      y = t;
+    }
+    short[] a = x.values;
+    short[] b = y.values;
+    int na = x.cardinality;
+    int nb = y.cardinality;
+    int n = 0;
+
+    if (na * 32 < nb) {
+      int j = 0;
+      for (int i = 0; i < na && j < nb; i++) {
+        int v = a[i] & 0xffff;
+        int bound = 1;
+        while (j + bound < nb && (b[j + bound] & 0xffff) < v) {
+          bound <<= 1;
+        }
+        int lo = j + (bound >> 1);
+        int hi = Math.min(j + bound, nb - 1);
+        while (lo <= hi) {
+          int mid = (lo + hi) >>> 1;
+          if ((b[mid] & 0xffff) < v) {
+            lo = mid + 1;
+          } else {
+            hi = mid - 1;
+          }
+        }
+        j = lo;
+        if (j < nb && (b[j] & 0xffff) == v) {
+          if (out != null) {
+            out[n] = a[i];
+          }
+          n++;
+          j++;
+        }
+      }
+      return n;
+    }
+
+    int i = 0;
+    int j = 0;
+    while (i < na && j < nb) {
+      int va = a[i] & 0xffff;
+      int vb = b[j] & 0xffff;
+      if (va < vb) {
+        i++;
+      } else if (va > vb) {
+        j++;
+      } else {
+        if (out != null) {
+          out[n] = a[i];
+        }
+        n++;
+        i++;
+        j++;
+      }
+    }
+    return n;
+  }
+
+  private static Container or(Container a, Container b) {
+    if (a instanceof ArrayContainer && b instanceof ArrayContainer) {
+      ArrayContainer x = (ArrayContainer) a;
+      ArrayContainer y = (ArrayContainer) b;
+      short[] out = new short[x.cardinality + y.cardinality];
+      int i = 0;
+      int j = 0;
+      int n = 0;
+      while (i < x.cardinality && j < y.cardinality) {
+        int va = x.values[i] & 0xffff;
+        int vb = y.values[j] & 0xffff;
+        if (va <= vb) {
+          out[n++] = x.values[i++];
+          if (va == vb) {
+            j++;
+          }
+        } else {
+          out[n++] = y.values[j++];
+        }
+      }
+      while (i < x.cardinality) {
+        out[n++] = x.values[i++];
+      }
+      while (j < y.cardinality) {
+        out[n++] = y.values[j++];
+      }
+      ArrayContainer union = new ArrayContainer(out, n);
+      return n <= ARRAY_MAX_SIZE ? union : union.toBitmap();
+    }
+    if (a instanceof BitmapContainer && b instanceof BitmapContainer) {
+      long[] x = ((BitmapContainer) a).words;
+      long[] y = ((BitmapContainer) b).words;
+      long[] words = new long[BITMAP_WORDS];
+      int cardinality = 0;
+      for (int w = 0; w < BITMAP_WORDS; w++) {
+        words[w] = x[w] | y[w];
+        cardinality += Long.bitCount(words[w]);
+      }
+      return new BitmapContainer(words, cardinality);
+    }
+
+    ArrayContainer array = (ArrayContainer) (a instanceof ArrayContainer ? a : b);
+    BitmapContainer bitmap = (BitmapContainer) (a instanceof ArrayContainer ? b : a).copy();
+    for (int i = 0; i < array.cardinality; i++) {
+      bitmap.add(array.values[i] & 0xffff);
+    }
+    return bitmap;
+  }
+
+  private static Container andNot(Container a, Container b) {
+    if (a instanceof ArrayContainer) {
+      ArrayContainer x = (ArrayContainer) a;
+      short[] out = new short[x.cardinality];
+      int n = 0;
+      if (b instanceof BitmapContainer) {
+        for (int i = 0; i < x.cardinality; i++) {
+          if (!b.contains(x.values[i] & 0xffff)) {
+            out[n++] = x.values[i];
+          }
+        }
+      } else {
+        ArrayContainer y = (ArrayContainer) b;
+        int j = 0;
+        for (int i = 0; i < x.cardinality; i++) {
+          int v = x.values[i] & 0xffff;
+          while (j < y.cardinality && (y.values[j] & 0xffff) < v) {
+            j++;
+          }
+          if (j == y.cardinality || (y.values[j] & 0xffff) != v) {
+            out[n++] = x.values[i];
+          }
+        }
+      }
+      return n == 0 ? null : new ArrayContainer(out, n);
+    }
+
+    long[] words = ((BitmapContainer) a).words.clone();
+    int cardinality = a.cardinality;
+    if (b instanceof BitmapContainer) {
+      long[] y = ((BitmapContainer) b).words;
+      cardinality = 0;
+      for (int w = 0; w < BITMAP_WORDS; w++) {
+        words[w] &= ~y[w];
+        cardinality += Long.bitCount(words[w]);
+      }
+    } else {
+      ArrayContainer y = (ArrayContainer) b;
+      for (int i = 0; i < y.cardinality; i++) {
+        int v = y.values[i] & 0xffff;
+        long before = words[v >>> 6];
+        words[v >>> 6] = before & ~(1L << v);
+        if (words[v >>> 6] != before) {
+          cardinality--;
+        }
+      }
+    }
+    return new BitmapContainer(words, cardinality).normalize();
+  }
+
+  /**
+   * Returns the values of this set, in ascending unsigned order, in a new
+   * {@link ArrayListOfInts}.
+   */
+  public ArrayListOfInts toArrayListOfInts() {
+    long cardinality = getCardinality();
+    if (cardinality > Integer.MAX_VALUE - 8) {
+      throw new IllegalStateException("Too many values for a list: " + cardinality);
+    }
+
+    ArrayListOfInts list = new ArrayListOfInts((int) cardinality);
+    int[] array = list.getArray();
+    int off = 0;
+    for (int i = 0; i < size; i++) {
+      off = containers[i].fill((keys[i] & 0xffff) << 16, array, off);
+    }
+    list.setSize(off);
+    return list;
+  }
+
+  /**
+   * Applies a procedure to every value of this set, in ascending unsigned order, without boxing.
+   *
+   * @param procedure procedure to apply
+   */
+  public void forEachInt(ArrayListOfInts.IntProcedure procedure) {
+    for (int i = 0; i < size; i++) {
+      containers[i].forEach((keys[i] & 0xffff) << 16, procedure);
+    }
+  }
+
+  /**
+   * Returns an iterator over the values of this set, in ascending unsigned order. Values can be
+   * read without boxing with {@link ArrayListOfInts.IntIterator#nextInt()}. The set must not be
+   * modified during iteration.
+   */
+  public ArrayListOfInts.IntIterator iterator() {
+    return new ArrayListOfInts.IntIterator() {
+      private int container = -1;
+      private int high;
+      // Array containers: position. Bitmap containers: word index and remaining bits. Run
+      // containers: run index and next value.
+      private int pos;
+      private long word;
+      private int value;
+      private int end;
+      private boolean ready = false;
+      private int next;
+
+      private boolean advance() {
+        while (true) {
+          if (container >= 0 && container < size) {
+            Container c = containers[container];
+            if (c instanceof ArrayContainer) {
+              ArrayContainer a = (ArrayContainer) c;
+              if (pos < a.cardinality) {
+                next = high | (a.values[pos++] & 0xffff);
+                return true;
+              }
+            } else if (c instanceof BitmapContainer) {
+              long[] words = ((BitmapContainer) c).words;
+              while (word == 0 && pos < BITMAP_WORDS - 1) {
+                word = words[++pos];
+              }
+              if (word != 0) {
+                next = high | ((pos << 6) + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+                return true;
+              }
+            } else {
+              RunContainer r = (RunContainer) c;
+              if (value > end && pos < r.numRuns) {
+                value = r.runs[2 * pos] & 0xffff;
+                end = value + (r.runs[2 * pos + 1] & 0xffff);
+                pos++;
+              }
+              if (value <= end) {
+                next = high | value++;
+                return true;
+              }
+            }
+          }
+
+          if (++container >= size) {
+            return false;
+          }
+          high = (keys[container] & 0xffff) << 16;
+          pos = 0;
+          value = 1;
+          end = 0;
+          Container c = containers[container];
+          word = c instanceof BitmapContainer ? ((BitmapContainer) c).words[0] : 0;
+        }
+      }
+
+      public boolean hasNext() {
+        if (!ready) {
+          ready = advance();
+        }
+        return ready;
+      }
+
+      public int nextInt() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        ready = false;
+        return next;
+      }
+
+      public Integer next() {
+        return nextInt();
+      }
+
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+
+  /**
+   * Returns the number of bytes of the serialized form of this set.
+   */
+  public int getSerializedSize() {
+    int bytes = 4;
+    for (int i = 0; i < size; i++) {
+      Container c = containers[i];
+      bytes += 3;
+      if (c instanceof ArrayContainer) {
+        bytes += 2 + 2 * c.cardinality;
+      } else if (c instanceof BitmapContainer) {
+        bytes += 8 * BITMAP_WORDS;
+      } else {
+        bytes += 2 + 4 * ((RunContainer) c).numRuns;
+      }
+    }
+    return bytes;
+  }
+
+  @Override
+  public void readFields(DataInput in) throws IOException {
+    int n = in.readInt();
+    keys = new short[n];
+    containers = new Container[n];
+    size = n;
+    for (int i = 0; i < n; i++) {
+      keys[i] = in.readShort();
+      byte kind = in.readByte();
+      if (kind == ARRAY) {
+        int cardinality = in.readUnsignedShort() + 1;
+        short[] values = new short[cardinality];
+        PrimitiveArrayIO.readShorts(in, values, 0, cardinality);
+        containers[i] = new ArrayContainer(values, cardinality);
+      } else if (kind == BITMAP) {
+        long[] words = new long[BITMAP_WORDS];
+        PrimitiveArrayIO.readLongs(in, words, 0, BITMAP_WORDS);
+        int cardinality = 0;
+        for (int w = 0; w < BITMAP_WORDS; w++) {
+          cardinality += Long.bitCount(words[w]);
+        }
+        containers[i] = new BitmapContainer(words, cardinality);
+      } else if (kind == RUN) {
+        int numRuns = in.readUnsignedShort();
+        short[] runs = new short[2 * numRuns];
+        PrimitiveArrayIO.readShorts(in, runs, 0, runs.length);
+        containers[i] = new RunContainer(runs, numRuns);
+      } else {
+        throw new IOException("Unknown container kind: " + kind);
+      }
+    }
+  }
+
+  @Override
+  public void write(DataOutput out) throws IOException {
+    out.writeInt(size);
+    for (int i = 0; i < size; i++) {
+      Container c = containers[i];
+      out.writeShort(keys[i]);
+      if (c instanceof ArrayContainer) {
+        out.writeByte(ARRAY);
+        out.writeShort(c.cardinality - 1);
+        PrimitiveArrayIO.writeShorts(out, ((ArrayContainer) c).values, 0, c.cardinality);
+      } else if (c instanceof BitmapContainer) {
+        out.writeByte(BITMAP);
+        PrimitiveArrayIO.writeLongs(out, ((BitmapContainer) c).words, 0, BITMAP_WORDS);
+      } else {
+        RunContainer r = (RunContainer) c;
+        out.writeByte(RUN);
+        out.writeShort(r.numRuns);
+        PrimitiveArrayIO.writeShorts(out, r.runs, 0, 2 * r.numRuns);
+      }
+    }
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (!(obj instanceof RoaringBitmapWritable)) {
+      return false;
+    }
+
+    // Equal sets may use different kinds of containers.
+    RoaringBitmapWritable other = (RoaringBitmapWritable) obj;
+    long cardinality = getCardinality();
+    return cardinality == other.getCardinality() && andCardinality(this, other) == cardinality;
+  }
+
+  @Override
+  public int hashCode() {
+    final int[] hash = new int[] { 1 };
+    forEachInt(new ArrayListOfInts.IntProcedure() {
+      public void apply(int value) {
+        hash[0] = 31 * hash[0] + value;
+      }
+    });
+    return hash[0];
+  }
+
+  @Override
+  public String toString() {
+    return toArrayListOfInts().toString();
+  }
+}
@@ -0,0 +1,358 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.array;
+
+/**
+ * <p>
+ * Set operations over sorted arrays of unique ints, such as postings lists. Inputs are given as
+ * arrays with explicit lengths (e.g., the backing arrays of {@link ArrayListOfInts}), and results
+ * are written into caller-provided output arrays, so that buffers can be reused across queries
+ * without allocating. All methods return the number of values written.
+ * </p>
+ *
+ * <p>
+ * Intersection adapts to skewed sizes: when one list is much shorter than the other, each of its
+ * values is located in the longer list by galloping (exponential search followed by binary
+ * search), so the cost grows with the length of the shorter list times the log of the ratio,
+ * rather than with the length of the longer list. Intersection of many lists proceeds from the
+ * shortest list up, so that intermediate results shrink as fast as possible; union of many lists
+ * is a k-way merge with a binary heap.
+ * </p>
+ *
+ * <p>
+ * Unless noted otherwise, the output array may be the same as the first input array, since values
+ * are never written ahead of where they are read.
+ * </p>
+ */
+public class SortedIntArrays {
+  // Above this ratio of lengths, intersection gallops through the longer list.
+  private static final int GALLOP_RATIO = 32;
+
+  private SortedIntArrays() {
+  }
+
+  /**
+   * Returns the index of the first value in {@code a[from, to)} that is no smaller than
+   * {@code key}, or {@code to} if there is no such value, by exponential search from
+   * {@code from}. This takes time logarithmic in the distance between {@code from} and the
+   * result, which makes it suitable for advancing a cursor through a list.
+   *
+   * @param a sorted array
+   * @param from first index to search
+   * @param to end of the range to search (exclusive)
+   * @param key value to search for
+   */
+  public static int gallop(int[] a, int from, int to, int key) {
+    if (from >= to || a[from] >= key) {
+      return from;
+    }
+
+    // Invariant: a[lo] < key.
+    int lo = from;
+    int step = 1;
+    int hi = from + step;
+    while (hi < to && a[hi] < key) {
+      lo = hi;
+      step <<= 1;
+      hi = from + step;
+    }
+    if (hi > to) {
+      hi = to;
+    }
+
+    // Binary search in (lo, hi]: a[lo] < key, and a[hi] >= key if hi < to.
+    lo++;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (a[mid] < key) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+
+  /**
+   * Computes the intersection of two sorted lists.
+   *
+   * @param a first list
+   * @param aLen number of values in the first list
+   * @param b second list
+   * @param bLen number of values in the second list
+   * @param out output array, of length at least {@code min(aLen, bLen)}; may be {@code a} or
+   *        {@code b}
+   * @return number of values in the intersection
+   */
+  public static int intersect(int[] a, int aLen, int[] b, int bLen, int[] out) {
+    if (aLen > bLen) {
+      return intersect(b, bLen, a, aLen, out);
+    }
+    if (aLen == 0) {
+      return 0;
+    }
+
+    int n = 0;
+    if ((long) aLen * GALLOP_RATIO < bLen) {
+      int j = 0;
+      for (int i = 0; i < aLen; i++) {
+        j = gallop(b, j, bLen, a[i]);
+        if (j == bLen) {
+          break;
+        }
+        if (b[j] == a[i]) {
+          out[n++] = a[i];
+          j++;
+        }
+      }
+      return n;
+    }
+
+    int i = 0;
+    int j = 0;
+    while (i < aLen && j < bLen) {
+      int x = a[i];
+      int y = b[j];
+      if (x < y) {
+        i++;
+      } else if (y < x) {
+        j++;
+      } else {
+        out[n++] = x;
+        i++;
+        j++;
+      }
+    }
+    return n;
+  }
+
+  /**
+   * Computes the union of two sorted lists. Values present in both lists appear once.
+   *
+   * @param a first list
+   * @param aLen number of values in the first list
+   * @param b second list
+   * @param bLen number of values in the second list
+   * @param out output array, of length at least {@code aLen + bLen}; must not be {@code a} or
+   *        {@code b}
+   * @return number of values in the union
+   */
+  public static int union(int[] a, int aLen, int[] b, int bLen, int[] out) {
+    int i = 0;
+    int j = 0;
+    int n = 0;
+    while (i < aLen && j < bLen) {
+      int x = a[i];
+      int y = b[j];
+      int v;
+      if (x < y) {
+        v = x;
+        i++;
+      } else if (y < x) {
+        v = y;
+        j++;
+      } else {
+        v = x;
+        i++;
+        j++;
+      }
+      if (n == 0 || out[n - 1] != v) {
+        out[n++] = v;
+      }
+    }
+    while (i < aLen) {
+      if (n == 0 || out[n - 1] != a[i]) {
+        out[n++] = a[i];
+      }
+      i++;
+    }
+    while (j < bLen) {
+      if (n == 0 || out[n - 1] != b[j]) {
+        out[n++] = b[j];
+      }
+      j++;
+    }
+    return n;
+  }
+
+  /**
+   * Computes the difference of two sorted lists, i.e., the values of the first list that are not in
+   * the second.
+   *
+   * @param a first list
+   * @param aLen number of values in the first list
+   * @param b second list
+   * @param bLen number of values in the second list
+   * @param out output array, of length at least {@code aLen}; may be {@code a}
+   * @return number of values in the difference
+   */
+  public static int difference(int[] a, int aLen, int[] b, int bLen, int[] out) {
+    int n = 0;
+    int j = 0;
+    boolean gallop = (long) aLen * GALLOP_RATIO < bLen;
+    for (int i = 0; i < aLen; i++) {
+      int x = a[i];
+      if (gallop) {
+        j = gallop(b, j, bLen, x);
+      } else {
+        while (j < bLen && b[j] < x) {
+          j++;
+        }
+      }
+      if (j == bLen || b[j] != x) {
+        out[n++] = x;
+      }
+    }
+    return n;
+  }
+
+  /**
+   * Computes the intersection of many sorted lists. Lists are intersected from the shortest up,
+   * each step galloping through the next list when it is much longer than the intermediate result.
+   *
+   * @param lists the lists
+   * @param lengths number of values in each list
+   * @param k number of lists
+   * @param out output array, of length at least the length of the shortest list; must not be one
+   *        of the lists
+   * @return number of values in the intersection
+   */
+  public static int intersect(int[][] lists, int[] lengths, int k, int[] out) {
+    if (k == 0) {
+      return 0;
+    }
+
+    // Visit lists in order of (length, index) without allocating, by repeatedly selecting the
+    // smallest pair larger than the previous one; k is small compared to the lists themselves.
+    int prev = -1;
+    int n = 0;
+    for (int step = 0; step < k; step++) {
+      int next = -1;
+      for (int i = 0; i < k; i++) {
+        if (prev >= 0
+            && (lengths[i] < lengths[prev] || (lengths[i] == lengths[prev] && i <= prev))) {
+          continue;
+        }
+        if (next < 0 || lengths[i] < lengths[next]) {
+          next = i;
+        }
+      }
+
+      if (step == 0) {
+        n = lengths[next];
+        System.arraycopy(lists[next], 0, out, 0, n);
+      } else {
+        n = intersect(out, n, lists[next], lengths[next], out);
+      }
+      if (n == 0) {
+        return 0;
+      }
+      prev = next;
+    }
+    return n;
+  }
+
+  /**
+   * Computes the union of many sorted lists with a k-way merge. Values present in more than one
+   * list appear once.
+   *
+   * @param lists the lists
+   * @param lengths number of values in each list
+   * @param k number of lists
+   * @param out output array, of length at least the total length of the lists; must not be one
+   *        of the lists
+   * @return number of values in the union
+   */
+  public static int union(int[][] lists, int[] lengths, int k, int[] out) {
+    return union(lists, lengths, k, out, new int[2 * k]);
+  }
+
+  /**
+   * Computes the union of many sorted lists with a k-way merge, using caller-provided scratch space
+   * so that no memory is allocated. Values present in more than one list appear once.
+   *
+   * @param lists the lists
+   * @param lengths number of values in each list
+   * @param k number of lists
+   * @param out output array, of length at least the total length of the lists; must not be one
+   *        of the lists
+   * @param scratch scratch array, of length at least {@code 2 * k}
+   * @return number of values in the union
+   */
+  public static int union(int[][] lists, int[] lengths, int k, int[] out, int[] scratch) {
+    if (scratch.length < 2 * k) {
+      throw new IllegalArgumentException("Scratch array must hold at least " + (2 * k)
+          + " ints!");
+    }
+
+    // The first k slots hold a min-heap of list indices, keyed by the current value of each
+    // list; the next k slots hold the position of each list.
+    int size = 0;
+    for (int i = 0; i < k; i++) {
+      scratch[k + i] = 0;
+      if (lengths[i] > 0) {
+        scratch[size++] = i;
+      }
+    }
+    for (int i = size / 2 - 1; i >= 0; i--) {
+      siftDown(lists, scratch, k, size, i);
+    }
+
+    int n = 0;
+    while (size > 0) {
+      int top = scratch[0];
+      int pos = scratch[k + top];
+      int v = lists[top][pos];
+      if (n == 0 || out[n - 1] != v) {
+        out[n++] = v;
+      }
+
+      if (pos + 1 < lengths[top]) {
+        scratch[k + top] = pos + 1;
+      } else {
+        scratch[0] = scratch[--size];
+      }
+      siftDown(lists, scratch, k, size, 0);
+    }
+    return n;
+  }
+
+  private static void siftDown(int[][] lists, int[] heap, int k, int size, int i) {
+    int list = heap[i];
+    int v = lists[list][heap[k + list]];
+    while (true) {
+      int child = 2 * i + 1;
+      if (child >= size) {
+        break;
+      }
+      int cv = lists[heap[child]][heap[k + heap[child]]];
+      if (child + 1 < size) {
+        int rv = lists[heap[child + 1]][heap[k + heap[child + 1]]];
+        if (rv < cv) {
+          child++;
+          cv = rv;
+        }
+      }
+      if (v <= cv) {
+        break;
+      }
+      heap[i] = heap[child];
+      i = child;
+    }
+    heap[i] = list;
+  }
+}
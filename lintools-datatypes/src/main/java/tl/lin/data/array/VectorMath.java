@@ -0,0 +1,640 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.array;
+
+/**
+ * <p>
+ * Kernels for dense vectors of floats and doubles, such as embeddings and feature vectors, held in
+ * arrays, {@link ArrayListOfFloats}, {@link ArrayListOfDoubles}, {@link FloatArrayWritable} or
+ * {@link DoubleArrayWritable}. Array-based methods take an offset and a length for each vector, so
+ * that they also work on rows of a matrix stored in a single array, row after row.
+ * </p>
+ *
+ * <p>
+ * Loops are unrolled by four with independent accumulators, which breaks the dependency chain
+ * between successive additions and lets the JIT compiler keep several multiply-adds in flight
+ * (and vectorize them, where it can). As a consequence, sums are added in a different order than
+ * in a simple loop, and results may differ from it in the last bits. The batched methods score a
+ * query against many rows of a matrix into an output array; {@code cosines} computes the norm of
+ * the query only once.
+ * </p>
+ */
+public class VectorMath {
+  private static final float[] EMPTY_FLOATS = new float[0];
+  private static final double[] EMPTY_DOUBLES = new double[0];
+
+  private VectorMath() {
+  }
+
+  private static void checkBounds(int arrayLength, int off, long len) {
+    if (off < 0 || len < 0 || off > arrayLength - len) {
+      throw new IndexOutOfBoundsException("Range [" + off + ", " + off + " + " + len
+          + ") out of bounds for length " + arrayLength);
+    }
+  }
+
+  // A default-constructed writable has no array, but it is an empty vector all the same.
+  private static float[] arrayOf(FloatArrayWritable a) {
+    return a.size() == 0 ? EMPTY_FLOATS : a.getArray();
+  }
+
+  private static double[] arrayOf(DoubleArrayWritable a) {
+    return a.size() == 0 ? EMPTY_DOUBLES : a.getArray();
+  }
+
+  private static void checkLengths(int a, int b) {
+    if (a != b) {
+      throw new IllegalArgumentException("Vectors must have the same length!");
+    }
+  }
+
+  /**
+   * Returns the dot product of two float vectors.
+   */
+  public static float dot(float[] a, int aOff, float[] b, int bOff, int len) {
+    checkBounds(a.length, aOff, len);
+    checkBounds(b.length, bOff, len);
+
+    float s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+    int i = 0;
+    for (; i <= len - 4; i += 4) {
+      s0 += a[aOff + i] * b[bOff + i];
+      s1 += a[aOff + i + 1] * b[bOff + i + 1];
+      s2 += a[aOff + i + 2] * b[bOff + i + 2];
+      s3 += a[aOff + i + 3] * b[bOff + i + 3];
+    }
+    for (; i < len; i++) {
+      s0 += a[aOff + i] * b[bOff + i];
+    }
+    return (s0 + s1) + (s2 + s3);
+  }
+
+  /**
+   * Returns the squared Euclidean norm of a float vector.
+   */
+  public static float normSquared(float[] a, int off, int len) {
+    checkBounds(a.length, off, len);
+
+    float s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+    int i = 0;
+    for (; i <= len - 4; i += 4) {
+      float v0 = a[off + i];
+      float v1 = a[off + i + 1];
+      float v2 = a[off + i + 2];
+      float v3 = a[off + i + 3];
+      s0 += v0 * v0;
+      s1 += v1 * v1;
+      s2 += v2 * v2;
+      s3 += v3 * v3;
+    }
+    for (; i < len; i++) {
+      float v = a[off + i];
+      s0 += v * v;
+    }
+    return (s0 + s1) + (s2 + s3);
+  }
+
+  /**
+   * Returns the Euclidean norm of a float vector.
+   */
+  public static float norm(float[] a, int off, int len) {
+    return (float) Math.sqrt(normSquared(a, off, len));
+  }
+
+  /**
+   * Returns the cosine similarity of two float vectors, computing the dot product and both norms
+   * in a single pass. Returns zero if either vector is all zeros.
+   */
+  public static float cosine(float[] a, int aOff, float[] b, int bOff, int len) {
+    checkBounds(a.length, aOff, len);
+    checkBounds(b.length, bOff, len);
+
+    float ab0 = 0, ab1 = 0, aa0 = 0, aa1 = 0, bb0 = 0, bb1 = 0;
+    int i = 0;
+    for (; i <= len - 2; i += 2) {
+      float x0 = a[aOff + i];
+      float x1 = a[aOff + i + 1];
+      float y0 = b[bOff + i];
+      float y1 = b[bOff + i + 1];
+      ab0 += x0 * y0;
+      ab1 += x1 * y1;
+      aa0 += x0 * x0;
+      aa1 += x1 * x1;
+      bb0 += y0 * y0;
+      bb1 += y1 * y1;
+    }
+    if (i < len) {
+      float x = a[aOff + i];
+      float y = b[bOff + i];
+      ab0 += x * y;
+      aa0 += x * x;
+      bb0 += y * y;
+    }
+
+    double denominator = Math.sqrt((double) (aa0 + aa1) * (bb0 + bb1));
+    return denominator == 0 ? 0 : (float) ((ab0 + ab1) / denominator);
+  }
+
+  /**
+   * Computes {@code y += alpha * x} for float vectors.
+   */
+  public static void axpy(float alpha, float[] x, int xOff, float[] y, int yOff, int len) {
+    checkBounds(x.length, xOff, len);
+    checkBounds(y.length, yOff, len);
+
+    int i = 0;
+    for (; i <= len - 4; i += 4) {
+      y[yOff + i] += alpha * x[xOff + i];
+      y[yOff + i + 1] += alpha * x[xOff + i + 1];
+      y[yOff + i + 2] += alpha * x[xOff + i + 2];
+      y[yOff + i + 3] += alpha * x[xOff + i + 3];
+    }
+    for (; i < len; i++) {
+      y[yOff + i] += alpha * x[xOff + i];
+    }
+  }
+
+  /**
+   * Multiplies a float vector by a scalar, in place.
+   */
+  public static void scale(float alpha, float[] x, int off, int len) {
+    checkBounds(x.length, off, len);
+    for (int i = off, end = off + len; i < end; i++) {
+      x[i] *= alpha;
+    }
+  }
+
+  /**
+   * Returns the index of the largest element of a float vector, the first one in case of ties.
+   * NaNs are ignored; if all elements are NaN, returns {@code off}.
+   *
+   * @return an index between {@code off} and {@code off + len - 1}
+   */
+  public static int argmax(float[] a, int off, int len) {
+    checkBounds(a.length, off, len);
+    if (len == 0) {
+      throw new IllegalArgumentException("Vector must not be empty!");
+    }
+
+    int best = off;
+    float max = a[off];
+    for (int i = off + 1, end = off + len; i < end; i++) {
+      float v = a[i];
+      // Comparisons with NaN are false, so a NaN maximum is replaced by the first non-NaN value.
+      if (v > max || (max != max && v == v)) {
+        max = v;
+        best = i;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Computes the dot products of a query vector with {@code n} rows of a matrix, stored row after
+   * row in a single array starting at offset {@code mOff}, and writes them to
+   * {@code out[outOff, outOff + n)}.
+   *
+   * @param query query vector
+   * @param qOff offset of the query vector
+   * @param matrix array holding the rows
+   * @param mOff offset of the first row
+   * @param dim length of the query vector and of each row
+   * @param n number of rows
+   * @param out array to hold the dot products
+   * @param outOff offset of the first dot product
+   */
+  public static void dots(float[] query, int qOff, float[] matrix, int mOff, int dim, int n,
+      float[] out, int outOff) {
+    checkBounds(query.length, qOff, dim);
+    checkBounds(matrix.length, mOff, (long) dim * n);
+    checkBounds(out.length, outOff, n);
+
+    for (int r = 0; r < n; r++) {
+      out[outOff + r] = dot(query, qOff, matrix, mOff + r * dim, dim);
+    }
+  }
+
+  /**
+   * Computes the cosine similarities of a query vector with {@code n} rows of a matrix, stored
+   * row after row in a single array starting at offset {@code mOff}, and writes them to
+   * {@code out[outOff, outOff + n)}. The norm of the query is computed only once, and each row is
+   * read in a single pass. Similarities
+   * with all-zero rows are zero.
+   *
+   * @param query query vector
+   * @param qOff offset of the query vector
+   * @param matrix array holding the rows
+   * @param mOff offset of the first row
+   * @param dim length of the query vector and of each row
+   * @param n number of rows
+   * @param out array to hold the similarities
+   * @param outOff offset of the first similarity
+   */
+  public static void cosines(float[] query, int qOff, float[] matrix, int mOff, int dim, int n,
+      float[] out, int outOff) {
+    checkBounds(query.length, qOff, dim);
+    checkBounds(matrix.length, mOff, (long) dim * n);
+    checkBounds(out.length, outOff, n);
+
+    double queryNorm = Math.sqrt(normSquared(query, qOff, dim));
+    for (int r = 0; r < n; r++) {
+      int off = mOff + r * dim;
+      float ab0 = 0, ab1 = 0, bb0 = 0, bb1 = 0;
+      int i = 0;
+      for (; i <= dim - 2; i += 2) {
+        float y0 = matrix[off + i];
+        float y1 = matrix[off + i + 1];
+        ab0 += query[qOff + i] * y0;
+        ab1 += query[qOff + i + 1] * y1;
+        bb0 += y0 * y0;
+        bb1 += y1 * y1;
+      }
+      if (i < dim) {
+        float y = matrix[off + i];
+        ab0 += query[qOff + i] * y;
+        bb0 += y * y;
+      }
+
+      double denominator = queryNorm * Math.sqrt(bb0 + bb1);
+      out[outOff + r] = denominator == 0 ? 0 : (float) ((ab0 + ab1) / denominator);
+    }
+  }
+
+  /**
+   * Returns the dot product of two double vectors.
+   */
+  public static double dot(double[] a, int aOff, double[] b, int bOff, int len) {
+    checkBounds(a.length, aOff, len);
+    checkBounds(b.length, bOff, len);
+
+    double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+    int i = 0;
+    for (; i <= len - 4; i += 4) {
+      s0 += a[aOff + i] * b[bOff + i];
+      s1 += a[aOff + i + 1] * b[bOff + i + 1];
+      s2 += a[aOff + i + 2] * b[bOff + i + 2];
+      s3 += a[aOff + i + 3] * b[bOff + i + 3];
+    }
+    for (; i < len; i++) {
+      s0 += a[aOff + i] * b[bOff + i];
+    }
+    return (s0 + s1) + (s2 + s3);
+  }
+
+  /**
+   * Returns the squared Euclidean norm of a double vector.
+   */
+  public static double normSquared(double[] a, int off, int len) {
+    checkBounds(a.length, off, len);
+
+    double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+    int i = 0;
+    for (; i <= len - 4; i += 4) {
+      double v0 = a[off + i];
+      double v1 = a[off + i + 1];
+      double v2 = a[off + i + 2];
+      double v3 = a[off + i + 3];
+      s0 += v0 * v0;
+      s1 += v1 * v1;
+      s2 += v2 * v2;
+      s3 += v3 * v3;
+    }
+    for (; i < len; i++) {
+      double v = a[off + i];
+      s0 += v * v;
+    }
+    return (s0 + s1) + (s2 + s3);
+  }
+
+  /**
+   * Returns the Euclidean norm of a double vector.
+   */
+  public static double norm(double[] a, int off, int len) {
+    return Math.sqrt(normSquared(a, off, len));
+  }
+
+  /**
+   * Returns the cosine similarity of two double vectors, computing the dot product and both norms
+   * in a single pass. Returns zero if either vector is all zeros.
+   */
+  public static double cosine(double[] a, int aOff, double[] b, int bOff, int len) {
+    checkBounds(a.length, aOff, len);
+    checkBounds(b.length, bOff, len);
+
+    double ab0 = 0, ab1 = 0, aa0 = 0, aa1 = 0, bb0 = 0, bb1 = 0;
+    int i = 0;
+    for (; i <= len - 2; i += 2) {
+      double x0 = a[aOff + i];
+      double x1 = a[aOff + i + 1];
+      double y0 = b[bOff + i];
+      double y1 = b[bOff + i + 1];
+      ab0 += x0 * y0;
+      ab1 += x1 * y1;
+      aa0 += x0 * x0;
+      aa1 += x1 * x1;
+      bb0 += y0 * y0;
+      bb1 += y1 * y1;
+    }
+    if (i < len) {
+      double x = a[aOff + i];
+      double y = b[bOff + i];
+      ab0 += x * y;
+      aa0 += x * x;
+      bb0 += y * y;
+    }
+
+    double denominator = Math.sqrt((double) (aa0 + aa1) * (bb0 + bb1));
+    return denominator == 0 ? 0 : ((ab0 + ab1) / denominator);
+  }
+
+  /**
+   * Computes {@code y += alpha * x} for double vectors.
+   */
+  public static void axpy(double alpha, double[] x, int xOff, double[] y, int yOff, int len) {
+    checkBounds(x.length, xOff, len);
+    checkBounds(y.length, yOff, len);
+
+    int i = 0;
+    for (; i <= len - 4; i += 4) {
+      y[yOff + i] += alpha * x[xOff + i];
+      y[yOff + i + 1] += alpha * x[xOff + i + 1];
+      y[yOff + i + 2] += alpha * x[xOff + i + 2];
+      y[yOff + i + 3] += alpha * x[xOff + i + 3];
+    }
+    for (; i < len; i++) {
+      y[yOff + i] += alpha * x[xOff + i];
+    }
+  }
+
+  /**
+   * Multiplies a double vector by a scalar, in place.
+   */
+  public static void scale(double alpha, double[] x, int off, int len) {
+    checkBounds(x.length, off, len);
+    for (int i = off, end = off + len; i < end; i++) {
+      x[i] *= alpha;
+    }
+  }
+
+  /**
+   * Returns the index of the largest element of a double vector, the first one in case of ties.
+   * NaNs are ignored; if all elements are NaN, returns {@code off}.
+   *
+   * @return an index between {@code off} and {@code off + len - 1}
+   */
+  public static int argmax(double[] a, int off, int len) {
+    checkBounds(a.length, off, len);
+    if (len == 0) {
+      throw new IllegalArgumentException("Vector must not be empty!");
+    }
+
+    int best = off;
+    double max = a[off];
+    for (int i = off + 1, end = off + len; i < end; i++) {
+      double v = a[i];
+      // Comparisons with NaN are false, so a NaN maximum is replaced by the first non-NaN value.
+      if (v > max || (max != max && v == v)) {
+        max = v;
+        best = i;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Computes the dot products of a query vector with {@code n} rows of a matrix, stored row after
+   * row in a single array starting at offset {@code mOff}, and writes them to
+   * {@code out[outOff, outOff + n)}.
+   *
+   * @param query query vector
+   * @param qOff offset of the query vector
+   * @param matrix array holding the rows
+   * @param mOff offset of the first row
+   * @param dim length of the query vector and of each row
+   * @param n number of rows
+   * @param out array to hold the dot products
+   * @param outOff offset of the first dot product
+   */
+  public static void dots(double[] query, int qOff, double[] matrix, int mOff, int dim, int n,
+      double[] out, int outOff) {
+    checkBounds(query.length, qOff, dim);
+    checkBounds(matrix.length, mOff, (long) dim * n);
+    checkBounds(out.length, outOff, n);
+
+    for (int r = 0; r < n; r++) {
+      out[outOff + r] = dot(query, qOff, matrix, mOff + r * dim, dim);
+    }
+  }
+
+  /**
+   * Computes the cosine similarities of a query vector with {@code n} rows of a matrix, stored
+   * row after row in a single array starting at offset {@code mOff}, and writes them to
+   * {@code out[outOff, outOff + n)}. The norm of the query is computed only once, and each row is
+   * read in a single pass. Similarities
+   * with all-zero rows are zero.
+   *
+   * @param query query vector
+   * @param qOff offset of the query vector
+   * @param matrix array holding the rows
+   * @param mOff offset of the first row
+   * @param dim length of the query vector and of each row
+   * @param n number of rows
+   * @param out array to hold the similarities
+   * @param outOff offset of the first similarity
+   */
+  public static void cosines(double[] query, int qOff, double[] matrix, int mOff, int dim, int n,
+      double[] out, int outOff) {
+    checkBounds(query.length, qOff, dim);
+    checkBounds(matrix.length, mOff, (long) dim * n);
+    checkBounds(out.length, outOff, n);
+
+    double queryNorm = Math.sqrt(normSquared(query, qOff, dim));
+    for (int r = 0; r < n; r++) {
+      int off = mOff + r * dim;
+      double ab0 = 0, ab1 = 0, bb0 = 0, bb1 = 0;
+      int i = 0;
+      for (; i <= dim - 2; i += 2) {
+        double y0 = matrix[off + i];
+        double y1 = matrix[off + i + 1];
+        ab0 += query[qOff + i] * y0;
+        ab1 += query[qOff + i + 1] * y1;
+        bb0 += y0 * y0;
+        bb1 += y1 * y1;
+      }
+      if (i < dim) {
+        double y = matrix[off + i];
+        ab0 += query[qOff + i] * y;
+        bb0 += y * y;
+      }
+
+      double denominator = queryNorm * Math.sqrt(bb0 + bb1);
+      out[outOff + r] = denominator == 0 ? 0 : ((ab0 + ab1) / denominator);
+    }
+  }
+
+  /**
+   * Returns the dot product of two vectors of the same length.
+   */
+  public static float dot(ArrayListOfFloats a, ArrayListOfFloats b) {
+    checkLengths(a.size(), b.size());
+    return dot(a.getArray(), 0, b.getArray(), 0, a.size());
+  }
+
+  /**
+   * Returns the Euclidean norm of a vector.
+   */
+  public static float norm(ArrayListOfFloats a) {
+    return norm(a.getArray(), 0, a.size());
+  }
+
+  /**
+   * Returns the cosine similarity of two vectors of the same length.
+   */
+  public static float cosine(ArrayListOfFloats a, ArrayListOfFloats b) {
+    checkLengths(a.size(), b.size());
+    return cosine(a.getArray(), 0, b.getArray(), 0, a.size());
+  }
+
+  /**
+   * Computes {@code y += alpha * x} for two vectors of the same length.
+   */
+  public static void axpy(float alpha, ArrayListOfFloats x, ArrayListOfFloats y) {
+    checkLengths(x.size(), y.size());
+    axpy(alpha, x.getArray(), 0, y.getArray(), 0, x.size());
+  }
+
+  /**
+   * Returns the index of the largest element of a non-empty vector.
+   */
+  public static int argmax(ArrayListOfFloats a) {
+    return argmax(a.getArray(), 0, a.size());
+  }
+
+  /**
+   * Returns the dot product of two vectors of the same length.
+   */
+  public static float dot(FloatArrayWritable a, FloatArrayWritable b) {
+    checkLengths(a.size(), b.size());
+    return dot(arrayOf(a), 0, arrayOf(b), 0, a.size());
+  }
+
+  /**
+   * Returns the Euclidean norm of a vector.
+   */
+  public static float norm(FloatArrayWritable a) {
+    return norm(arrayOf(a), 0, a.size());
+  }
+
+  /**
+   * Returns the cosine similarity of two vectors of the same length.
+   */
+  public static float cosine(FloatArrayWritable a, FloatArrayWritable b) {
+    checkLengths(a.size(), b.size());
+    return cosine(arrayOf(a), 0, arrayOf(b), 0, a.size());
+  }
+
+  /**
+   * Computes {@code y += alpha * x} for two vectors of the same length.
+   */
+  public static void axpy(float alpha, FloatArrayWritable x, FloatArrayWritable y) {
+    checkLengths(x.size(), y.size());
+    axpy(alpha, arrayOf(x), 0, arrayOf(y), 0, x.size());
+  }
+
+  /**
+   * Returns the index of the largest element of a non-empty vector.
+   */
+  public static int argmax(FloatArrayWritable a) {
+    return argmax(arrayOf(a), 0, a.size());
+  }
+
+  /**
+   * Returns the dot product of two vectors of the same length.
+   */
+  public static double dot(ArrayListOfDoubles a, ArrayListOfDoubles b) {
+    checkLengths(a.size(), b.size());
+    return dot(a.getArray(), 0, b.getArray(), 0, a.size());
+  }
+
+  /**
+   * Returns the Euclidean norm of a vector.
+   */
+  public static double norm(ArrayListOfDoubles a) {
+    return norm(a.getArray(), 0, a.size());
+  }
+
+  /**
+   * Returns the cosine similarity of two vectors of the same length.
+   */
+  public static double cosine(ArrayListOfDoubles a, ArrayListOfDoubles b) {
+    checkLengths(a.size(), b.size());
+    return cosine(a.getArray(), 0, b.getArray(), 0, a.size());
+  }
+
+  /**
+   * Computes {@code y += alpha * x} for two vectors of the same length.
+   */
+  public static void axpy(double alpha, ArrayListOfDoubles x, ArrayListOfDoubles y) {
+    checkLengths(x.size(), y.size());
+    axpy(alpha, x.getArray(), 0, y.getArray(), 0, x.size());
+  }
+
+  /**
+   * Returns the index of the largest element of a non-empty vector.
+   */
+  public static int argmax(ArrayListOfDoubles a) {
+    return argmax(a.getArray(), 0, a.size());
+  }
+
+  /**
+   * Returns the dot product of two vectors of the same length.
+   */
+  public static double dot(DoubleArrayWritable a, DoubleArrayWritable b) {
+    checkLengths(a.size(), b.size());
+    return dot(arrayOf(a), 0, arrayOf(b), 0, a.size());
+  }
+
+  /**
+   * Returns the Euclidean norm of a vector.
+   */
+  public static double norm(DoubleArrayWritable a) {
+    return norm(arrayOf(a), 0, a.size());
+  }
+
+  /**
+   * Returns the cosine similarity of two vectors of the same length.
+   */
+  public static double cosine(DoubleArrayWritable a, DoubleArrayWritable b) {
+    checkLengths(a.size(), b.size());
+    return cosine(arrayOf(a), 0, arrayOf(b), 0, a.size());
+  }
+
+  /**
+   * Computes {@code y += alpha * x} for two vectors of the same length.
+   */
+  public static void axpy(double alpha, DoubleArrayWritable x, DoubleArrayWritable y) {
+    checkLengths(x.size(), y.size());
+    axpy(alpha, arrayOf(x), 0, arrayOf(y), 0, x.size());
+  }
+
+  /**
+   * Returns the index of the largest element of a non-empty vector.
+   */
+  public static int argmax(DoubleArrayWritable a) {
+    return argmax(arrayOf(a), 0, a.size());
+  }
+}
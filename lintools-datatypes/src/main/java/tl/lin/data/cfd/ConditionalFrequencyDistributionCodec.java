@@ -0,0 +1,212 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.cfd;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+import tl.lin.data.fd.FrequencyDistributionCodec;
+import tl.lin.data.fd.Int2IntFrequencyDistribution;
+import tl.lin.data.fd.Object2IntFrequencyDistribution;
+import tl.lin.data.fd.SortedIntCountReader;
+import tl.lin.data.fd.SortedStringCountReader;
+
+/**
+ * <p>
+ * Compact serialization of conditional frequency distributions, as an alternative to their
+ * {@code write} methods (which serialize one hash table per condition, plus the marginals).
+ * Conditions and events are written in ascending order with the encodings of
+ * {@link FrequencyDistributionCodec}; marginals and sums are not stored, since they are recomputed
+ * on reading. Conditions with no events are omitted.
+ * </p>
+ *
+ * <p>
+ * Serialized distributions can be iterated with {@link SortedIntConditionalCountReader} or
+ * {@link SortedStringConditionalCountReader}, or merged with {@link #mergeInts} or
+ * {@link #mergeStrings}, without building any hash tables. This class works through the
+ * conditional frequency distribution interfaces, so it applies to all of their implementations.
+ * </p>
+ */
+public class ConditionalFrequencyDistributionCodec {
+  private ConditionalFrequencyDistributionCodec() {
+  }
+
+  /**
+   * Writes a conditional frequency distribution in the compact sorted format.
+   *
+   * @param cfd conditional frequency distribution
+   * @param out where to write the distribution
+   */
+  public static void write(Int2IntConditionalFrequencyDistribution cfd, DataOutput out)
+      throws IOException {
+    SortedIntConditionalCountWriter writer = new SortedIntConditionalCountWriter(out);
+    for (int cond : cfd.getConditions()) {
+      Int2IntFrequencyDistribution fd = cfd.getConditionalDistribution(cond);
+      if (fd.getNumberOfEvents() > 0) {
+        FrequencyDistributionCodec.writeEntries(fd, writer.startCondition(cond));
+      }
+    }
+    writer.finish();
+  }
+
+  /**
+   * Writes a conditional frequency distribution over strings in the compact sorted format.
+   *
+   * @param cfd conditional frequency distribution
+   * @param out where to write the distribution
+   */
+  public static void write(Object2IntConditionalFrequencyDistribution<String> cfd,
+      DataOutput out) throws IOException {
+    String[] conditions = cfd.getConditions().toArray(new String[0]);
+    Arrays.sort(conditions);
+
+    SortedStringConditionalCountWriter writer = new SortedStringConditionalCountWriter(out);
+    for (String cond : conditions) {
+      Object2IntFrequencyDistribution<String> fd = cfd.getConditionalDistribution(cond);
+      if (fd.getNumberOfEvents() > 0) {
+        FrequencyDistributionCodec.writeEntries(fd, writer.startCondition(cond));
+      }
+    }
+    writer.finish();
+  }
+
+  /**
+   * Reads a conditional distribution in the compact sorted format, adding its counts to
+   * {@code cfd}.
+   *
+   * @param in source of the serialized distribution
+   * @param cfd conditional frequency distribution to add counts to
+   */
+  public static void read(DataInput in, Int2IntConditionalFrequencyDistribution cfd)
+      throws IOException {
+    SortedIntConditionalCountReader reader = new SortedIntConditionalCountReader(in);
+    while (reader.nextCondition()) {
+      int cond = reader.getCondition();
+      SortedIntCountReader events = reader.getEvents();
+      while (events.next()) {
+        cfd.increment(events.getEvent(), cond, (int) events.getCount());
+      }
+    }
+  }
+
+  /**
+   * Reads a conditional distribution over strings in the compact sorted format, adding its counts
+   * to {@code cfd}.
+   *
+   * @param in source of the serialized distribution
+   * @param cfd conditional frequency distribution to add counts to
+   */
+  public static void read(DataInput in, Object2IntConditionalFrequencyDistribution<String> cfd)
+      throws IOException {
+    SortedStringConditionalCountReader reader = new SortedStringConditionalCountReader(in);
+    while (reader.nextCondition()) {
+      String cond = reader.getCondition();
+      SortedStringCountReader events = reader.getEvents();
+      while (events.next()) {
+        cfd.increment(events.getEvent(), cond, (int) events.getCount());
+      }
+    }
+  }
+
+  /**
+   * Merges two serialized int conditional distributions into a third, summing the counts of
+   * (event, condition) pairs present in both. Memory usage is constant regardless of the size of
+   * the distributions.
+   *
+   * @param a source of the first serialized distribution
+   * @param b source of the second serialized distribution
+   * @param out where to write the merged distribution
+   */
+  public static void mergeInts(DataInput a, DataInput b, DataOutput out) throws IOException {
+    SortedIntConditionalCountReader readerA = new SortedIntConditionalCountReader(a);
+    SortedIntConditionalCountReader readerB = new SortedIntConditionalCountReader(b);
+    SortedIntConditionalCountWriter writer = new SortedIntConditionalCountWriter(out);
+    // Stands in for the events of a condition that is missing from one side.
+    SortedIntCountReader empty = new SortedIntCountReader(null) {
+      @Override
+      public boolean next() {
+        return false;
+      }
+    };
+
+    boolean hasA = readerA.nextCondition();
+    boolean hasB = readerB.nextCondition();
+    while (hasA || hasB) {
+      if (hasA && (!hasB || readerA.getCondition() < readerB.getCondition())) {
+        FrequencyDistributionCodec.mergeInts(readerA.getEvents(), empty,
+            writer.startCondition(readerA.getCondition()));
+        hasA = readerA.nextCondition();
+      } else if (!hasA || readerB.getCondition() < readerA.getCondition()) {
+        FrequencyDistributionCodec.mergeInts(empty, readerB.getEvents(),
+            writer.startCondition(readerB.getCondition()));
+        hasB = readerB.nextCondition();
+      } else {
+        FrequencyDistributionCodec.mergeInts(readerA.getEvents(), readerB.getEvents(),
+            writer.startCondition(readerA.getCondition()));
+        hasA = readerA.nextCondition();
+        hasB = readerB.nextCondition();
+      }
+    }
+    writer.finish();
+  }
+
+  /**
+   * Merges two serialized string conditional distributions into a third, summing the counts of
+   * (event, condition) pairs present in both. Memory usage is constant regardless of the size of
+   * the distributions.
+   *
+   * @param a source of the first serialized distribution
+   * @param b source of the second serialized distribution
+   * @param out where to write the merged distribution
+   */
+  public static void mergeStrings(DataInput a, DataInput b, DataOutput out) throws IOException {
+    SortedStringConditionalCountReader readerA = new SortedStringConditionalCountReader(a);
+    SortedStringConditionalCountReader readerB = new SortedStringConditionalCountReader(b);
+    SortedStringConditionalCountWriter writer = new SortedStringConditionalCountWriter(out);
+    // Stands in for the events of a condition that is missing from one side.
+    SortedStringCountReader empty = new SortedStringCountReader(null) {
+      @Override
+      public boolean next() {
+        return false;
+      }
+    };
+
+    boolean hasA = readerA.nextCondition();
+    boolean hasB = readerB.nextCondition();
+    while (hasA || hasB) {
+      int cmp = !hasA ? 1 : !hasB ? -1 : readerA.getCondition().compareTo(
+          readerB.getCondition());
+      if (cmp < 0) {
+        FrequencyDistributionCodec.mergeStrings(readerA.getEvents(), empty,
+            writer.startCondition(readerA.getCondition()));
+        hasA = readerA.nextCondition();
+      } else if (cmp > 0) {
+        FrequencyDistributionCodec.mergeStrings(empty, readerB.getEvents(),
+            writer.startCondition(readerB.getCondition()));
+        hasB = readerB.nextCondition();
+      } else {
+        FrequencyDistributionCodec.mergeStrings(readerA.getEvents(), readerB.getEvents(),
+            writer.startCondition(readerA.getCondition()));
+        hasA = readerA.nextCondition();
+        hasB = readerB.nextCondition();
+      }
+    }
+    writer.finish();
+  }
+}
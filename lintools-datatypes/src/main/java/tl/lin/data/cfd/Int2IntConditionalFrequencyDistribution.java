@@ -57,11 +57,30 @@ public interface Int2IntConditionalFrequencyDistribution extends Writable {
    */
   public Int2IntFrequencyDistribution getConditionalDistribution(int cond);
 
+  /**
+   * Returns the conditions that have been observed, in ascending order.
+   */
+  public int[] getConditions();
+
   /**
    * Returns the sum of all counts.
    */
   public long getSumOfAllCounts();
 
+  /**
+   * Returns the conditional entropy (base e) of events given conditions, that is,
+   * {@code H(K | C) = SUM_c p(c) H(K | C = c)}. Runs in constant time, since the required sums of
+   * {@code c log c} are maintained as counts are updated.
+   */
+  public double computeConditionalEntropy();
+
+  /**
+   * Returns the mutual information (base e) between events and conditions, that is,
+   * {@code I(K; C) = H(K) - H(K | C)}, where {@code H(K)} is the entropy of the marginal
+   * distribution of events. Runs in constant time.
+   */
+  public double computeMutualInformation();
+
   /**
    * Performs an internal consistency check of this data structure. An exception will be thrown if
    * an error is found.
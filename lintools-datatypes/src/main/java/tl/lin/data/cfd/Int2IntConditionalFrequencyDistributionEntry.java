@@ -19,12 +19,15 @@ package tl.lin.data.cfd;
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.util.Arrays;
 
+import tl.lin.data.fd.FrequencyDistributionStatistics;
 import tl.lin.data.fd.Int2IntFrequencyDistribution;
 import tl.lin.data.fd.Int2IntFrequencyDistributionEntry;
 import tl.lin.data.fd.Int2LongFrequencyDistributionEntry;
 import tl.lin.data.map.HMapII;
 import tl.lin.data.map.HMapIVW;
+import tl.lin.data.pair.PairOfIntLong;
 import tl.lin.data.pair.PairOfInts;
 
 /**
@@ -37,6 +40,11 @@ public class Int2IntConditionalFrequencyDistributionEntry implements
   private final Int2LongFrequencyDistributionEntry marginals = new Int2LongFrequencyDistributionEntry();
 
   private long sumOfAllCounts = 0;
+  // Sums of c log c over the counts of (event, condition) pairs, the sums of counts of conditions,
+  // and the marginal counts of events, from which entropies can be computed in constant time.
+  private double sumOfCellCountLogCounts = 0.0;
+  private double sumOfConditionCountLogCounts = 0.0;
+  private double sumOfMarginalCountLogCounts = 0.0;
 
   @Override
   public void set(int k, int cond, int v) {
@@ -44,21 +52,35 @@ public class Int2IntConditionalFrequencyDistributionEntry implements
       Int2IntFrequencyDistribution fd = new Int2IntFrequencyDistributionEntry();
       fd.set(k, v);
       distributions.put(cond, fd);
+      updateStatistics(k, 0, v, 0, v);
       marginals.increment(k, v);
 
       sumOfAllCounts += v;
     } else {
       Int2IntFrequencyDistribution fd = distributions.get(cond);
       int rv = fd.get(k);
+      long condSum = fd.getSumOfCounts();
 
       fd.set(k, v);
       distributions.put(cond, fd);
+      updateStatistics(k, rv, v, condSum, fd.getSumOfCounts());
       marginals.increment(k, -rv + v);
 
       sumOfAllCounts = sumOfAllCounts - rv + v;
     }
   }
 
+  // Must be called before the marginal count of k is updated.
+  private void updateStatistics(int k, int rv, int v, long condSumBefore, long condSumAfter) {
+    long m = marginals.get(k);
+    sumOfCellCountLogCounts +=
+        FrequencyDistributionStatistics.xlogx(v) - FrequencyDistributionStatistics.xlogx(rv);
+    sumOfConditionCountLogCounts += FrequencyDistributionStatistics.xlogx(condSumAfter)
+        - FrequencyDistributionStatistics.xlogx(condSumBefore);
+    sumOfMarginalCountLogCounts += FrequencyDistributionStatistics.xlogx(m - rv + v)
+        - FrequencyDistributionStatistics.xlogx(m);
+  }
+
   @Override
   public void increment(int k, int cond) {
     increment(k, cond, 1);
@@ -97,11 +119,43 @@ public class Int2IntConditionalFrequencyDistributionEntry implements
     return new Int2IntFrequencyDistributionEntry();
   }
 
+  @Override
+  public int[] getConditions() {
+    int[] conditions = new int[distributions.size()];
+    int i = 0;
+    for (int cond : distributions.keySet()) {
+      conditions[i++] = cond;
+    }
+    Arrays.sort(conditions);
+
+    return conditions;
+  }
+
   @Override
   public long getSumOfAllCounts() {
     return sumOfAllCounts;
   }
 
+  @Override
+  public double computeConditionalEntropy() {
+    if (sumOfAllCounts == 0) {
+      return 0.0;
+    }
+
+    return Math.max(0.0, (sumOfConditionCountLogCounts - sumOfCellCountLogCounts)
+        / sumOfAllCounts);
+  }
+
+  @Override
+  public double computeMutualInformation() {
+    if (sumOfAllCounts == 0) {
+      return 0.0;
+    }
+
+    return Math.max(0.0, Math.log(sumOfAllCounts) - (sumOfMarginalCountLogCounts
+        + sumOfConditionCountLogCounts - sumOfCellCountLogCounts) / sumOfAllCounts);
+  }
+
   @Override
   public void check() {
     Int2IntFrequencyDistribution m = new Int2IntFrequencyDistributionEntry();
@@ -144,6 +198,24 @@ public class Int2IntConditionalFrequencyDistributionEntry implements
     marginals.readFields(in);
     distributions.readFields(in);
     sumOfAllCounts = in.readLong();
+
+    recomputeStatistics();
+  }
+
+  private void recomputeStatistics() {
+    sumOfCellCountLogCounts = 0.0;
+    sumOfConditionCountLogCounts = 0.0;
+    for (Int2IntFrequencyDistribution fd : distributions.values()) {
+      for (PairOfInts pair : fd) {
+        sumOfCellCountLogCounts += FrequencyDistributionStatistics.xlogx(pair.getRightElement());
+      }
+      sumOfConditionCountLogCounts += FrequencyDistributionStatistics.xlogx(fd.getSumOfCounts());
+    }
+
+    sumOfMarginalCountLogCounts = 0.0;
+    for (PairOfIntLong pair : marginals) {
+      sumOfMarginalCountLogCounts += FrequencyDistributionStatistics.xlogx(pair.getRightElement());
+    }
   }
 
   @Override
@@ -16,6 +16,8 @@
 
 package tl.lin.data.cfd;
 
+import java.util.Set;
+
 import tl.lin.data.fd.Object2IntFrequencyDistribution;
 
 /**
@@ -55,11 +57,30 @@ public interface Object2IntConditionalFrequencyDistribution<K extends Comparable
    */
   public Object2IntFrequencyDistribution<K> getConditionalDistribution(K cond);
 
+  /**
+   * Returns the set of conditions that have been observed.
+   */
+  public Set<K> getConditions();
+
   /**
    * Returns the sum of all counts.
    */
   public long getSumOfAllCounts();
 
+  /**
+   * Returns the conditional entropy (base e) of events given conditions, that is,
+   * {@code H(K | C) = SUM_c p(c) H(K | C = c)}. Runs in constant time, since the required sums of
+   * {@code c log c} are maintained as counts are updated.
+   */
+  public double computeConditionalEntropy();
+
+  /**
+   * Returns the mutual information (base e) between events and conditions, that is,
+   * {@code I(K; C) = H(K) - H(K | C)}, where {@code H(K)} is the entropy of the marginal
+   * distribution of events. Runs in constant time.
+   */
+  public double computeMutualInformation();
+
   /**
    * Performs an internal consistency check of this data structure. An exception will be thrown if
    * an error is found.
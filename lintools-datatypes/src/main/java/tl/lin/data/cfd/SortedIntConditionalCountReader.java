@@ -0,0 +1,106 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.cfd;
+
+import java.io.DataInput;
+import java.io.IOException;
+
+import org.apache.hadoop.io.WritableUtils;
+
+import tl.lin.data.fd.SortedIntCountReader;
+
+/**
+ * <p>
+ * Streams a conditional frequency distribution written by {@link SortedIntConditionalCountWriter},
+ * in ascending order of conditions and then events, without materializing any hash tables.
+ * Typical usage:
+ * </p>
+ *
+ * <pre>
+ * SortedIntConditionalCountReader reader = new SortedIntConditionalCountReader(in);
+ * while (reader.nextCondition()) {
+ *   int cond = reader.getCondition();
+ *   SortedIntCountReader events = reader.getEvents();
+ *   while (events.next()) {
+ *     ...
+ *   }
+ * }
+ * </pre>
+ *
+ * <p>
+ * Entries of a condition that are not consumed are skipped by {@link #nextCondition()}.
+ * </p>
+ *
+ * @see ConditionalFrequencyDistributionCodec
+ */
+public class SortedIntConditionalCountReader {
+  private final DataInput in;
+  private final SortedIntCountReader events;
+  private long prev = Integer.MIN_VALUE - 1L;
+  private boolean started = false;
+  private boolean done = false;
+
+  /**
+   * Creates a reader positioned before the first condition of a stream.
+   *
+   * @param in source of the stream
+   */
+  public SortedIntConditionalCountReader(DataInput in) {
+    this.in = in;
+    this.events = new SortedIntCountReader(in);
+  }
+
+  /**
+   * Advances to the next condition.
+   *
+   * @return {@code false} if the end of the stream has been reached
+   */
+  public boolean nextCondition() throws IOException {
+    if (done) {
+      return false;
+    }
+    if (started) {
+      events.skipToEnd();
+    }
+
+    long gap = WritableUtils.readVLong(in);
+    if (gap == 0) {
+      done = true;
+      return false;
+    }
+
+    prev += gap;
+    events.reset(in);
+    started = true;
+    return true;
+  }
+
+  /**
+   * Returns the current condition.
+   */
+  public int getCondition() {
+    return (int) prev;
+  }
+
+  /**
+   * Returns a reader over the (event, count) entries of the current condition. The same reader
+   * object is returned for every condition.
+   */
+  public SortedIntCountReader getEvents() {
+    return events;
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.cfd;
+
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.apache.hadoop.io.WritableUtils;
+
+import tl.lin.data.fd.SortedIntCountWriter;
+
+/**
+ * <p>
+ * Writes a conditional frequency distribution over ints as a compact stream that can be read back
+ * with {@link SortedIntConditionalCountReader}. Conditions must be written in strictly ascending
+ * order; each is encoded as the variable-length gap from the previous condition, followed by the
+ * (event, count) entries conditioned on it in the format of {@link SortedIntCountWriter}. Typical
+ * usage:
+ * </p>
+ *
+ * <pre>
+ * SortedIntConditionalCountWriter writer = new SortedIntConditionalCountWriter(out);
+ * SortedIntCountWriter events = writer.startCondition(cond);
+ * events.add(event, count);
+ * ...
+ * writer.finish();
+ * </pre>
+ *
+ * @see ConditionalFrequencyDistributionCodec
+ */
+public class SortedIntConditionalCountWriter {
+  private static final long START = Integer.MIN_VALUE - 1L;
+
+  private final DataOutput out;
+  private long prev = START;
+  private SortedIntCountWriter current = null;
+  private boolean finished = false;
+
+  /**
+   * Creates a writer.
+   *
+   * @param out where to write the distribution
+   */
+  public SortedIntConditionalCountWriter(DataOutput out) {
+    this.out = out;
+  }
+
+  /**
+   * Starts the entries of a new condition, finishing those of the previous condition.
+   *
+   * @param cond the condition, which must be larger than the previous condition
+   * @return writer for the entries conditioned on {@code cond}, valid until the next call
+   * @exception IllegalArgumentException if conditions are out of order
+   */
+  public SortedIntCountWriter startCondition(int cond) throws IOException {
+    if (finished) {
+      throw new IllegalStateException("Writer already finished!");
+    }
+    if (cond <= prev) {
+      throw new IllegalArgumentException("Conditions must be written in ascending order: " + cond
+          + " after " + prev);
+    }
+
+    if (current != null) {
+      current.finish();
+    }
+
+    WritableUtils.writeVLong(out, cond - prev);
+    prev = cond;
+    current = new SortedIntCountWriter(out);
+    return current;
+  }
+
+  /**
+   * Terminates the stream. The underlying output is not closed.
+   */
+  public void finish() throws IOException {
+    if (!finished) {
+      if (current != null) {
+        current.finish();
+      }
+      WritableUtils.writeVLong(out, 0);
+      finished = true;
+    }
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.cfd;
+
+import java.io.DataInput;
+import java.io.IOException;
+
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.WritableUtils;
+
+import tl.lin.data.fd.SortedStringCountReader;
+
+/**
+ * Streams a conditional frequency distribution written by
+ * {@link SortedStringConditionalCountWriter}, in ascending order of conditions and then events,
+ * without materializing any hash tables. Entries of a condition that are not consumed are skipped
+ * by {@link #nextCondition()}.
+ *
+ * @see ConditionalFrequencyDistributionCodec
+ */
+public class SortedStringConditionalCountReader {
+  private final DataInput in;
+  private final SortedStringCountReader events;
+  private String cond = null;
+  private boolean done = false;
+
+  /**
+   * Creates a reader positioned before the first condition of a stream.
+   *
+   * @param in source of the stream
+   */
+  public SortedStringConditionalCountReader(DataInput in) {
+    this.in = in;
+    this.events = new SortedStringCountReader(in);
+  }
+
+  /**
+   * Advances to the next condition.
+   *
+   * @return {@code false} if the end of the stream has been reached
+   */
+  public boolean nextCondition() throws IOException {
+    if (done) {
+      return false;
+    }
+    if (cond != null) {
+      events.skipToEnd();
+    }
+
+    int shared = WritableUtils.readVInt(in);
+    if (shared == 0) {
+      done = true;
+      return false;
+    }
+
+    String suffix = Text.readString(in);
+    cond = shared == 1 ? suffix : cond.substring(0, shared - 1) + suffix;
+    events.reset(in);
+    return true;
+  }
+
+  /**
+   * Returns the current condition.
+   */
+  public String getCondition() {
+    return cond;
+  }
+
+  /**
+   * Returns a reader over the (event, count) entries of the current condition. The same reader
+   * object is returned for every condition.
+   */
+  public SortedStringCountReader getEvents() {
+    return events;
+  }
+}
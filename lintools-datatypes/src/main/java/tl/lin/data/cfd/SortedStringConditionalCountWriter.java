@@ -0,0 +1,102 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.cfd;
+
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.WritableUtils;
+
+import tl.lin.data.fd.SortedStringCountWriter;
+
+/**
+ * Writes a conditional frequency distribution over strings as a compact stream that can be read
+ * back with {@link SortedStringConditionalCountReader}. Conditions must be written in strictly
+ * ascending order and are front coded; each is followed by the (event, count) entries conditioned
+ * on it in the format of {@link SortedStringCountWriter}.
+ *
+ * @see ConditionalFrequencyDistributionCodec
+ */
+public class SortedStringConditionalCountWriter {
+  private final DataOutput out;
+  private String prev = null;
+  private SortedStringCountWriter current = null;
+  private boolean finished = false;
+
+  /**
+   * Creates a writer.
+   *
+   * @param out where to write the distribution
+   */
+  public SortedStringConditionalCountWriter(DataOutput out) {
+    this.out = out;
+  }
+
+  /**
+   * Starts the entries of a new condition, finishing those of the previous condition.
+   *
+   * @param cond the condition, which must be larger than the previous condition
+   * @return writer for the entries conditioned on {@code cond}, valid until the next call
+   * @exception IllegalArgumentException if conditions are out of order
+   */
+  public SortedStringCountWriter startCondition(String cond) throws IOException {
+    if (finished) {
+      throw new IllegalStateException("Writer already finished!");
+    }
+    if (prev != null && cond.compareTo(prev) <= 0) {
+      throw new IllegalArgumentException("Conditions must be written in ascending order: \""
+          + cond + "\" after \"" + prev + "\"");
+    }
+
+    if (current != null) {
+      current.finish();
+    }
+
+    int shared = 0;
+    if (prev != null) {
+      int n = Math.min(prev.length(), cond.length());
+      while (shared < n && prev.charAt(shared) == cond.charAt(shared)) {
+        shared++;
+      }
+      // Never split a surrogate pair, since the suffix is encoded as UTF-8.
+      if (shared > 0 && Character.isHighSurrogate(prev.charAt(shared - 1))) {
+        shared--;
+      }
+    }
+
+    // Zero is reserved for the terminator.
+    WritableUtils.writeVInt(out, shared + 1);
+    Text.writeString(out, cond.substring(shared));
+    prev = cond;
+    current = new SortedStringCountWriter(out);
+    return current;
+  }
+
+  /**
+   * Terminates the stream. The underlying output is not closed.
+   */
+  public void finish() throws IOException {
+    if (!finished) {
+      if (current != null) {
+        current.finish();
+      }
+      WritableUtils.writeVInt(out, 0);
+      finished = true;
+    }
+  }
+}
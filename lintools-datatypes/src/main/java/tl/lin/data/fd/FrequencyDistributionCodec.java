@@ -0,0 +1,322 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.fd;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+import tl.lin.data.pair.PairOfIntLong;
+import tl.lin.data.pair.PairOfInts;
+
+/**
+ * <p>
+ * Compact serialization of frequency distributions, as an alternative to their {@code write}
+ * methods (which dump the underlying hash table in hash order with fixed-width fields). Entries
+ * are written in ascending order of events with gap and variable-length coding for int events and
+ * front coding for string events; see {@link SortedIntCountWriter} and
+ * {@link SortedStringCountWriter} for details. The sum of counts is not stored, since it is
+ * recomputed on reading.
+ * </p>
+ *
+ * <p>
+ * Int2Int and Int2Long distributions share one format, as do Object2Int and Object2Long
+ * distributions over strings, so a distribution can be read back into either kind. Serialized
+ * distributions can also be iterated with {@link SortedIntCountReader} or
+ * {@link SortedStringCountReader}, or merged with {@link #mergeInts} or {@link #mergeStrings},
+ * without building a hash table.
+ * </p>
+ *
+ * <p>
+ * This class works through the frequency distribution interfaces, so it applies to all of their
+ * implementations.
+ * </p>
+ */
+public class FrequencyDistributionCodec {
+  private FrequencyDistributionCodec() {
+  }
+
+  /**
+   * Writes a frequency distribution in the compact sorted format.
+   *
+   * @param fd frequency distribution
+   * @param out where to write the distribution
+   */
+  public static void write(Int2IntFrequencyDistribution fd, DataOutput out) throws IOException {
+    SortedIntCountWriter writer = new SortedIntCountWriter(out);
+    writeEntries(fd, writer);
+    writer.finish();
+  }
+
+  /**
+   * Appends the entries of a frequency distribution to a writer, without finishing it.
+   *
+   * @param fd frequency distribution
+   * @param writer where to write the entries
+   */
+  public static void writeEntries(Int2IntFrequencyDistribution fd, SortedIntCountWriter writer)
+      throws IOException {
+    int[] events = new int[fd.getNumberOfEvents()];
+    int n = 0;
+    for (PairOfInts pair : fd) {
+      events[n++] = pair.getLeftElement();
+    }
+    Arrays.sort(events, 0, n);
+
+    for (int i = 0; i < n; i++) {
+      writer.add(events[i], fd.get(events[i]));
+    }
+  }
+
+  /**
+   * Writes a frequency distribution in the compact sorted format.
+   *
+   * @param fd frequency distribution
+   * @param out where to write the distribution
+   */
+  public static void write(Int2LongFrequencyDistribution fd, DataOutput out) throws IOException {
+    SortedIntCountWriter writer = new SortedIntCountWriter(out);
+    writeEntries(fd, writer);
+    writer.finish();
+  }
+
+  /**
+   * Appends the entries of a frequency distribution to a writer, without finishing it.
+   *
+   * @param fd frequency distribution
+   * @param writer where to write the entries
+   */
+  public static void writeEntries(Int2LongFrequencyDistribution fd, SortedIntCountWriter writer)
+      throws IOException {
+    int[] events = new int[fd.getNumberOfEvents()];
+    int n = 0;
+    for (PairOfIntLong pair : fd) {
+      events[n++] = pair.getLeftElement();
+    }
+    Arrays.sort(events, 0, n);
+
+    for (int i = 0; i < n; i++) {
+      writer.add(events[i], fd.get(events[i]));
+    }
+  }
+
+  /**
+   * Writes a frequency distribution over strings in the compact sorted format.
+   *
+   * @param fd frequency distribution
+   * @param out where to write the distribution
+   */
+  public static void write(Object2IntFrequencyDistribution<String> fd, DataOutput out)
+      throws IOException {
+    SortedStringCountWriter writer = new SortedStringCountWriter(out);
+    writeEntries(fd, writer);
+    writer.finish();
+  }
+
+  /**
+   * Appends the entries of a frequency distribution over strings to a writer, without finishing
+   * it.
+   *
+   * @param fd frequency distribution
+   * @param writer where to write the entries
+   */
+  public static void writeEntries(Object2IntFrequencyDistribution<String> fd,
+      SortedStringCountWriter writer) throws IOException {
+    String[] events = fd.keySet().toArray(new String[0]);
+    Arrays.sort(events);
+
+    for (String event : events) {
+      writer.add(event, fd.get(event));
+    }
+  }
+
+  /**
+   * Writes a frequency distribution over strings in the compact sorted format.
+   *
+   * @param fd frequency distribution
+   * @param out where to write the distribution
+   */
+  public static void write(Object2LongFrequencyDistribution<String> fd, DataOutput out)
+      throws IOException {
+    SortedStringCountWriter writer = new SortedStringCountWriter(out);
+    writeEntries(fd, writer);
+    writer.finish();
+  }
+
+  /**
+   * Appends the entries of a frequency distribution over strings to a writer, without finishing
+   * it.
+   *
+   * @param fd frequency distribution
+   * @param writer where to write the entries
+   */
+  public static void writeEntries(Object2LongFrequencyDistribution<String> fd,
+      SortedStringCountWriter writer) throws IOException {
+    String[] events = fd.keySet().toArray(new String[0]);
+    Arrays.sort(events);
+
+    for (String event : events) {
+      writer.add(event, fd.get(event));
+    }
+  }
+
+  /**
+   * Reads a distribution in the compact sorted format, adding its counts to {@code fd}.
+   *
+   * @param in source of the serialized distribution
+   * @param fd frequency distribution to add counts to
+   */
+  public static void read(DataInput in, Int2IntFrequencyDistribution fd) throws IOException {
+    SortedIntCountReader reader = new SortedIntCountReader(in);
+    while (reader.next()) {
+      fd.increment(reader.getEvent(), (int) reader.getCount());
+    }
+  }
+
+  /**
+   * Reads a distribution in the compact sorted format, adding its counts to {@code fd}.
+   *
+   * @param in source of the serialized distribution
+   * @param fd frequency distribution to add counts to
+   */
+  public static void read(DataInput in, Int2LongFrequencyDistribution fd) throws IOException {
+    SortedIntCountReader reader = new SortedIntCountReader(in);
+    while (reader.next()) {
+      fd.increment(reader.getEvent(), reader.getCount());
+    }
+  }
+
+  /**
+   * Reads a distribution over strings in the compact sorted format, adding its counts to
+   * {@code fd}.
+   *
+   * @param in source of the serialized distribution
+   * @param fd frequency distribution to add counts to
+   */
+  public static void read(DataInput in, Object2IntFrequencyDistribution<String> fd)
+      throws IOException {
+    SortedStringCountReader reader = new SortedStringCountReader(in);
+    while (reader.next()) {
+      fd.increment(reader.getEvent(), (int) reader.getCount());
+    }
+  }
+
+  /**
+   * Reads a distribution over strings in the compact sorted format, adding its counts to
+   * {@code fd}.
+   *
+   * @param in source of the serialized distribution
+   * @param fd frequency distribution to add counts to
+   */
+  public static void read(DataInput in, Object2LongFrequencyDistribution<String> fd)
+      throws IOException {
+    SortedStringCountReader reader = new SortedStringCountReader(in);
+    while (reader.next()) {
+      fd.increment(reader.getEvent(), reader.getCount());
+    }
+  }
+
+  /**
+   * Merges two serialized int distributions into a third, summing the counts of events present in
+   * both. Memory usage is constant regardless of the size of the distributions. Events whose
+   * counts sum to zero are dropped.
+   *
+   * @param a source of the first serialized distribution
+   * @param b source of the second serialized distribution
+   * @param out where to write the merged distribution
+   */
+  public static void mergeInts(DataInput a, DataInput b, DataOutput out) throws IOException {
+    mergeInts(new SortedIntCountReader(a), new SortedIntCountReader(b),
+        new SortedIntCountWriter(out));
+  }
+
+  /**
+   * Merges the remaining entries of two readers into a writer, and finishes the writer.
+   *
+   * @param a first reader
+   * @param b second reader
+   * @param writer where to write the merged entries
+   */
+  public static void mergeInts(SortedIntCountReader a, SortedIntCountReader b,
+      SortedIntCountWriter writer) throws IOException {
+    boolean hasA = a.next();
+    boolean hasB = b.next();
+    while (hasA || hasB) {
+      if (hasA && (!hasB || a.getEvent() < b.getEvent())) {
+        writer.add(a.getEvent(), a.getCount());
+        hasA = a.next();
+      } else if (!hasA || b.getEvent() < a.getEvent()) {
+        writer.add(b.getEvent(), b.getCount());
+        hasB = b.next();
+      } else {
+        long count = a.getCount() + b.getCount();
+        if (count != 0) {
+          writer.add(a.getEvent(), count);
+        }
+        hasA = a.next();
+        hasB = b.next();
+      }
+    }
+    writer.finish();
+  }
+
+  /**
+   * Merges two serialized string distributions into a third, summing the counts of events present
+   * in both. Memory usage is constant regardless of the size of the distributions. Events whose
+   * counts sum to zero are dropped.
+   *
+   * @param a source of the first serialized distribution
+   * @param b source of the second serialized distribution
+   * @param out where to write the merged distribution
+   */
+  public static void mergeStrings(DataInput a, DataInput b, DataOutput out) throws IOException {
+    mergeStrings(new SortedStringCountReader(a), new SortedStringCountReader(b),
+        new SortedStringCountWriter(out));
+  }
+
+  /**
+   * Merges the remaining entries of two readers into a writer, and finishes the writer.
+   *
+   * @param a first reader
+   * @param b second reader
+   * @param writer where to write the merged entries
+   */
+  public static void mergeStrings(SortedStringCountReader a, SortedStringCountReader b,
+      SortedStringCountWriter writer) throws IOException {
+    boolean hasA = a.next();
+    boolean hasB = b.next();
+    while (hasA || hasB) {
+      int cmp = !hasA ? 1 : !hasB ? -1 : a.getEvent().compareTo(b.getEvent());
+      if (cmp < 0) {
+        writer.add(a.getEvent(), a.getCount());
+        hasA = a.next();
+      } else if (cmp > 0) {
+        writer.add(b.getEvent(), b.getCount());
+        hasB = b.next();
+      } else {
+        long count = a.getCount() + b.getCount();
+        if (count != 0) {
+          writer.add(a.getEvent(), count);
+        }
+        hasA = a.next();
+        hasB = b.next();
+      }
+    }
+    writer.finish();
+  }
+}
@@ -0,0 +1,321 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.fd;
+
+import java.util.Arrays;
+
+import tl.lin.data.pair.PairOfIntLong;
+import tl.lin.data.pair.PairOfInts;
+
+/**
+ * <p>
+ * Information-theoretic statistics over frequency distributions. All logarithms are base e.
+ * </p>
+ *
+ * <p>
+ * Measures of a single distribution, such as entropy, are maintained incrementally by the
+ * distributions themselves (see {@link Int2IntFrequencyDistribution#computeEntropy()}) from the
+ * sum of {@code c log c} over all counts {@code c}, since
+ * {@code H = log N - (SUM_i c_i log c_i) / N}, where {@code N} is the sum of counts.
+ * </p>
+ *
+ * <p>
+ * Measures comparing two distributions (KL divergence, Jensen-Shannon divergence, and cosine
+ * similarity) are computed by a single merge pass over <i>count vectors</i>: parallel arrays of
+ * events in ascending order and their counts, as produced by {@link #toCountVector}. Count vectors
+ * can be reused across many comparisons, e.g., of one distribution against many others.
+ * </p>
+ */
+public class FrequencyDistributionStatistics {
+  private FrequencyDistributionStatistics() {
+  }
+
+  /**
+   * Returns {@code c log c}, with the convention that {@code 0 log 0 = 0}.
+   */
+  public static double xlogx(long c) {
+    return c == 0 ? 0.0 : c * Math.log(c);
+  }
+
+  /**
+   * Computes entropy from the sum of counts and the sum of {@code c log c} over all counts.
+   *
+   * @param sumOfCounts sum of counts
+   * @param sumOfCountLogCounts sum of {@code c log c} over all counts
+   * @return entropy, or zero for an empty distribution
+   */
+  public static double entropy(long sumOfCounts, double sumOfCountLogCounts) {
+    if (sumOfCounts == 0) {
+      return 0.0;
+    }
+
+    // Guard against tiny negative values due to rounding in incremental updates.
+    return Math.max(0.0, Math.log(sumOfCounts) - sumOfCountLogCounts / sumOfCounts);
+  }
+
+  /**
+   * Events of a distribution in ascending order with their counts, in parallel arrays.
+   */
+  public static class CountVector {
+    private final int[] events;
+    private final long[] counts;
+    private final long sum;
+
+    /**
+     * Creates a count vector. The arrays are used as is, not copied.
+     *
+     * @param events distinct events in ascending order
+     * @param counts counts of the events
+     */
+    public CountVector(int[] events, long[] counts) {
+      if (events.length != counts.length) {
+        throw new IllegalArgumentException("Arrays must have the same length!");
+      }
+
+      long s = 0;
+      for (int i = 0; i < events.length; i++) {
+        if (i > 0 && events[i] <= events[i - 1]) {
+          throw new IllegalArgumentException("Events must be distinct and in ascending order!");
+        }
+        s += counts[i];
+      }
+
+      this.events = events;
+      this.counts = counts;
+      this.sum = s;
+    }
+
+    /**
+     * Returns the events, in ascending order.
+     */
+    public int[] getEvents() {
+      return events;
+    }
+
+    /**
+     * Returns the counts of the events.
+     */
+    public long[] getCounts() {
+      return counts;
+    }
+
+    /**
+     * Returns the sum of counts.
+     */
+    public long getSumOfCounts() {
+      return sum;
+    }
+
+    /**
+     * Returns the number of events.
+     */
+    public int size() {
+      return events.length;
+    }
+  }
+
+  /**
+   * Creates a count vector from a frequency distribution.
+   */
+  public static CountVector toCountVector(Int2IntFrequencyDistribution fd) {
+    int n = fd.getNumberOfEvents();
+    int[] events = new int[n];
+    long[] counts = new long[n];
+
+    int i = 0;
+    for (PairOfInts pair : fd) {
+      events[i] = pair.getLeftElement();
+      counts[i] = pair.getRightElement();
+      i++;
+    }
+
+    sort(events, counts);
+    return new CountVector(events, counts);
+  }
+
+  /**
+   * Creates a count vector from a frequency distribution.
+   */
+  public static CountVector toCountVector(Int2LongFrequencyDistribution fd) {
+    int n = fd.getNumberOfEvents();
+    int[] events = new int[n];
+    long[] counts = new long[n];
+
+    int i = 0;
+    for (PairOfIntLong pair : fd) {
+      events[i] = pair.getLeftElement();
+      counts[i] = pair.getRightElement();
+      i++;
+    }
+
+    sort(events, counts);
+    return new CountVector(events, counts);
+  }
+
+  // Sorts parallel arrays by event: each event is packed with its original position into a long
+  // that sorts in the same order, so that a primitive sort can be used.
+  private static void sort(int[] events, long[] counts) {
+    int n = events.length;
+    long[] packed = new long[n];
+    for (int i = 0; i < n; i++) {
+      packed[i] = ((long) events[i] << 32) | i;
+    }
+    Arrays.sort(packed);
+
+    long[] sortedCounts = new long[n];
+    for (int i = 0; i < n; i++) {
+      int pos = (int) packed[i];
+      events[i] = (int) (packed[i] >> 32);
+      sortedCounts[i] = counts[pos];
+    }
+    System.arraycopy(sortedCounts, 0, counts, 0, n);
+  }
+
+  /**
+   * Computes the entropy of a count vector.
+   */
+  public static double entropy(CountVector p) {
+    double s = 0.0;
+    long[] c = p.getCounts();
+    for (int i = 0; i < c.length; i++) {
+      s += xlogx(c[i]);
+    }
+    return entropy(p.getSumOfCounts(), s);
+  }
+
+  /**
+   * Computes the Kullback-Leibler divergence D(P || Q) between the relative frequencies of two
+   * count vectors. The divergence is infinite if some event of {@code p} is absent from {@code q},
+   * and zero if {@code p} is empty, since there are then no terms to sum.
+   */
+  public static double klDivergence(CountVector p, CountVector q) {
+    if (p.getSumOfCounts() == 0) {
+      return 0.0;
+    }
+
+    int[] ep = p.getEvents(), eq = q.getEvents();
+    long[] cp = p.getCounts(), cq = q.getCounts();
+    double logSumP = Math.log(p.getSumOfCounts());
+    double logSumQ = Math.log(q.getSumOfCounts());
+
+    // SUM_i p_i (log c_i - log N_p - log d_i + log N_q), accumulated in terms of counts.
+    double s = 0.0;
+    int j = 0;
+    for (int i = 0; i < ep.length; i++) {
+      if (cp[i] == 0) {
+        continue;
+      }
+      while (j < eq.length && eq[j] < ep[i]) {
+        j++;
+      }
+      if (j == eq.length || eq[j] != ep[i] || cq[j] == 0) {
+        return Double.POSITIVE_INFINITY;
+      }
+      s += cp[i] * (Math.log(cp[i]) - Math.log(cq[j]));
+    }
+
+    return s / p.getSumOfCounts() - logSumP + logSumQ;
+  }
+
+  /**
+   * Computes the Jensen-Shannon divergence between the relative frequencies of two count vectors,
+   * which is symmetric, always finite, and bounded by {@code log 2}.
+   */
+  public static double jsDivergence(CountVector p, CountVector q) {
+    int[] ep = p.getEvents(), eq = q.getEvents();
+    long[] cp = p.getCounts(), cq = q.getCounts();
+    double np = p.getSumOfCounts(), nq = q.getSumOfCounts();
+
+    double s = 0.0;
+    int i = 0, j = 0;
+    while (i < ep.length || j < eq.length) {
+      double pi, qj;
+      if (j == eq.length || (i < ep.length && ep[i] < eq[j])) {
+        pi = cp[i++] / np;
+        qj = 0.0;
+      } else if (i == ep.length || eq[j] < ep[i]) {
+        pi = 0.0;
+        qj = cq[j++] / nq;
+      } else {
+        pi = cp[i++] / np;
+        qj = cq[j++] / nq;
+      }
+
+      double m = 0.5 * (pi + qj);
+      if (pi > 0.0) {
+        s += pi * Math.log(pi / m);
+      }
+      if (qj > 0.0) {
+        s += qj * Math.log(qj / m);
+      }
+    }
+
+    return Math.max(0.0, 0.5 * s);
+  }
+
+  /**
+   * Computes the cosine similarity between two count vectors.
+   */
+  public static double cosine(CountVector p, CountVector q) {
+    int[] ep = p.getEvents(), eq = q.getEvents();
+    long[] cp = p.getCounts(), cq = q.getCounts();
+
+    double dot = 0.0;
+    int i = 0, j = 0;
+    while (i < ep.length && j < eq.length) {
+      if (ep[i] < eq[j]) {
+        i++;
+      } else if (eq[j] < ep[i]) {
+        j++;
+      } else {
+        dot += (double) cp[i++] * cq[j++];
+      }
+    }
+
+    double norm = Math.sqrt(sumOfSquares(cp)) * Math.sqrt(sumOfSquares(cq));
+    return norm == 0.0 ? 0.0 : dot / norm;
+  }
+
+  private static double sumOfSquares(long[] c) {
+    double s = 0.0;
+    for (int i = 0; i < c.length; i++) {
+      s += (double) c[i] * c[i];
+    }
+    return s;
+  }
+
+  /**
+   * Computes the Kullback-Leibler divergence D(P || Q) between two frequency distributions.
+   */
+  public static double klDivergence(Int2IntFrequencyDistribution p, Int2IntFrequencyDistribution q) {
+    return klDivergence(toCountVector(p), toCountVector(q));
+  }
+
+  /**
+   * Computes the Jensen-Shannon divergence between two frequency distributions.
+   */
+  public static double jsDivergence(Int2IntFrequencyDistribution p, Int2IntFrequencyDistribution q) {
+    return jsDivergence(toCountVector(p), toCountVector(q));
+  }
+
+  /**
+   * Computes the cosine similarity between two frequency distributions.
+   */
+  public static double cosine(Int2IntFrequencyDistribution p, Int2IntFrequencyDistribution q) {
+    return cosine(toCountVector(p), toCountVector(q));
+  }
+}
@@ -0,0 +1,396 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.fd;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+
+import tl.lin.data.pair.PairOfIntLong;
+import tl.lin.data.pair.PairOfInts;
+import tl.lin.data.util.MurmurHash;
+
+/**
+ * <p>
+ * Immutable lookup table from int events to precomputed log (base e) relative frequencies, created
+ * by freezing a frequency distribution (see {@link Int2IntFrequencyDistribution#freeze()}). Lookups
+ * are a single probe sequence in an open-addressed table, with no hashing of boxed keys and no
+ * calls to {@code Math.log}. Events that were never observed map to a configurable default.
+ * </p>
+ *
+ * <p>
+ * The table lives entirely in a single {@link ByteBuffer}, whose contents are also the serialized
+ * form. Thus, a table written with {@link #write(DataOutput)} to a local file can be brought back
+ * with {@link #map(File)} without any deserialization, and the memory-mapped pages are shared by
+ * all threads and processes using the same file. Since the object is immutable, a single instance
+ * can be used concurrently by any number of scoring threads.
+ * </p>
+ *
+ * <p>
+ * Values can optionally be quantized to floats, which halves the size of the value array at the
+ * cost of about seven significant digits of precision.
+ * </p>
+ */
+public class FrozenInt2LogProbabilityTable {
+  private static final int MAGIC = 0x4c50544c; // "LPTL"
+  private static final int FLAG_QUANTIZED = 1;
+
+  // Header layout; padded to 48 bytes so that the key and value arrays are aligned.
+  private static final int FLAGS_OFFSET = 4;
+  private static final int CAPACITY_OFFSET = 8;
+  private static final int SIZE_OFFSET = 12;
+  private static final int SUM_OFFSET = 16;
+  private static final int DEFAULT_OFFSET = 24;
+  private static final int HAS_EMPTY_KEY_OFFSET = 32;
+  private static final int EMPTY_KEY_VALUE_OFFSET = 40;
+  private static final int HEADER_SIZE = 48;
+
+  // Largest array, and hence heap buffer, that VMs reliably allocate.
+  private static final int MAX_BUFFER_SIZE = Integer.MAX_VALUE - 8;
+
+  // Marks an unused slot. The event with this value, if any, is stored in the header.
+  private static final int EMPTY = Integer.MIN_VALUE;
+
+  private final ByteBuffer buffer;
+  private final IntBuffer keys;
+  private final FloatBuffer floatValues;
+  private final DoubleBuffer doubleValues;
+  private final int mask;
+  private final int size;
+  private final long sumOfCounts;
+  private final double defaultLogProbability;
+  private final boolean hasEmptyKey;
+  private final double emptyKeyLogProbability;
+
+  private FrozenInt2LogProbabilityTable(ByteBuffer buffer) {
+    if (buffer.getInt(0) != MAGIC) {
+      throw new IllegalArgumentException("Not a serialized FrozenInt2LogProbabilityTable!");
+    }
+
+    this.buffer = buffer;
+    int capacity = buffer.getInt(CAPACITY_OFFSET);
+    boolean quantized = (buffer.getInt(FLAGS_OFFSET) & FLAG_QUANTIZED) != 0;
+
+    this.mask = capacity - 1;
+    this.size = buffer.getInt(SIZE_OFFSET);
+    this.sumOfCounts = buffer.getLong(SUM_OFFSET);
+    this.defaultLogProbability = buffer.getDouble(DEFAULT_OFFSET);
+    this.hasEmptyKey = buffer.getInt(HAS_EMPTY_KEY_OFFSET) != 0;
+    this.emptyKeyLogProbability = buffer.getDouble(EMPTY_KEY_VALUE_OFFSET);
+
+    ByteBuffer view = buffer.duplicate();
+    view.position(HEADER_SIZE);
+    this.keys = view.slice().asIntBuffer();
+
+    view.position(HEADER_SIZE + 4 * capacity);
+    if (quantized) {
+      this.floatValues = view.slice().asFloatBuffer();
+      this.doubleValues = null;
+    } else {
+      this.floatValues = null;
+      this.doubleValues = view.slice().asDoubleBuffer();
+    }
+  }
+
+  /**
+   * Returns the log (base e) of the relative frequency of an event, or the default value if the
+   * event was not observed.
+   */
+  public double getLogProbability(int key) {
+    if (key == EMPTY) {
+      return hasEmptyKey ? emptyKeyLogProbability : defaultLogProbability;
+    }
+
+    int slot = slot(key) & mask;
+    int k;
+    while ((k = keys.get(slot)) != EMPTY) {
+      if (k == key) {
+        return floatValues != null ? floatValues.get(slot) : doubleValues.get(slot);
+      }
+      slot = (slot + 1) & mask;
+    }
+
+    return defaultLogProbability;
+  }
+
+  /**
+   * Returns the relative frequency of an event, or the exponent of the default value if the event
+   * was not observed.
+   */
+  public double getProbability(int key) {
+    return Math.exp(getLogProbability(key));
+  }
+
+  /**
+   * Returns {@code true} if {@code key} was observed in the frozen distribution.
+   */
+  public boolean contains(int key) {
+    if (key == EMPTY) {
+      return hasEmptyKey;
+    }
+
+    int slot = slot(key) & mask;
+    int k;
+    while ((k = keys.get(slot)) != EMPTY) {
+      if (k == key) {
+        return true;
+      }
+      slot = (slot + 1) & mask;
+    }
+
+    return false;
+  }
+
+  /**
+   * Returns the value returned for events that were not observed.
+   */
+  public double getDefaultLogProbability() {
+    return defaultLogProbability;
+  }
+
+  /**
+   * Returns the number of distinct events in the frozen distribution.
+   */
+  public int getNumberOfEvents() {
+    return size;
+  }
+
+  /**
+   * Returns the sum of counts of the frozen distribution.
+   */
+  public long getSumOfCounts() {
+    return sumOfCounts;
+  }
+
+  /**
+   * Returns {@code true} if values are stored as floats.
+   */
+  public boolean isQuantized() {
+    return floatValues != null;
+  }
+
+  /**
+   * Returns the number of bytes taken up by this table, which is also its serialized size.
+   */
+  public int sizeInBytes() {
+    return buffer.limit();
+  }
+
+  /**
+   * Serializes this table. The output is the raw contents of the backing buffer, so it can be
+   * memory mapped with {@link #map(File)}.
+   *
+   * @param out where to write the raw byte representation
+   */
+  public void write(DataOutput out) throws IOException {
+    ByteBuffer view = buffer.duplicate();
+    view.position(0);
+    byte[] chunk = new byte[Math.min(view.remaining(), 64 * 1024)];
+    while (view.hasRemaining()) {
+      int n = Math.min(chunk.length, view.remaining());
+      view.get(chunk, 0, n);
+      out.write(chunk, 0, n);
+    }
+  }
+
+  /**
+   * Deserializes a table into a heap buffer.
+   *
+   * @param in source for raw byte representation
+   * @return the table
+   */
+  public static FrozenInt2LogProbabilityTable read(DataInput in) throws IOException {
+    byte[] header = new byte[HEADER_SIZE];
+    in.readFully(header);
+
+    int capacity = ByteBuffer.wrap(header).getInt(CAPACITY_OFFSET);
+    int flags = ByteBuffer.wrap(header).getInt(FLAGS_OFFSET);
+    long length = bytesFor(capacity, (flags & FLAG_QUANTIZED) != 0);
+    if (capacity <= 0 || length > MAX_BUFFER_SIZE) {
+      throw new IOException("Invalid capacity in serialized table: " + capacity);
+    }
+    byte[] bytes = new byte[(int) length];
+    System.arraycopy(header, 0, bytes, 0, HEADER_SIZE);
+    in.readFully(bytes, HEADER_SIZE, bytes.length - HEADER_SIZE);
+
+    return new FrozenInt2LogProbabilityTable(ByteBuffer.wrap(bytes));
+  }
+
+  /**
+   * Wraps a buffer containing a serialized table, e.g., a region of a memory-mapped file. The
+   * buffer's contents are used in place.
+   *
+   * @param buffer buffer holding the serialized table, starting at position zero
+   * @return the table
+   */
+  public static FrozenInt2LogProbabilityTable wrap(ByteBuffer buffer) {
+    return new FrozenInt2LogProbabilityTable(buffer);
+  }
+
+  /**
+   * Memory maps a table previously written to a local file with {@link #write(DataOutput)}.
+   *
+   * @param file file holding the serialized table
+   * @return the table
+   */
+  public static FrozenInt2LogProbabilityTable map(File file) throws IOException {
+    RandomAccessFile raf = new RandomAccessFile(file, "r");
+    try {
+      FileChannel channel = raf.getChannel();
+      return new FrozenInt2LogProbabilityTable(channel.map(FileChannel.MapMode.READ_ONLY, 0,
+          channel.size()));
+    } finally {
+      // The mapping stays valid after the channel is closed.
+      raf.close();
+    }
+  }
+
+  /**
+   * Freezes a frequency distribution.
+   *
+   * @param fd frequency distribution
+   * @param defaultLogProbability value returned for events that were not observed
+   * @param quantize whether to store values as floats
+   * @return the table
+   */
+  public static FrozenInt2LogProbabilityTable freeze(Int2IntFrequencyDistribution fd,
+      double defaultLogProbability, boolean quantize) {
+    int n = fd.getNumberOfEvents();
+    int[] keys = new int[n];
+    long[] counts = new long[n];
+
+    int i = 0;
+    for (PairOfInts pair : fd) {
+      keys[i] = pair.getLeftElement();
+      counts[i] = pair.getRightElement();
+      i++;
+    }
+
+    return build(keys, counts, i, fd.getSumOfCounts(), defaultLogProbability, quantize);
+  }
+
+  /**
+   * Freezes a frequency distribution.
+   *
+   * @param fd frequency distribution
+   * @param defaultLogProbability value returned for events that were not observed
+   * @param quantize whether to store values as floats
+   * @return the table
+   */
+  public static FrozenInt2LogProbabilityTable freeze(Int2LongFrequencyDistribution fd,
+      double defaultLogProbability, boolean quantize) {
+    int n = fd.getNumberOfEvents();
+    int[] keys = new int[n];
+    long[] counts = new long[n];
+
+    int i = 0;
+    for (PairOfIntLong pair : fd) {
+      keys[i] = pair.getLeftElement();
+      counts[i] = pair.getRightElement();
+      i++;
+    }
+
+    return build(keys, counts, i, fd.getSumOfCounts(), defaultLogProbability, quantize);
+  }
+
+  /**
+   * Builds a table from parallel arrays of events and counts.
+   *
+   * @param keys events; must be distinct
+   * @param counts counts of the events
+   * @param n number of events
+   * @param sumOfCounts sum of all counts
+   * @param defaultLogProbability value returned for events that were not observed
+   * @param quantize whether to store values as floats
+   * @return the table
+   */
+  public static FrozenInt2LogProbabilityTable build(int[] keys, long[] counts, int n,
+      long sumOfCounts, double defaultLogProbability, boolean quantize) {
+    // Keep the load factor at or below one half, so probe sequences stay short. Sizes are computed
+    // in longs, so that tables too large for one buffer are rejected rather than overflowing.
+    long c = 2;
+    while (c < 2L * n) {
+      c <<= 1;
+    }
+    long length = bytesFor(c, quantize);
+    if (length > MAX_BUFFER_SIZE) {
+      throw new IllegalArgumentException("Too many events for a single buffer: " + n + "!");
+    }
+    int capacity = (int) c;
+
+    ByteBuffer buffer = ByteBuffer.allocate((int) length);
+    buffer.putInt(0, MAGIC);
+    buffer.putInt(FLAGS_OFFSET, quantize ? FLAG_QUANTIZED : 0);
+    buffer.putInt(CAPACITY_OFFSET, capacity);
+    buffer.putInt(SIZE_OFFSET, n);
+    buffer.putLong(SUM_OFFSET, sumOfCounts);
+    buffer.putDouble(DEFAULT_OFFSET, defaultLogProbability);
+    buffer.putInt(HAS_EMPTY_KEY_OFFSET, 0);
+    buffer.putDouble(EMPTY_KEY_VALUE_OFFSET, defaultLogProbability);
+
+    int keysOffset = HEADER_SIZE;
+    int valuesOffset = HEADER_SIZE + 4 * capacity;
+    for (int i = 0; i < capacity; i++) {
+      buffer.putInt(keysOffset + 4 * i, EMPTY);
+    }
+
+    double logSum = Math.log(sumOfCounts);
+    int mask = capacity - 1;
+    for (int i = 0; i < n; i++) {
+      double v = Math.log(counts[i]) - logSum;
+      if (keys[i] == EMPTY) {
+        buffer.putInt(HAS_EMPTY_KEY_OFFSET, 1);
+        buffer.putDouble(EMPTY_KEY_VALUE_OFFSET, v);
+        continue;
+      }
+
+      int slot = slot(keys[i]) & mask;
+      int k;
+      while ((k = buffer.getInt(keysOffset + 4 * slot)) != EMPTY) {
+        if (k == keys[i]) {
+          throw new IllegalArgumentException("Event observed twice: " + k);
+        }
+        slot = (slot + 1) & mask;
+      }
+
+      buffer.putInt(keysOffset + 4 * slot, keys[i]);
+      if (quantize) {
+        buffer.putFloat(valuesOffset + 4 * slot, (float) v);
+      } else {
+        buffer.putDouble(valuesOffset + 8 * slot, v);
+      }
+    }
+
+    return new FrozenInt2LogProbabilityTable(buffer);
+  }
+
+  private static long bytesFor(long capacity, boolean quantize) {
+    return HEADER_SIZE + 4 * capacity + (quantize ? 4 : 8) * capacity;
+  }
+
+  // Sequential event ids must not land in sequential slots.
+  private static int slot(int key) {
+    return MurmurHash.fmix32(key);
+  }
+}
@@ -0,0 +1,225 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.fd;
+
+import java.io.Serializable;
+
+import tl.lin.data.pair.PairOfObjectInt;
+import tl.lin.data.pair.PairOfObjectLong;
+import tl.lin.data.util.MurmurHash;
+
+/**
+ * <p>
+ * Immutable lookup table from object events to precomputed log (base e) relative frequencies,
+ * created by freezing a frequency distribution (see
+ * {@link Object2IntFrequencyDistribution#freeze()}). Lookups are a single probe sequence in an
+ * open-addressed table with no calls to {@code Math.log}. Events that were never observed map to a
+ * configurable default. Since the object is immutable, a single instance can be used concurrently
+ * by any number of scoring threads.
+ * </p>
+ *
+ * <p>
+ * Unlike {@link FrozenInt2LogProbabilityTable}, this table holds references to the events and
+ * therefore cannot be memory mapped; it is {@link Serializable} as long as the events are.
+ * </p>
+ *
+ * @param <K> type of event
+ */
+public class FrozenObject2LogProbabilityTable<K> implements Serializable {
+  private static final long serialVersionUID = -4213087545409736128L;
+
+  // Largest power of two that is a valid array length.
+  private static final int MAX_CAPACITY = 1 << 30;
+
+  private final Object[] keys;
+  private final float[] floatValues;
+  private final double[] doubleValues;
+  private final int mask;
+  private final int size;
+  private final long sumOfCounts;
+  private final double defaultLogProbability;
+
+  private FrozenObject2LogProbabilityTable(Object[] keys, long[] counts, int n, long sumOfCounts,
+      double defaultLogProbability, boolean quantize) {
+    // Keep the load factor at or below one half, so probe sequences stay short. The capacity is
+    // computed as a long, since doubling past the largest power-of-two array length overflows.
+    long c = 2;
+    while (c < 2L * n) {
+      c <<= 1;
+    }
+    if (c > MAX_CAPACITY) {
+      throw new IllegalArgumentException("Too many events for a single array: " + n + "!");
+    }
+    int capacity = (int) c;
+
+    this.keys = new Object[capacity];
+    this.floatValues = quantize ? new float[capacity] : null;
+    this.doubleValues = quantize ? null : new double[capacity];
+    this.mask = capacity - 1;
+    this.size = n;
+    this.sumOfCounts = sumOfCounts;
+    this.defaultLogProbability = defaultLogProbability;
+
+    double logSum = Math.log(sumOfCounts);
+    for (int i = 0; i < n; i++) {
+      if (keys[i] == null) {
+        throw new IllegalArgumentException("Null events are not supported!");
+      }
+
+      int slot = slot(keys[i]) & mask;
+      Object k;
+      while ((k = this.keys[slot]) != null) {
+        if (k.equals(keys[i])) {
+          throw new IllegalArgumentException("Event observed twice: " + k);
+        }
+        slot = (slot + 1) & mask;
+      }
+
+      this.keys[slot] = keys[i];
+      double v = Math.log(counts[i]) - logSum;
+      if (quantize) {
+        floatValues[slot] = (float) v;
+      } else {
+        doubleValues[slot] = v;
+      }
+    }
+  }
+
+  /**
+   * Returns the log (base e) of the relative frequency of an event, or the default value if the
+   * event was not observed.
+   */
+  public double getLogProbability(K key) {
+    int slot = slot(key) & mask;
+    Object k;
+    while ((k = keys[slot]) != null) {
+      if (k.equals(key)) {
+        return floatValues != null ? floatValues[slot] : doubleValues[slot];
+      }
+      slot = (slot + 1) & mask;
+    }
+
+    return defaultLogProbability;
+  }
+
+  /**
+   * Returns the relative frequency of an event, or the exponent of the default value if the event
+   * was not observed.
+   */
+  public double getProbability(K key) {
+    return Math.exp(getLogProbability(key));
+  }
+
+  /**
+   * Returns {@code true} if {@code key} was observed in the frozen distribution.
+   */
+  public boolean contains(K key) {
+    int slot = slot(key) & mask;
+    Object k;
+    while ((k = keys[slot]) != null) {
+      if (k.equals(key)) {
+        return true;
+      }
+      slot = (slot + 1) & mask;
+    }
+
+    return false;
+  }
+
+  /**
+   * Returns the value returned for events that were not observed.
+   */
+  public double getDefaultLogProbability() {
+    return defaultLogProbability;
+  }
+
+  /**
+   * Returns the number of distinct events in the frozen distribution.
+   */
+  public int getNumberOfEvents() {
+    return size;
+  }
+
+  /**
+   * Returns the sum of counts of the frozen distribution.
+   */
+  public long getSumOfCounts() {
+    return sumOfCounts;
+  }
+
+  /**
+   * Returns {@code true} if values are stored as floats.
+   */
+  public boolean isQuantized() {
+    return floatValues != null;
+  }
+
+  /**
+   * Freezes a frequency distribution.
+   *
+   * @param fd frequency distribution
+   * @param defaultLogProbability value returned for events that were not observed
+   * @param quantize whether to store values as floats
+   * @return the table
+   */
+  public static <K extends Comparable<K>> FrozenObject2LogProbabilityTable<K> freeze(
+      Object2IntFrequencyDistribution<K> fd, double defaultLogProbability, boolean quantize) {
+    int n = fd.getNumberOfEvents();
+    Object[] keys = new Object[n];
+    long[] counts = new long[n];
+
+    int i = 0;
+    for (PairOfObjectInt<K> pair : fd) {
+      keys[i] = pair.getLeftElement();
+      counts[i] = pair.getRightElement();
+      i++;
+    }
+
+    return new FrozenObject2LogProbabilityTable<K>(keys, counts, i, fd.getSumOfCounts(),
+        defaultLogProbability, quantize);
+  }
+
+  /**
+   * Freezes a frequency distribution.
+   *
+   * @param fd frequency distribution
+   * @param defaultLogProbability value returned for events that were not observed
+   * @param quantize whether to store values as floats
+   * @return the table
+   */
+  public static <K extends Comparable<K>> FrozenObject2LogProbabilityTable<K> freeze(
+      Object2LongFrequencyDistribution<K> fd, double defaultLogProbability, boolean quantize) {
+    int n = fd.getNumberOfEvents();
+    Object[] keys = new Object[n];
+    long[] counts = new long[n];
+
+    int i = 0;
+    for (PairOfObjectLong<K> pair : fd) {
+      keys[i] = pair.getLeftElement();
+      counts[i] = pair.getRightElement();
+      i++;
+    }
+
+    return new FrozenObject2LogProbabilityTable<K>(keys, counts, i, fd.getSumOfCounts(),
+        defaultLogProbability, quantize);
+  }
+
+  // Spreads weak hashCodes (e.g., of short strings) across the table.
+  private static int slot(Object key) {
+    return MurmurHash.fmix32(key.hashCode());
+  }
+}
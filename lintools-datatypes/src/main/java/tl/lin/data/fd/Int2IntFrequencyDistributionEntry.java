@@ -37,6 +37,7 @@ import com.google.common.collect.Lists;
 public class Int2IntFrequencyDistributionEntry implements Int2IntFrequencyDistribution {
   private HMapIIW counts = new HMapIIW();
   private long sumOfCounts = 0;
+  private double sumOfCountLogCounts = 0.0;
 
   @Override
   public void increment(int key) {
@@ -98,10 +99,22 @@ public class Int2IntFrequencyDistributionEntry implements Int2IntFrequencyDistri
     return Math.log(counts.get(k)) - Math.log(getSumOfCounts());
   }
 
+  @Override
+  public FrozenInt2LogProbabilityTable freeze() {
+    return freeze(Double.NEGATIVE_INFINITY, false);
+  }
+
+  @Override
+  public FrozenInt2LogProbabilityTable freeze(double defaultLogProbability, boolean quantize) {
+    return FrozenInt2LogProbabilityTable.freeze(this, defaultLogProbability, quantize);
+  }
+
   @Override
   public int set(int key, int cnt) {
     int rv = counts.put(key, cnt);
     sumOfCounts = sumOfCounts - rv + cnt;
+    sumOfCountLogCounts +=
+        FrequencyDistributionStatistics.xlogx(cnt) - FrequencyDistributionStatistics.xlogx(rv);
 
     return rv;
   }
@@ -110,6 +123,7 @@ public class Int2IntFrequencyDistributionEntry implements Int2IntFrequencyDistri
   public int remove(int key) {
     int rv = counts.remove(key);
     sumOfCounts -= rv;
+    sumOfCountLogCounts -= FrequencyDistributionStatistics.xlogx(rv);
 
     return rv;
   }
@@ -118,6 +132,7 @@ public class Int2IntFrequencyDistributionEntry implements Int2IntFrequencyDistri
   public void clear() {
     counts.clear();
     sumOfCounts = 0;
+    sumOfCountLogCounts = 0.0;
   }
 
   @Override
@@ -130,6 +145,11 @@ public class Int2IntFrequencyDistributionEntry implements Int2IntFrequencyDistri
     return sumOfCounts;
   }
 
+  @Override
+  public double computeEntropy() {
+    return FrequencyDistributionStatistics.entropy(sumOfCounts, sumOfCountLogCounts);
+  }
+
   /**
    * Iterator returns the same object every time, just with a different payload.
    */
@@ -276,6 +296,11 @@ public class Int2IntFrequencyDistributionEntry implements Int2IntFrequencyDistri
   public void readFields(DataInput in) throws IOException {
     sumOfCounts = in.readLong();
     counts.readFields(in);
+
+    sumOfCountLogCounts = 0.0;
+    for (MapII.Entry e : counts.entrySet()) {
+      sumOfCountLogCounts += FrequencyDistributionStatistics.xlogx(e.getValue());
+    }
   }
 
   @Override
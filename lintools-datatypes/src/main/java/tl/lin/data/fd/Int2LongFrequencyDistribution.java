@@ -91,4 +91,29 @@ public interface Int2LongFrequencyDistribution extends SortableEntries<PairOfInt
    * Returns the sum of counts of all observed events. That is, {@code SUM_i f(key_i)}.
    */
   public long getSumOfCounts();
+
+  /**
+   * Returns the entropy (base e) of the relative frequencies of events, or zero if no events have
+   * been observed. The sum of {@code c log c} over all counts {@code c} is maintained as counts are
+   * updated, so this method takes constant time.
+   *
+   * @see FrequencyDistributionStatistics
+   */
+  public double computeEntropy();
+
+  /**
+   * Returns an immutable snapshot of this distribution with precomputed log (base e) relative
+   * frequencies, for fast repeated lookups. Events that were not observed map to negative infinity,
+   * which is what {@link #computeLogRelativeFrequency} returns for them.
+   */
+  public FrozenInt2LogProbabilityTable freeze();
+
+  /**
+   * Returns an immutable snapshot of this distribution with precomputed log (base e) relative
+   * frequencies, for fast repeated lookups.
+   *
+   * @param defaultLogProbability value returned for events that were not observed
+   * @param quantize whether to store values as floats rather than doubles
+   */
+  public FrozenInt2LogProbabilityTable freeze(double defaultLogProbability, boolean quantize);
 }
@@ -37,6 +37,7 @@ import com.google.common.collect.Lists;
 public class Int2LongFrequencyDistributionEntry implements Int2LongFrequencyDistribution {
   private HMapILW counts = new HMapILW();
   private long sumOfCounts = 0;
+  private double sumOfCountLogCounts = 0.0;
 
   @Override
   public void increment(int key) {
@@ -106,10 +107,22 @@ public class Int2LongFrequencyDistributionEntry implements Int2LongFrequencyDist
     return Math.log(counts.get(k)) - Math.log(getSumOfCounts());
   }
 
+  @Override
+  public FrozenInt2LogProbabilityTable freeze() {
+    return freeze(Double.NEGATIVE_INFINITY, false);
+  }
+
+  @Override
+  public FrozenInt2LogProbabilityTable freeze(double defaultLogProbability, boolean quantize) {
+    return FrozenInt2LogProbabilityTable.freeze(this, defaultLogProbability, quantize);
+  }
+
   @Override
   public long set(int k, long v) {
     long rv = counts.put(k, v);
     sumOfCounts = sumOfCounts - rv + v;
+    sumOfCountLogCounts +=
+        FrequencyDistributionStatistics.xlogx(v) - FrequencyDistributionStatistics.xlogx(rv);
 
     return rv;
   }
@@ -118,6 +131,7 @@ public class Int2LongFrequencyDistributionEntry implements Int2LongFrequencyDist
   public long remove(int k) {
     long rv = counts.remove(k);
     sumOfCounts -= rv;
+    sumOfCountLogCounts -= FrequencyDistributionStatistics.xlogx(rv);
 
     return rv;
   }
@@ -126,6 +140,7 @@ public class Int2LongFrequencyDistributionEntry implements Int2LongFrequencyDist
   public void clear() {
     counts.clear();
     sumOfCounts = 0;
+    sumOfCountLogCounts = 0.0;
   }
 
   @Override
@@ -138,6 +153,11 @@ public class Int2LongFrequencyDistributionEntry implements Int2LongFrequencyDist
     return sumOfCounts;
   }
 
+  @Override
+  public double computeEntropy() {
+    return FrequencyDistributionStatistics.entropy(sumOfCounts, sumOfCountLogCounts);
+  }
+
   /**
    * Iterator returns the same object every time, just with a different payload.
    */
@@ -284,6 +304,11 @@ public class Int2LongFrequencyDistributionEntry implements Int2LongFrequencyDist
   public void readFields(DataInput in) throws IOException {
     sumOfCounts = in.readLong();
     counts.readFields(in);
+
+    sumOfCountLogCounts = 0.0;
+    for (MapIL.Entry e : counts.entrySet()) {
+      sumOfCountLogCounts += FrequencyDistributionStatistics.xlogx(e.getValue());
+    }
   }
 
   @Override
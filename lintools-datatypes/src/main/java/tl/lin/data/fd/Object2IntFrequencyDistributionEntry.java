@@ -36,6 +36,7 @@ public class Object2IntFrequencyDistributionEntry<K extends Comparable<K>> imple
 
   private MapKI<K> counts = new HMapKI<K>();
   private long sumOfCounts = 0;
+  private double sumOfCountLogCounts = 0.0;
 
   @Override
   public void increment(K key) {
@@ -91,6 +92,8 @@ public class Object2IntFrequencyDistributionEntry<K extends Comparable<K>> imple
   public int set(K k, int v) {
     int rv = counts.put(k, v);
     sumOfCounts = sumOfCounts - rv + v;
+    sumOfCountLogCounts +=
+        FrequencyDistributionStatistics.xlogx(v) - FrequencyDistributionStatistics.xlogx(rv);
 
     return rv;
   }
@@ -105,10 +108,22 @@ public class Object2IntFrequencyDistributionEntry<K extends Comparable<K>> imple
     return Math.log(counts.get(k)) - Math.log(getSumOfCounts());
   }
 
+  @Override
+  public FrozenObject2LogProbabilityTable<K> freeze() {
+    return freeze(Double.NEGATIVE_INFINITY, false);
+  }
+
+  @Override
+  public FrozenObject2LogProbabilityTable<K> freeze(double defaultLogProbability,
+      boolean quantize) {
+    return FrozenObject2LogProbabilityTable.freeze(this, defaultLogProbability, quantize);
+  }
+
   @Override
   public int remove(K k) {
     int rv = counts.remove(k);
     sumOfCounts -= rv;
+    sumOfCountLogCounts -= FrequencyDistributionStatistics.xlogx(rv);
 
     return rv;
   }
@@ -117,6 +132,7 @@ public class Object2IntFrequencyDistributionEntry<K extends Comparable<K>> imple
   public void clear() {
     counts.clear();
     sumOfCounts = 0;
+    sumOfCountLogCounts = 0.0;
   }
 
   @Override
@@ -129,6 +145,11 @@ public class Object2IntFrequencyDistributionEntry<K extends Comparable<K>> imple
     return sumOfCounts;
   }
 
+  @Override
+  public double computeEntropy() {
+    return FrequencyDistributionStatistics.entropy(sumOfCounts, sumOfCountLogCounts);
+  }
+
   @Override
   public Set<K> keySet() {
     return counts.keySet();
@@ -93,8 +93,33 @@ public interface Object2LongFrequencyDistribution<K extends Comparable<K>> exten
    */
   public long getSumOfCounts();
 
+  /**
+   * Returns the entropy (base e) of the relative frequencies of events, or zero if no events have
+   * been observed. The sum of {@code c log c} over all counts {@code c} is maintained as counts are
+   * updated, so this method takes constant time.
+   *
+   * @see FrequencyDistributionStatistics
+   */
+  public double computeEntropy();
+
   /**
    * Returns the set of keys.
    */
   public Set<K> keySet();
+
+  /**
+   * Returns an immutable snapshot of this distribution with precomputed log (base e) relative
+   * frequencies, for fast repeated lookups. Events that were not observed map to negative infinity,
+   * which is what {@link #computeLogRelativeFrequency} returns for them.
+   */
+  public FrozenObject2LogProbabilityTable<K> freeze();
+
+  /**
+   * Returns an immutable snapshot of this distribution with precomputed log (base e) relative
+   * frequencies, for fast repeated lookups.
+   *
+   * @param defaultLogProbability value returned for events that were not observed
+   * @param quantize whether to store values as floats rather than doubles
+   */
+  public FrozenObject2LogProbabilityTable<K> freeze(double defaultLogProbability, boolean quantize);
 }
@@ -36,6 +36,7 @@ public class Object2LongFrequencyDistributionEntry<K extends Comparable<K>> impl
 
   private MapKL<K> counts = new HMapKL<K>();
   private long sumOfCounts = 0;
+  private double sumOfCountLogCounts = 0.0;
 
   @Override
   public void increment(K key) {
@@ -105,10 +106,23 @@ public class Object2LongFrequencyDistributionEntry<K extends Comparable<K>> impl
     return Math.log(counts.get(k)) - Math.log(getSumOfCounts());
   }
 
+  @Override
+  public FrozenObject2LogProbabilityTable<K> freeze() {
+    return freeze(Double.NEGATIVE_INFINITY, false);
+  }
+
+  @Override
+  public FrozenObject2LogProbabilityTable<K> freeze(double defaultLogProbability,
+      boolean quantize) {
+    return FrozenObject2LogProbabilityTable.freeze(this, defaultLogProbability, quantize);
+  }
+
   @Override
   public long set(K k, long v) {
     long rv = counts.put(k, v);
     sumOfCounts = sumOfCounts - rv + v;
+    sumOfCountLogCounts +=
+        FrequencyDistributionStatistics.xlogx(v) - FrequencyDistributionStatistics.xlogx(rv);
 
     return rv;
   }
@@ -117,6 +131,7 @@ public class Object2LongFrequencyDistributionEntry<K extends Comparable<K>> impl
   public long remove(K k) {
     long rv = counts.remove(k);
     sumOfCounts -= rv;
+    sumOfCountLogCounts -= FrequencyDistributionStatistics.xlogx(rv);
 
     return rv;
   }
@@ -125,6 +140,7 @@ public class Object2LongFrequencyDistributionEntry<K extends Comparable<K>> impl
   public void clear() {
     counts.clear();
     sumOfCounts = 0;
+    sumOfCountLogCounts = 0.0;
   }
 
   @Override
@@ -137,6 +153,11 @@ public class Object2LongFrequencyDistributionEntry<K extends Comparable<K>> impl
     return sumOfCounts;
   }
 
+  @Override
+  public double computeEntropy() {
+    return FrequencyDistributionStatistics.entropy(sumOfCounts, sumOfCountLogCounts);
+  }
+
   @Override
   public Set<K> keySet() {
     return counts.keySet();
@@ -0,0 +1,111 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.fd;
+
+import java.io.DataInput;
+import java.io.IOException;
+
+import org.apache.hadoop.io.WritableUtils;
+
+/**
+ * <p>
+ * Streams (int event, count) entries written by {@link SortedIntCountWriter}, in ascending order
+ * of events, without materializing a hash table. Typical usage:
+ * </p>
+ *
+ * <pre>
+ * SortedIntCountReader reader = new SortedIntCountReader(in);
+ * while (reader.next()) {
+ *   int event = reader.getEvent();
+ *   long count = reader.getCount();
+ *   ...
+ * }
+ * </pre>
+ *
+ * @see FrequencyDistributionCodec
+ */
+public class SortedIntCountReader {
+  private DataInput in;
+  private long prev;
+  private long count;
+  private boolean done;
+
+  /**
+   * Creates a reader positioned before the first entry of a stream.
+   *
+   * @param in source of the stream
+   */
+  public SortedIntCountReader(DataInput in) {
+    reset(in);
+  }
+
+  /**
+   * Repositions this reader before the first entry of a new stream, so that a single reader can
+   * be reused across many streams.
+   *
+   * @param in source of the stream
+   */
+  public void reset(DataInput in) {
+    this.in = in;
+    this.prev = SortedIntCountWriter.START;
+    this.count = 0;
+    this.done = false;
+  }
+
+  /**
+   * Advances to the next entry.
+   *
+   * @return {@code false} if the end of the stream has been reached
+   */
+  public boolean next() throws IOException {
+    if (done) {
+      return false;
+    }
+
+    long gap = WritableUtils.readVLong(in);
+    if (gap == 0) {
+      done = true;
+      return false;
+    }
+
+    prev += gap;
+    count = WritableUtils.readVLong(in);
+    return true;
+  }
+
+  /**
+   * Skips the remaining entries of the stream, leaving the input positioned right after it.
+   */
+  public void skipToEnd() throws IOException {
+    while (next()) {
+    }
+  }
+
+  /**
+   * Returns the event of the current entry.
+   */
+  public int getEvent() {
+    return (int) prev;
+  }
+
+  /**
+   * Returns the count of the current entry.
+   */
+  public long getCount() {
+    return count;
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.fd;
+
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.apache.hadoop.io.WritableUtils;
+
+/**
+ * <p>
+ * Writes (int event, count) entries in strictly ascending order of events to a compact stream
+ * that can be read back with {@link SortedIntCountReader}. Each entry is encoded as the
+ * variable-length gap from the previous event followed by the variable-length count, so dense
+ * event ids with small counts take about two bytes per entry. The stream is terminated by
+ * {@link #finish()}, so the number of entries does not need to be known in advance and multiple
+ * streams can be written back to back.
+ * </p>
+ *
+ * @see FrequencyDistributionCodec
+ */
+public class SortedIntCountWriter {
+  // The first gap is measured from just below Integer.MIN_VALUE, so every gap is positive and a
+  // gap of zero can terminate the stream.
+  static final long START = Integer.MIN_VALUE - 1L;
+
+  private final DataOutput out;
+  private long prev = START;
+  private boolean finished = false;
+
+  /**
+   * Creates a writer.
+   *
+   * @param out where to write the entries
+   */
+  public SortedIntCountWriter(DataOutput out) {
+    this.out = out;
+  }
+
+  /**
+   * Appends an entry.
+   *
+   * @param event the event, which must be larger than the previous event
+   * @param count the count of the event
+   * @exception IllegalArgumentException if events are out of order
+   */
+  public void add(int event, long count) throws IOException {
+    if (finished) {
+      throw new IllegalStateException("Writer already finished!");
+    }
+    if (event <= prev) {
+      throw new IllegalArgumentException("Events must be written in ascending order: " + event
+          + " after " + prev);
+    }
+
+    WritableUtils.writeVLong(out, event - prev);
+    WritableUtils.writeVLong(out, count);
+    prev = event;
+  }
+
+  /**
+   * Terminates the stream. The underlying output is not closed.
+   */
+  public void finish() throws IOException {
+    if (!finished) {
+      WritableUtils.writeVLong(out, 0);
+      finished = true;
+    }
+  }
+}
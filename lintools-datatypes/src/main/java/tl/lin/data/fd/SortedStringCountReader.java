@@ -0,0 +1,102 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.fd;
+
+import java.io.DataInput;
+import java.io.IOException;
+
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.WritableUtils;
+
+/**
+ * Streams (string event, count) entries written by {@link SortedStringCountWriter}, in ascending
+ * order of events, without materializing a hash table.
+ *
+ * @see FrequencyDistributionCodec
+ */
+public class SortedStringCountReader {
+  private DataInput in;
+  private String event;
+  private long count;
+  private boolean done;
+
+  /**
+   * Creates a reader positioned before the first entry of a stream.
+   *
+   * @param in source of the stream
+   */
+  public SortedStringCountReader(DataInput in) {
+    reset(in);
+  }
+
+  /**
+   * Repositions this reader before the first entry of a new stream, so that a single reader can
+   * be reused across many streams.
+   *
+   * @param in source of the stream
+   */
+  public void reset(DataInput in) {
+    this.in = in;
+    this.event = null;
+    this.count = 0;
+    this.done = false;
+  }
+
+  /**
+   * Advances to the next entry.
+   *
+   * @return {@code false} if the end of the stream has been reached
+   */
+  public boolean next() throws IOException {
+    if (done) {
+      return false;
+    }
+
+    int shared = WritableUtils.readVInt(in);
+    if (shared == 0) {
+      done = true;
+      return false;
+    }
+
+    String suffix = Text.readString(in);
+    event = shared == 1 ? suffix : event.substring(0, shared - 1) + suffix;
+    count = WritableUtils.readVLong(in);
+    return true;
+  }
+
+  /**
+   * Skips the remaining entries of the stream, leaving the input positioned right after it.
+   */
+  public void skipToEnd() throws IOException {
+    while (next()) {
+    }
+  }
+
+  /**
+   * Returns the event of the current entry.
+   */
+  public String getEvent() {
+    return event;
+  }
+
+  /**
+   * Returns the count of the current entry.
+   */
+  public long getCount() {
+    return count;
+  }
+}
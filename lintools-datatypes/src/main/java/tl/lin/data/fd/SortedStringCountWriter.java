@@ -0,0 +1,101 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.fd;
+
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.WritableUtils;
+
+/**
+ * <p>
+ * Writes (string event, count) entries in strictly ascending order of events (as defined by
+ * {@link String#compareTo(String)}) to a compact stream that can be read back with
+ * {@link SortedStringCountReader}. Events are front coded: each entry stores the length of the
+ * prefix it shares with the previous event, the remaining suffix in UTF-8, and the
+ * variable-length count. The stream is terminated by {@link #finish()}.
+ * </p>
+ *
+ * @see FrequencyDistributionCodec
+ */
+public class SortedStringCountWriter {
+  private final DataOutput out;
+  private String prev = null;
+  private boolean finished = false;
+
+  /**
+   * Creates a writer.
+   *
+   * @param out where to write the entries
+   */
+  public SortedStringCountWriter(DataOutput out) {
+    this.out = out;
+  }
+
+  /**
+   * Appends an entry.
+   *
+   * @param event the event, which must be larger than the previous event
+   * @param count the count of the event
+   * @exception IllegalArgumentException if events are out of order
+   */
+  public void add(String event, long count) throws IOException {
+    if (finished) {
+      throw new IllegalStateException("Writer already finished!");
+    }
+    if (prev != null && event.compareTo(prev) <= 0) {
+      throw new IllegalArgumentException("Events must be written in ascending order: \"" + event
+          + "\" after \"" + prev + "\"");
+    }
+
+    int shared = sharedPrefixLength(prev, event);
+    // Zero is reserved for the terminator.
+    WritableUtils.writeVInt(out, shared + 1);
+    Text.writeString(out, event.substring(shared));
+    WritableUtils.writeVLong(out, count);
+    prev = event;
+  }
+
+  /**
+   * Terminates the stream. The underlying output is not closed.
+   */
+  public void finish() throws IOException {
+    if (!finished) {
+      WritableUtils.writeVInt(out, 0);
+      finished = true;
+    }
+  }
+
+  static int sharedPrefixLength(String a, String b) {
+    if (a == null) {
+      return 0;
+    }
+
+    int n = Math.min(a.length(), b.length());
+    int i = 0;
+    while (i < n && a.charAt(i) == b.charAt(i)) {
+      i++;
+    }
+
+    // Never split a surrogate pair, since the suffix is encoded as UTF-8.
+    if (i > 0 && Character.isHighSurrogate(a.charAt(i - 1))) {
+      i--;
+    }
+    return i;
+  }
+}
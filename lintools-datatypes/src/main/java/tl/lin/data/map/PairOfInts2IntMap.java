@@ -0,0 +1,490 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.map;
+
+import java.util.Arrays;
+
+import tl.lin.data.util.MurmurHash;
+
+/**
+ * <p>
+ * Map from pairs of ints to int values, e.g., for counting co-occurrences. Each (left, right) key
+ * is packed into a single long in an open-addressed table with linear probing, so no pair or entry
+ * objects are allocated per cell, as they would be with an {@code HMapKI<PairOfInts>} or nested
+ * {@code HMapIV<HMapII>}. Absent keys map to {@link #DEFAULT_VALUE}.
+ * </p>
+ *
+ * <p>
+ * The left element plays the role of the row in a sparse matrix. Rows can be visited with
+ * {@link #forEachInRow(int, RowProcedure)} and converted to stripes with {@link #getRow(int)}. To
+ * support this, a sorted index of all keys is built on the first row access after a modification,
+ * so row access is cheapest when updates and reads happen in separate phases, e.g., count
+ * everything and then emit by row.
+ * </p>
+ *
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ */
+public class PairOfInts2IntMap {
+  /**
+   * Value of absent keys.
+   */
+  public static final int DEFAULT_VALUE = 0;
+
+  /**
+   * Callback for visiting all entries of a map.
+   */
+  public static interface EntryProcedure {
+    void apply(int left, int right, int value);
+  }
+
+  /**
+   * Callback for visiting the entries in a row of a map.
+   */
+  public static interface RowProcedure {
+    void apply(int right, int value);
+  }
+
+  private static final float LOAD_FACTOR = 0.75f;
+  private static final int MIN_CAPACITY = 16;
+
+  // Packed key of (Integer.MIN_VALUE, Integer.MIN_VALUE), which marks free slots. That key, if
+  // present, is stored separately.
+  private static final long FREE = Long.MIN_VALUE;
+
+  private long[] keys;
+  private int[] values;
+  private int mask;
+  private int maxFill;
+  private int size;
+
+  private boolean containsFreeKey;
+  private int freeValue;
+
+  // Keys in ascending order with their values; null if stale.
+  private long[] sortedKeys;
+  private int[] sortedValues;
+
+  /**
+   * Creates an empty map.
+   */
+  public PairOfInts2IntMap() {
+    this(MIN_CAPACITY);
+  }
+
+  /**
+   * Creates an empty map with room for the specified number of entries.
+   *
+   * @param expected expected number of entries
+   */
+  public PairOfInts2IntMap(int expected) {
+    allocate(capacityFor(expected));
+  }
+
+  private static int capacityFor(int expected) {
+    int capacity = MIN_CAPACITY;
+    while (capacity * LOAD_FACTOR < expected) {
+      capacity <<= 1;
+    }
+    return capacity;
+  }
+
+  private void allocate(int capacity) {
+    keys = new long[capacity];
+    Arrays.fill(keys, FREE);
+    values = new int[capacity];
+    mask = capacity - 1;
+    maxFill = (int) (capacity * LOAD_FACTOR);
+  }
+
+  static long pack(int left, int right) {
+    // Flipping the sign bit of the right element makes packed keys sort like (left, right).
+    return ((long) left << 32) | ((right ^ Integer.MIN_VALUE) & 0xffffffffL);
+  }
+
+  static int left(long key) {
+    return (int) (key >> 32);
+  }
+
+  static int right(long key) {
+    return ((int) key) ^ Integer.MIN_VALUE;
+  }
+
+  private int slot(long key) {
+    return (int) MurmurHash.fmix64(key) & mask;
+  }
+
+  // Returns the slot holding the key, or -(slot + 1) for the free slot where it would go.
+  private int find(long key) {
+    int pos = slot(key);
+    long k;
+    while ((k = keys[pos]) != FREE) {
+      if (k == key) {
+        return pos;
+      }
+      pos = (pos + 1) & mask;
+    }
+    return -(pos + 1);
+  }
+
+  /**
+   * Returns the number of entries in this map.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns {@code true} if this map contains no entries.
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Returns {@code true} if this map contains an entry for the pair.
+   */
+  public boolean containsKey(int left, int right) {
+    long key = pack(left, right);
+    if (key == FREE) {
+      return containsFreeKey;
+    }
+    return find(key) >= 0;
+  }
+
+  /**
+   * Returns the value of the pair, or {@link #DEFAULT_VALUE} if the pair is absent.
+   */
+  public int get(int left, int right) {
+    long key = pack(left, right);
+    if (key == FREE) {
+      return containsFreeKey ? freeValue : DEFAULT_VALUE;
+    }
+
+    int pos = find(key);
+    return pos >= 0 ? values[pos] : DEFAULT_VALUE;
+  }
+
+  /**
+   * Sets the value of a pair.
+   *
+   * @return the previous value of the pair, or {@link #DEFAULT_VALUE} if the pair was absent
+   */
+  public int put(int left, int right, int value) {
+    sortedKeys = null;
+    long key = pack(left, right);
+    if (key == FREE) {
+      int old = containsFreeKey ? freeValue : DEFAULT_VALUE;
+      if (!containsFreeKey) {
+        containsFreeKey = true;
+        size++;
+      }
+      freeValue = value;
+      return old;
+    }
+
+    int pos = find(key);
+    if (pos >= 0) {
+      int old = values[pos];
+      values[pos] = value;
+      return old;
+    }
+
+    insertAt(-pos - 1, key, value);
+    return DEFAULT_VALUE;
+  }
+
+  /**
+   * Increments the value of a pair by one.
+   *
+   * @return the new value of the pair
+   */
+  public int increment(int left, int right) {
+    return increment(left, right, 1);
+  }
+
+  /**
+   * Increments the value of a pair, treating an absent pair as {@link #DEFAULT_VALUE}.
+   *
+   * @return the new value of the pair
+   */
+  public int increment(int left, int right, int delta) {
+    sortedKeys = null;
+    long key = pack(left, right);
+    if (key == FREE) {
+      if (!containsFreeKey) {
+        containsFreeKey = true;
+        freeValue = DEFAULT_VALUE;
+        size++;
+      }
+      return freeValue += delta;
+    }
+
+    int pos = find(key);
+    if (pos >= 0) {
+      return values[pos] += delta;
+    }
+
+    insertAt(-pos - 1, key, delta);
+    return delta;
+  }
+
+  private void insertAt(int pos, long key, int value) {
+    keys[pos] = key;
+    values[pos] = value;
+    if (++size > maxFill) {
+      rehash(keys.length * 2);
+    }
+  }
+
+  /**
+   * Removes a pair.
+   *
+   * @return the value of the pair, or {@link #DEFAULT_VALUE} if the pair was absent
+   */
+  public int remove(int left, int right) {
+    long key = pack(left, right);
+    if (key == FREE) {
+      if (!containsFreeKey) {
+        return DEFAULT_VALUE;
+      }
+      sortedKeys = null;
+      containsFreeKey = false;
+      size--;
+      return freeValue;
+    }
+
+    int pos = find(key);
+    if (pos < 0) {
+      return DEFAULT_VALUE;
+    }
+
+    sortedKeys = null;
+    int old = values[pos];
+    shiftKeys(pos);
+    size--;
+    return old;
+  }
+
+  // Closes the gap left by a removed entry, so that probe sequences stay unbroken.
+  private void shiftKeys(int pos) {
+    int last;
+    long curr;
+    for (;;) {
+      pos = ((last = pos) + 1) & mask;
+      for (;;) {
+        if ((curr = keys[pos]) == FREE) {
+          keys[last] = FREE;
+          return;
+        }
+        int slot = slot(curr);
+        if (last <= pos ? last >= slot || slot > pos : last >= slot && slot > pos) {
+          break;
+        }
+        pos = (pos + 1) & mask;
+      }
+      keys[last] = curr;
+      values[last] = values[pos];
+    }
+  }
+
+  private void rehash(int capacity) {
+    long[] oldKeys = keys;
+    int[] oldValues = values;
+    allocate(capacity);
+
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != FREE) {
+        int pos = slot(oldKeys[i]);
+        while (keys[pos] != FREE) {
+          pos = (pos + 1) & mask;
+        }
+        keys[pos] = oldKeys[i];
+        values[pos] = oldValues[i];
+      }
+    }
+  }
+
+  /**
+   * Removes all entries.
+   */
+  public void clear() {
+    Arrays.fill(keys, FREE);
+    containsFreeKey = false;
+    size = 0;
+    sortedKeys = null;
+    sortedValues = null;
+  }
+
+  /**
+   * Visits all entries in no particular order. The map must not be modified by the procedure.
+   */
+  public void forEach(EntryProcedure procedure) {
+    if (containsFreeKey) {
+      procedure.apply(Integer.MIN_VALUE, Integer.MIN_VALUE, freeValue);
+    }
+    for (int i = 0; i < keys.length; i++) {
+      if (keys[i] != FREE) {
+        procedure.apply(left(keys[i]), right(keys[i]), values[i]);
+      }
+    }
+  }
+
+  /**
+   * Visits the entries in a row in ascending order of their right elements. The map must not be
+   * modified by the procedure.
+   *
+   * @param left the row
+   * @param procedure callback receiving the right element and the value of each entry
+   */
+  public void forEachInRow(int left, RowProcedure procedure) {
+    buildIndex();
+    for (int i = rowStart(left); i < size && left(sortedKeys[i]) == left; i++) {
+      procedure.apply(right(sortedKeys[i]), sortedValues[i]);
+    }
+  }
+
+  /**
+   * Returns the number of entries in a row.
+   */
+  public int getRowSize(int left) {
+    buildIndex();
+    int start = rowStart(left);
+    int i = start;
+    while (i < size && left(sortedKeys[i]) == left) {
+      i++;
+    }
+    return i - start;
+  }
+
+  /**
+   * Returns the distinct left elements of this map, in ascending order.
+   */
+  public int[] getRows() {
+    buildIndex();
+    int n = 0;
+    int[] rows = new int[size];
+    for (int i = 0; i < size; i++) {
+      int left = left(sortedKeys[i]);
+      if (n == 0 || rows[n - 1] != left) {
+        rows[n++] = left;
+      }
+    }
+    return Arrays.copyOf(rows, n);
+  }
+
+  /**
+   * Returns a copy of a row as a stripe, mapping right elements to values.
+   */
+  public HMapII getRow(int left) {
+    HMapII stripe = new HMapII();
+    fillRow(left, stripe);
+    return stripe;
+  }
+
+  protected void fillRow(int left, HMapII stripe) {
+    buildIndex();
+    for (int i = rowStart(left); i < size && left(sortedKeys[i]) == left; i++) {
+      stripe.put(right(sortedKeys[i]), sortedValues[i]);
+    }
+  }
+
+  /**
+   * Adds the values of a stripe to a row.
+   *
+   * @param left the row
+   * @param stripe map from right elements to values
+   */
+  public void plusRow(int left, MapII stripe) {
+    for (MapII.Entry e : stripe.entrySet()) {
+      increment(left, e.getKey(), e.getValue());
+    }
+  }
+
+  /**
+   * Adds the values of another map to this one.
+   */
+  public void plus(PairOfInts2IntMap m) {
+    if (m.containsFreeKey) {
+      increment(Integer.MIN_VALUE, Integer.MIN_VALUE, m.freeValue);
+    }
+    for (int i = 0; i < m.keys.length; i++) {
+      if (m.keys[i] != FREE) {
+        increment(left(m.keys[i]), right(m.keys[i]), m.values[i]);
+      }
+    }
+  }
+
+  // Returns the position of the first sorted key in the row.
+  private int rowStart(int left) {
+    long start = pack(left, Integer.MIN_VALUE);
+    int pos = Arrays.binarySearch(sortedKeys, 0, size, start);
+    return pos >= 0 ? pos : -pos - 1;
+  }
+
+  // Sorts the keys and gathers their values, unless that has been done since the last update.
+  void buildIndex() {
+    if (sortedKeys != null) {
+      return;
+    }
+
+    long[] sorted = new long[size];
+    int n = 0;
+    if (containsFreeKey) {
+      sorted[n++] = FREE;
+    }
+    for (int i = 0; i < keys.length; i++) {
+      if (keys[i] != FREE) {
+        sorted[n++] = keys[i];
+      }
+    }
+    Arrays.sort(sorted);
+
+    int[] sortedVals = new int[size];
+    for (int i = 0; i < size; i++) {
+      sortedVals[i] = sorted[i] == FREE ? freeValue : values[find(sorted[i])];
+    }
+
+    sortedKeys = sorted;
+    sortedValues = sortedVals;
+  }
+
+  // The i-th smallest key; only valid right after buildIndex().
+  long sortedKey(int i) {
+    return sortedKeys[i];
+  }
+
+  // The value of the i-th smallest key; only valid right after buildIndex().
+  int sortedValue(int i) {
+    return sortedValues[i];
+  }
+
+  @Override
+  public String toString() {
+    buildIndex();
+    StringBuilder sb = new StringBuilder("{");
+    for (int i = 0; i < size; i++) {
+      if (i > 0) {
+        sb.append(", ");
+      }
+      sb.append("(").append(left(sortedKeys[i])).append(", ").append(right(sortedKeys[i]))
+          .append(")=").append(sortedValues[i]);
+    }
+    return sb.append("}").toString();
+  }
+}
@@ -0,0 +1,190 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.map;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.io.WritableUtils;
+
+import tl.lin.data.pair.PairOfInts;
+
+/**
+ * <p>
+ * Writable map from pairs of ints to int values. Entries are serialized grouped by row (left
+ * element) in ascending order, with the left and right elements gap coded as variable-length
+ * longs, so a map holding a few dense rows is much smaller on the wire than the equivalent
+ * {@code HMapKIW<PairOfInts>}.
+ * </p>
+ *
+ * <p>
+ * The map fits both the "pairs" and the "stripes" patterns: a mapper can accumulate counts locally
+ * and emit either the whole map, each row as a {@link HMapIIW} via {@link #getRow(int)}, or
+ * each cell as a {@link PairOfInts} via {@link #toPairs()}; a reducer can sum maps with
+ * {@link #plus} or stripes with {@link #plusRow}.
+ * </p>
+ */
+public class PairOfInts2IntMapWritable extends PairOfInts2IntMap implements Writable {
+
+  /**
+   * Creates an empty map.
+   */
+  public PairOfInts2IntMapWritable() {
+    super();
+  }
+
+  /**
+   * Creates an empty map with room for the specified number of entries.
+   *
+   * @param expected expected number of entries
+   */
+  public PairOfInts2IntMapWritable(int expected) {
+    super(expected);
+  }
+
+  /**
+   * Returns a copy of a row as a stripe, mapping right elements to values.
+   */
+  @Override
+  public HMapIIW getRow(int left) {
+    HMapIIW stripe = new HMapIIW();
+    fillRow(left, stripe);
+    return stripe;
+  }
+
+  /**
+   * Returns a copy of this map keyed by {@link PairOfInts} objects.
+   */
+  public HMapKIW<PairOfInts> toPairs() {
+    final HMapKIW<PairOfInts> pairs = new HMapKIW<PairOfInts>();
+    forEach(new EntryProcedure() {
+      @Override
+      public void apply(int left, int right, int value) {
+        pairs.put(new PairOfInts(left, right), value);
+      }
+    });
+    return pairs;
+  }
+
+  /**
+   * Deserializes the map.
+   *
+   * @param in source for raw byte representation
+   */
+  @Override
+  public void readFields(DataInput in) throws IOException {
+    clear();
+
+    int numRows = WritableUtils.readVInt(in);
+    long left = 0;
+    for (int i = 0; i < numRows; i++) {
+      left += WritableUtils.readVLong(in);
+      int n = WritableUtils.readVInt(in);
+      long right = 0;
+      for (int j = 0; j < n; j++) {
+        right += WritableUtils.readVLong(in);
+        put((int) left, (int) right, WritableUtils.readVInt(in));
+      }
+    }
+  }
+
+  /**
+   * Serializes the map.
+   *
+   * @param out where to write the raw byte representation
+   */
+  @Override
+  public void write(DataOutput out) throws IOException {
+    buildIndex();
+    int n = size();
+
+    int numRows = 0;
+    for (int i = 0; i < n; i++) {
+      if (i == 0 || left(sortedKey(i)) != left(sortedKey(i - 1))) {
+        numRows++;
+      }
+    }
+    WritableUtils.writeVInt(out, numRows);
+
+    long prevLeft = 0;
+    int i = 0;
+    while (i < n) {
+      int left = left(sortedKey(i));
+      int end = i;
+      while (end < n && left(sortedKey(end)) == left) {
+        end++;
+      }
+
+      WritableUtils.writeVLong(out, left - prevLeft);
+      WritableUtils.writeVInt(out, end - i);
+      prevLeft = left;
+
+      long prevRight = 0;
+      for (; i < end; i++) {
+        int right = right(sortedKey(i));
+        WritableUtils.writeVLong(out, right - prevRight);
+        WritableUtils.writeVInt(out, sortedValue(i));
+        prevRight = right;
+      }
+    }
+  }
+
+  /**
+   * Returns the serialized representation of this object as a byte array.
+   *
+   * @return byte array representing the serialized representation of this object
+   * @throws IOException
+   */
+  public byte[] serialize() throws IOException {
+    ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
+    DataOutputStream dataOut = new DataOutputStream(bytesOut);
+    write(dataOut);
+
+    return bytesOut.toByteArray();
+  }
+
+  /**
+   * Creates a <code>PairOfInts2IntMapWritable</code> object from a <code>DataInput</code>.
+   *
+   * @param in source for reading the serialized representation
+   * @return a newly-created <code>PairOfInts2IntMapWritable</code> object
+   * @throws IOException
+   */
+  public static PairOfInts2IntMapWritable create(DataInput in) throws IOException {
+    PairOfInts2IntMapWritable m = new PairOfInts2IntMapWritable();
+    m.readFields(in);
+
+    return m;
+  }
+
+  /**
+   * Creates a <code>PairOfInts2IntMapWritable</code> object from a byte array.
+   *
+   * @param bytes raw serialized representation
+   * @return a newly-created <code>PairOfInts2IntMapWritable</code> object
+   * @throws IOException
+   */
+  public static PairOfInts2IntMapWritable create(byte[] bytes) throws IOException {
+    return create(new DataInputStream(new ByteArrayInputStream(bytes)));
+  }
+}
@@ -0,0 +1,53 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.pair;
+
+import tl.lin.data.util.OrderedBytes;
+
+/**
+ * <p>
+ * Total order on floats, shared by the <code>compareTo</code> methods and the raw comparators of
+ * the pairs with float elements so that the two always agree. Floats are compared as ints after
+ * flipping the magnitude bits of negative values, which orders their IEEE 754 bits numerically;
+ * raw comparators can therefore sort on the serialized bits without decoding floats at all.
+ * </p>
+ *
+ * <p>
+ * The order is that of {@link Float#compare(float, float)}, except that <code>-0.0f</code> and
+ * <code>0.0f</code> are equal, as they are to <code>==</code> and to the <code>equals</code>
+ * methods of the pairs. NaN is greater than every other value, including positive infinity.
+ * </p>
+ */
+final class FloatOrder {
+  private FloatOrder() {}
+
+  /**
+   * Compares two floats.
+   */
+  static int compare(float a, float b) {
+    return compareBits(Float.floatToRawIntBits(a), Float.floatToRawIntBits(b));
+  }
+
+  /**
+   * Compares two floats, given their bits.
+   */
+  static int compareBits(int a, int b) {
+    int x = OrderedBytes.sortableFloatBits(a);
+    int y = OrderedBytes.sortableFloatBits(b);
+    return x < y ? -1 : (x == y ? 0 : 1);
+  }
+}
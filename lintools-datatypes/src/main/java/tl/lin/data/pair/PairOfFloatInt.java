@@ -22,6 +22,9 @@ import java.io.IOException;
 
 import org.apache.hadoop.io.WritableComparable;
 import org.apache.hadoop.io.WritableComparator;
+import org.apache.hadoop.mapreduce.Partitioner;
+
+import tl.lin.data.util.MurmurHash;
 
 /**
  * WritableComparable representing a pair consisting of a float and an int. The elements in the pair
@@ -115,6 +118,28 @@ public class PairOfFloatInt implements WritableComparable<PairOfFloatInt> {
     rightElement = right;
   }
 
+  /**
+   * Appends this pair to a key in an order-preserving encoding, so that keys holding pairs sort as
+   * the pairs do.
+   *
+   * @param key the key
+   * @return the key
+   */
+  public TupleKey appendTo(TupleKey key) {
+    return key.appendFloat(leftElement).appendInt(rightElement);
+  }
+
+  /**
+   * Sets this pair to the next two components of a key, which must have been appended with
+   * {@link #appendTo(TupleKey)}.
+   *
+   * @param key the key
+   */
+  public void readFrom(TupleKey key) {
+    leftElement = key.nextFloat();
+    rightElement = key.nextInt();
+  }
+
   /**
    * Checks two pairs for equality.
    *
@@ -138,18 +163,12 @@ public class PairOfFloatInt implements WritableComparable<PairOfFloatInt> {
     float pl = pair.getLeftElement();
     int pr = pair.getRightElement();
 
-    if (leftElement == pl) {
-      if (rightElement < pr)
-        return -1;
-      if (rightElement > pr)
-        return 1;
-      return 0;
+    int cmp = FloatOrder.compare(leftElement, pl);
+    if (cmp != 0) {
+      return cmp;
     }
 
-    if (leftElement < pl)
-      return -1;
-
-    return 1;
+    return (rightElement < pr ? -1 : (rightElement == pr ? 0 : 1));
   }
 
   /**
@@ -158,7 +177,8 @@ public class PairOfFloatInt implements WritableComparable<PairOfFloatInt> {
    * @return hash code for the pair
    */
   public int hashCode() {
-    return (int) leftElement + rightElement;
+    // Adding 0.0f turns -0.0f into 0.0f, so that equal pairs have equal hash codes.
+    return MurmurHash.hash32(Float.floatToIntBits(leftElement + 0.0f), rightElement);
   }
 
   /**
@@ -193,17 +213,65 @@ public class PairOfFloatInt implements WritableComparable<PairOfFloatInt> {
      * Optimization hook.
      */
     public int compare(byte[] b1, int s1, int l1, byte[] b2, int s2, int l2) {
-      float thisLeftValue = readFloat(b1, s1);
-      float thatLeftValue = readFloat(b2, s2);
-
-      if (thisLeftValue == thatLeftValue) {
+      int cmp = FloatOrder.compareBits(readInt(b1, s1), readInt(b2, s2));
+      if (cmp == 0) {
         int thisRightValue = readInt(b1, s1 + 4);
         int thatRightValue = readInt(b2, s2 + 4);
 
         return (thisRightValue < thatRightValue ? -1 : (thisRightValue == thatRightValue ? 0 : 1));
       }
 
-      return (thisLeftValue < thatLeftValue ? -1 : (thisLeftValue == thatLeftValue ? 0 : 1));
+      return cmp;
+    }
+  }
+
+  /**
+   * Partitioner that assigns pairs to partitions by their left element only, with a well-mixed
+   * hash, so that all pairs with the same left element go to the same reducer. Use with
+   * {@link LeftElementComparator} for secondary sort.
+   *
+   * @param <V> type of values
+   */
+  public static class LeftElementPartitioner<V> extends Partitioner<PairOfFloatInt, V> {
+
+    /**
+     * Returns the partition of a pair.
+     */
+    public int getPartition(PairOfFloatInt key, V value, int numPartitions) {
+      int hash = MurmurHash.hash32(Float.floatToIntBits(key.getLeftElement() + 0.0f));
+      return (hash & Integer.MAX_VALUE) % numPartitions;
+    }
+  }
+
+  /**
+   * Grouping comparator that compares pairs by their left element only, so that a reducer receives
+   * all pairs with the same left element in a single call, sorted by their right element.
+   */
+  public static class LeftElementComparator extends WritableComparator {
+
+    /**
+     * Creates a new grouping comparator for <code>PairOfFloatInt</code>.
+     */
+    public LeftElementComparator() {
+      super(PairOfFloatInt.class);
+    }
+
+    /**
+     * Compares the left elements of two serialized pairs.
+     */
+    public int compare(byte[] b1, int s1, int l1, byte[] b2, int s2, int l2) {
+      return FloatOrder.compareBits(readInt(b1, s1), readInt(b2, s2));
+    }
+
+    /**
+     * Compares the left elements of two pairs.
+     */
+    @SuppressWarnings("rawtypes")
+    public int compare(WritableComparable a, WritableComparable b) {
+      float thisLeftValue = ((PairOfFloatInt) a).getLeftElement();
+      float thatLeftValue = ((PairOfFloatInt) b).getLeftElement();
+
+      return FloatOrder.compare(thisLeftValue, thatLeftValue);
     }
   }
 
@@ -24,6 +24,9 @@ import org.apache.hadoop.io.Text;
 import org.apache.hadoop.io.WritableComparable;
 import org.apache.hadoop.io.WritableComparator;
 import org.apache.hadoop.io.WritableUtils;
+import org.apache.hadoop.mapreduce.Partitioner;
+
+import tl.lin.data.util.MurmurHash;
 
 /**
  * WritableComparable representing a pair consisting of a float and a String. The elements in the
@@ -117,6 +120,28 @@ public class PairOfFloatString implements WritableComparable<PairOfFloatString>
     leftElement = left;
   }
 
+  /**
+   * Appends this pair to a key in an order-preserving encoding, so that keys holding pairs sort as
+   * the pairs do.
+   *
+   * @param key the key
+   * @return the key
+   */
+  public TupleKey appendTo(TupleKey key) {
+    return key.appendFloat(leftElement).appendString(rightElement);
+  }
+
+  /**
+   * Sets this pair to the next two components of a key, which must have been appended with
+   * {@link #appendTo(TupleKey)}.
+   *
+   * @param key the key
+   */
+  public void readFrom(TupleKey key) {
+    leftElement = key.nextFloat();
+    rightElement = key.nextString();
+  }
+
   /**
    * Checks two pairs for equality.
    *
@@ -141,14 +166,12 @@ public class PairOfFloatString implements WritableComparable<PairOfFloatString>
     String pr = pair.getRightElement();
     float pl = pair.getLeftElement();
 
-    if (leftElement == pl) {
-      if (rightElement.equals(pr))
-        return 0;
-
-      return rightElement.compareTo(pr);
+    int cmp = FloatOrder.compare(leftElement, pl);
+    if (cmp != 0) {
+      return cmp;
     }
 
-    return leftElement < pl ? -1 : 1;
+    return rightElement.compareTo(pr);
   }
 
   /**
@@ -158,7 +181,9 @@ public class PairOfFloatString implements WritableComparable<PairOfFloatString>
    */
   @Override
   public int hashCode() {
-    return (int) leftElement + rightElement.hashCode();
+    // Adding 0.0f turns -0.0f into 0.0f, so that equal pairs have equal hash codes.
+    return MurmurHash.hash32(Float.floatToIntBits(leftElement + 0.0f),
+        MurmurHash.hash64(rightElement));
   }
 
   /**
@@ -195,16 +220,64 @@ public class PairOfFloatString implements WritableComparable<PairOfFloatString>
      * Optimization hook.
      */
     public int compare(byte[] b1, int s1, int l1, byte[] b2, int s2, int l2) {
-      float thisLeftValue = readFloat(b1, s1);
-      float thatLeftValue = readFloat(b2, s2);
-
-      if (thisLeftValue == thatLeftValue) {
+      int cmp = FloatOrder.compareBits(readInt(b1, s1), readInt(b2, s2));
+      if (cmp == 0) {
         int n1 = WritableUtils.decodeVIntSize(b1[s1 + 4]);
         int n2 = WritableUtils.decodeVIntSize(b2[s2 + 4]);
         return compareBytes(b1, s1 + 4 + n1, l1 - n1 - 4, b2, s2 + n2 + 4, l2 - n2 - 4);
       }
 
-      return thisLeftValue < thatLeftValue ? -1 : 1;
+      return cmp;
+    }
+  }
+
+  /**
+   * Partitioner that assigns pairs to partitions by their left element only, with a well-mixed
+   * hash, so that all pairs with the same left element go to the same reducer. Use with
+   * {@link LeftElementComparator} for secondary sort.
+   *
+   * @param <V> type of values
+   */
+  public static class LeftElementPartitioner<V> extends Partitioner<PairOfFloatString, V> {
+
+    /**
+     * Returns the partition of a pair.
+     */
+    public int getPartition(PairOfFloatString key, V value, int numPartitions) {
+      int hash = MurmurHash.hash32(Float.floatToIntBits(key.getLeftElement() + 0.0f));
+      return (hash & Integer.MAX_VALUE) % numPartitions;
+    }
+  }
+
+  /**
+   * Grouping comparator that compares pairs by their left element only, so that a reducer receives
+   * all pairs with the same left element in a single call, sorted by their right element.
+   */
+  public static class LeftElementComparator extends WritableComparator {
+
+    /**
+     * Creates a new grouping comparator for <code>PairOfFloatString</code>.
+     */
+    public LeftElementComparator() {
+      super(PairOfFloatString.class);
+    }
+
+    /**
+     * Compares the left elements of two serialized pairs.
+     */
+    public int compare(byte[] b1, int s1, int l1, byte[] b2, int s2, int l2) {
+      return FloatOrder.compareBits(readInt(b1, s1), readInt(b2, s2));
+    }
+
+    /**
+     * Compares the left elements of two pairs.
+     */
+    @SuppressWarnings("rawtypes")
+    public int compare(WritableComparable a, WritableComparable b) {
+      float thisLeftValue = ((PairOfFloatString) a).getLeftElement();
+      float thatLeftValue = ((PairOfFloatString) b).getLeftElement();
+
+      return FloatOrder.compare(thisLeftValue, thatLeftValue);
     }
   }
 
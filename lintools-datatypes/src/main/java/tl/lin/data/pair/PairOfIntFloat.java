@@ -22,6 +22,9 @@ import java.io.IOException;
 
 import org.apache.hadoop.io.WritableComparable;
 import org.apache.hadoop.io.WritableComparator;
+import org.apache.hadoop.mapreduce.Partitioner;
+
+import tl.lin.data.util.MurmurHash;
 
 /**
  * WritableComparable representing a pair of an int and long. The elements in the pair are referred
@@ -115,6 +118,28 @@ public class PairOfIntFloat implements WritableComparable<PairOfIntFloat> {
     rightElement = right;
   }
 
+  /**
+   * Appends this pair to a key in an order-preserving encoding, so that keys holding pairs sort as
+   * the pairs do.
+   *
+   * @param key the key
+   * @return the key
+   */
+  public TupleKey appendTo(TupleKey key) {
+    return key.appendInt(leftElement).appendFloat(rightElement);
+  }
+
+  /**
+   * Sets this pair to the next two components of a key, which must have been appended with
+   * {@link #appendTo(TupleKey)}.
+   *
+   * @param key the key
+   */
+  public void readFrom(TupleKey key) {
+    leftElement = key.nextInt();
+    rightElement = key.nextFloat();
+  }
+
   /**
    * Checks two pairs for equality.
    *
@@ -138,18 +163,12 @@ public class PairOfIntFloat implements WritableComparable<PairOfIntFloat> {
     int pl = pair.getLeftElement();
     float pr = pair.getRightElement();
 
-    if (leftElement == pl) {
-      if (rightElement < pr)
-        return -1;
-      if (rightElement > pr)
-        return 1;
-      return 0;
+    int cmp = (leftElement < pl ? -1 : (leftElement == pl ? 0 : 1));
+    if (cmp != 0) {
+      return cmp;
     }
 
-    if (leftElement < pl)
-      return -1;
-
-    return 1;
+    return FloatOrder.compare(rightElement, pr);
   }
 
   /**
@@ -158,7 +177,8 @@ public class PairOfIntFloat implements WritableComparable<PairOfIntFloat> {
    * @return hash code for the pair
    */
   public int hashCode() {
-    return (int) (leftElement + rightElement);
+    // Adding 0.0f turns -0.0f into 0.0f, so that equal pairs have equal hash codes.
+    return MurmurHash.hash32(leftElement, Float.floatToIntBits(rightElement + 0.0f));
   }
 
   /**
@@ -197,16 +217,66 @@ public class PairOfIntFloat implements WritableComparable<PairOfIntFloat> {
       int thatLeftValue = readInt(b2, s2);
 
       if (thisLeftValue == thatLeftValue) {
-        float thisRightValue = readFloat(b1, s1 + 4);
-        float thatRightValue = readFloat(b2, s2 + 4);
-
-        return (thisRightValue < thatRightValue ? -1 : (thisRightValue == thatRightValue ? 0 : 1));
+        return FloatOrder.compareBits(readInt(b1, s1 + 4), readInt(b2, s2 + 4));
       }
 
       return (thisLeftValue < thatLeftValue ? -1 : (thisLeftValue == thatLeftValue ? 0 : 1));
     }
   }
 
+  /**
+   * Partitioner that assigns pairs to partitions by their left element only, with a well-mixed
+   * hash, so that all pairs with the same left element go to the same reducer. Use with
+   * {@link LeftElementComparator} for secondary sort.
+   *
+   * @param <V> type of values
+   */
+  public static class LeftElementPartitioner<V> extends Partitioner<PairOfIntFloat, V> {
+
+    /**
+     * Returns the partition of a pair.
+     */
+    public int getPartition(PairOfIntFloat key, V value, int numPartitions) {
+      int hash = MurmurHash.hash32(key.getLeftElement());
+      return (hash & Integer.MAX_VALUE) % numPartitions;
+    }
+  }
+
+  /**
+   * Grouping comparator that compares pairs by their left element only, so that a reducer receives
+   * all pairs with the same left element in a single call, sorted by their right element.
+   */
+  public static class LeftElementComparator extends WritableComparator {
+
+    /**
+     * Creates a new grouping comparator for <code>PairOfIntFloat</code>.
+     */
+    public LeftElementComparator() {
+      super(PairOfIntFloat.class);
+    }
+
+    /**
+     * Compares the left elements of two serialized pairs.
+     */
+    public int compare(byte[] b1, int s1, int l1, byte[] b2, int s2, int l2) {
+      int thisLeftValue = readInt(b1, s1);
+      int thatLeftValue = readInt(b2, s2);
+
+      return (thisLeftValue < thatLeftValue ? -1 : (thisLeftValue == thatLeftValue ? 0 : 1));
+    }
+
+    /**
+     * Compares the left elements of two pairs.
+     */
+    @SuppressWarnings("rawtypes")
+    public int compare(WritableComparable a, WritableComparable b) {
+      int thisLeftValue = ((PairOfIntFloat) a).getLeftElement();
+      int thatLeftValue = ((PairOfIntFloat) b).getLeftElement();
+
+      return (thisLeftValue < thatLeftValue ? -1 : (thisLeftValue == thatLeftValue ? 0 : 1));
+    }
+  }
+
   static { // register this comparator
     WritableComparator.define(PairOfIntFloat.class, new Comparator());
   }
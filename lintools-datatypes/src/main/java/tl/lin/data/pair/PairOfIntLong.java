@@ -22,6 +22,9 @@ import java.io.IOException;
 
 import org.apache.hadoop.io.WritableComparable;
 import org.apache.hadoop.io.WritableComparator;
+import org.apache.hadoop.mapreduce.Partitioner;
+
+import tl.lin.data.util.MurmurHash;
 
 /**
  * WritableComparable representing a pair of an int and long. The elements in the pair are referred
@@ -115,6 +118,28 @@ public class PairOfIntLong implements WritableComparable<PairOfIntLong> {
     rightElement = right;
   }
 
+  /**
+   * Appends this pair to a key in an order-preserving encoding, so that keys holding pairs sort as
+   * the pairs do.
+   *
+   * @param key the key
+   * @return the key
+   */
+  public TupleKey appendTo(TupleKey key) {
+    return key.appendInt(leftElement).appendLong(rightElement);
+  }
+
+  /**
+   * Sets this pair to the next two components of a key, which must have been appended with
+   * {@link #appendTo(TupleKey)}.
+   *
+   * @param key the key
+   */
+  public void readFrom(TupleKey key) {
+    leftElement = key.nextInt();
+    rightElement = key.nextLong();
+  }
+
   /**
    * Checks two pairs for equality.
    *
@@ -158,7 +183,7 @@ public class PairOfIntLong implements WritableComparable<PairOfIntLong> {
    * @return hash code for the pair
    */
   public int hashCode() {
-    return (int) (leftElement + rightElement);
+    return MurmurHash.hash32(leftElement, rightElement);
   }
 
   /**
@@ -207,6 +232,59 @@ public class PairOfIntLong implements WritableComparable<PairOfIntLong> {
     }
   }
 
+  /**
+   * Partitioner that assigns pairs to partitions by their left element only, with a well-mixed
+   * hash, so that all pairs with the same left element go to the same reducer. Use with
+   * {@link LeftElementComparator} for secondary sort.
+   *
+   * @param <V> type of values
+   */
+  public static class LeftElementPartitioner<V> extends Partitioner<PairOfIntLong, V> {
+
+    /**
+     * Returns the partition of a pair.
+     */
+    public int getPartition(PairOfIntLong key, V value, int numPartitions) {
+      int hash = MurmurHash.hash32(key.getLeftElement());
+      return (hash & Integer.MAX_VALUE) % numPartitions;
+    }
+  }
+
+  /**
+   * Grouping comparator that compares pairs by their left element only, so that a reducer receives
+   * all pairs with the same left element in a single call, sorted by their right element.
+   */
+  public static class LeftElementComparator extends WritableComparator {
+
+    /**
+     * Creates a new grouping comparator for <code>PairOfIntLong</code>.
+     */
+    public LeftElementComparator() {
+      super(PairOfIntLong.class);
+    }
+
+    /**
+     * Compares the left elements of two serialized pairs.
+     */
+    public int compare(byte[] b1, int s1, int l1, byte[] b2, int s2, int l2) {
+      int thisLeftValue = readInt(b1, s1);
+      int thatLeftValue = readInt(b2, s2);
+
+      return (thisLeftValue < thatLeftValue ? -1 : (thisLeftValue == thatLeftValue ? 0 : 1));
+    }
+
+    /**
+     * Compares the left elements of two pairs.
+     */
+    @SuppressWarnings("rawtypes")
+    public int compare(WritableComparable a, WritableComparable b) {
+      int thisLeftValue = ((PairOfIntLong) a).getLeftElement();
+      int thatLeftValue = ((PairOfIntLong) b).getLeftElement();
+
+      return (thisLeftValue < thatLeftValue ? -1 : (thisLeftValue == thatLeftValue ? 0 : 1));
+    }
+  }
+
   static { // register this comparator
     WritableComparator.define(PairOfIntLong.class, new Comparator());
   }
@@ -24,6 +24,9 @@ import org.apache.hadoop.io.Text;
 import org.apache.hadoop.io.WritableComparable;
 import org.apache.hadoop.io.WritableComparator;
 import org.apache.hadoop.io.WritableUtils;
+import org.apache.hadoop.mapreduce.Partitioner;
+
+import tl.lin.data.util.MurmurHash;
 
 /**
  * WritableComparable representing a pair consisting of an int and a String. The elements in the
@@ -117,6 +120,28 @@ public class PairOfIntString implements WritableComparable<PairOfIntString> {
     rightElement = right;
   }
 
+  /**
+   * Appends this pair to a key in an order-preserving encoding, so that keys holding pairs sort as
+   * the pairs do.
+   *
+   * @param key the key
+   * @return the key
+   */
+  public TupleKey appendTo(TupleKey key) {
+    return key.appendInt(leftElement).appendString(rightElement);
+  }
+
+  /**
+   * Sets this pair to the next two components of a key, which must have been appended with
+   * {@link #appendTo(TupleKey)}.
+   *
+   * @param key the key
+   */
+  public void readFrom(TupleKey key) {
+    leftElement = key.nextInt();
+    rightElement = key.nextString();
+  }
+
   /**
    * Checks two pairs for equality.
    *
@@ -153,7 +178,7 @@ public class PairOfIntString implements WritableComparable<PairOfIntString> {
    * @return hash code for the pair
    */
   public int hashCode() {
-    return leftElement + rightElement.hashCode();
+    return MurmurHash.hash32(leftElement, MurmurHash.hash64(rightElement));
   }
 
   /**
@@ -201,6 +226,59 @@ public class PairOfIntString implements WritableComparable<PairOfIntString> {
     }
   }
 
+  /**
+   * Partitioner that assigns pairs to partitions by their left element only, with a well-mixed
+   * hash, so that all pairs with the same left element go to the same reducer. Use with
+   * {@link LeftElementComparator} for secondary sort.
+   *
+   * @param <V> type of values
+   */
+  public static class LeftElementPartitioner<V> extends Partitioner<PairOfIntString, V> {
+
+    /**
+     * Returns the partition of a pair.
+     */
+    public int getPartition(PairOfIntString key, V value, int numPartitions) {
+      int hash = MurmurHash.hash32(key.getLeftElement());
+      return (hash & Integer.MAX_VALUE) % numPartitions;
+    }
+  }
+
+  /**
+   * Grouping comparator that compares pairs by their left element only, so that a reducer receives
+   * all pairs with the same left element in a single call, sorted by their right element.
+   */
+  public static class LeftElementComparator extends WritableComparator {
+
+    /**
+     * Creates a new grouping comparator for <code>PairOfIntString</code>.
+     */
+    public LeftElementComparator() {
+      super(PairOfIntString.class);
+    }
+
+    /**
+     * Compares the left elements of two serialized pairs.
+     */
+    public int compare(byte[] b1, int s1, int l1, byte[] b2, int s2, int l2) {
+      int thisLeftValue = readInt(b1, s1);
+      int thatLeftValue = readInt(b2, s2);
+
+      return (thisLeftValue < thatLeftValue ? -1 : (thisLeftValue == thatLeftValue ? 0 : 1));
+    }
+
+    /**
+     * Compares the left elements of two pairs.
+     */
+    @SuppressWarnings("rawtypes")
+    public int compare(WritableComparable a, WritableComparable b) {
+      int thisLeftValue = ((PairOfIntString) a).getLeftElement();
+      int thatLeftValue = ((PairOfIntString) b).getLeftElement();
+
+      return (thisLeftValue < thatLeftValue ? -1 : (thisLeftValue == thatLeftValue ? 0 : 1));
+    }
+  }
+
   static { // register this comparator
     WritableComparator.define(PairOfIntString.class, new Comparator());
   }
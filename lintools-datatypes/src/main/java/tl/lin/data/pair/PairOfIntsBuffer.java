@@ -0,0 +1,271 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.pair;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.Writable;
+
+import tl.lin.data.array.RadixSort;
+import tl.lin.data.util.PrimitiveArrayIO;
+
+/**
+ * <p>
+ * Columnar buffer of pairs of ints, for sorting and aggregating millions of pairs in memory
+ * without one {@link PairOfInts} object per pair. Each pair is packed into a long, the left
+ * element in the high bits and the right element, with its sign bit flipped, in the low bits, so
+ * that the natural order of the packed longs is the natural order of the pairs. Sorting is
+ * therefore a primitive {@link RadixSort} of a <code>long[]</code>.
+ * </p>
+ *
+ * <p>
+ * After sorting, pairs with the same left element are adjacent, and can be visited group by group
+ * with {@link #groupEnd(int)}:
+ * </p>
+ *
+ * <pre>
+ * buffer.sort();
+ * for (int i = 0; i &lt; buffer.size();) {
+ *   int end = buffer.groupEnd(i);
+ *   // Pairs i (inclusive) to end (exclusive) have left element buffer.getLeftElement(i).
+ *   i = end;
+ * }
+ * </pre>
+ *
+ * <p>
+ * Pairs can be read from and written to SequenceFiles with {@link PairOfInts} keys in bulk. The
+ * buffer is itself a <code>Writable</code>, serialized as its size followed by the packed longs.
+ * </p>
+ */
+public class PairOfIntsBuffer implements Writable {
+  private static final int INITIAL_CAPACITY_DEFAULT = 10;
+
+  private long[] array;
+  private int size = 0;
+
+  /**
+   * Constructs an empty buffer with the specified initial capacity.
+   *
+   * @param initialCapacity the initial capacity of the buffer
+   */
+  public PairOfIntsBuffer(int initialCapacity) {
+    if (initialCapacity < 0) {
+      throw new IllegalArgumentException("Illegal Capacity: " + initialCapacity);
+    }
+    array = new long[initialCapacity];
+  }
+
+  /**
+   * Constructs an empty buffer with an initial capacity of ten.
+   */
+  public PairOfIntsBuffer() {
+    this(INITIAL_CAPACITY_DEFAULT);
+  }
+
+  // Packs a pair into a long whose signed order is the order of the pairs.
+  private static long pack(int left, int right) {
+    return (long) left << 32 | (right ^ 0x80000000) & 0xffffffffL;
+  }
+
+  /**
+   * Increases the capacity of this buffer, if necessary, to hold at least the specified number of
+   * pairs.
+   *
+   * @param minCapacity the desired minimum capacity
+   */
+  public void ensureCapacity(int minCapacity) {
+    int oldCapacity = array.length;
+    if (minCapacity > oldCapacity) {
+      int newCapacity = (oldCapacity * 3) / 2 + 1;
+      if (newCapacity < minCapacity) {
+        newCapacity = minCapacity;
+      }
+      array = Arrays.copyOf(array, newCapacity);
+    }
+  }
+
+  /**
+   * Returns the number of pairs in this buffer.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns <tt>true</tt> if this buffer contains no pairs.
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Removes all pairs from this buffer. Its storage is kept, so that it can be refilled without
+   * allocation.
+   */
+  public void clear() {
+    size = 0;
+  }
+
+  /**
+   * Appends a pair to this buffer.
+   *
+   * @param left the left element
+   * @param right the right element
+   * @return this object
+   */
+  public PairOfIntsBuffer add(int left, int right) {
+    ensureCapacity(size + 1);
+    array[size++] = pack(left, right);
+    return this;
+  }
+
+  /**
+   * Appends a pair to this buffer.
+   *
+   * @param pair the pair
+   * @return this object
+   */
+  public PairOfIntsBuffer add(PairOfInts pair) {
+    return add(pair.getLeftElement(), pair.getRightElement());
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+    }
+  }
+
+  /**
+   * Returns the left element of the pair at the specified position.
+   *
+   * @param index index of the pair
+   * @return the left element of the pair
+   */
+  public int getLeftElement(int index) {
+    checkIndex(index);
+    return (int) (array[index] >> 32);
+  }
+
+  /**
+   * Returns the right element of the pair at the specified position.
+   *
+   * @param index index of the pair
+   * @return the right element of the pair
+   */
+  public int getRightElement(int index) {
+    checkIndex(index);
+    return (int) array[index] ^ 0x80000000;
+  }
+
+  /**
+   * Sets a pair object to the pair at the specified position.
+   *
+   * @param index index of the pair
+   * @param pair the pair object to set
+   * @return the pair object
+   */
+  public PairOfInts get(int index, PairOfInts pair) {
+    pair.set(getLeftElement(index), getRightElement(index));
+    return pair;
+  }
+
+  /**
+   * Sorts the pairs in this buffer in their natural order: first by the left element, and then by
+   * the right element.
+   */
+  public void sort() {
+    RadixSort.sort(array, 0, size);
+  }
+
+  /**
+   * Returns the end of the group of pairs that starts at the specified position, i.e., the
+   * position of the first following pair with a different left element, or the size of this
+   * buffer if there is none. Pairs must be grouped by left element, e.g., by {@link #sort()}.
+   *
+   * @param from position of the first pair of the group
+   * @return position following the last pair of the group
+   */
+  public int groupEnd(int from) {
+    checkIndex(from);
+    int left = (int) (array[from] >> 32);
+    int i = from + 1;
+    while (i < size && (int) (array[i] >> 32) == left) {
+      i++;
+    }
+    return i;
+  }
+
+  /**
+   * Appends the keys of a SequenceFile, which must be <code>PairOfInts</code>s, to this buffer.
+   * Values are skipped.
+   *
+   * @param reader reader for the SequenceFile
+   * @return number of pairs read
+   * @throws IOException if an I/O error occurs
+   */
+  public int addAll(SequenceFile.Reader reader) throws IOException {
+    PairOfInts pair = new PairOfInts();
+    int n = 0;
+    while (reader.next(pair)) {
+      add(pair);
+      n++;
+    }
+    return n;
+  }
+
+  /**
+   * Appends the pairs in this buffer to a SequenceFile, as <code>PairOfInts</code> keys, each
+   * with the same value.
+   *
+   * @param writer writer for the SequenceFile
+   * @param value the value of every pair, e.g., <code>NullWritable.get()</code>
+   * @throws IOException if an I/O error occurs
+   */
+  public void write(SequenceFile.Writer writer, Writable value) throws IOException {
+    PairOfInts pair = new PairOfInts();
+    for (int i = 0; i < size; i++) {
+      writer.append(get(i, pair), value);
+    }
+  }
+
+  /**
+   * Deserializes this buffer.
+   *
+   * @param in source for raw byte representation
+   */
+  public void readFields(DataInput in) throws IOException {
+    size = 0;
+    int n = in.readInt();
+    ensureCapacity(n);
+    PrimitiveArrayIO.readLongs(in, array, 0, n);
+    size = n;
+  }
+
+  /**
+   * Serializes this buffer.
+   *
+   * @param out where to write the raw byte representation
+   */
+  public void write(DataOutput out) throws IOException {
+    out.writeInt(size);
+    PrimitiveArrayIO.writeLongs(out, array, 0, size);
+  }
+}
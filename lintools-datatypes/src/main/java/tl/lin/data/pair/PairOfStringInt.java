@@ -24,6 +24,9 @@ import org.apache.hadoop.io.Text;
 import org.apache.hadoop.io.WritableComparable;
 import org.apache.hadoop.io.WritableComparator;
 import org.apache.hadoop.io.WritableUtils;
+import org.apache.hadoop.mapreduce.Partitioner;
+
+import tl.lin.data.util.MurmurHash;
 
 /**
  * WritableComparable representing a pair consisting of a String and an int. The elements in the
@@ -118,6 +121,28 @@ public class PairOfStringInt implements WritableComparable<PairOfStringInt> {
     rightElement = right;
   }
 
+  /**
+   * Appends this pair to a key in an order-preserving encoding, so that keys holding pairs sort as
+   * the pairs do.
+   *
+   * @param key the key
+   * @return the key
+   */
+  public TupleKey appendTo(TupleKey key) {
+    return key.appendString(leftElement).appendInt(rightElement);
+  }
+
+  /**
+   * Sets this pair to the next two components of a key, which must have been appended with
+   * {@link #appendTo(TupleKey)}.
+   *
+   * @param key the key
+   */
+  public void readFrom(TupleKey key) {
+    leftElement = key.nextString();
+    rightElement = key.nextInt();
+  }
+
   /**
    * Checks two pairs for equality.
    *
@@ -157,7 +182,7 @@ public class PairOfStringInt implements WritableComparable<PairOfStringInt> {
    * @return hash code for the pair
    */
   public int hashCode() {
-    return leftElement.hashCode() + rightElement;
+    return MurmurHash.hash32(MurmurHash.hash64(leftElement), rightElement);
   }
 
   /**
@@ -212,6 +237,64 @@ public class PairOfStringInt implements WritableComparable<PairOfStringInt> {
     }
   }
 
+  /**
+   * Partitioner that assigns pairs to partitions by their left element only, with a well-mixed
+   * hash, so that all pairs with the same left element go to the same reducer. Use with
+   * {@link LeftElementComparator} for secondary sort.
+   *
+   * @param <V> type of values
+   */
+  public static class LeftElementPartitioner<V> extends Partitioner<PairOfStringInt, V> {
+
+    /**
+     * Returns the partition of a pair.
+     */
+    public int getPartition(PairOfStringInt key, V value, int numPartitions) {
+      int hash = MurmurHash.hash32(key.getLeftElement());
+      return (hash & Integer.MAX_VALUE) % numPartitions;
+    }
+  }
+
+  /**
+   * Grouping comparator that compares pairs by their left element only, so that a reducer receives
+   * all pairs with the same left element in a single call, sorted by their right element.
+   */
+  public static class LeftElementComparator extends WritableComparator {
+
+    /**
+     * Creates a new grouping comparator for <code>PairOfStringInt</code>.
+     */
+    public LeftElementComparator() {
+      super(PairOfStringInt.class);
+    }
+
+    /**
+     * Compares the left elements of two serialized pairs.
+     */
+    public int compare(byte[] b1, int s1, int l1, byte[] b2, int s2, int l2) {
+      try {
+        int firstVIntL1 = WritableUtils.decodeVIntSize(b1[s1]);
+        int firstVIntL2 = WritableUtils.decodeVIntSize(b2[s2]);
+        int firstStrL1 = readVInt(b1, s1);
+        int firstStrL2 = readVInt(b2, s2);
+        return compareBytes(b1, s1 + firstVIntL1, firstStrL1, b2, s2 + firstVIntL2, firstStrL2);
+      } catch (IOException e) {
+        throw new IllegalArgumentException(e);
+      }
+    }
+
+    /**
+     * Compares the left elements of two pairs.
+     */
+    @SuppressWarnings("rawtypes")
+    public int compare(WritableComparable a, WritableComparable b) {
+      String thisLeftValue = ((PairOfStringInt) a).getLeftElement();
+      String thatLeftValue = ((PairOfStringInt) b).getLeftElement();
+
+      return thisLeftValue.compareTo(thatLeftValue);
+    }
+  }
+
   static { // register this comparator
     WritableComparator.define(PairOfStringInt.class, new Comparator());
   }
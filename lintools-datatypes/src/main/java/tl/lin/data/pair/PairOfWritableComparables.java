@@ -0,0 +1,296 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.pair;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.apache.hadoop.io.WritableComparable;
+import org.apache.hadoop.io.WritableComparator;
+import org.apache.hadoop.io.WritableUtils;
+import org.apache.hadoop.mapreduce.Partitioner;
+
+import tl.lin.data.util.MurmurHash;
+
+/**
+ * <p>
+ * Pair of <code>WritableComparable</code>s that is itself a <code>WritableComparable</code>,
+ * sorted by its left element and then by its right element. Unlike {@link PairOfWritables}, the
+ * types of the elements are not serialized: they are fixed by a subclass, which supplies fresh
+ * elements in its no-argument constructor and registers a {@link Comparator} for the pair, e.g.:
+ * </p>
+ *
+ * <pre>
+ * public class TermDocPair extends PairOfWritableComparables&lt;Text, IntWritable&gt; {
+ *   public TermDocPair() {
+ *     super(new Text(), new IntWritable());
+ *   }
+ *
+ *   static {
+ *     WritableComparator.define(TermDocPair.class,
+ *         new Comparator(TermDocPair.class, Text.class, IntWritable.class));
+ *   }
+ * }
+ * </pre>
+ *
+ * <p>
+ * The left element is serialized with its length as a prefix, so that the raw comparator can
+ * delegate to the raw comparators registered for the element types, and sort pairs without
+ * deserializing them.
+ * </p>
+ *
+ * <p>
+ * For secondary sort, {@link LeftElementPartitioner} can be used as is. Since Hadoop instantiates
+ * grouping comparators through their no-argument constructors, {@link LeftElementComparator} is
+ * subclassed once per pair type, e.g., as a nested class of the pair:
+ * </p>
+ *
+ * <pre>
+ * public static class Grouping extends LeftElementComparator {
+ *   public Grouping() {
+ *     super(TermDocPair.class, Text.class);
+ *   }
+ * }
+ * </pre>
+ */
+@SuppressWarnings("rawtypes")
+public class PairOfWritableComparables<L extends WritableComparable, R extends WritableComparable>
+    implements WritableComparable<PairOfWritableComparables<L, R>> {
+  private final L leftElement;
+  private final R rightElement;
+  private DataOutputBuffer buffer;
+
+  /**
+   * Creates a pair. Elements are deserialized into, and therefore owned by, this pair.
+   *
+   * @param left the left element
+   * @param right the right element
+   */
+  public PairOfWritableComparables(L left, R right) {
+    if (left == null || right == null) {
+      throw new IllegalArgumentException("Elements must not be null!");
+    }
+    leftElement = left;
+    rightElement = right;
+  }
+
+  /**
+   * Deserializes this pair, reusing its elements.
+   *
+   * @param in source for raw byte representation
+   */
+  public void readFields(DataInput in) throws IOException {
+    // Length of the left element, which only the raw comparator needs.
+    WritableUtils.readVInt(in);
+    leftElement.readFields(in);
+    rightElement.readFields(in);
+  }
+
+  /**
+   * Serializes this pair.
+   *
+   * @param out where to write the raw byte representation
+   */
+  public void write(DataOutput out) throws IOException {
+    if (buffer == null) {
+      buffer = new DataOutputBuffer();
+    }
+    buffer.reset();
+    leftElement.write(buffer);
+    WritableUtils.writeVInt(out, buffer.getLength());
+    out.write(buffer.getData(), 0, buffer.getLength());
+    rightElement.write(out);
+  }
+
+  /**
+   * Returns the left element.
+   *
+   * @return the left element
+   */
+  public L getLeftElement() {
+    return leftElement;
+  }
+
+  /**
+   * Returns the right element.
+   *
+   * @return the right element
+   */
+  public R getRightElement() {
+    return rightElement;
+  }
+
+  /**
+   * Checks two pairs for equality.
+   *
+   * @param obj object for comparison
+   * @return <code>true</code> if <code>obj</code> is equal to this object, <code>false</code>
+   *         otherwise
+   */
+  @Override
+  public boolean equals(Object obj) {
+    if (!(obj instanceof PairOfWritableComparables)) {
+      return false;
+    }
+    PairOfWritableComparables pair = (PairOfWritableComparables) obj;
+    return leftElement.equals(pair.leftElement) && rightElement.equals(pair.rightElement);
+  }
+
+  /**
+   * Defines a natural sort order for pairs: by left element, and then by right element.
+   *
+   * @return a value less than zero, a value greater than zero, or zero if this pair should be
+   *         sorted before, sorted after, or is equal to <code>obj</code>.
+   */
+  @SuppressWarnings("unchecked")
+  public int compareTo(PairOfWritableComparables<L, R> pair) {
+    int cmp = leftElement.compareTo(pair.leftElement);
+    if (cmp != 0) {
+      return cmp;
+    }
+    return rightElement.compareTo(pair.rightElement);
+  }
+
+  /**
+   * Returns a hash code value for the pair.
+   *
+   * @return hash code for the pair
+   */
+  @Override
+  public int hashCode() {
+    return MurmurHash.hash32(leftElement.hashCode(), rightElement.hashCode());
+  }
+
+  /**
+   * Generates human-readable String representation of this pair.
+   *
+   * @return human-readable String representation of this pair
+   */
+  @Override
+  public String toString() {
+    return "(" + leftElement + ", " + rightElement + ")";
+  }
+
+  /**
+   * Comparator optimized for a subclass of <code>PairOfWritableComparables</code>, which compares
+   * serialized elements with the comparators registered for their types.
+   */
+  public static class Comparator extends WritableComparator {
+    private final WritableComparator leftComparator;
+    private final WritableComparator rightComparator;
+
+    /**
+     * Creates a new Comparator.
+     *
+     * @param pairClass the subclass of <code>PairOfWritableComparables</code> to compare
+     * @param leftClass type of the left elements
+     * @param rightClass type of the right elements
+     */
+    public Comparator(Class<? extends PairOfWritableComparables> pairClass,
+        Class<? extends WritableComparable> leftClass,
+        Class<? extends WritableComparable> rightClass) {
+      super(pairClass);
+      leftComparator = WritableComparator.get(leftClass);
+      rightComparator = WritableComparator.get(rightClass);
+    }
+
+    /**
+     * Optimization hook.
+     */
+    public int compare(byte[] b1, int s1, int l1, byte[] b2, int s2, int l2) {
+      try {
+        int n1 = WritableUtils.decodeVIntSize(b1[s1]);
+        int n2 = WritableUtils.decodeVIntSize(b2[s2]);
+        int leftL1 = readVInt(b1, s1);
+        int leftL2 = readVInt(b2, s2);
+        int cmp = leftComparator.compare(b1, s1 + n1, leftL1, b2, s2 + n2, leftL2);
+        if (cmp != 0) {
+          return cmp;
+        }
+
+        return rightComparator.compare(b1, s1 + n1 + leftL1, l1 - n1 - leftL1,
+            b2, s2 + n2 + leftL2, l2 - n2 - leftL2);
+      } catch (IOException e) {
+        throw new IllegalArgumentException(e);
+      }
+    }
+  }
+
+  /**
+   * Partitioner that assigns pairs to partitions by their left element only, with a well-mixed
+   * hash, so that all pairs with the same left element go to the same reducer. Use with a
+   * {@link LeftElementComparator} for secondary sort.
+   *
+   * @param <V> type of values
+   */
+  public static class LeftElementPartitioner<V> extends Partitioner<PairOfWritableComparables, V> {
+
+    /**
+     * Returns the partition of a pair.
+     */
+    public int getPartition(PairOfWritableComparables key, V value, int numPartitions) {
+      int hash = MurmurHash.hash32(key.getLeftElement().hashCode());
+      return (hash & Integer.MAX_VALUE) % numPartitions;
+    }
+  }
+
+  /**
+   * Grouping comparator that compares pairs by their left element only, with the comparator
+   * registered for the type of the left elements, so that a reducer receives all pairs with the
+   * same left element in a single call, sorted by their right element. Subclasses supply the types
+   * in a no-argument constructor.
+   */
+  public static class LeftElementComparator extends WritableComparator {
+    private final WritableComparator leftComparator;
+
+    /**
+     * Creates a new grouping comparator.
+     *
+     * @param pairClass the subclass of <code>PairOfWritableComparables</code> to compare
+     * @param leftClass type of the left elements
+     */
+    public LeftElementComparator(Class<? extends PairOfWritableComparables> pairClass,
+        Class<? extends WritableComparable> leftClass) {
+      super(pairClass);
+      leftComparator = WritableComparator.get(leftClass);
+    }
+
+    /**
+     * Compares the left elements of two serialized pairs.
+     */
+    public int compare(byte[] b1, int s1, int l1, byte[] b2, int s2, int l2) {
+      try {
+        int n1 = WritableUtils.decodeVIntSize(b1[s1]);
+        int n2 = WritableUtils.decodeVIntSize(b2[s2]);
+        return leftComparator.compare(b1, s1 + n1, readVInt(b1, s1), b2, s2 + n2,
+            readVInt(b2, s2));
+      } catch (IOException e) {
+        throw new IllegalArgumentException(e);
+      }
+    }
+
+    /**
+     * Compares the left elements of two pairs.
+     */
+    public int compare(WritableComparable a, WritableComparable b) {
+      return leftComparator.compare(((PairOfWritableComparables) a).getLeftElement(),
+          ((PairOfWritableComparables) b).getLeftElement());
+    }
+  }
+}
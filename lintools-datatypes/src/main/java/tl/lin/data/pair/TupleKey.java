@@ -0,0 +1,328 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.pair;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.hadoop.io.WritableComparable;
+import org.apache.hadoop.io.WritableComparator;
+import org.apache.hadoop.io.WritableUtils;
+
+import tl.lin.data.util.MurmurHash;
+import tl.lin.data.util.OrderedBytes;
+
+/**
+ * <p>
+ * Composite key holding a sequence of ints, longs, floats, doubles and strings in the
+ * order-preserving encoding of {@link OrderedBytes}. Keys sort lexicographically by their
+ * components, i.e., as the corresponding pairs would, but comparing two keys, serialized or not,
+ * is a single unsigned byte comparison that never parses fields. Pairs can be appended to a key
+ * with their <code>appendTo</code> methods, and read back with <code>readFrom</code>.
+ * </p>
+ *
+ * <p>
+ * Components are appended with the <code>append</code> methods, and read back, in the same order
+ * and with the same types, with the <code>next</code> methods; the encoding is not
+ * self-describing. A key is serialized as its length, as a variable-length int, followed by its
+ * bytes.
+ * </p>
+ */
+public class TupleKey implements WritableComparable<TupleKey> {
+  private static final int INITIAL_CAPACITY = 16;
+
+  private byte[] bytes;
+  private int length;
+  private int position;
+
+  /**
+   * Creates an empty key.
+   */
+  public TupleKey() {
+    bytes = new byte[INITIAL_CAPACITY];
+  }
+
+  /**
+   * Removes all components.
+   *
+   * @return this key
+   */
+  public TupleKey clear() {
+    length = 0;
+    position = 0;
+    return this;
+  }
+
+  /**
+   * Moves back to the first component, so that the components can be read again.
+   *
+   * @return this key
+   */
+  public TupleKey rewind() {
+    position = 0;
+    return this;
+  }
+
+  private void ensureCapacity(int n) {
+    if (length + n > bytes.length) {
+      bytes = Arrays.copyOf(bytes, Math.max(length + n, bytes.length * 3 / 2 + 1));
+    }
+  }
+
+  /**
+   * Appends an int.
+   *
+   * @return this key
+   */
+  public TupleKey appendInt(int v) {
+    ensureCapacity(4);
+    length = OrderedBytes.writeInt(bytes, length, v);
+    return this;
+  }
+
+  /**
+   * Appends a long.
+   *
+   * @return this key
+   */
+  public TupleKey appendLong(long v) {
+    ensureCapacity(8);
+    length = OrderedBytes.writeLong(bytes, length, v);
+    return this;
+  }
+
+  /**
+   * Appends a float. Note that <code>-0.0f</code> reads back as <code>0.0f</code>.
+   *
+   * @return this key
+   */
+  public TupleKey appendFloat(float v) {
+    ensureCapacity(4);
+    length = OrderedBytes.writeFloat(bytes, length, v);
+    return this;
+  }
+
+  /**
+   * Appends a double. Note that <code>-0.0</code> reads back as <code>0.0</code>.
+   *
+   * @return this key
+   */
+  public TupleKey appendDouble(double v) {
+    ensureCapacity(8);
+    length = OrderedBytes.writeDouble(bytes, length, v);
+    return this;
+  }
+
+  /**
+   * Appends a string.
+   *
+   * @return this key
+   */
+  public TupleKey appendString(CharSequence v) {
+    ensureCapacity(OrderedBytes.maxEncodedLength(v));
+    length = OrderedBytes.writeString(bytes, length, v);
+    return this;
+  }
+
+  private void checkRemaining(int n) {
+    if (position + n > length) {
+      throw new IllegalStateException("No more components!");
+    }
+  }
+
+  /**
+   * Reads the next component, which must be an int.
+   */
+  public int nextInt() {
+    checkRemaining(4);
+    int v = OrderedBytes.readInt(bytes, position);
+    position += 4;
+    return v;
+  }
+
+  /**
+   * Reads the next component, which must be a long.
+   */
+  public long nextLong() {
+    checkRemaining(8);
+    long v = OrderedBytes.readLong(bytes, position);
+    position += 8;
+    return v;
+  }
+
+  /**
+   * Reads the next component, which must be a float.
+   */
+  public float nextFloat() {
+    checkRemaining(4);
+    float v = OrderedBytes.readFloat(bytes, position);
+    position += 4;
+    return v;
+  }
+
+  /**
+   * Reads the next component, which must be a double.
+   */
+  public double nextDouble() {
+    checkRemaining(8);
+    double v = OrderedBytes.readDouble(bytes, position);
+    position += 8;
+    return v;
+  }
+
+  /**
+   * Reads the next component, which must be a string.
+   */
+  public String nextString() {
+    checkRemaining(2);
+    StringBuilder sb = new StringBuilder();
+    position = OrderedBytes.readString(bytes, position, sb);
+    return sb.toString();
+  }
+
+  /**
+   * Returns <code>true</code> if there are components left to read.
+   */
+  public boolean hasNext() {
+    return position < length;
+  }
+
+  /**
+   * Returns the backing array, which holds the encoded components in its first
+   * {@link #getLength()} bytes.
+   */
+  public byte[] getBytes() {
+    return bytes;
+  }
+
+  /**
+   * Returns the length of the encoded components.
+   */
+  public int getLength() {
+    return length;
+  }
+
+  /**
+   * Returns the first eight bytes of this key as a normalized key, see
+   * {@link OrderedBytes#prefix(byte[], int, int)}.
+   */
+  public long getPrefix() {
+    return OrderedBytes.prefix(bytes, 0, length);
+  }
+
+  /**
+   * Deserializes this key.
+   *
+   * @param in source for raw byte representation
+   */
+  public void readFields(DataInput in) throws IOException {
+    int n = WritableUtils.readVInt(in);
+    length = 0;
+    position = 0;
+    ensureCapacity(n);
+    in.readFully(bytes, 0, n);
+    length = n;
+  }
+
+  /**
+   * Serializes this key.
+   *
+   * @param out where to write the raw byte representation
+   */
+  public void write(DataOutput out) throws IOException {
+    WritableUtils.writeVInt(out, length);
+    out.write(bytes, 0, length);
+  }
+
+  /**
+   * Checks two keys for equality.
+   *
+   * @param obj object for comparison
+   * @return <code>true</code> if <code>obj</code> is equal to this object, <code>false</code>
+   *         otherwise
+   */
+  @Override
+  public boolean equals(Object obj) {
+    if (!(obj instanceof TupleKey)) {
+      return false;
+    }
+    return compareTo((TupleKey) obj) == 0;
+  }
+
+  /**
+   * Defines a natural sort order for keys: lexicographically by components.
+   *
+   * @return a value less than zero, a value greater than zero, or zero if this key should be
+   *         sorted before, sorted after, or is equal to <code>obj</code>.
+   */
+  public int compareTo(TupleKey key) {
+    return WritableComparator.compareBytes(bytes, 0, length, key.bytes, 0, key.length);
+  }
+
+  /**
+   * Returns a hash code value for the key.
+   *
+   * @return hash code for the key
+   */
+  @Override
+  public int hashCode() {
+    return MurmurHash.hash32(bytes, 0, length);
+  }
+
+  /**
+   * Generates a String representation of the encoded components of this key, in hex.
+   *
+   * @return hex String representation of this key
+   */
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < length; i++) {
+      sb.append(Character.forDigit((bytes[i] >> 4) & 0xf, 16));
+      sb.append(Character.forDigit(bytes[i] & 0xf, 16));
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Comparator optimized for <code>TupleKey</code>.
+   */
+  public static class Comparator extends WritableComparator {
+
+    /**
+     * Creates a new Comparator optimized for <code>TupleKey</code>.
+     */
+    public Comparator() {
+      super(TupleKey.class);
+    }
+
+    /**
+     * Optimization hook.
+     */
+    public int compare(byte[] b1, int s1, int l1, byte[] b2, int s2, int l2) {
+      int n1 = WritableUtils.decodeVIntSize(b1[s1]);
+      int n2 = WritableUtils.decodeVIntSize(b2[s2]);
+      return compareBytes(b1, s1 + n1, l1 - n1, b2, s2 + n2, l2 - n2);
+    }
+  }
+
+  static { // register this comparator
+    WritableComparator.define(TupleKey.class, new Comparator());
+  }
+}
@@ -0,0 +1,167 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.queue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import tl.lin.data.pair.PairOfIntFloat;
+
+/**
+ * <p>
+ * Thread-safe version of {@link TopScoredInts}, for scoring candidates with several threads, e.g.,
+ * a thread pool scoring the documents of a query. Each thread adds to a heap of its own, so
+ * threads do not contend with each other; the heaps are merged only when the elements are read.
+ * </p>
+ *
+ * <p>
+ * Threads also share an admission threshold: once a thread's heap is full, its lowest score is a
+ * lower bound on the score of the <i>n</i>-th element overall, so candidates scoring below the
+ * highest such bound are skipped by all threads with a single comparison, without touching their
+ * heaps. As with {@link TopScoredInts}, ties on scores are broken in favor of larger ints.
+ * </p>
+ *
+ * <p>
+ * Elements can be read at any time, including while other threads add elements, in which case
+ * each thread's additions are seen up to some point.
+ * </p>
+ */
+public class ConcurrentTopScoredInts {
+  private final int maxElements;
+  private final List<TopScoredInts> heaps = new CopyOnWriteArrayList<TopScoredInts>();
+  private final ThreadLocal<TopScoredInts> localHeap = new ThreadLocal<TopScoredInts>() {
+    @Override
+    protected TopScoredInts initialValue() {
+      TopScoredInts heap = new TopScoredInts(maxElements);
+      heaps.add(heap);
+      return heap;
+    }
+  };
+
+  // Lowest score of some full heap. Updates are not atomic, so a thread may overwrite a higher
+  // threshold with a lower one, but any value written is a valid bound.
+  private volatile float threshold = Float.NEGATIVE_INFINITY;
+
+  /**
+   * Creates an object that keeps the top <i>n</i> ints.
+   *
+   * @param n number of ints to keep
+   */
+  public ConcurrentTopScoredInts(int n) {
+    if (n < 0) {
+      throw new IllegalArgumentException("Number of elements must not be negative!");
+    }
+    maxElements = n;
+  }
+
+  /**
+   * Adds an int with a score. It is kept only if it is among the top <i>n</i> so far. This method
+   * can be called by several threads at once.
+   *
+   * @param n the int
+   * @param f its score
+   */
+  public void add(int n, float f) {
+    if (f < threshold) {
+      return;
+    }
+
+    TopScoredInts heap = localHeap.get();
+    // Only readers contend for this lock.
+    synchronized (heap) {
+      heap.add(n, f);
+      if (heap.size() == maxElements && maxElements > 0) {
+        float min = heap.getScore(0);
+        if (min > threshold) {
+          threshold = min;
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the maximum number of elements kept.
+   */
+  public int getMaxElements() {
+    return maxElements;
+  }
+
+  /**
+   * Returns the current admission threshold: candidates scoring below it are skipped.
+   */
+  public float getThreshold() {
+    return threshold;
+  }
+
+  /**
+   * Removes all elements. Elements added concurrently may or may not be kept.
+   */
+  public void clear() {
+    for (TopScoredInts heap : heaps) {
+      synchronized (heap) {
+        heap.clear();
+      }
+    }
+    // Reset the threshold last: a bound written by a thread before its heap was cleared has been
+    // written by then, since it is written while holding the lock.
+    threshold = Float.NEGATIVE_INFINITY;
+  }
+
+  /**
+   * Merges the heaps of all threads into a single object.
+   *
+   * @return the top <i>n</i> ints added so far
+   */
+  public TopScoredInts toTopScoredInts() {
+    TopScoredInts result = new TopScoredInts(maxElements);
+    for (TopScoredInts heap : heaps) {
+      synchronized (heap) {
+        result.merge(heap);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the number of elements kept.
+   */
+  public int size() {
+    return toTopScoredInts().size();
+  }
+
+  /**
+   * Copies the elements kept, in descending order of score, into two arrays, which must be at
+   * least {@link #getMaxElements()} long.
+   *
+   * @param outIds array for the ints
+   * @param outScores array for the scores
+   * @return the number of elements copied
+   */
+  public int copyTo(int[] outIds, float[] outScores) {
+    if (outIds.length < maxElements || outScores.length < maxElements) {
+      throw new IllegalArgumentException("Arrays are too short!");
+    }
+    return toTopScoredInts().copyTo(outIds, outScores);
+  }
+
+  /**
+   * Returns the elements kept, in descending order of score.
+   */
+  public PairOfIntFloat[] extractAll() {
+    return toTopScoredInts().extractAll();
+  }
+}
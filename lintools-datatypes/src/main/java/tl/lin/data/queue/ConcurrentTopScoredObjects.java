@@ -0,0 +1,138 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.queue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import tl.lin.data.pair.PairOfObjectFloat;
+
+/**
+ * <p>
+ * Thread-safe version of {@link TopScoredObjects}. As in {@link ConcurrentTopScoredInts}, each
+ * thread adds to a heap of its own, the heaps are merged only when the elements are read, and
+ * threads share an admission threshold, so that candidates that can no longer be among the top
+ * <i>n</i> are skipped with a single comparison.
+ * </p>
+ */
+public class ConcurrentTopScoredObjects<K extends Comparable<K>> {
+  private final int maxElements;
+  private final List<TopScoredObjects<K>> heaps = new CopyOnWriteArrayList<TopScoredObjects<K>>();
+  private final ThreadLocal<TopScoredObjects<K>> localHeap =
+      new ThreadLocal<TopScoredObjects<K>>() {
+        @Override
+        protected TopScoredObjects<K> initialValue() {
+          TopScoredObjects<K> heap = new TopScoredObjects<K>(maxElements);
+          heaps.add(heap);
+          return heap;
+        }
+      };
+
+  // Lowest score of some full heap, see ConcurrentTopScoredInts.
+  private volatile float threshold = Float.NEGATIVE_INFINITY;
+
+  /**
+   * Creates an object that keeps the top <i>n</i> objects.
+   *
+   * @param n number of objects to keep
+   */
+  public ConcurrentTopScoredObjects(int n) {
+    if (n < 0) {
+      throw new IllegalArgumentException("Number of elements must not be negative!");
+    }
+    maxElements = n;
+  }
+
+  /**
+   * Adds an object with a score. It is kept only if it is among the top <i>n</i> so far. This
+   * method can be called by several threads at once.
+   *
+   * @param obj the object
+   * @param f its score
+   */
+  public void add(K obj, float f) {
+    if (f < threshold) {
+      return;
+    }
+
+    TopScoredObjects<K> heap = localHeap.get();
+    synchronized (heap) {
+      heap.add(obj, f);
+      if (heap.size() == maxElements && maxElements > 0) {
+        float min = heap.getScore(0);
+        if (min > threshold) {
+          threshold = min;
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the maximum number of elements kept.
+   */
+  public int getMaxElements() {
+    return maxElements;
+  }
+
+  /**
+   * Returns the current admission threshold: candidates scoring below it are skipped.
+   */
+  public float getThreshold() {
+    return threshold;
+  }
+
+  /**
+   * Removes all elements. Elements added concurrently may or may not be kept.
+   */
+  public void clear() {
+    for (TopScoredObjects<K> heap : heaps) {
+      synchronized (heap) {
+        heap.clear();
+      }
+    }
+    threshold = Float.NEGATIVE_INFINITY;
+  }
+
+  /**
+   * Merges the heaps of all threads into a single object.
+   *
+   * @return the top <i>n</i> objects added so far
+   */
+  public TopScoredObjects<K> toTopScoredObjects() {
+    TopScoredObjects<K> result = new TopScoredObjects<K>(maxElements);
+    for (TopScoredObjects<K> heap : heaps) {
+      synchronized (heap) {
+        result.merge(heap);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the number of elements kept.
+   */
+  public int size() {
+    return toTopScoredObjects().size();
+  }
+
+  /**
+   * Returns the elements kept, in descending order of score.
+   */
+  public PairOfObjectFloat<K>[] extractAll() {
+    return toTopScoredObjects().extractAll();
+  }
+}
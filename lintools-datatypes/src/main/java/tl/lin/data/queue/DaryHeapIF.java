@@ -0,0 +1,319 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.queue;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>
+ * Indexed <i>d</i>-ary min-heap of int ids with float priorities, for algorithms that lower the
+ * priorities of queued elements, e.g., Dijkstra's shortest paths. Ids range from zero to the
+ * capacity of the heap (exclusive), e.g., the nodes of a graph, and each id is queued at most
+ * once.
+ * </p>
+ *
+ * <p>
+ * The heap is stored in primitive arrays: ids and priorities in heap order, and the position of
+ * each id in the heap, so that finding an element to lower its priority takes constant time.
+ * Adding an element, lowering its priority and removing the minimum take <i>O</i>(log <i>n</i>)
+ * time, and never allocate. A larger arity makes the heap shallower, which speeds up adding
+ * elements and lowering priorities, at the cost of more comparisons when removing the minimum;
+ * the default of four children per node also keeps siblings on the same cache line.
+ * </p>
+ *
+ * <p>
+ * See also {@link PairingHeapIF}. This class is not thread-safe.
+ * </p>
+ */
+public class DaryHeapIF {
+  private static final int DEFAULT_ARITY = 4;
+
+  private final int arity;
+  private final int[] ids;
+  private final float[] priorities;
+  // Position of each id in the heap, or -1 if it is not in the heap.
+  private final int[] positions;
+  private int size;
+
+  /**
+   * Creates a heap for ids from zero to the specified capacity (exclusive), with four children per
+   * node.
+   *
+   * @param capacity number of ids
+   */
+  public DaryHeapIF(int capacity) {
+    this(capacity, DEFAULT_ARITY);
+  }
+
+  /**
+   * Creates a heap for ids from zero to the specified capacity (exclusive).
+   *
+   * @param capacity number of ids
+   * @param arity number of children per node
+   */
+  public DaryHeapIF(int capacity, int arity) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("Capacity must not be negative!");
+    }
+    if (arity < 2) {
+      throw new IllegalArgumentException("Arity must be at least 2!");
+    }
+    this.arity = arity;
+    ids = new int[capacity];
+    priorities = new float[capacity];
+    positions = new int[capacity];
+    Arrays.fill(positions, -1);
+  }
+
+  /**
+   * Returns the number of ids, i.e., the largest id plus one.
+   */
+  public int getCapacity() {
+    return positions.length;
+  }
+
+  /**
+   * Returns the number of children per node.
+   */
+  public int getArity() {
+    return arity;
+  }
+
+  /**
+   * Returns the number of elements in this heap.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns <tt>true</tt> if this heap contains no elements.
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Returns <tt>true</tt> if this heap contains the specified id.
+   *
+   * @param id the id
+   */
+  public boolean contains(int id) {
+    checkId(id);
+    return positions[id] >= 0;
+  }
+
+  /**
+   * Returns the priority of an id in this heap.
+   *
+   * @param id the id
+   */
+  public float getPriority(int id) {
+    return priorities[position(id)];
+  }
+
+  /**
+   * Adds an id with a priority.
+   *
+   * @param id the id, which must not be in this heap
+   * @param priority its priority
+   */
+  public void add(int id, float priority) {
+    checkId(id);
+    checkPriority(priority);
+    if (positions[id] >= 0) {
+      throw new IllegalArgumentException("Id " + id + " is already in the heap!");
+    }
+    siftUp(size++, id, priority);
+  }
+
+  /**
+   * Lowers the priority of an id in this heap.
+   *
+   * @param id the id
+   * @param priority its new priority, which must not be higher than the current one
+   */
+  public void decreasePriority(int id, float priority) {
+    int i = position(id);
+    checkPriority(priority);
+    if (priority > priorities[i]) {
+      throw new IllegalArgumentException("Priority of id " + id + " must not increase!");
+    }
+    siftUp(i, id, priority);
+  }
+
+  /**
+   * Adds an id with a priority, or lowers its priority if it is already in this heap with a
+   * higher one, e.g., to relax an edge in Dijkstra's algorithm.
+   *
+   * @param id the id
+   * @param priority its priority
+   * @return <tt>true</tt> if the id was added or its priority lowered
+   */
+  public boolean addOrDecrease(int id, float priority) {
+    checkId(id);
+    checkPriority(priority);
+    int i = positions[id];
+    if (i < 0) {
+      siftUp(size++, id, priority);
+      return true;
+    }
+    if (priority < priorities[i]) {
+      siftUp(i, id, priority);
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Returns the id with the lowest priority, without removing it.
+   */
+  public int peek() {
+    if (size == 0) {
+      throw new NoSuchElementException();
+    }
+    return ids[0];
+  }
+
+  /**
+   * Returns the lowest priority in this heap.
+   */
+  public float peekPriority() {
+    if (size == 0) {
+      throw new NoSuchElementException();
+    }
+    return priorities[0];
+  }
+
+  /**
+   * Removes the id with the lowest priority.
+   *
+   * @return the id removed
+   */
+  public int poll() {
+    int id = peek();
+    removeAt(0);
+    return id;
+  }
+
+  /**
+   * Removes an id from this heap.
+   *
+   * @param id the id
+   */
+  public void remove(int id) {
+    removeAt(position(id));
+  }
+
+  /**
+   * Removes all elements from this heap.
+   */
+  public void clear() {
+    for (int i = 0; i < size; i++) {
+      positions[ids[i]] = -1;
+    }
+    size = 0;
+  }
+
+  private void removeAt(int i) {
+    positions[ids[i]] = -1;
+    size--;
+    if (i == size) {
+      return;
+    }
+
+    // Fill the hole with the last element, which may have to move either way.
+    int id = ids[size];
+    float priority = priorities[size];
+    if (i > 0 && priority < priorities[(i - 1) / arity]) {
+      siftUp(i, id, priority);
+    } else {
+      siftDown(i, id, priority);
+    }
+  }
+
+  // Places an element at position i, moving it up as necessary.
+  private void siftUp(int i, int id, float priority) {
+    while (i > 0) {
+      int parent = (i - 1) / arity;
+      if (!(priority < priorities[parent])) {
+        break;
+      }
+      move(parent, i);
+      i = parent;
+    }
+    set(i, id, priority);
+  }
+
+  // Places an element at position i, moving it down as necessary.
+  private void siftDown(int i, int id, float priority) {
+    while (true) {
+      int first = arity * i + 1;
+      if (first >= size || first < 0) {
+        break;
+      }
+      int last = Math.min(first + arity, size);
+      int child = first;
+      for (int c = first + 1; c < last; c++) {
+        if (priorities[c] < priorities[child]) {
+          child = c;
+        }
+      }
+      if (!(priorities[child] < priority)) {
+        break;
+      }
+      move(child, i);
+      i = child;
+    }
+    set(i, id, priority);
+  }
+
+  private void move(int from, int to) {
+    ids[to] = ids[from];
+    priorities[to] = priorities[from];
+    positions[ids[to]] = to;
+  }
+
+  private void set(int i, int id, float priority) {
+    ids[i] = id;
+    priorities[i] = priority;
+    positions[id] = i;
+  }
+
+  private int position(int id) {
+    checkId(id);
+    int i = positions[id];
+    if (i < 0) {
+      throw new NoSuchElementException("Id " + id + " is not in the heap!");
+    }
+    return i;
+  }
+
+  private void checkId(int id) {
+    if (id < 0 || id >= positions.length) {
+      throw new IndexOutOfBoundsException("Index " + id + " out of bounds for size "
+          + positions.length);
+    }
+  }
+
+  private static void checkPriority(float priority) {
+    if (priority != priority) {
+      throw new IllegalArgumentException("Priority must not be NaN!");
+    }
+  }
+}
@@ -0,0 +1,337 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.queue;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>
+ * Indexed pairing heap of int ids with float priorities. It supports the same operations as
+ * {@link DaryHeapIF}: ids range from zero to the capacity of the heap (exclusive), and each id is
+ * queued at most once.
+ * </p>
+ *
+ * <p>
+ * Pairing heaps are self-adjusting: adding an element and lowering its priority take constant
+ * time, since they only link two trees, and removing the minimum takes <i>O</i>(log <i>n</i>)
+ * amortized time. This favors workloads with many more priority updates than removals. The trees
+ * are stored in primitive arrays indexed by id (first child, next sibling, and previous sibling
+ * or parent), instead of a node object per element as in a Fibonacci heap, so operations never
+ * allocate.
+ * </p>
+ *
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ */
+public class PairingHeapIF {
+  private static final int NIL = -1;
+  // Value of prev for ids that are not in the heap.
+  private static final int ABSENT = -2;
+
+  private final float[] priorities;
+  private final int[] child;
+  private final int[] sibling;
+  // Previous sibling, or parent for a first child, or NIL for the root.
+  private final int[] prev;
+  // Scratch space for merging the children of a removed node, and for clearing the heap.
+  private final int[] stack;
+  private int root = NIL;
+  private int size;
+
+  /**
+   * Creates a heap for ids from zero to the specified capacity (exclusive).
+   *
+   * @param capacity number of ids
+   */
+  public PairingHeapIF(int capacity) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("Capacity must not be negative!");
+    }
+    priorities = new float[capacity];
+    child = new int[capacity];
+    sibling = new int[capacity];
+    prev = new int[capacity];
+    stack = new int[capacity];
+    Arrays.fill(prev, ABSENT);
+  }
+
+  /**
+   * Returns the number of ids, i.e., the largest id plus one.
+   */
+  public int getCapacity() {
+    return prev.length;
+  }
+
+  /**
+   * Returns the number of elements in this heap.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns <tt>true</tt> if this heap contains no elements.
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Returns <tt>true</tt> if this heap contains the specified id.
+   *
+   * @param id the id
+   */
+  public boolean contains(int id) {
+    checkId(id);
+    return prev[id] != ABSENT;
+  }
+
+  /**
+   * Returns the priority of an id in this heap.
+   *
+   * @param id the id
+   */
+  public float getPriority(int id) {
+    checkPresent(id);
+    return priorities[id];
+  }
+
+  /**
+   * Adds an id with a priority.
+   *
+   * @param id the id, which must not be in this heap
+   * @param priority its priority
+   */
+  public void add(int id, float priority) {
+    checkId(id);
+    checkPriority(priority);
+    if (prev[id] != ABSENT) {
+      throw new IllegalArgumentException("Id " + id + " is already in the heap!");
+    }
+    insert(id, priority);
+  }
+
+  /**
+   * Lowers the priority of an id in this heap.
+   *
+   * @param id the id
+   * @param priority its new priority, which must not be higher than the current one
+   */
+  public void decreasePriority(int id, float priority) {
+    checkPresent(id);
+    checkPriority(priority);
+    if (priority > priorities[id]) {
+      throw new IllegalArgumentException("Priority of id " + id + " must not increase!");
+    }
+    decrease(id, priority);
+  }
+
+  /**
+   * Adds an id with a priority, or lowers its priority if it is already in this heap with a
+   * higher one, e.g., to relax an edge in Dijkstra's algorithm.
+   *
+   * @param id the id
+   * @param priority its priority
+   * @return <tt>true</tt> if the id was added or its priority lowered
+   */
+  public boolean addOrDecrease(int id, float priority) {
+    checkId(id);
+    checkPriority(priority);
+    if (prev[id] == ABSENT) {
+      insert(id, priority);
+      return true;
+    }
+    if (priority < priorities[id]) {
+      decrease(id, priority);
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Returns the id with the lowest priority, without removing it.
+   */
+  public int peek() {
+    if (size == 0) {
+      throw new NoSuchElementException();
+    }
+    return root;
+  }
+
+  /**
+   * Returns the lowest priority in this heap.
+   */
+  public float peekPriority() {
+    return priorities[peek()];
+  }
+
+  /**
+   * Removes the id with the lowest priority.
+   *
+   * @return the id removed
+   */
+  public int poll() {
+    int id = peek();
+    root = mergePairs(child[id]);
+    release(id);
+    return id;
+  }
+
+  /**
+   * Removes an id from this heap.
+   *
+   * @param id the id
+   */
+  public void remove(int id) {
+    checkPresent(id);
+    if (id == root) {
+      poll();
+      return;
+    }
+    cut(id);
+    int subtree = mergePairs(child[id]);
+    if (subtree != NIL) {
+      root = link(root, subtree);
+    }
+    release(id);
+  }
+
+  /**
+   * Removes all elements from this heap.
+   */
+  public void clear() {
+    // Visit the trees depth first, so that only the ids in the heap are touched.
+    int n = 0;
+    if (root != NIL) {
+      stack[n++] = root;
+    }
+    while (n > 0) {
+      int id = stack[--n];
+      for (int c = child[id]; c != NIL; c = sibling[c]) {
+        stack[n++] = c;
+      }
+      prev[id] = ABSENT;
+    }
+    root = NIL;
+    size = 0;
+  }
+
+  private void insert(int id, float priority) {
+    priorities[id] = priority;
+    child[id] = NIL;
+    sibling[id] = NIL;
+    prev[id] = NIL;
+    root = root == NIL ? id : link(root, id);
+    size++;
+  }
+
+  private void decrease(int id, float priority) {
+    priorities[id] = priority;
+    if (id != root) {
+      cut(id);
+      root = link(root, id);
+    }
+  }
+
+  private void release(int id) {
+    prev[id] = ABSENT;
+    size--;
+  }
+
+  // Links two trees, making the root with the higher priority the first child of the other one.
+  private int link(int a, int b) {
+    if (priorities[b] < priorities[a]) {
+      int t = a;
+      a = b;
+      b = t;
+    }
+    int c = child[a];
+    sibling[b] = c;
+    if (c != NIL) {
+      prev[c] = b;
+    }
+    prev[b] = a;
+    child[a] = b;
+    return a;
+  }
+
+  // Detaches the subtree rooted at an id from its parent and siblings.
+  private void cut(int id) {
+    int p = prev[id];
+    int s = sibling[id];
+    if (child[p] == id) {
+      child[p] = s;
+    } else {
+      sibling[p] = s;
+    }
+    if (s != NIL) {
+      prev[s] = p;
+    }
+    sibling[id] = NIL;
+    prev[id] = NIL;
+  }
+
+  // Merges a list of siblings into a single tree: links them in pairs from left to right, then
+  // links the results from right to left. Returns the root, or NIL if the list is empty.
+  private int mergePairs(int first) {
+    int n = 0;
+    int a = first;
+    while (a != NIL) {
+      int b = sibling[a];
+      if (b == NIL) {
+        stack[n++] = a;
+        break;
+      }
+      int next = sibling[b];
+      stack[n++] = link(a, b);
+      a = next;
+    }
+    if (n == 0) {
+      return NIL;
+    }
+
+    int r = stack[--n];
+    while (n > 0) {
+      r = link(stack[--n], r);
+    }
+    sibling[r] = NIL;
+    prev[r] = NIL;
+    return r;
+  }
+
+  private void checkPresent(int id) {
+    checkId(id);
+    if (prev[id] == ABSENT) {
+      throw new NoSuchElementException("Id " + id + " is not in the heap!");
+    }
+  }
+
+  private void checkId(int id) {
+    if (id < 0 || id >= prev.length) {
+      throw new IndexOutOfBoundsException("Index " + id + " out of bounds for size "
+          + prev.length);
+    }
+  }
+
+  private static void checkPriority(float priority) {
+    if (priority != priority) {
+      throw new IllegalArgumentException("Priority must not be NaN!");
+    }
+  }
+}
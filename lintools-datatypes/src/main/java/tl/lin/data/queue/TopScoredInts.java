@@ -21,67 +21,217 @@ import java.io.DataOutput;
 import java.io.IOException;
 
 import org.apache.hadoop.io.Writable;
-import org.apache.hadoop.util.PriorityQueue;
 
 import tl.lin.data.pair.PairOfIntFloat;
 
+/**
+ * <p>
+ * Keeps the <i>n</i> ints with the highest scores among those added, e.g., the top documents of
+ * a query. Ties on scores are broken in favor of larger ints. Elements are kept in a binary
+ * min-heap over parallel <code>int[]</code> and <code>float[]</code> arrays, so adding an element
+ * never allocates, and a candidate that does not beat the lowest element kept is rejected with a
+ * single comparison.
+ * </p>
+ *
+ * <p>
+ * Reading the elements, with {@link #extractAll()}, {@link #copyTo(int[], float[])} or
+ * {@link #write(DataOutput)}, does not modify this object. Results computed separately, e.g., by
+ * several threads or mappers, can be combined with {@link #merge(TopScoredInts)}.
+ * </p>
+ */
 public class TopScoredInts implements Writable {
-  private class ScoredIntPriorityQueue extends PriorityQueue<PairOfIntFloat> {
-    private ScoredIntPriorityQueue(int maxSize) {
-      super.initialize(maxSize);
-    }
-
-    @Override
-    protected boolean lessThan(Object obj0, Object obj1) {
-      // If equal scores, break tie by int descending.
-      if (((PairOfIntFloat) obj0).getValue() == ((PairOfIntFloat) obj1).getValue()) {
-        return ((PairOfIntFloat) obj0).getKey() < ((PairOfIntFloat) obj1).getKey() ? true : false;
-      }
-
-      return (((PairOfIntFloat) obj0).getValue() < ((PairOfIntFloat) obj1).getValue()) ? true
-          : false;
-    }
-  }
-
-  private ScoredIntPriorityQueue queue;
   private int maxElements;
+  private int[] ids;
+  private float[] scores;
+  private int size;
 
-  // TODO: Add the option to control how to break scoring ties
-
+  /**
+   * Creates an object that keeps the top ten ints.
+   */
   public TopScoredInts() {
     this(10);
   }
 
+  /**
+   * Creates an object that keeps the top <i>n</i> ints.
+   *
+   * @param n number of ints to keep
+   */
   public TopScoredInts(int n) {
-    queue = new ScoredIntPriorityQueue(n);
+    if (n < 0) {
+      throw new IllegalArgumentException("Number of elements must not be negative!");
+    }
+    init(n);
+  }
+
+  private void init(int n) {
     maxElements = n;
+    ids = new int[n];
+    scores = new float[n];
+    size = 0;
+  }
+
+  // Heap order: is the element (id0, score0) kept in preference to the element (id1, score1)?
+  private static boolean lessThan(int id0, float score0, int id1, float score1) {
+    if (score0 == score1) {
+      return id0 < id1;
+    }
+    return score0 < score1;
   }
 
+  /**
+   * Adds an int with a score. It is kept only if it is among the top <i>n</i> so far.
+   *
+   * @param n the int
+   * @param f its score
+   */
   public void add(int n, float f) {
-    queue.insert(new PairOfIntFloat(n, f));
+    if (size < maxElements) {
+      siftUp(size++, n, f);
+    } else if (size > 0 && !(f < scores[0]) && !lessThan(n, f, ids[0], scores[0])) {
+      siftDown(ids, scores, 0, n, f, size);
+    }
   }
 
+  private void siftUp(int i, int id, float score) {
+    while (i > 0) {
+      int parent = (i - 1) >>> 1;
+      if (!lessThan(id, score, ids[parent], scores[parent])) {
+        break;
+      }
+      ids[i] = ids[parent];
+      scores[i] = scores[parent];
+      i = parent;
+    }
+    ids[i] = id;
+    scores[i] = score;
+  }
+
+  // Places an element at position i of the heap of length n, moving it down as necessary.
+  private static void siftDown(int[] ids, float[] scores, int i, int id, float score, int n) {
+    int half = n >>> 1;
+    while (i < half) {
+      int child = 2 * i + 1;
+      int right = child + 1;
+      if (right < n && lessThan(ids[right], scores[right], ids[child], scores[child])) {
+        child = right;
+      }
+      if (!lessThan(ids[child], scores[child], id, score)) {
+        break;
+      }
+      ids[i] = ids[child];
+      scores[i] = scores[child];
+      i = child;
+    }
+    ids[i] = id;
+    scores[i] = score;
+  }
+
+  /**
+   * Adds all elements kept by another object, as if they had been added to this one. This object
+   * then keeps the top <i>n</i> of the union of the elements added to both.
+   *
+   * @param other the other object
+   */
+  public void merge(TopScoredInts other) {
+    for (int i = 0; i < other.size; i++) {
+      add(other.ids[i], other.scores[i]);
+    }
+  }
+
+  /**
+   * Returns the maximum number of elements kept.
+   */
   public int getMaxElements() {
     return maxElements;
   }
 
+  /**
+   * Returns the number of elements kept.
+   */
   public int size() {
-    return queue.size();
+    return size;
+  }
+
+  /**
+   * Removes all elements.
+   */
+  public void clear() {
+    size = 0;
+  }
+
+  /**
+   * Returns the int at the specified position, in no particular order, e.g., to iterate over the
+   * elements kept without sorting them.
+   *
+   * @param i position, between zero and {@link #size()} (exclusive)
+   */
+  public int getId(int i) {
+    checkIndex(i);
+    return ids[i];
   }
 
+  /**
+   * Returns the score at the specified position, see {@link #getId(int)}.
+   *
+   * @param i position, between zero and {@link #size()} (exclusive)
+   */
+  public float getScore(int i) {
+    checkIndex(i);
+    return scores[i];
+  }
+
+  private void checkIndex(int i) {
+    if (i < 0 || i >= size) {
+      throw new IndexOutOfBoundsException("Index " + i + " out of bounds for size " + size);
+    }
+  }
+
+  /**
+   * Copies the elements kept, in descending order of score, into two arrays, which must be at
+   * least {@link #size()} long.
+   *
+   * @param outIds array for the ints
+   * @param outScores array for the scores
+   * @return the number of elements copied
+   */
+  public int copyTo(int[] outIds, float[] outScores) {
+    if (outIds.length < size || outScores.length < size) {
+      throw new IllegalArgumentException("Arrays are too short!");
+    }
+    System.arraycopy(ids, 0, outIds, 0, size);
+    System.arraycopy(scores, 0, outScores, 0, size);
+
+    // Heapsort: moving the minimum to the end of the heap, one element at a time, leaves the
+    // elements in descending order.
+    for (int n = size - 1; n > 0; n--) {
+      int id = outIds[n];
+      float score = outScores[n];
+      outIds[n] = outIds[0];
+      outScores[n] = outScores[0];
+      siftDown(outIds, outScores, 0, id, score, n);
+    }
+    return size;
+  }
+
+  /**
+   * Returns the elements kept, in descending order of score.
+   */
   public PairOfIntFloat[] extractAll() {
-    int len = queue.size();
-    PairOfIntFloat[] arr = (PairOfIntFloat[]) new PairOfIntFloat[len];
-    for (int i = 0; i < len; i++) {
-      arr[len - 1 - i] = queue.pop();
+    int[] outIds = new int[size];
+    float[] outScores = new float[size];
+    copyTo(outIds, outScores);
+
+    PairOfIntFloat[] arr = new PairOfIntFloat[size];
+    for (int i = 0; i < size; i++) {
+      arr[i] = new PairOfIntFloat(outIds[i], outScores[i]);
     }
     return arr;
   }
 
   @Override
   public void readFields(DataInput in) throws IOException {
-    maxElements = in.readInt();
-    queue = new ScoredIntPriorityQueue(maxElements);
+    init(in.readInt());
 
     int n = in.readInt();
     for (int i = 0; i < n; i++) {
@@ -94,15 +244,10 @@ public class TopScoredInts implements Writable {
   @Override
   public void write(DataOutput out) throws IOException {
     out.writeInt(maxElements);
-    int sz = size();
-    out.writeInt(sz);
-
-    // Note: serialization is destructive!
-    PairOfIntFloat pair;
-    for (int i = 0; i < sz; i++) {
-      pair = queue.pop();
-      out.writeInt(pair.getKey());
-      out.writeFloat(pair.getValue());
+    out.writeInt(size);
+    for (int i = 0; i < size; i++) {
+      out.writeInt(ids[i]);
+      out.writeFloat(scores[i]);
     }
   }
-}
\ No newline at end of file
+}
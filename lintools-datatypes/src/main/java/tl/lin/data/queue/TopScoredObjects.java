@@ -16,61 +16,191 @@
 
 package tl.lin.data.queue;
 
-import org.apache.hadoop.util.PriorityQueue;
-
 import tl.lin.data.pair.PairOfObjectFloat;
 
+/**
+ * <p>
+ * Keeps the <i>n</i> objects with the highest scores among those added. Ties on scores are broken
+ * in favor of larger objects. As in {@link TopScoredInts}, elements are kept in a binary min-heap
+ * over parallel arrays, so adding an object never allocates, and a candidate that does not beat
+ * the lowest element kept is rejected with a single comparison.
+ * </p>
+ *
+ * <p>
+ * Reading the elements does not modify this object, and results computed separately can be
+ * combined with {@link #merge(TopScoredObjects)}.
+ * </p>
+ */
 public class TopScoredObjects<K extends Comparable<K>> {
-  private class ScoredObjectPriorityQueue extends PriorityQueue<PairOfObjectFloat<K>> {
+  private final int maxElements;
+  private final Object[] keys;
+  private final float[] scores;
+  private int size;
 
-    private ScoredObjectPriorityQueue(int maxSize) {
-      super.initialize(maxSize);
+  /**
+   * Creates an object that keeps the top <i>n</i> objects.
+   *
+   * @param n number of objects to keep
+   */
+  public TopScoredObjects(int n) {
+    if (n < 0) {
+      throw new IllegalArgumentException("Number of elements must not be negative!");
     }
+    maxElements = n;
+    keys = new Object[n];
+    scores = new float[n];
+  }
 
-    @Override
-    @SuppressWarnings("unchecked")
-    protected boolean lessThan(Object obj0, Object obj1) {
-      // If equal scores, break tie by object descending.
-      if (((PairOfObjectFloat<K>) obj0).getRightElement() == ((PairOfObjectFloat<K>) obj1)
-          .getRightElement()) {
-        return ((PairOfObjectFloat<K>) obj0).getLeftElement().compareTo(
-            ((PairOfObjectFloat<K>) obj1).getLeftElement()) < 0 ? true : false;
-      }
-
-      return ((PairOfObjectFloat<K>) obj0).getRightElement() < ((PairOfObjectFloat<K>) obj1)
-          .getRightElement() ? true : false;
+  // Heap order: is the element (key0, score0) kept in preference to the element (key1, score1)?
+  @SuppressWarnings("unchecked")
+  private static <K extends Comparable<K>> boolean lessThan(Object key0, float score0,
+      Object key1, float score1) {
+    if (score0 == score1) {
+      return ((K) key0).compareTo((K) key1) < 0;
     }
+    return score0 < score1;
   }
 
-  private final ScoredObjectPriorityQueue queue;
-  private final int maxElements;
+  /**
+   * Adds an object with a score. It is kept only if it is among the top <i>n</i> so far.
+   *
+   * @param obj the object
+   * @param f its score
+   */
+  public void add(K obj, float f) {
+    if (size < maxElements) {
+      siftUp(size++, obj, f);
+    } else if (size > 0 && !(f < scores[0])
+        && !TopScoredObjects.<K> lessThan(obj, f, keys[0], scores[0])) {
+      TopScoredObjects.<K> siftDown(keys, scores, 0, obj, f, size);
+    }
+  }
 
-  // TODO: Add the option to control how to break scoring ties
+  private void siftUp(int i, Object key, float score) {
+    while (i > 0) {
+      int parent = (i - 1) >>> 1;
+      if (!TopScoredObjects.<K> lessThan(key, score, keys[parent], scores[parent])) {
+        break;
+      }
+      keys[i] = keys[parent];
+      scores[i] = scores[parent];
+      i = parent;
+    }
+    keys[i] = key;
+    scores[i] = score;
+  }
 
-  public TopScoredObjects(int n) {
-    queue = new ScoredObjectPriorityQueue(n);
-    maxElements = n;
+  // Places an element at position i of the heap of length n, moving it down as necessary.
+  private static <K extends Comparable<K>> void siftDown(Object[] keys, float[] scores, int i,
+      Object key, float score, int n) {
+    int half = n >>> 1;
+    while (i < half) {
+      int child = 2 * i + 1;
+      int right = child + 1;
+      if (right < n && TopScoredObjects.<K> lessThan(keys[right], scores[right], keys[child],
+          scores[child])) {
+        child = right;
+      }
+      if (!TopScoredObjects.<K> lessThan(keys[child], scores[child], key, score)) {
+        break;
+      }
+      keys[i] = keys[child];
+      scores[i] = scores[child];
+      i = child;
+    }
+    keys[i] = key;
+    scores[i] = score;
   }
 
-  public void add(K obj, float f) {
-    queue.insert(new PairOfObjectFloat<K>(obj, f));
+  /**
+   * Adds all elements kept by another object, as if they had been added to this one. This object
+   * then keeps the top <i>n</i> of the union of the elements added to both.
+   *
+   * @param other the other object
+   */
+  @SuppressWarnings("unchecked")
+  public void merge(TopScoredObjects<K> other) {
+    for (int i = 0; i < other.size; i++) {
+      add((K) other.keys[i], other.scores[i]);
+    }
   }
 
+  /**
+   * Returns the maximum number of elements kept.
+   */
   public int getMaxElements() {
     return maxElements;
   }
 
+  /**
+   * Returns the number of elements kept.
+   */
   public int size() {
-    return queue.size();
+    return size;
   }
 
+  /**
+   * Removes all elements.
+   */
+  public void clear() {
+    for (int i = 0; i < size; i++) {
+      keys[i] = null;
+    }
+    size = 0;
+  }
+
+  /**
+   * Returns the object at the specified position, in no particular order, e.g., to iterate over
+   * the elements kept without sorting them.
+   *
+   * @param i position, between zero and {@link #size()} (exclusive)
+   */
+  @SuppressWarnings("unchecked")
+  public K getKey(int i) {
+    checkIndex(i);
+    return (K) keys[i];
+  }
+
+  /**
+   * Returns the score at the specified position, see {@link #getKey(int)}.
+   *
+   * @param i position, between zero and {@link #size()} (exclusive)
+   */
+  public float getScore(int i) {
+    checkIndex(i);
+    return scores[i];
+  }
+
+  private void checkIndex(int i) {
+    if (i < 0 || i >= size) {
+      throw new IndexOutOfBoundsException("Index " + i + " out of bounds for size " + size);
+    }
+  }
+
+  /**
+   * Returns the elements kept, in descending order of score.
+   */
   @SuppressWarnings("unchecked")
   public PairOfObjectFloat<K>[] extractAll() {
-    int len = queue.size();
-    PairOfObjectFloat<K>[] arr = (PairOfObjectFloat<K>[]) new PairOfObjectFloat[len];
-    for (int i = 0; i < len; i++) {
-      arr[len - 1 - i] = queue.pop();
+    Object[] outKeys = new Object[size];
+    float[] outScores = new float[size];
+    System.arraycopy(keys, 0, outKeys, 0, size);
+    System.arraycopy(scores, 0, outScores, 0, size);
+
+    // Heapsort: moving the minimum to the end of the heap, one element at a time, leaves the
+    // elements in descending order.
+    for (int n = size - 1; n > 0; n--) {
+      Object key = outKeys[n];
+      float score = outScores[n];
+      outKeys[n] = outKeys[0];
+      outScores[n] = outScores[0];
+      TopScoredObjects.<K> siftDown(outKeys, outScores, 0, key, score, n);
+    }
+
+    PairOfObjectFloat<K>[] arr = (PairOfObjectFloat<K>[]) new PairOfObjectFloat[size];
+    for (int i = 0; i < size; i++) {
+      arr[i] = new PairOfObjectFloat<K>((K) outKeys[i], outScores[i]);
     }
     return arr;
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,449 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.sketch;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.io.WritableUtils;
+
+import tl.lin.data.util.MurmurHash;
+
+/**
+ * <p>
+ * Writable HyperLogLog sketch for estimating the number of distinct items in a stream, e.g., the
+ * vocabulary size of a collection, without materializing a map of the items themselves. With
+ * precision <i>p</i>, the sketch uses 2<sup><i>p</i></sup> one-byte registers and has a relative
+ * standard error of about 1.04 / sqrt(2<sup><i>p</i></sup>): the default precision of 14 gives
+ * roughly 0.8% error in 16 KB.
+ * </p>
+ *
+ * <p>
+ * Small sketches are held in a <i>sparse</i> representation (a sorted list of non-empty registers)
+ * and are converted to the <i>dense</i> register array once the sparse list would take more
+ * memory. Both representations are supported by {@link #write(DataOutput)}, so sketches over a
+ * handful of items stay small on the wire. Sketches with the same precision can be combined with
+ * {@link #merge(HyperLogLogWritable)}, which makes this class suitable as a combiner/reducer value.
+ * </p>
+ *
+ * <p>
+ * Items are hashed with {@link MurmurHash}; int, long, and string items never get boxed. Note that
+ * ints are widened before hashing, so {@code add(5)} and {@code add(5L)} count as the same item.
+ * </p>
+ */
+public class HyperLogLogWritable implements Writable {
+  /**
+   * Smallest supported precision.
+   */
+  public static final int MIN_PRECISION = 4;
+
+  /**
+   * Largest supported precision.
+   */
+  public static final int MAX_PRECISION = 18;
+
+  /**
+   * Precision used by the no-argument constructor.
+   */
+  public static final int DEFAULT_PRECISION = 14;
+
+  private static final int SPARSE = 0;
+  private static final int DENSE = 1;
+
+  private static final int MAX_BUFFER_SIZE = 256;
+  private static final double[] INVERSE_POWERS_OF_TWO = new double[65];
+
+  static {
+    for (int i = 0; i < INVERSE_POWERS_OF_TWO.length; i++) {
+      INVERSE_POWERS_OF_TWO[i] = Math.scalb(1.0, -i);
+    }
+  }
+
+  private int precision;
+  private int numRegisters;
+  private int sparseThreshold;
+
+  // Dense representation; null when sparse.
+  private byte[] registers;
+
+  // Sparse representation: entries are (index << 6 | rank), sorted, one per register index.
+  private int[] sparse;
+  private int sparseSize;
+
+  // Unsorted entries waiting to be merged into the sparse list.
+  private int[] buffer;
+  private int bufferSize;
+
+  /**
+   * Creates a sketch with the default precision.
+   */
+  public HyperLogLogWritable() {
+    this(DEFAULT_PRECISION);
+  }
+
+  /**
+   * Creates a sketch with the specified precision, i.e., with 2<sup>precision</sup> registers.
+   *
+   * @param precision number of bits of the hash used to select a register
+   * @exception IllegalArgumentException if the precision is out of range
+   */
+  public HyperLogLogWritable(int precision) {
+    initialize(precision);
+  }
+
+  private void initialize(int p) {
+    if (p < MIN_PRECISION || p > MAX_PRECISION) {
+      throw new IllegalArgumentException("Illegal precision: " + p);
+    }
+
+    precision = p;
+    numRegisters = 1 << p;
+    // A sparse entry takes four bytes versus one for a register.
+    sparseThreshold = numRegisters / 4;
+
+    registers = null;
+    sparse = new int[16];
+    sparseSize = 0;
+    buffer = new int[Math.min(MAX_BUFFER_SIZE, sparseThreshold)];
+    bufferSize = 0;
+  }
+
+  /**
+   * Adds an int item.
+   */
+  public void add(int item) {
+    addHash(MurmurHash.hash64(item));
+  }
+
+  /**
+   * Adds a long item.
+   */
+  public void add(long item) {
+    addHash(MurmurHash.hash64(item));
+  }
+
+  /**
+   * Adds a string item.
+   */
+  public void add(CharSequence item) {
+    addHash(MurmurHash.hash64(item));
+  }
+
+  /**
+   * Adds an item by its 64-bit hash value. The hash must be well mixed; callers hashing their own
+   * items should use {@link MurmurHash} or an equivalent function.
+   */
+  public void addHash(long hash) {
+    int index = (int) (hash >>> (64 - precision));
+    int rank = rank(hash);
+
+    if (registers != null) {
+      if (registers[index] < rank) {
+        registers[index] = (byte) rank;
+      }
+      return;
+    }
+
+    buffer[bufferSize++] = (index << 6) | rank;
+    if (bufferSize == buffer.length) {
+      flushBuffer();
+    }
+  }
+
+  private int rank(long hash) {
+    long w = hash << precision;
+    if (w == 0) {
+      return 64 - precision + 1;
+    }
+    return Long.numberOfLeadingZeros(w) + 1;
+  }
+
+  /**
+   * Returns the estimated number of distinct items added to this sketch.
+   */
+  public long cardinality() {
+    if (registers == null) {
+      flushBuffer();
+      if (registers == null) {
+        return Math.round(linearCounting(numRegisters - sparseSize));
+      }
+    }
+
+    double sum = 0.0;
+    int zeros = 0;
+    for (int i = 0; i < numRegisters; i++) {
+      int r = registers[i];
+      if (r == 0) {
+        zeros++;
+      }
+      sum += INVERSE_POWERS_OF_TWO[r];
+    }
+
+    double estimate = alpha() * numRegisters * numRegisters / sum;
+    if (estimate <= 2.5 * numRegisters && zeros > 0) {
+      estimate = linearCounting(zeros);
+    }
+
+    return Math.round(estimate);
+  }
+
+  private double linearCounting(int zeros) {
+    return numRegisters * Math.log((double) numRegisters / zeros);
+  }
+
+  private double alpha() {
+    switch (numRegisters) {
+    case 16:
+      return 0.673;
+    case 32:
+      return 0.697;
+    case 64:
+      return 0.709;
+    default:
+      return 0.7213 / (1.0 + 1.079 / numRegisters);
+    }
+  }
+
+  /**
+   * Merges another sketch into this one. Afterwards, this sketch estimates the cardinality of the
+   * union of both streams.
+   *
+   * @param other sketch to merge
+   * @exception IllegalArgumentException if the sketches have different precisions
+   */
+  public void merge(HyperLogLogWritable other) {
+    if (other.precision != precision) {
+      throw new IllegalArgumentException("Can't merge sketches with different precisions: "
+          + precision + " and " + other.precision);
+    }
+
+    other.flushBuffer();
+    if (other.registers != null) {
+      if (registers == null) {
+        toDense();
+      }
+      for (int i = 0; i < numRegisters; i++) {
+        if (registers[i] < other.registers[i]) {
+          registers[i] = other.registers[i];
+        }
+      }
+      return;
+    }
+
+    if (registers != null) {
+      for (int i = 0; i < other.sparseSize; i++) {
+        int index = other.sparse[i] >>> 6;
+        int rank = other.sparse[i] & 0x3f;
+        if (registers[index] < rank) {
+          registers[index] = (byte) rank;
+        }
+      }
+      return;
+    }
+
+    flushBuffer();
+    mergeIntoSparse(other.sparse, other.sparseSize);
+  }
+
+  /**
+   * Returns {@code true} if this sketch is using the sparse representation.
+   */
+  public boolean isSparse() {
+    return registers == null;
+  }
+
+  /**
+   * Returns the precision of this sketch.
+   */
+  public int getPrecision() {
+    return precision;
+  }
+
+  /**
+   * Resets this sketch, keeping its precision.
+   */
+  public void clear() {
+    initialize(precision);
+  }
+
+  private void flushBuffer() {
+    if (bufferSize == 0) {
+      return;
+    }
+
+    Arrays.sort(buffer, 0, bufferSize);
+    int n = bufferSize;
+    bufferSize = 0;
+    mergeIntoSparse(buffer, n);
+  }
+
+  // Merges sorted entries (possibly with repeated indexes) into the sparse list, keeping the
+  // largest rank per index, and switches to the dense representation if the list grows too long.
+  private void mergeIntoSparse(int[] entries, int n) {
+    int[] merged = new int[Math.max(16, sparseSize + n)];
+    int size = 0;
+
+    int i = 0, j = 0;
+    while (i < sparseSize || j < n) {
+      int e;
+      if (j == n || (i < sparseSize && sparse[i] <= entries[j])) {
+        e = sparse[i++];
+      } else {
+        e = entries[j++];
+      }
+
+      // Entries sort by index and then by rank, so the last entry for an index wins.
+      if (size > 0 && (merged[size - 1] >>> 6) == (e >>> 6)) {
+        merged[size - 1] = e;
+      } else {
+        merged[size++] = e;
+      }
+    }
+
+    sparse = merged;
+    sparseSize = size;
+
+    if (sparseSize > sparseThreshold) {
+      toDense();
+    }
+  }
+
+  private void toDense() {
+    flushBuffer();
+    if (registers != null) {
+      return;
+    }
+
+    registers = new byte[numRegisters];
+    for (int i = 0; i < sparseSize; i++) {
+      registers[sparse[i] >>> 6] = (byte) (sparse[i] & 0x3f);
+    }
+
+    sparse = null;
+    sparseSize = 0;
+    buffer = null;
+  }
+
+  /**
+   * Deserializes this object.
+   *
+   * @param in source for raw byte representation
+   */
+  @Override
+  public void readFields(DataInput in) throws IOException {
+    initialize(in.readByte());
+
+    int format = in.readByte();
+    if (format == DENSE) {
+      registers = new byte[numRegisters];
+      in.readFully(registers);
+      sparse = null;
+      buffer = null;
+    } else if (format == SPARSE) {
+      int n = WritableUtils.readVInt(in);
+      sparse = new int[Math.max(16, n)];
+      int prev = 0;
+      for (int i = 0; i < n; i++) {
+        prev += WritableUtils.readVInt(in);
+        sparse[i] = prev;
+      }
+      sparseSize = n;
+      if (sparseSize > sparseThreshold) {
+        toDense();
+      }
+    } else {
+      throw new IOException("Unknown HyperLogLog format: " + format);
+    }
+  }
+
+  /**
+   * Serializes this object.
+   *
+   * @param out where to write the raw byte representation
+   */
+  @Override
+  public void write(DataOutput out) throws IOException {
+    flushBuffer();
+
+    out.writeByte(precision);
+    if (registers != null) {
+      out.writeByte(DENSE);
+      out.write(registers);
+    } else {
+      // Entries are sorted, so the gaps are small and encode compactly.
+      out.writeByte(SPARSE);
+      WritableUtils.writeVInt(out, sparseSize);
+      int prev = 0;
+      for (int i = 0; i < sparseSize; i++) {
+        WritableUtils.writeVInt(out, sparse[i] - prev);
+        prev = sparse[i];
+      }
+    }
+  }
+
+  /**
+   * Returns the serialized representation of this object as a byte array.
+   *
+   * @return byte array representing the serialized representation of this object
+   * @throws IOException
+   */
+  public byte[] serialize() throws IOException {
+    ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
+    DataOutputStream dataOut = new DataOutputStream(bytesOut);
+    write(dataOut);
+
+    return bytesOut.toByteArray();
+  }
+
+  /**
+   * Creates a <code>HyperLogLogWritable</code> object from a <code>DataInput</code>.
+   *
+   * @param in source for reading the serialized representation
+   * @return a newly-created <code>HyperLogLogWritable</code> object
+   * @throws IOException
+   */
+  public static HyperLogLogWritable create(DataInput in) throws IOException {
+    HyperLogLogWritable hll = new HyperLogLogWritable();
+    hll.readFields(in);
+
+    return hll;
+  }
+
+  /**
+   * Creates a <code>HyperLogLogWritable</code> object from a byte array.
+   *
+   * @param bytes raw serialized representation
+   * @return a newly-created <code>HyperLogLogWritable</code> object
+   * @throws IOException
+   */
+  public static HyperLogLogWritable create(byte[] bytes) throws IOException {
+    return create(new DataInputStream(new ByteArrayInputStream(bytes)));
+  }
+
+  @Override
+  public String toString() {
+    return "HyperLogLog(p=" + precision + ", " + (isSparse() ? "sparse" : "dense") + ", ~"
+        + cardinality() + ")";
+  }
+}
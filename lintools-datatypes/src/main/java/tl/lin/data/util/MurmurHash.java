@@ -0,0 +1,199 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.util;
+
+/**
+ * <p>
+ * Well-mixed 64-bit hash functions over primitives, strings, and byte ranges. Primitive keys are
+ * hashed with the MurmurHash3 64-bit finalizer; strings and byte ranges are hashed with
+ * MurmurHash64A. None of the methods allocate, so they are safe to call in tight loops.
+ * </p>
+ *
+ * <p>
+ * Note that {@link #hash64(int)} widens its argument, so an int and a long with the same numeric
+ * value hash to the same value.
+ * </p>
+ */
+public class MurmurHash {
+  private static final long M = 0xc6a4a7935bd1e995L;
+  private static final int R = 47;
+
+  /**
+   * Default seed for the string and byte-range hash functions.
+   */
+  public static final long DEFAULT_SEED = 0xe17a1465L;
+
+  private MurmurHash() {
+  }
+
+  /**
+   * Applies the MurmurHash3 64-bit finalizer, which is a bijection that avalanches every input bit.
+   */
+  public static long fmix64(long k) {
+    k ^= k >>> 33;
+    k *= 0xff51afd7ed558ccdL;
+    k ^= k >>> 33;
+    k *= 0xc4ceb9fe1a85ec53L;
+    k ^= k >>> 33;
+    return k;
+  }
+
+  /**
+   * Applies the MurmurHash3 32-bit finalizer, which is a bijection that avalanches every input bit.
+   */
+  public static int fmix32(int h) {
+    h ^= h >>> 16;
+    h *= 0x85ebca6b;
+    h ^= h >>> 13;
+    h *= 0xc2b2ae35;
+    h ^= h >>> 16;
+    return h;
+  }
+
+  /**
+   * Returns a 64-bit hash of an int.
+   */
+  public static long hash64(int key) {
+    return fmix64(key);
+  }
+
+  /**
+   * Returns a 64-bit hash of a long.
+   */
+  public static long hash64(long key) {
+    return fmix64(key);
+  }
+
+  /**
+   * Returns a 64-bit hash of the UTF-16 code units of a string. Four chars are consumed per round.
+   */
+  public static long hash64(CharSequence s) {
+    int len = s.length();
+    long h = DEFAULT_SEED ^ (len * 2 * M);
+
+    int i = 0;
+    for (; i + 4 <= len; i += 4) {
+      long k = ((long) s.charAt(i)) | ((long) s.charAt(i + 1) << 16)
+          | ((long) s.charAt(i + 2) << 32) | ((long) s.charAt(i + 3) << 48);
+      h = mix(h, k);
+    }
+
+    if (i < len) {
+      long k = 0;
+      for (int shift = 0; i < len; i++, shift += 16) {
+        k |= (long) s.charAt(i) << shift;
+      }
+      h ^= k;
+      h *= M;
+    }
+
+    return finish(h);
+  }
+
+  /**
+   * Returns a 64-bit hash of a range of bytes, using the default seed.
+   */
+  public static long hash64(byte[] data, int offset, int length) {
+    return hash64(data, offset, length, DEFAULT_SEED);
+  }
+
+  /**
+   * Returns a 64-bit hash of a range of bytes (MurmurHash64A).
+   */
+  public static long hash64(byte[] data, int offset, int length, long seed) {
+    long h = seed ^ (length * M);
+
+    int end = offset + (length & ~7);
+    int i = offset;
+    for (; i < end; i += 8) {
+      long k = (data[i] & 0xffL) | ((data[i + 1] & 0xffL) << 8) | ((data[i + 2] & 0xffL) << 16)
+          | ((data[i + 3] & 0xffL) << 24) | ((data[i + 4] & 0xffL) << 32)
+          | ((data[i + 5] & 0xffL) << 40) | ((data[i + 6] & 0xffL) << 48)
+          | ((data[i + 7] & 0xffL) << 56);
+      h = mix(h, k);
+    }
+
+    int rem = length & 7;
+    if (rem > 0) {
+      for (int j = rem - 1; j >= 0; j--) {
+        h ^= (data[i + j] & 0xffL) << (8 * j);
+      }
+      h *= M;
+    }
+
+    return finish(h);
+  }
+
+  /**
+   * Folds a 64-bit hash into 32 bits.
+   */
+  public static int fold(long h) {
+    return (int) (h ^ (h >>> 32));
+  }
+
+  /**
+   * Returns a well-mixed 32-bit hash of an int.
+   */
+  public static int hash32(int key) {
+    return fold(fmix64(key));
+  }
+
+  /**
+   * Returns a well-mixed 32-bit hash of a long.
+   */
+  public static int hash32(long key) {
+    return fold(fmix64(key));
+  }
+
+  /**
+   * Returns a well-mixed 32-bit hash of the UTF-16 code units of a string.
+   */
+  public static int hash32(CharSequence s) {
+    return fold(hash64(s));
+  }
+
+  /**
+   * Returns a well-mixed 32-bit hash of an ordered pair of longs, such as the two elements of a
+   * pair, or their hashes.
+   */
+  public static int hash32(long first, long second) {
+    return fold(fmix64(fmix64(first) ^ second));
+  }
+
+  /**
+   * Returns a well-mixed 32-bit hash of a range of bytes.
+   */
+  public static int hash32(byte[] data, int offset, int length) {
+    return fold(hash64(data, offset, length, DEFAULT_SEED));
+  }
+
+  private static long mix(long h, long k) {
+    k *= M;
+    k ^= k >>> R;
+    k *= M;
+    h ^= k;
+    h *= M;
+    return h;
+  }
+
+  private static long finish(long h) {
+    h ^= h >>> R;
+    h *= M;
+    h ^= h >>> R;
+    return h;
+  }
+}
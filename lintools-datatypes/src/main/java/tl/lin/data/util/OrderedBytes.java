@@ -0,0 +1,268 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.util;
+
+/**
+ * <p>
+ * Order-preserving ("memcmp-orderable") encoding of ints, longs, floats, doubles and strings:
+ * comparing two encodings as unsigned bytes, e.g., with
+ * {@link org.apache.hadoop.io.WritableComparator#compareBytes}, gives the same order as comparing
+ * the values. Since every encoding is also prefix-free, a sequence of encoded values, such as a
+ * {@link tl.lin.data.pair.TupleKey}, sorts lexicographically by its components.
+ * </p>
+ *
+ * <ul>
+ * <li>Ints and longs are written big-endian with their sign bit flipped.</li>
+ * <li>Floats and doubles are written as their IEEE 754 bits, with the sign bit flipped for
+ * positive values and all bits flipped for negative values. <code>-0.0</code> is encoded as
+ * <code>0.0</code>, and all NaNs as the canonical NaN, which sorts after positive infinity.</li>
+ * <li>Strings are written char by char, each UTF-16 code unit in one to three bytes as in UTF-8,
+ * and terminated by <code>0x00 0x01</code>; the char U+0000 is escaped as <code>0x00 0xFF</code>.
+ * Other than that, this is plain UTF-8 for strings without supplementary characters, and sorts
+ * exactly as {@link String#compareTo(String)}, i.e., by code units.</li>
+ * </ul>
+ *
+ * <p>
+ * Write methods store a value at an offset in an array, which must have enough room, and return
+ * the offset following the value.
+ * </p>
+ */
+public class OrderedBytes {
+  /**
+   * Maximum number of bytes of the encoding of a char, not counting the string terminator.
+   */
+  public static final int MAX_BYTES_PER_CHAR = 3;
+
+  private OrderedBytes() {
+  }
+
+  /**
+   * Writes an int.
+   *
+   * @return offset following the encoded value
+   */
+  public static int writeInt(byte[] b, int off, int v) {
+    v ^= 0x80000000;
+    b[off] = (byte) (v >>> 24);
+    b[off + 1] = (byte) (v >>> 16);
+    b[off + 2] = (byte) (v >>> 8);
+    b[off + 3] = (byte) v;
+    return off + 4;
+  }
+
+  /**
+   * Reads an int written with {@link #writeInt(byte[], int, int)}.
+   */
+  public static int readInt(byte[] b, int off) {
+    return ((b[off] & 0xff) << 24 | (b[off + 1] & 0xff) << 16 | (b[off + 2] & 0xff) << 8
+        | (b[off + 3] & 0xff)) ^ 0x80000000;
+  }
+
+  /**
+   * Writes a long.
+   *
+   * @return offset following the encoded value
+   */
+  public static int writeLong(byte[] b, int off, long v) {
+    writeInt(b, off, (int) (v >>> 32));
+    return writeInt(b, off + 4, (int) v ^ 0x80000000);
+  }
+
+  /**
+   * Reads a long written with {@link #writeLong(byte[], int, long)}.
+   */
+  public static long readLong(byte[] b, int off) {
+    return (long) readInt(b, off) << 32 | ((readInt(b, off + 4) ^ 0x80000000) & 0xffffffffL);
+  }
+
+  /**
+   * Maps the bits of a float to an int with the same order, under which <code>-0.0f</code> is
+   * equal to <code>0.0f</code>, and all NaNs are equal and greater than positive infinity.
+   *
+   * @param bits bits of the float, as returned by {@link Float#floatToRawIntBits(float)}
+   */
+  public static int sortableFloatBits(int bits) {
+    if (bits == 0x80000000) {
+      // Negative zero.
+      return 0;
+    }
+    if ((bits & 0x7fffffff) > 0x7f800000) {
+      // All NaNs are equal.
+      bits = 0x7fc00000;
+    }
+    return bits ^ ((bits >> 31) & 0x7fffffff);
+  }
+
+  /**
+   * Maps the bits of a double to a long with the same order, under which <code>-0.0</code> is
+   * equal to <code>0.0</code>, and all NaNs are equal and greater than positive infinity.
+   *
+   * @param bits bits of the double, as returned by {@link Double#doubleToRawLongBits(double)}
+   */
+  public static long sortableDoubleBits(long bits) {
+    if (bits == 0x8000000000000000L) {
+      // Negative zero.
+      return 0;
+    }
+    if ((bits & 0x7fffffffffffffffL) > 0x7ff0000000000000L) {
+      // All NaNs are equal.
+      bits = 0x7ff8000000000000L;
+    }
+    return bits ^ ((bits >> 63) & 0x7fffffffffffffffL);
+  }
+
+  /**
+   * Writes a float.
+   *
+   * @return offset following the encoded value
+   */
+  public static int writeFloat(byte[] b, int off, float v) {
+    return writeInt(b, off, sortableFloatBits(Float.floatToRawIntBits(v)));
+  }
+
+  /**
+   * Reads a float written with {@link #writeFloat(byte[], int, float)}.
+   */
+  public static float readFloat(byte[] b, int off) {
+    int bits = readInt(b, off);
+    return Float.intBitsToFloat(bits ^ ((bits >> 31) & 0x7fffffff));
+  }
+
+  /**
+   * Writes a double.
+   *
+   * @return offset following the encoded value
+   */
+  public static int writeDouble(byte[] b, int off, double v) {
+    return writeLong(b, off, sortableDoubleBits(Double.doubleToRawLongBits(v)));
+  }
+
+  /**
+   * Reads a double written with {@link #writeDouble(byte[], int, double)}.
+   */
+  public static double readDouble(byte[] b, int off) {
+    long bits = readLong(b, off);
+    return Double.longBitsToDouble(bits ^ ((bits >> 63) & 0x7fffffffffffffffL));
+  }
+
+  /**
+   * Returns an upper bound on the length of the encoding of a string.
+   */
+  public static int maxEncodedLength(CharSequence s) {
+    return s.length() * MAX_BYTES_PER_CHAR + 2;
+  }
+
+  /**
+   * Writes a string. The array must have room for {@link #maxEncodedLength(CharSequence)} bytes.
+   *
+   * @return offset following the encoded value
+   */
+  public static int writeString(byte[] b, int off, CharSequence s) {
+    int len = s.length();
+    for (int i = 0; i < len; i++) {
+      char c = s.charAt(i);
+      if (c == 0) {
+        b[off++] = 0x00;
+        b[off++] = (byte) 0xff;
+      } else if (c < 0x80) {
+        b[off++] = (byte) c;
+      } else if (c < 0x800) {
+        b[off++] = (byte) (0xc0 | c >> 6);
+        b[off++] = (byte) (0x80 | (c & 0x3f));
+      } else {
+        // Surrogates are encoded one by one, so that strings sort by code units.
+        b[off++] = (byte) (0xe0 | c >> 12);
+        b[off++] = (byte) (0x80 | (c >> 6 & 0x3f));
+        b[off++] = (byte) (0x80 | (c & 0x3f));
+      }
+    }
+    b[off++] = 0x00;
+    b[off++] = 0x01;
+    return off;
+  }
+
+  /**
+   * Reads a string written with {@link #writeString(byte[], int, CharSequence)}, and appends it to
+   * a buffer.
+   *
+   * @param b array holding the encoded string
+   * @param off offset of the encoded string
+   * @param sb buffer to which the string is appended
+   * @return offset following the encoded string
+   */
+  public static int readString(byte[] b, int off, StringBuilder sb) {
+    while (true) {
+      int x = b[off++] & 0xff;
+      if (x == 0x00) {
+        int y = b[off++] & 0xff;
+        if (y == 0x01) {
+          return off;
+        }
+        if (y != 0xff) {
+          throw new IllegalArgumentException("Malformed string!");
+        }
+        sb.append('\u0000');
+      } else if (x < 0x80) {
+        sb.append((char) x);
+      } else if (x < 0xe0) {
+        sb.append((char) ((x & 0x1f) << 6 | (b[off++] & 0x3f)));
+      } else {
+        sb.append((char) ((x & 0x0f) << 12 | (b[off] & 0x3f) << 6 | (b[off + 1] & 0x3f)));
+        off += 2;
+      }
+    }
+  }
+
+  /**
+   * Returns the offset following a string written with
+   * {@link #writeString(byte[], int, CharSequence)}, without decoding it.
+   */
+  public static int skipString(byte[] b, int off) {
+    while (b[off] != 0x00 || b[off + 1] != 0x01) {
+      off += b[off] == 0x00 ? 2 : 1;
+    }
+    return off + 2;
+  }
+
+  /**
+   * Returns the first eight bytes of a range as a big-endian long, padded with zeros. Comparing
+   * prefixes as unsigned longs, e.g., with {@link #compareUnsigned(long, long)}, agrees with
+   * comparing the ranges as bytes, unless the prefixes are equal, in which case the ranges must be
+   * compared in full. Sorting on prefixes first ("normalized keys") avoids most full comparisons.
+   *
+   * @param b array holding the range
+   * @param off offset of the range
+   * @param len length of the range
+   */
+  public static long prefix(byte[] b, int off, int len) {
+    long p = 0;
+    int n = Math.min(len, 8);
+    for (int i = 0; i < n; i++) {
+      p = p << 8 | (b[off + i] & 0xff);
+    }
+    return p << (8 * (8 - n));
+  }
+
+  /**
+   * Compares two longs as unsigned values.
+   */
+  public static int compareUnsigned(long a, long b) {
+    a ^= Long.MIN_VALUE;
+    b ^= Long.MIN_VALUE;
+    return a < b ? -1 : (a == b ? 0 : 1);
+  }
+}
@@ -0,0 +1,279 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.util;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
+
+/**
+ * <p>
+ * Bulk reading and writing of primitive arrays through {@link DataInput} and {@link DataOutput}.
+ * The byte format is exactly that of calling {@code readInt}/{@code writeInt} (and so on) once per
+ * element, i.e., big-endian, so these methods are drop-in replacements for such loops. Instead of
+ * one virtual call per element, data are moved in chunks through a per-thread scratch buffer with
+ * {@code readFully} and {@code write}, and converted with {@link ByteBuffer} views.
+ * </p>
+ *
+ * <p>
+ * The only difference from the per-element methods is that floats and doubles are written with
+ * {@link Float#floatToRawIntBits} and {@link Double#doubleToRawLongBits}, so NaN payloads are
+ * preserved rather than collapsed to the canonical NaN. As with the loops they replace, nothing
+ * is read or written (and the array may be {@code null}) when the length is zero.
+ * </p>
+ */
+public class PrimitiveArrayIO {
+  private static final int SCRATCH_SIZE = 8192;
+
+  private PrimitiveArrayIO() {
+  }
+
+  // Scratch buffer with a view for each primitive type, allocated once per thread.
+  private static class Scratch {
+    final byte[] bytes = new byte[SCRATCH_SIZE];
+    final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    final ShortBuffer shorts = buffer.asShortBuffer();
+    final IntBuffer ints = buffer.asIntBuffer();
+    final LongBuffer longs = buffer.asLongBuffer();
+    final FloatBuffer floats = buffer.asFloatBuffer();
+    final DoubleBuffer doubles = buffer.asDoubleBuffer();
+  }
+
+  private static final ThreadLocal<Scratch> SCRATCH = new ThreadLocal<Scratch>() {
+    @Override
+    protected Scratch initialValue() {
+      return new Scratch();
+    }
+  };
+
+  private static void checkBounds(int arrayLength, int off, int len) {
+    if (off < 0 || len < 0 || off > arrayLength - len) {
+      throw new IndexOutOfBoundsException("Range [" + off + ", " + off + " + " + len
+          + ") out of bounds for length " + arrayLength);
+    }
+  }
+
+  /**
+   * Reads {@code len} shorts into {@code dst}, starting at offset {@code off}.
+   */
+  public static void readShorts(DataInput in, short[] dst, int off, int len) throws IOException {
+    if (len == 0) {
+      return;
+    }
+    checkBounds(dst.length, off, len);
+    Scratch s = SCRATCH.get();
+    int chunk = SCRATCH_SIZE / 2;
+    while (len > 0) {
+      int n = Math.min(len, chunk);
+      in.readFully(s.bytes, 0, n * 2);
+      s.shorts.clear();
+      s.shorts.get(dst, off, n);
+      off += n;
+      len -= n;
+    }
+  }
+
+  /**
+   * Writes {@code len} shorts from {@code src}, starting at offset {@code off}.
+   */
+  public static void writeShorts(DataOutput out, short[] src, int off, int len)
+      throws IOException {
+    if (len == 0) {
+      return;
+    }
+    checkBounds(src.length, off, len);
+    Scratch s = SCRATCH.get();
+    int chunk = SCRATCH_SIZE / 2;
+    while (len > 0) {
+      int n = Math.min(len, chunk);
+      s.shorts.clear();
+      s.shorts.put(src, off, n);
+      out.write(s.bytes, 0, n * 2);
+      off += n;
+      len -= n;
+    }
+  }
+
+  /**
+   * Reads {@code len} ints into {@code dst}, starting at offset {@code off}.
+   */
+  public static void readInts(DataInput in, int[] dst, int off, int len) throws IOException {
+    if (len == 0) {
+      return;
+    }
+    checkBounds(dst.length, off, len);
+    Scratch s = SCRATCH.get();
+    int chunk = SCRATCH_SIZE / 4;
+    while (len > 0) {
+      int n = Math.min(len, chunk);
+      in.readFully(s.bytes, 0, n * 4);
+      s.ints.clear();
+      s.ints.get(dst, off, n);
+      off += n;
+      len -= n;
+    }
+  }
+
+  /**
+   * Writes {@code len} ints from {@code src}, starting at offset {@code off}.
+   */
+  public static void writeInts(DataOutput out, int[] src, int off, int len) throws IOException {
+    if (len == 0) {
+      return;
+    }
+    checkBounds(src.length, off, len);
+    Scratch s = SCRATCH.get();
+    int chunk = SCRATCH_SIZE / 4;
+    while (len > 0) {
+      int n = Math.min(len, chunk);
+      s.ints.clear();
+      s.ints.put(src, off, n);
+      out.write(s.bytes, 0, n * 4);
+      off += n;
+      len -= n;
+    }
+  }
+
+  /**
+   * Reads {@code len} longs into {@code dst}, starting at offset {@code off}.
+   */
+  public static void readLongs(DataInput in, long[] dst, int off, int len) throws IOException {
+    if (len == 0) {
+      return;
+    }
+    checkBounds(dst.length, off, len);
+    Scratch s = SCRATCH.get();
+    int chunk = SCRATCH_SIZE / 8;
+    while (len > 0) {
+      int n = Math.min(len, chunk);
+      in.readFully(s.bytes, 0, n * 8);
+      s.longs.clear();
+      s.longs.get(dst, off, n);
+      off += n;
+      len -= n;
+    }
+  }
+
+  /**
+   * Writes {@code len} longs from {@code src}, starting at offset {@code off}.
+   */
+  public static void writeLongs(DataOutput out, long[] src, int off, int len) throws IOException {
+    if (len == 0) {
+      return;
+    }
+    checkBounds(src.length, off, len);
+    Scratch s = SCRATCH.get();
+    int chunk = SCRATCH_SIZE / 8;
+    while (len > 0) {
+      int n = Math.min(len, chunk);
+      s.longs.clear();
+      s.longs.put(src, off, n);
+      out.write(s.bytes, 0, n * 8);
+      off += n;
+      len -= n;
+    }
+  }
+
+  /**
+   * Reads {@code len} floats into {@code dst}, starting at offset {@code off}.
+   */
+  public static void readFloats(DataInput in, float[] dst, int off, int len) throws IOException {
+    if (len == 0) {
+      return;
+    }
+    checkBounds(dst.length, off, len);
+    Scratch s = SCRATCH.get();
+    int chunk = SCRATCH_SIZE / 4;
+    while (len > 0) {
+      int n = Math.min(len, chunk);
+      in.readFully(s.bytes, 0, n * 4);
+      s.floats.clear();
+      s.floats.get(dst, off, n);
+      off += n;
+      len -= n;
+    }
+  }
+
+  /**
+   * Writes {@code len} floats from {@code src}, starting at offset {@code off}.
+   */
+  public static void writeFloats(DataOutput out, float[] src, int off, int len)
+      throws IOException {
+    if (len == 0) {
+      return;
+    }
+    checkBounds(src.length, off, len);
+    Scratch s = SCRATCH.get();
+    int chunk = SCRATCH_SIZE / 4;
+    while (len > 0) {
+      int n = Math.min(len, chunk);
+      s.floats.clear();
+      s.floats.put(src, off, n);
+      out.write(s.bytes, 0, n * 4);
+      off += n;
+      len -= n;
+    }
+  }
+
+  /**
+   * Reads {@code len} doubles into {@code dst}, starting at offset {@code off}.
+   */
+  public static void readDoubles(DataInput in, double[] dst, int off, int len)
+      throws IOException {
+    if (len == 0) {
+      return;
+    }
+    checkBounds(dst.length, off, len);
+    Scratch s = SCRATCH.get();
+    int chunk = SCRATCH_SIZE / 8;
+    while (len > 0) {
+      int n = Math.min(len, chunk);
+      in.readFully(s.bytes, 0, n * 8);
+      s.doubles.clear();
+      s.doubles.get(dst, off, n);
+      off += n;
+      len -= n;
+    }
+  }
+
+  /**
+   * Writes {@code len} doubles from {@code src}, starting at offset {@code off}.
+   */
+  public static void writeDoubles(DataOutput out, double[] src, int off, int len)
+      throws IOException {
+    if (len == 0) {
+      return;
+    }
+    checkBounds(src.length, off, len);
+    Scratch s = SCRATCH.get();
+    int chunk = SCRATCH_SIZE / 8;
+    while (len > 0) {
+      int n = Math.min(len, chunk);
+      s.doubles.clear();
+      s.doubles.put(src, off, n);
+      out.write(s.bytes, 0, n * 8);
+      off += n;
+      len -= n;
+    }
+  }
+}
@@ -0,0 +1,200 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package tl.lin.data.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.Writable;
+
+import tl.lin.data.pair.PairOfWritables;
+
+/**
+ * <p>
+ * Iterator over the key-value pairs stored in one or more {@code SequenceFile}s. Files are read
+ * one after another and at most one reader is open at any time, so arbitrarily large job outputs
+ * can be processed in constant memory. Instances are obtained from
+ * {@link SequenceFileUtils#iterateFile(Path, FileSystem, boolean)} and
+ * {@link SequenceFileUtils#iterateDirectory(Path, FileSystem, boolean)}.
+ * </p>
+ *
+ * <p>
+ * By default, the key, the value, and the pair returned by {@link #next()} are reused: each call
+ * to {@link #next()} overwrites the previous record, so callers that hold on to records must copy
+ * them. In copy mode, every record is read into freshly allocated objects instead.
+ * </p>
+ *
+ * <p>
+ * Each reader is closed as soon as its file is exhausted, and the iterator closes itself after the
+ * last record. Callers that stop early must call {@link #close()}, typically in a {@code finally}
+ * block. Since {@link Iterator} methods cannot throw checked exceptions, I/O errors surface as
+ * {@code RuntimeException}s, after the open reader has been closed.
+ * </p>
+ *
+ * @param <K> type of the keys
+ * @param <V> type of the values
+ */
+public class SequenceFileIterator<K extends Writable, V extends Writable>
+    implements Iterator<PairOfWritables<K, V>>, Closeable {
+  private final FileSystem fs;
+  private final Path[] paths;
+  private final boolean copy;
+  private final PairOfWritables<K, V> pair = new PairOfWritables<K, V>();
+
+  private int nextPath = 0;
+  private Path path;
+  private SequenceFile.Reader reader;
+  private K key;
+  private V value;
+  // Whether key and value hold a record that has not been returned yet.
+  private boolean ready = false;
+  private boolean closed = false;
+
+  SequenceFileIterator(FileSystem fs, Path[] paths, boolean copy) {
+    this.fs = fs;
+    this.paths = paths;
+    this.copy = copy;
+  }
+
+  /**
+   * Returns <tt>true</tt> if every record is read into freshly allocated objects.
+   */
+  public boolean isCopying() {
+    return copy;
+  }
+
+  /**
+   * Returns the file that the last record was read from, or <tt>null</tt> if no file has been
+   * opened yet.
+   */
+  public Path getCurrentPath() {
+    return path;
+  }
+
+  public boolean hasNext() {
+    try {
+      return fetch();
+    } catch (IOException e) {
+      throw new RuntimeException("Error reading SequenceFile " + path, e);
+    }
+  }
+
+  // Reads the next record into key and value, unless one is already there. Package-private so that
+  // the list-based readers in SequenceFileUtils can propagate I/O errors unchanged.
+  boolean fetch() throws IOException {
+    if (ready) {
+      return true;
+    }
+
+    try {
+      while (!closed) {
+        if (reader == null) {
+          if (nextPath == paths.length) {
+            close();
+            return false;
+          }
+          open(paths[nextPath++]);
+        } else if (copy) {
+          newInstances();
+        }
+
+        if (reader.next(key, value)) {
+          ready = true;
+          return true;
+        }
+
+        SequenceFile.Reader r = reader;
+        reader = null;
+        r.close();
+      }
+      return false;
+    } catch (IOException e) {
+      closeQuietly();
+      throw e;
+    } catch (RuntimeException e) {
+      closeQuietly();
+      throw e;
+    }
+  }
+
+  public PairOfWritables<K, V> next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    ready = false;
+
+    if (copy) {
+      return new PairOfWritables<K, V>(key, value);
+    }
+    pair.set(key, value);
+    return pair;
+  }
+
+  /**
+   * Unsupported operation: {@code SequenceFile}s are read-only.
+   */
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Closes the open reader, if any. Subsequent calls to {@link #hasNext()} return <tt>false</tt>.
+   * Closing an iterator that is already closed has no effect.
+   */
+  public void close() throws IOException {
+    closed = true;
+    ready = false;
+    if (reader != null) {
+      SequenceFile.Reader r = reader;
+      reader = null;
+      r.close();
+    }
+  }
+
+  private void open(Path p) throws IOException {
+    path = p;
+    reader = new SequenceFile.Reader(fs, p, fs.getConf());
+    // Files may hold different classes, so the reused objects are created once per file.
+    newInstances();
+  }
+
+  @SuppressWarnings("unchecked")
+  private void newInstances() {
+    try {
+      key = (K) reader.getKeyClass().newInstance();
+      value = (V) reader.getValueClass().newInstance();
+    } catch (IllegalAccessException e) {
+      throw new RuntimeException("Error reading SequenceFile: " + e);
+    } catch (InstantiationException e) {
+      throw new RuntimeException("Error reading SequenceFile: " + e);
+    }
+  }
+
+  private void closeQuietly() {
+    try {
+      close();
+    } catch (IOException e) {
+      // The original error is more informative.
+    }
+  }
+}
@@ -60,43 +60,27 @@ public class SequenceFileUtils {
   }
 
   /**
-   * Reads key-value pairs from a SequenceFile, up to a maximum number.
+   * Reads key-value pairs from a SequenceFile, up to a maximum number. Since the pairs are
+   * materialized in memory, {@link #iterateFile(Path, FileSystem, boolean)} is preferable for large
+   * files.
    *
    * @param path path to file
    * @param max maximum of key-value pairs to read
    * @return list of key-value pairs
    */
-  @SuppressWarnings("unchecked")
   public static <K extends Writable, V extends Writable> List<PairOfWritables<K, V>> readFile(
       Path path, FileSystem fs, int max) throws IOException {
     List<PairOfWritables<K, V>> list = new ArrayList<PairOfWritables<K, V>>();
 
+    // Each pair is read into fresh objects, since the list holds on to all of them.
+    SequenceFileIterator<K, V> iter =
+        new SequenceFileIterator<K, V>(fs, new Path[] { path }, true);
     try {
-      int k = 0;
-      SequenceFile.Reader reader = new SequenceFile.Reader(fs, path, fs.getConf());
-
-      K key;
-      V value;
-
-      key = (K) reader.getKeyClass().newInstance();
-      value = (V) reader.getValueClass().newInstance();
-
-      while (reader.next(key, value)) {
-        k++;
-        list.add(new PairOfWritables<K, V>(key, value));
-        if (k >= max) {
-          break;
-        }
-
-        // Create new objects, because the key, value gets reused
-        key = (K) reader.getKeyClass().newInstance();
-        value = (V) reader.getValueClass().newInstance();
+      while (list.size() < max && iter.fetch()) {
+        list.add(iter.next());
       }
-      reader.close();
-    } catch (IllegalAccessException e) {
-      throw new RuntimeException("Error reading SequenceFile: " + e);
-    } catch (InstantiationException e) {
-      throw new RuntimeException("Error reading SequenceFile: " + e);
+    } finally {
+      iter.close();
     }
 
     return list;
@@ -158,14 +142,8 @@ public class SequenceFileUtils {
     List<PairOfWritables<K, V>> list = new ArrayList<PairOfWritables<K, V>>();
 
     try {
-      FileStatus[] stat = fs.listStatus(path);
-      for (int i = 0; i < stat.length; ++i) {
-
-        // skip '_log' directory
-        if (stat[i].getPath().getName().startsWith("_"))
-          continue;
-
-        List<PairOfWritables<K, V>> pairs = readFile(stat[i].getPath(), fs, max);
+      for (Path file : listFiles(path, fs)) {
+        List<PairOfWritables<K, V>> pairs = readFile(file, fs, max);
         list.addAll(pairs);
       }
     } catch (IOException e) {
@@ -205,9 +183,10 @@ public class SequenceFileUtils {
   public static <K extends Writable> List<K> readKeys(Path path, FileSystem fs, int max) {
     List<K> list = new ArrayList<K>();
 
+    SequenceFile.Reader reader = null;
     try {
       int k = 0;
-      SequenceFile.Reader reader = new SequenceFile.Reader(fs, path, fs.getConf());
+      reader = new SequenceFile.Reader(fs, path, fs.getConf());
 
       K key = (K) reader.getKeyClass().newInstance();
       Writable value = (Writable) reader.getValueClass().newInstance();
@@ -220,9 +199,10 @@ public class SequenceFileUtils {
 
         key = (K) reader.getKeyClass().newInstance();
       }
-      reader.close();
     } catch (Exception e) {
       throw new RuntimeException("Error reading SequenceFile " + path);
+    } finally {
+      closeQuietly(reader);
     }
 
     return list;
@@ -258,9 +238,10 @@ public class SequenceFileUtils {
   public static <V extends Writable> List<V> readValues(Path path, FileSystem fs, int max) {
     List<V> list = new ArrayList<V>();
 
+    SequenceFile.Reader reader = null;
     try {
       int k = 0;
-      SequenceFile.Reader reader = new SequenceFile.Reader(fs, path, fs.getConf());
+      reader = new SequenceFile.Reader(fs, path, fs.getConf());
 
       Writable key = (Writable) reader.getKeyClass().newInstance();
       V value = (V) reader.getValueClass().newInstance();
@@ -274,11 +255,103 @@ public class SequenceFileUtils {
 
         value = (V) reader.getValueClass().newInstance();
       }
-      reader.close();
     } catch (Exception e) {
       throw new RuntimeException("Error reading SequenceFile " + path);
+    } finally {
+      closeQuietly(reader);
     }
 
     return list;
   }
+
+  /**
+   * Returns an iterator over the key-value pairs of a SequenceFile, using the default file system.
+   * Keys and values are reused.
+   *
+   * @param path path to file
+   * @return iterator over key-value pairs
+   * @see #iterateFile(Path, FileSystem, boolean)
+   */
+  public static <K extends Writable, V extends Writable> SequenceFileIterator<K, V> iterateFile(
+      Path path) throws IOException {
+    return iterateFile(path, FileSystem.get(new Configuration()), false);
+  }
+
+  public static <K extends Writable, V extends Writable> SequenceFileIterator<K, V> iterateFile(
+      Path path, FileSystem fs) {
+    return iterateFile(path, fs, false);
+  }
+
+  /**
+   * Returns an iterator over the key-value pairs of a SequenceFile. Unlike
+   * {@link #readFile(Path, FileSystem, int)}, records are streamed from the file, so memory use
+   * does not depend on its size. The file is opened by the first call to
+   * {@link SequenceFileIterator#hasNext()}; the iterator must be closed if it is not exhausted.
+   *
+   * @param path path to file
+   * @param fs file system
+   * @param copy whether every record is read into fresh objects, rather than into reused ones
+   * @return iterator over key-value pairs
+   */
+  public static <K extends Writable, V extends Writable> SequenceFileIterator<K, V> iterateFile(
+      Path path, FileSystem fs, boolean copy) {
+    return new SequenceFileIterator<K, V>(fs, new Path[] { path }, copy);
+  }
+
+  /**
+   * Returns an iterator over the key-value pairs of all SequenceFiles in a directory, using the
+   * default file system. Keys and values are reused.
+   *
+   * @param path path to directory
+   * @return iterator over key-value pairs
+   * @see #iterateDirectory(Path, FileSystem, boolean)
+   */
+  public static <K extends Writable, V extends Writable> SequenceFileIterator<K, V>
+      iterateDirectory(Path path) throws IOException {
+    return iterateDirectory(path, FileSystem.get(new Configuration()), false);
+  }
+
+  public static <K extends Writable, V extends Writable> SequenceFileIterator<K, V>
+      iterateDirectory(Path path, FileSystem fs) throws IOException {
+    return iterateDirectory(path, fs, false);
+  }
+
+  /**
+   * Returns an iterator over the key-value pairs of all SequenceFiles in a directory, such as the
+   * output of a job. Files whose names start with an underscore (e.g., {@code _logs} and
+   * {@code _SUCCESS}) are skipped. Files are read one at a time, and only one of them is open at
+   * any time; the iterator must be closed if it is not exhausted.
+   *
+   * @param path path to directory
+   * @param fs file system
+   * @param copy whether every record is read into fresh objects, rather than into reused ones
+   * @return iterator over key-value pairs
+   */
+  public static <K extends Writable, V extends Writable> SequenceFileIterator<K, V>
+      iterateDirectory(Path path, FileSystem fs, boolean copy) throws IOException {
+    return new SequenceFileIterator<K, V>(fs, listFiles(path, fs), copy);
+  }
+
+  private static Path[] listFiles(Path path, FileSystem fs) throws IOException {
+    List<Path> files = new ArrayList<Path>();
+    for (FileStatus stat : fs.listStatus(path)) {
+      // skip '_log' directory
+      if (stat.getPath().getName().startsWith("_")) {
+        continue;
+      }
+      files.add(stat.getPath());
+    }
+    return files.toArray(new Path[files.size()]);
+  }
+
+  private static void closeQuietly(SequenceFile.Reader reader) {
+    if (reader == null) {
+      return;
+    }
+    try {
+      reader.close();
+    } catch (IOException e) {
+      // The records have already been read, and closing cannot invalidate them.
+    }
+  }
 }
@@ -0,0 +1,212 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Random;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.Test;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+
+public class BinaryJsonTest {
+  private static final JsonParser PARSER = new JsonParser();
+
+  private static byte[] bytes(int... values) {
+    byte[] b = new byte[values.length];
+    for (int i = 0; i < values.length; i++) {
+      b[i] = (byte) values[i];
+    }
+    return b;
+  }
+
+  private static JsonElement roundTrip(BinaryJson encoding, JsonElement value) {
+    byte[] b = encoding.encode(value);
+    // Values do not have to start at the beginning of the array.
+    byte[] padded = new byte[b.length + 2];
+    System.arraycopy(b, 0, padded, 1, b.length);
+    return encoding.decode(padded, 1, b.length);
+  }
+
+  @Test
+  public void testCbor() {
+    // Apart from field names that repeat, the encoding is CBOR.
+    BinaryJson encoding = new BinaryJson();
+    assertArrayEquals(bytes(0x00), encoding.encode(new JsonPrimitive(0)));
+    assertArrayEquals(bytes(0x17), encoding.encode(new JsonPrimitive(23)));
+    assertArrayEquals(bytes(0x18, 0x18), encoding.encode(new JsonPrimitive(24)));
+    assertArrayEquals(bytes(0x19, 0x03, 0xe8), encoding.encode(new JsonPrimitive(1000)));
+    assertArrayEquals(bytes(0x1a, 0x00, 0x0f, 0x42, 0x40),
+        encoding.encode(new JsonPrimitive(1000000)));
+    assertArrayEquals(bytes(0x1b, 0x00, 0x00, 0x00, 0xe8, 0xd4, 0xa5, 0x10, 0x00),
+        encoding.encode(new JsonPrimitive(1000000000000L)));
+    assertArrayEquals(bytes(0x20), encoding.encode(new JsonPrimitive(-1)));
+    assertArrayEquals(bytes(0x38, 0x63), encoding.encode(new JsonPrimitive(-100)));
+    assertArrayEquals(bytes(0xfa, 0x3f, 0xc0, 0x00, 0x00), encoding.encode(new JsonPrimitive(1.5)));
+    assertArrayEquals(bytes(0xfb, 0x3f, 0xf1, 0x99, 0x99, 0x99, 0x99, 0x99, 0x9a),
+        encoding.encode(new JsonPrimitive(1.1)));
+    assertArrayEquals(bytes(0xf4), encoding.encode(new JsonPrimitive(false)));
+    assertArrayEquals(bytes(0xf5), encoding.encode(new JsonPrimitive(true)));
+    assertArrayEquals(bytes(0xf6), encoding.encode(JsonNull.INSTANCE));
+    assertArrayEquals(bytes(0x63, 0xc3, 0xbc, 0x61),
+        encoding.encode(new JsonPrimitive("\u00fca")));
+    assertArrayEquals(bytes(0x83, 0x01, 0x02, 0x03), encoding.encode(PARSER.parse("[1,2,3]")));
+    assertArrayEquals(bytes(0xa2, 0x61, 0x61, 0x01, 0x61, 0x62, 0x80),
+        encoding.encode(PARSER.parse("{\"a\":1,\"b\":[]}")));
+  }
+
+  @Test
+  public void testKeyDictionary() {
+    JsonElement value = PARSER.parse("[{\"name\":1,\"id\":2},{\"id\":3,\"name\":4}]");
+    BinaryJson encoding = new BinaryJson();
+    // The second object refers to the names by their indexes.
+    assertArrayEquals(bytes(0x82, 0xa2, 0x64, 'n', 'a', 'm', 'e', 0x01, 0x62, 'i', 'd', 0x02,
+        0xa2, 0x41, 0x03, 0x40, 0x04), encoding.encode(value));
+    assertEquals(value, roundTrip(encoding, value));
+
+    BinaryJson seeded = new BinaryJson("id", "name");
+    assertArrayEquals(bytes(0x82, 0xa2, 0x41, 0x01, 0x40, 0x02, 0xa2, 0x40, 0x03, 0x41, 0x04),
+        seeded.encode(value));
+    assertEquals(value, roundTrip(seeded, value));
+
+    // New names are numbered after the seeded ones.
+    value = PARSER.parse("{\"x\":{\"x\":{\"id\":0}}}");
+    assertArrayEquals(bytes(0xa1, 0x61, 'x', 0xa1, 0x42, 0xa1, 0x40, 0x00), seeded.encode(value));
+    assertEquals(value, roundTrip(seeded, value));
+  }
+
+  @Test
+  public void testNumbers() {
+    BinaryJson encoding = new BinaryJson();
+    long[] longs = { 0, 23, 24, 255, 256, 65535, 65536, 0xffffffffL, 0x100000000L,
+        Long.MAX_VALUE, -24, -25, -256, -257, Integer.MIN_VALUE, Long.MIN_VALUE };
+    for (long v : longs) {
+      assertEquals(v, roundTrip(encoding, new JsonPrimitive(v)).getAsLong());
+    }
+    double[] doubles = { 0.5, -0.0, 1e300, Math.PI, Float.MAX_VALUE, Double.MIN_VALUE };
+    for (double v : doubles) {
+      assertEquals(Double.doubleToLongBits(v),
+          Double.doubleToLongBits(roundTrip(encoding, new JsonPrimitive(v)).getAsDouble()));
+    }
+
+    // Numbers parsed from text keep their values.
+    JsonElement parsed = PARSER.parse("[12345678901234, 1.25, 0.1, 123456789012345678901234]");
+    JsonArray decoded = roundTrip(encoding, parsed).getAsJsonArray();
+    assertEquals(12345678901234L, decoded.get(0).getAsLong());
+    assertEquals(1.25, decoded.get(1).getAsDouble(), 0.0);
+    assertEquals(0.1, decoded.get(2).getAsDouble(), 0.0);
+    assertEquals(1.2345678901234568e23, decoded.get(3).getAsDouble(), 0.0);
+    assertEquals("[12345678901234,1.25,0.1,", decoded.toString().substring(0, 25));
+  }
+
+  private static JsonElement randomValue(Random r, int depth) {
+    switch (r.nextInt(depth > 3 ? 5 : 7)) {
+    case 0:
+      return JsonNull.INSTANCE;
+    case 1:
+      return new JsonPrimitive(r.nextBoolean());
+    case 2:
+      return new JsonPrimitive(r.nextInt(3) == 0 ? r.nextLong() : r.nextInt(1000) - 500);
+    case 3:
+      return new JsonPrimitive(r.nextDouble());
+    case 4:
+      StringBuilder sb = new StringBuilder();
+      for (int i = r.nextInt(30); i > 0; i--) {
+        sb.append((char) (r.nextBoolean() ? 'a' + r.nextInt(26) : r.nextInt(0xd800)));
+      }
+      return new JsonPrimitive(sb.toString());
+    case 5:
+      JsonArray arr = new JsonArray();
+      for (int i = r.nextInt(40); i > 0; i--) {
+        arr.add(randomValue(r, depth + 1));
+      }
+      return arr;
+    default:
+      JsonObject obj = new JsonObject();
+      for (int i = r.nextInt(40); i > 0; i--) {
+        obj.add("field" + r.nextInt(50), randomValue(r, depth + 1));
+      }
+      return obj;
+    }
+  }
+
+  @Test
+  public void testRandom() {
+    Random r = new Random(1);
+    BinaryJson encoding = new BinaryJson("field1", "field2", "field3");
+    for (int i = 0; i < 200; i++) {
+      JsonElement value = randomValue(r, 0);
+      assertEquals(value, roundTrip(encoding, value));
+      assertEquals(value.toString(), roundTrip(encoding, value).toString());
+    }
+  }
+
+  @Test
+  public void testMalformed() {
+    BinaryJson encoding = new BinaryJson();
+    byte[] b = encoding.encode(PARSER.parse("{\"a\":[1,\"xyz\",1.1],\"b\":{\"a\":null}}"));
+    for (int len = 0; len < b.length; len++) {
+      try {
+        encoding.decode(b, 0, len);
+        fail();
+      } catch (JsonParseException e) {
+        // Expected: the value is truncated.
+      }
+    }
+
+    byte[][] invalid = { bytes(0x00, 0x00), bytes(0x1c), bytes(0x40), bytes(0xa1, 0x41, 0x00),
+        bytes(0xa1, 0x01, 0x00), bytes(0xc0), bytes(0xf7), bytes(0x7a, 0x7f, 0xff, 0xff, 0xff) };
+    for (byte[] bad : invalid) {
+      try {
+        encoding.decode(bad, 0, bad.length);
+        fail();
+      } catch (JsonParseException e) {
+        // Expected.
+      }
+    }
+  }
+
+  @Test
+  public void testSize() {
+    JsonElement value = PARSER.parse("{\"tags\":[{\"name\":\"a\",\"score\":0.5},"
+        + "{\"name\":\"b\",\"score\":0.25},{\"name\":\"c\",\"score\":1}],\"count\":1234567}");
+    int text = value.toString().length();
+    int binary = new BinaryJson().encode(value).length;
+    assertTrue(binary + " vs " + text, binary * 3 < text * 2);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testDuplicateKeys() {
+    new BinaryJson("a", "b", "a");
+  }
+
+  public static junit.framework.Test suite() {
+    return new JUnit4TestAdapter(BinaryJsonTest.class);
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.Test;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+public class BinaryJsonWritableTest {
+
+  public static class Record extends BinaryJsonWritable {
+    private static final BinaryJson ENCODING = new BinaryJson("firstName", "lastName", "address");
+
+    public Record() {
+      super(ENCODING);
+    }
+  }
+
+  private static void fill(JsonObject obj) {
+    obj.addProperty("firstName", "John");
+    obj.addProperty("lastName", "Smith");
+
+    JsonObject address = new JsonObject();
+    address.addProperty("streetAddress", "21 2nd Street");
+    address.addProperty("city", "New York");
+    address.addProperty("postalCode", 10021);
+    obj.add("address", address);
+
+    JsonArray phoneNumbers = new JsonArray();
+    phoneNumbers.add(new JsonPrimitive("212 555-1234"));
+    phoneNumbers.add(new JsonPrimitive("646 555-4567"));
+    obj.add("phoneNumbers", phoneNumbers);
+  }
+
+  @Test
+  public void testSerialize() throws Exception {
+    JsonWritable text = new JsonWritable();
+    BinaryJsonWritable binary = new BinaryJsonWritable();
+    Record record = new Record();
+    fill(text.getJsonObject());
+    fill(binary.getJsonObject());
+    fill(record.getJsonObject());
+
+    byte[] textBytes = text.serialize();
+    byte[] binaryBytes = binary.serialize();
+    byte[] recordBytes = record.serialize();
+    assertTrue(binaryBytes.length < textBytes.length);
+    assertTrue(recordBytes.length < binaryBytes.length);
+
+    BinaryJsonWritable binary2 = new BinaryJsonWritable();
+    binary2.readFields(new DataInputStream(new ByteArrayInputStream(binaryBytes)));
+    Record record2 = new Record();
+    record2.readFields(new DataInputStream(new ByteArrayInputStream(recordBytes)));
+    // Objects are written back as read.
+    assertArrayEquals(binaryBytes, binary2.serialize());
+    assertArrayEquals(recordBytes, record2.serialize());
+
+    String s = text.toString();
+    assertEquals(s, binary2.toString());
+    assertEquals(s, record2.toString());
+    assertEquals("New York", record2.get("address").getAsJsonObject().get("city").getAsString());
+    assertEquals(10021, binary2.get("address").getAsJsonObject().get("postalCode").getAsInt());
+
+    record2.getJsonObject().addProperty("lastName", "Smyth");
+    Record record3 = new Record();
+    record3.readFields(new DataInputStream(new ByteArrayInputStream(record2.serialize())));
+    assertEquals("Smyth", record3.get("lastName").getAsString());
+  }
+
+  public static junit.framework.Test suite() {
+    return new JUnit4TestAdapter(BinaryJsonWritableTest.class);
+  }
+}
@@ -16,13 +16,18 @@
 
 package tl.lin.data;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.DataInput;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
 
 import junit.framework.JUnit4TestAdapter;
 
@@ -30,6 +35,7 @@ import org.junit.Test;
 
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
 import com.google.gson.JsonPrimitive;
 
 public class JsonWritableTest {
@@ -125,6 +131,129 @@ public class JsonWritableTest {
     assertEquals("{\"field\":\"a\"}", obj.getJsonObject().toString());
   }
 
+  // Serializes JSON text as a JsonWritable would.
+  private static byte[] record(String s) throws IOException {
+    byte[] bytes = s.getBytes("UTF-8");
+    ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
+    DataOutputStream dataOut = new DataOutputStream(bytesOut);
+    dataOut.writeInt(bytes.length);
+    dataOut.write(bytes);
+    return bytesOut.toByteArray();
+  }
+
+  @Test
+  public void testUnmodifiedBytes() throws Exception {
+    // Whitespace and escapes are not what Gson would write.
+    byte[] bytes = record("{ \"a\" : 1, \"b\": \"\\u00e9<\" }");
+    for (JsonWritable w : new JsonWritable[] { new JsonWritable(), new LazyJsonWritable() }) {
+      w.readFields(new DataInputStream(new ByteArrayInputStream(bytes)));
+      assertEquals(1, w.get("a").getAsInt());
+      assertEquals("\u00e9<", w.get("b").getAsString());
+      assertArrayEquals(bytes, w.serialize());
+
+      w.getJsonObject().addProperty("c", "\u00e9");
+      assertEquals("{\"a\":1,\"b\":\"\u00e9\\u003c\",\"c\":\"\u00e9\"}",
+          new String(Arrays.copyOfRange(w.serialize(), 4, w.serialize().length), "UTF-8"));
+    }
+  }
+
+  @Test
+  public void testReuse() throws Exception {
+    LazyJsonWritable w = new LazyJsonWritable();
+    assertTrue(w.isLazy());
+    w.readFields(new DataInputStream(new ByteArrayInputStream(record("{\"a\":\"long value\"}"))));
+    byte[] shorter = record("{\"b\":2}");
+    w.readFields(new DataInputStream(new ByteArrayInputStream(shorter)));
+    assertArrayEquals(shorter, w.serialize());
+    assertEquals("{\"b\":2}", w.toString());
+  }
+
+  @Test
+  public void testLazyParsing() throws Exception {
+    byte[] bytes = record("{\"a\":");
+    LazyJsonWritable lazy = new LazyJsonWritable();
+    lazy.readFields(new DataInputStream(new ByteArrayInputStream(bytes)));
+    // Malformed records can still be forwarded.
+    assertArrayEquals(bytes, lazy.serialize());
+    try {
+      lazy.getJsonObject();
+      fail();
+    } catch (JsonParseException e) {
+      // Expected.
+    }
+
+    try {
+      JsonWritable.create(bytes);
+      fail();
+    } catch (JsonParseException e) {
+      // Expected: records are parsed as they are read.
+    }
+  }
+
+  private static int compare(JsonWritable.FieldComparator comparator, String s1, String s2)
+      throws IOException {
+    byte[] b1 = record(s1);
+    byte[] b2 = record(s2);
+    // Records do not have to start at the beginning of the array.
+    byte[] padded = new byte[b2.length + 3];
+    System.arraycopy(b2, 0, padded, 3, b2.length);
+    int cmp = comparator.compare(b1, 0, b1.length, padded, 3, b2.length);
+    assertEquals(Integer.signum(cmp), Integer.signum(comparator.compare(
+        JsonWritable.create(b1), JsonWritable.create(b2))));
+    assertEquals(-Integer.signum(cmp), Integer.signum(comparator.compare(b2, 0, b2.length, b1, 0,
+        b1.length)));
+    return Integer.signum(cmp);
+  }
+
+  @Test
+  public void testFieldComparator() throws Exception {
+    JsonWritable.FieldComparator c = new JsonWritable.FieldComparator("k");
+    assertEquals(-1, compare(c, "{\"k\":2}", "{\"k\":10}"));
+    assertEquals(-1, compare(c, "{\"k\":-5}", "{\"k\":3}"));
+    assertEquals(0, compare(c, "{\"k\":1.0}", "{ \"k\" : 1 }"));
+    assertEquals(0, compare(c, "{\"k\":-0.0}", "{\"k\":0}"));
+    assertEquals(1, compare(c, "{\"k\":1e3}", "{\"k\":999.5}"));
+    assertEquals(1, compare(c, "{\"k\":12345678901234567890}", "{\"k\":123456789012345678}"));
+    assertEquals(-1, compare(c, "{\"k\":\"ab\"}", "{\"k\":\"abc\"}"));
+    assertEquals(1, compare(c, "{\"k\":\"b\"}", "{\"k\":\"abc\"}"));
+    // Escaped and unescaped strings compare by code point.
+    assertEquals(0, compare(c, "{\"k\":\"\\u00e9\\\"\"}", "{\"k\":\"\u00e9\\\"\"}"));
+    assertEquals(1, compare(c, "{\"k\":\"\\ud83d\\ude00\"}", "{\"k\":\"\uffff\"}"));
+    assertEquals(-1, compare(c, "{\"k\":\"a\\nb\"}", "{\"k\":\"a\\\\\"}"));
+
+    // Types, then values within types.
+    String[] ordered = { "{}", "{\"k\":null}", "{\"k\":false}", "{\"k\":true}", "{\"k\":-1}",
+        "{\"k\":\"\"}", "{\"k\":[1,2]}", "{\"k\":[3]}", "{\"k\":{}}" };
+    for (int i = 0; i < ordered.length; i++) {
+      for (int j = 0; j < ordered.length; j++) {
+        assertEquals(Integer.signum(i - j), compare(c, ordered[i], ordered[j]));
+      }
+    }
+  }
+
+  @Test
+  public void testFieldComparatorPaths() throws Exception {
+    JsonWritable.FieldComparator c = new JsonWritable.FieldComparator("user.id", "time");
+    String skip = "\"x\":{\"id\":[\"}\",{\"user\":9}]},";
+    assertEquals(-1, compare(c, "{" + skip + "\"user\":{\"id\":1},\"time\":5}",
+        "{\"time\":4,\"user\":{\"name\":\"a\",\"id\":2}}"));
+    assertEquals(1, compare(c, "{\"user\":{\"id\":1},\"time\":5}",
+        "{\"time\":4,\"user\":{\"id\":1}}"));
+    assertEquals(0, compare(c, "{\"user\":{\"id\":1},\"time\":5}",
+        "{\"time\":5,\"user\":{\"id\":1}}"));
+    // Values that are not objects have no fields.
+    assertEquals(-1, compare(c, "{\"user\":7}", "{\"user\":{\"id\":null}}"));
+    // Escaped field names.
+    assertEquals(-1, compare(new JsonWritable.FieldComparator("\u00e9"), "{\"\u00e9\":1}",
+        "{\"\\u00e9\":2}"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testFieldComparatorNoFields() {
+    new JsonWritable.FieldComparator();
+    new JsonWritable.FieldComparator(new String[0]);
+  }
+
   public static junit.framework.Test suite() {
     return new JUnit4TestAdapter(JsonWritableTest.class);
   }
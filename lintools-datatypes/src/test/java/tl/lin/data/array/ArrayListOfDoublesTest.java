@@ -471,6 +471,52 @@ public class ArrayListOfDoublesTest {
 
   }
 
+  @Test
+  public void testPrimitiveIteration() {
+    ArrayListOfDoubles list = new ArrayListOfDoubles();
+    for (int i = 0; i < 100; i++) {
+      list.add((double) (i * 3));
+    }
+
+    ArrayListOfDoubles.DoubleIterator iter = list.iterator();
+    int cnt = 0;
+    while (iter.hasNext()) {
+      assertEquals(list.get(cnt), iter.nextDouble(), 0.0);
+      cnt++;
+    }
+    assertEquals(100, cnt);
+
+    final ArrayListOfDoubles copy = new ArrayListOfDoubles();
+    list.forEachDouble(new ArrayListOfDoubles.DoubleProcedure() {
+      public void apply(double value) {
+        copy.add(value);
+      }
+    });
+    assertEquals(list.size(), copy.size());
+    for (int i = 0; i < list.size(); i++) {
+      assertEquals(list.get(i), copy.get(i), 0.0);
+    }
+
+    final int[] visited = new int[1];
+    list.forEachDouble(10, 20, new ArrayListOfDoubles.DoubleProcedure() {
+      public void apply(double value) {
+        assertEquals((double) ((10 + visited[0]) * 3), value, 0.0);
+        visited[0]++;
+      }
+    });
+    assertEquals(10, visited[0]);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testForEachOutOfBounds() {
+    ArrayListOfDoubles list = new ArrayListOfDoubles();
+    list.add((double) 1);
+    list.forEachDouble(0, 2, new ArrayListOfDoubles.DoubleProcedure() {
+      public void apply(double value) {
+      }
+    });
+  }
+
   public static junit.framework.Test suite() {
     return new JUnit4TestAdapter(ArrayListOfDoublesTest.class);
   }
@@ -21,6 +21,7 @@ import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Random;
 
 import junit.framework.JUnit4TestAdapter;
 
@@ -29,8 +30,10 @@ import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.io.IntWritable;
 import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.WritableComparator;
 import org.junit.Test;
 
+import tl.lin.data.WritableComparatorTestHarness;
 import tl.lin.data.pair.PairOfWritables;
 import tl.lin.data.util.SequenceFileUtils;
 
@@ -160,6 +163,30 @@ public class ArrayListOfDoublesWritableTest {
     assertTrue(e.compareTo(d) < 0);
   }
 
+  @Test
+  public void testComparator() {
+    WritableComparator comparator = WritableComparator.get(ArrayListOfDoublesWritable.class);
+    assertTrue(comparator instanceof ArrayListOfDoublesWritable.Comparator);
+
+    // Short lists over a few values, so that there are many ties and common prefixes.
+    Random r = new Random(1);
+    ArrayListOfDoublesWritable[] lists = new ArrayListOfDoublesWritable[200];
+    for (int i = 0; i < lists.length; i++) {
+      lists[i] = new ArrayListOfDoublesWritable();
+      int size = r.nextInt(5);
+      for (int j = 0; j < size; j++) {
+        lists[i].add((r.nextInt(7) - 3) * 0.5);
+      }
+    }
+
+    for (int i = 0; i < lists.length; i++) {
+      for (int j = 0; j < lists.length; j++) {
+        assertEquals(Integer.signum(lists[i].compareTo(lists[j])),
+            Integer.signum(WritableComparatorTestHarness.compare(comparator, lists[i], lists[j])));
+      }
+    }
+  }
+
   public static junit.framework.Test suite() {
     return new JUnit4TestAdapter(ArrayListOfDoublesWritableTest.class);
   }
@@ -472,6 +472,52 @@ public class ArrayListOfFloatsTest {
 
   }
 
+  @Test
+  public void testPrimitiveIteration() {
+    ArrayListOfFloats list = new ArrayListOfFloats();
+    for (int i = 0; i < 100; i++) {
+      list.add((float) (i * 3));
+    }
+
+    ArrayListOfFloats.FloatIterator iter = list.iterator();
+    int cnt = 0;
+    while (iter.hasNext()) {
+      assertEquals(list.get(cnt), iter.nextFloat(), 0.0f);
+      cnt++;
+    }
+    assertEquals(100, cnt);
+
+    final ArrayListOfFloats copy = new ArrayListOfFloats();
+    list.forEachFloat(new ArrayListOfFloats.FloatProcedure() {
+      public void apply(float value) {
+        copy.add(value);
+      }
+    });
+    assertEquals(list.size(), copy.size());
+    for (int i = 0; i < list.size(); i++) {
+      assertEquals(list.get(i), copy.get(i), 0.0f);
+    }
+
+    final int[] visited = new int[1];
+    list.forEachFloat(10, 20, new ArrayListOfFloats.FloatProcedure() {
+      public void apply(float value) {
+        assertEquals((float) ((10 + visited[0]) * 3), value, 0.0f);
+        visited[0]++;
+      }
+    });
+    assertEquals(10, visited[0]);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testForEachOutOfBounds() {
+    ArrayListOfFloats list = new ArrayListOfFloats();
+    list.add((float) 1);
+    list.forEachFloat(0, 2, new ArrayListOfFloats.FloatProcedure() {
+      public void apply(float value) {
+      }
+    });
+  }
+
   public static junit.framework.Test suite() {
     return new JUnit4TestAdapter(ArrayListOfFloatsTest.class);
   }
@@ -549,6 +549,52 @@ public class ArrayListOfIntsTest {
     assertEquals(size, list.get(shift));
   }
 
+  @Test
+  public void testPrimitiveIteration() {
+    ArrayListOfInts list = new ArrayListOfInts();
+    for (int i = 0; i < 100; i++) {
+      list.add((int) (i * 3));
+    }
+
+    ArrayListOfInts.IntIterator iter = list.iterator();
+    int cnt = 0;
+    while (iter.hasNext()) {
+      assertEquals(list.get(cnt), iter.nextInt());
+      cnt++;
+    }
+    assertEquals(100, cnt);
+
+    final ArrayListOfInts copy = new ArrayListOfInts();
+    list.forEachInt(new ArrayListOfInts.IntProcedure() {
+      public void apply(int value) {
+        copy.add(value);
+      }
+    });
+    assertEquals(list.size(), copy.size());
+    for (int i = 0; i < list.size(); i++) {
+      assertEquals(list.get(i), copy.get(i));
+    }
+
+    final int[] visited = new int[1];
+    list.forEachInt(10, 20, new ArrayListOfInts.IntProcedure() {
+      public void apply(int value) {
+        assertEquals((int) ((10 + visited[0]) * 3), value);
+        visited[0]++;
+      }
+    });
+    assertEquals(10, visited[0]);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testForEachOutOfBounds() {
+    ArrayListOfInts list = new ArrayListOfInts();
+    list.add((int) 1);
+    list.forEachInt(0, 2, new ArrayListOfInts.IntProcedure() {
+      public void apply(int value) {
+      }
+    });
+  }
+
   public static junit.framework.Test suite() {
     return new JUnit4TestAdapter(ArrayListOfIntsTest.class);
   }
@@ -19,8 +19,13 @@ package tl.lin.data.array;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.util.List;
+import java.util.Random;
 
 import junit.framework.JUnit4TestAdapter;
 
@@ -29,8 +34,10 @@ import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.io.IntWritable;
 import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.WritableComparator;
 import org.junit.Test;
 
+import tl.lin.data.WritableComparatorTestHarness;
 import tl.lin.data.pair.PairOfWritables;
 import tl.lin.data.util.SequenceFileUtils;
 
@@ -226,6 +233,57 @@ public class ArrayListOfIntsWritableTest {
     }
   }
 
+  @Test
+  public void testReadFieldsReuse() throws IOException {
+    ArrayListOfIntsWritable large = new ArrayListOfIntsWritable(0, 5000);
+    ArrayListOfIntsWritable small = new ArrayListOfIntsWritable(7, 10);
+
+    ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
+    DataOutputStream dataOut = new DataOutputStream(bytesOut);
+    large.write(dataOut);
+    small.write(dataOut);
+    assertEquals(4 + 5000 * 4 + 4 + 3 * 4, bytesOut.size());
+
+    DataInputStream dataIn = new DataInputStream(new ByteArrayInputStream(bytesOut.toByteArray()));
+    ArrayListOfIntsWritable list = new ArrayListOfIntsWritable();
+    list.readFields(dataIn);
+    assertEquals(large, list);
+
+    // Reading a shorter list reuses the backing array.
+    int[] array = list.getArray();
+    list.readFields(dataIn);
+    assertEquals(small, list);
+    assertTrue(array == list.getArray());
+
+    list.add(10);
+    assertEquals(4, list.size());
+    assertEquals(10, list.get(3));
+  }
+
+  @Test
+  public void testComparator() {
+    WritableComparator comparator = WritableComparator.get(ArrayListOfIntsWritable.class);
+    assertTrue(comparator instanceof ArrayListOfIntsWritable.Comparator);
+
+    // Short lists over a few values, so that there are many ties and common prefixes.
+    Random r = new Random(1);
+    ArrayListOfIntsWritable[] lists = new ArrayListOfIntsWritable[200];
+    for (int i = 0; i < lists.length; i++) {
+      lists[i] = new ArrayListOfIntsWritable();
+      int size = r.nextInt(5);
+      for (int j = 0; j < size; j++) {
+        lists[i].add(r.nextInt(7) - 3);
+      }
+    }
+
+    for (int i = 0; i < lists.length; i++) {
+      for (int j = 0; j < lists.length; j++) {
+        assertEquals(Integer.signum(lists[i].compareTo(lists[j])),
+            Integer.signum(WritableComparatorTestHarness.compare(comparator, lists[i], lists[j])));
+      }
+    }
+  }
+
   public static junit.framework.Test suite() {
     return new JUnit4TestAdapter(ArrayListOfIntsWritableTest.class);
   }
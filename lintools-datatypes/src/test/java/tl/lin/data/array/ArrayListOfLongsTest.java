@@ -488,6 +488,52 @@ public class ArrayListOfLongsTest {
     assertEquals(9, a.get(11));
   }
 
+  @Test
+  public void testPrimitiveIteration() {
+    ArrayListOfLongs list = new ArrayListOfLongs();
+    for (int i = 0; i < 100; i++) {
+      list.add((long) (i * 3));
+    }
+
+    ArrayListOfLongs.LongIterator iter = list.iterator();
+    int cnt = 0;
+    while (iter.hasNext()) {
+      assertEquals(list.get(cnt), iter.nextLong());
+      cnt++;
+    }
+    assertEquals(100, cnt);
+
+    final ArrayListOfLongs copy = new ArrayListOfLongs();
+    list.forEachLong(new ArrayListOfLongs.LongProcedure() {
+      public void apply(long value) {
+        copy.add(value);
+      }
+    });
+    assertEquals(list.size(), copy.size());
+    for (int i = 0; i < list.size(); i++) {
+      assertEquals(list.get(i), copy.get(i));
+    }
+
+    final int[] visited = new int[1];
+    list.forEachLong(10, 20, new ArrayListOfLongs.LongProcedure() {
+      public void apply(long value) {
+        assertEquals((long) ((10 + visited[0]) * 3), value);
+        visited[0]++;
+      }
+    });
+    assertEquals(10, visited[0]);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testForEachOutOfBounds() {
+    ArrayListOfLongs list = new ArrayListOfLongs();
+    list.add((long) 1);
+    list.forEachLong(0, 2, new ArrayListOfLongs.LongProcedure() {
+      public void apply(long value) {
+      }
+    });
+  }
+
   public static junit.framework.Test suite() {
     return new JUnit4TestAdapter(ArrayListOfLongsTest.class);
   }
@@ -510,6 +510,52 @@ public class ArrayListOfShortsTest {
     assertEquals(9, a.get(11));
   }
 
+  @Test
+  public void testPrimitiveIteration() {
+    ArrayListOfShorts list = new ArrayListOfShorts();
+    for (int i = 0; i < 100; i++) {
+      list.add((short) (i * 3));
+    }
+
+    ArrayListOfShorts.ShortIterator iter = list.iterator();
+    int cnt = 0;
+    while (iter.hasNext()) {
+      assertEquals(list.get(cnt), iter.nextShort());
+      cnt++;
+    }
+    assertEquals(100, cnt);
+
+    final ArrayListOfShorts copy = new ArrayListOfShorts();
+    list.forEachShort(new ArrayListOfShorts.ShortProcedure() {
+      public void apply(short value) {
+        copy.add(value);
+      }
+    });
+    assertEquals(list.size(), copy.size());
+    for (int i = 0; i < list.size(); i++) {
+      assertEquals(list.get(i), copy.get(i));
+    }
+
+    final int[] visited = new int[1];
+    list.forEachShort(10, 20, new ArrayListOfShorts.ShortProcedure() {
+      public void apply(short value) {
+        assertEquals((short) ((10 + visited[0]) * 3), value);
+        visited[0]++;
+      }
+    });
+    assertEquals(10, visited[0]);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testForEachOutOfBounds() {
+    ArrayListOfShorts list = new ArrayListOfShorts();
+    list.add((short) 1);
+    list.forEachShort(0, 2, new ArrayListOfShorts.ShortProcedure() {
+      public void apply(short value) {
+      }
+    });
+  }
+
   public static junit.framework.Test suite() {
     return new JUnit4TestAdapter(ArrayListOfShortsTest.class);
   }
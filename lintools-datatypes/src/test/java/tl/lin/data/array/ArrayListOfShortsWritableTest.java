@@ -21,6 +21,7 @@ import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Random;
 
 import junit.framework.JUnit4TestAdapter;
 
@@ -29,8 +30,10 @@ import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.io.IntWritable;
 import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.WritableComparator;
 import org.junit.Test;
 
+import tl.lin.data.WritableComparatorTestHarness;
 import tl.lin.data.pair.PairOfWritables;
 import tl.lin.data.util.SequenceFileUtils;
 
@@ -173,6 +176,30 @@ public class ArrayListOfShortsWritableTest {
     assertTrue(e.compareTo(d) < 0);
   }
 
+  @Test
+  public void testComparator() {
+    WritableComparator comparator = WritableComparator.get(ArrayListOfShortsWritable.class);
+    assertTrue(comparator instanceof ArrayListOfShortsWritable.Comparator);
+
+    // Short lists over a few values, so that there are many ties and common prefixes.
+    Random r = new Random(1);
+    ArrayListOfShortsWritable[] lists = new ArrayListOfShortsWritable[200];
+    for (int i = 0; i < lists.length; i++) {
+      lists[i] = new ArrayListOfShortsWritable();
+      int size = r.nextInt(5);
+      for (int j = 0; j < size; j++) {
+        lists[i].add((short) ((r.nextInt(7) - 3) * 10000));
+      }
+    }
+
+    for (int i = 0; i < lists.length; i++) {
+      for (int j = 0; j < lists.length; j++) {
+        assertEquals(Integer.signum(lists[i].compareTo(lists[j])),
+            Integer.signum(WritableComparatorTestHarness.compare(comparator, lists[i], lists[j])));
+      }
+    }
+  }
+
   public static junit.framework.Test suite() {
     return new JUnit4TestAdapter(ArrayListOfShortsWritableTest.class);
   }
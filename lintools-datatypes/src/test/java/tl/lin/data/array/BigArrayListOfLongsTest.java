@@ -0,0 +1,169 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.array;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.Test;
+
+public class BigArrayListOfLongsTest {
+
+  private static File tempFile() throws IOException {
+    File file = File.createTempFile("BigArrayListOfLongsTest", ".bin");
+    file.deleteOnExit();
+    return file;
+  }
+
+  @Test
+  public void testBasic() {
+    // Small segments, so that many segment boundaries are crossed.
+    BigArrayListOfLongs list = new BigArrayListOfLongs(4);
+    assertTrue(list.isEmpty());
+    for (int i = 0; i < 1000; i++) {
+      list.add(i * 3L);
+    }
+    assertEquals(1000, list.size());
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(i * 3L, list.get(i));
+    }
+
+    assertEquals(30L, list.set(10, -1L));
+    assertEquals(-1L, list.get(10));
+
+    list.clear();
+    assertTrue(list.isEmpty());
+    list.add(5L);
+    assertEquals(5L, list.get(0));
+  }
+
+  @Test
+  public void testBulk() {
+    Random r = new Random(1);
+    long[] values = new long[1000];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = r.nextLong();
+    }
+
+    BigArrayListOfLongs list = new BigArrayListOfLongs(4);
+    list.add(values[0]);
+    list.addAll(values, 1, 500);
+    list.addAll(new ArrayListOfLongs(Arrays.copyOfRange(values, 501, 1000)));
+    assertEquals(1000, list.size());
+
+    long[] out = new long[1000];
+    list.get(0, out, 0, 1000);
+    assertArrayEquals(values, out);
+
+    out = new long[37];
+    list.get(123, out, 0, 37);
+    assertArrayEquals(Arrays.copyOfRange(values, 123, 160), out);
+  }
+
+  @Test
+  public void testBinarySearch() {
+    long[] values = new long[300];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = i * 2L - 100;
+    }
+    BigArrayListOfLongs list = new BigArrayListOfLongs(4);
+    list.addAll(values, 0, values.length);
+
+    for (long key = -110; key < 510; key++) {
+      assertEquals(Arrays.binarySearch(values, key), list.binarySearch(key));
+    }
+    assertEquals(-1, new BigArrayListOfLongs().binarySearch(0));
+  }
+
+  @Test
+  public void testSaveLoadMap() throws IOException {
+    Random r = new Random(2);
+    BigArrayListOfLongs list = new BigArrayListOfLongs(4);
+    long v = 0;
+    for (int i = 0; i < 1000; i++) {
+      v += r.nextInt(1000);
+      list.add(v);
+    }
+
+    File file = tempFile();
+    list.save(file);
+    assertEquals(16 + 1000 * 8, file.length());
+
+    BigArrayListOfLongs loaded = BigArrayListOfLongs.load(file);
+    MappedArrayOfLongs mapped = MappedArrayOfLongs.map(file);
+    MappedArrayOfLongs mappedSegments = MappedArrayOfLongs.map(file, 4);
+    assertEquals(1000, loaded.size());
+    assertEquals(1000, mapped.size());
+    assertEquals(1000, mappedSegments.size());
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(list.get(i), loaded.get(i));
+      assertEquals(list.get(i), mapped.get(i));
+      assertEquals(list.get(i), mappedSegments.get(i));
+      assertEquals(list.binarySearch(list.get(i)), mappedSegments.binarySearch(list.get(i)));
+      assertEquals(list.binarySearch(list.get(i) + 1),
+          mappedSegments.binarySearch(list.get(i) + 1));
+    }
+
+    long[] expected = new long[100];
+    long[] out = new long[100];
+    list.get(450, expected, 0, 100);
+    mappedSegments.get(450, out, 0, 100);
+    assertArrayEquals(expected, out);
+
+    new BigArrayListOfLongs().save(file);
+    assertTrue(BigArrayListOfLongs.load(file).isEmpty());
+    assertTrue(MappedArrayOfLongs.map(file).isEmpty());
+  }
+
+  @Test
+  public void testWrongFile() throws IOException {
+    File file = tempFile();
+    new BigArrayListOfInts().add(1).save(file);
+    try {
+      BigArrayListOfLongs.load(file);
+      fail();
+    } catch (IOException e) {
+      // Expected: the file holds ints.
+    }
+    try {
+      MappedArrayOfLongs.map(file);
+      fail();
+    } catch (IOException e) {
+      // Expected: the file holds ints.
+    }
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testOutOfBounds() {
+    BigArrayListOfLongs list = new BigArrayListOfLongs();
+    list.add(1L);
+    list.get(1);
+  }
+
+  public static junit.framework.Test suite() {
+    return new JUnit4TestAdapter(BigArrayListOfLongsTest.class);
+  }
+}
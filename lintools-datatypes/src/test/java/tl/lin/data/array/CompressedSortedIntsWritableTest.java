@@ -0,0 +1,209 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.array;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.Test;
+
+import tl.lin.data.array.CompressedSortedIntsWritable.Encoding;
+
+public class CompressedSortedIntsWritableTest {
+
+  private static int[] randomSorted(Random r, int n, int maxGap) {
+    int[] arr = new int[n];
+    int v = r.nextInt(1000);
+    for (int i = 0; i < n; i++) {
+      v += r.nextInt(maxGap);
+      arr[i] = v;
+    }
+    return arr;
+  }
+
+  private static CompressedSortedIntsWritable roundTrip(CompressedSortedIntsWritable list,
+      CompressedSortedIntsWritable into) throws IOException {
+    ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
+    list.write(new DataOutputStream(bytesOut));
+    into.readFields(new DataInputStream(new ByteArrayInputStream(bytesOut.toByteArray())));
+    return into;
+  }
+
+  private static void check(int[] values) throws IOException {
+    for (Encoding encoding : Encoding.values()) {
+      CompressedSortedIntsWritable list = new CompressedSortedIntsWritable(values, encoding);
+      assertEquals(values.length, list.size());
+      assertArrayEquals(values, list.toArray());
+
+      CompressedSortedIntsWritable copy = roundTrip(list, new CompressedSortedIntsWritable());
+      assertEquals(encoding, copy.getEncoding());
+      assertEquals(values.length, copy.size());
+
+      int[] decoded = new int[values.length + 10];
+      assertEquals(values.length, copy.decode(decoded));
+      assertArrayEquals(values, Arrays.copyOf(decoded, values.length));
+
+      for (int i = 0; i < values.length; i++) {
+        assertEquals(values[i], copy.get(i));
+        assertTrue(copy.contains(values[i]));
+      }
+    }
+  }
+
+  @Test
+  public void testBasic() throws IOException {
+    int[] values = new int[] { 1, 3, 53, 97, 286 };
+    CompressedSortedIntsWritable list = new CompressedSortedIntsWritable(values, Encoding.PFOR);
+    assertEquals(5, list.size());
+    assertEquals(1, list.getNumberOfBlocks());
+    assertEquals("[1, 3, 53, 97, 286]", list.toString());
+    assertFalse(list.contains(0));
+    assertFalse(list.contains(2));
+    assertFalse(list.contains(300));
+    assertTrue(list.contains(97));
+
+    check(values);
+  }
+
+  @Test
+  public void testEmpty() throws IOException {
+    CompressedSortedIntsWritable list = new CompressedSortedIntsWritable();
+    assertTrue(list.isEmpty());
+    assertEquals(0, list.getNumberOfBlocks());
+    assertFalse(list.contains(0));
+    assertEquals(0, list.toArray().length);
+
+    check(new int[0]);
+    check(new int[] { 42 });
+  }
+
+  @Test
+  public void testBlockBoundaries() throws IOException {
+    Random r = new Random(1);
+    for (int n : new int[] { 127, 128, 129, 255, 256, 257, 1000 }) {
+      check(randomSorted(r, n, 100));
+    }
+  }
+
+  @Test
+  public void testExtremeValues() throws IOException {
+    // Duplicates, negative values, and gaps needing all 32 bits.
+    check(new int[] { Integer.MIN_VALUE, Integer.MIN_VALUE, -5, -5, 0, 0, 0, 7,
+        Integer.MAX_VALUE - 1, Integer.MAX_VALUE, Integer.MAX_VALUE });
+
+    int[] values = new int[300];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = i % 100 == 99 ? Integer.MAX_VALUE : i;
+    }
+    Arrays.sort(values);
+    check(values);
+
+    // Mostly small gaps with a few large exceptions.
+    Random r = new Random(2);
+    values = randomSorted(r, 1000, 8);
+    for (int i = 500; i < values.length; i++) {
+      values[i] += 1 << 20;
+    }
+    values[values.length - 1] = Integer.MAX_VALUE;
+    check(values);
+  }
+
+  @Test
+  public void testRandom() throws IOException {
+    Random r = new Random(3);
+    for (int trial = 0; trial < 50; trial++) {
+      check(randomSorted(r, r.nextInt(2000), 1 + r.nextInt(100000)));
+    }
+  }
+
+  @Test
+  public void testDecodeBlock() {
+    Random r = new Random(4);
+    int[] values = randomSorted(r, 300, 50);
+    CompressedSortedIntsWritable list = new CompressedSortedIntsWritable(values, Encoding.PFOR);
+    assertEquals(3, list.getNumberOfBlocks());
+
+    int[] block = new int[CompressedSortedIntsWritable.BLOCK_SIZE];
+    assertEquals(44, list.decodeBlock(2, block, 0));
+    assertEquals(values[256], list.getBlockFirst(2));
+    for (int i = 0; i < 44; i++) {
+      assertEquals(values[256 + i], block[i]);
+    }
+
+    assertEquals(1, list.findBlock(values[200]));
+    assertEquals(1, list.findBlock(values[128]));
+    assertEquals(0, list.findBlock(values[127]));
+    assertEquals(-1, list.findBlock(values[0] - 1));
+  }
+
+  @Test
+  public void testCompression() throws IOException {
+    // Dense docids, as in postings for a common term.
+    Random r = new Random(5);
+    int[] values = randomSorted(r, 100000, 16);
+
+    for (Encoding encoding : Encoding.values()) {
+      CompressedSortedIntsWritable list = new CompressedSortedIntsWritable(values, encoding);
+      ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
+      list.write(new DataOutputStream(bytesOut));
+      assertTrue(bytesOut.size() * 3 < values.length * 4);
+    }
+
+    CompressedSortedIntsWritable vbyte = new CompressedSortedIntsWritable(values, Encoding.VBYTE);
+    CompressedSortedIntsWritable pfor = new CompressedSortedIntsWritable(values, Encoding.PFOR);
+    assertTrue(pfor.getCompressedSize() < vbyte.getCompressedSize());
+  }
+
+  @Test
+  public void testReuse() throws IOException {
+    Random r = new Random(6);
+    int[] large = randomSorted(r, 5000, 1000);
+    int[] small = randomSorted(r, 10, 10);
+
+    CompressedSortedIntsWritable list = new CompressedSortedIntsWritable();
+    roundTrip(new CompressedSortedIntsWritable(large, Encoding.PFOR), list);
+    assertArrayEquals(large, list.toArray());
+    roundTrip(new CompressedSortedIntsWritable(small, Encoding.VBYTE), list);
+    assertArrayEquals(small, list.toArray());
+    assertEquals(Encoding.VBYTE, list.getEncoding());
+
+    list.set(new ArrayListOfInts(large));
+    assertArrayEquals(large, list.toArray());
+    assertEquals(new ArrayListOfIntsWritable(large), list.toArrayListOfIntsWritable());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnsorted() {
+    new CompressedSortedIntsWritable(new int[] { 1, 3, 2 }, Encoding.PFOR);
+  }
+
+  public static junit.framework.Test suite() {
+    return new JUnit4TestAdapter(CompressedSortedIntsWritableTest.class);
+  }
+}
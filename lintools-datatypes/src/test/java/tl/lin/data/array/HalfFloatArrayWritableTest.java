@@ -0,0 +1,165 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.array;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.Test;
+
+public class HalfFloatArrayWritableTest {
+
+  @Test
+  public void testConversion() {
+    assertEquals(0x0000, HalfFloatArrayWritable.toHalf(0.0f));
+    assertEquals((short) 0x8000, HalfFloatArrayWritable.toHalf(-0.0f));
+    assertEquals(0x3c00, HalfFloatArrayWritable.toHalf(1.0f));
+    assertEquals((short) 0xc000, HalfFloatArrayWritable.toHalf(-2.0f));
+    assertEquals(0x7bff, HalfFloatArrayWritable.toHalf(65504.0f));
+    assertEquals(0x7c00, HalfFloatArrayWritable.toHalf(65520.0f));
+    assertEquals(0x7bff, HalfFloatArrayWritable.toHalf(65519.0f));
+    assertEquals(0x7c00, HalfFloatArrayWritable.toHalf(Float.POSITIVE_INFINITY));
+    assertEquals(0x0001, HalfFloatArrayWritable.toHalf(0x1p-24f));
+    assertEquals(0x0000, HalfFloatArrayWritable.toHalf(0x1p-25f));
+    assertEquals(0x0001, HalfFloatArrayWritable.toHalf(0x1.01p-25f));
+    assertEquals(0x0400, HalfFloatArrayWritable.toHalf(0x1p-14f));
+    // Ties round to even: 1 + 2^-11 is halfway between 1 and 1 + 2^-10.
+    assertEquals(0x3c00, HalfFloatArrayWritable.toHalf(1.0f + 0x1p-11f));
+    assertEquals(0x3c02, HalfFloatArrayWritable.toHalf(1.0f + 3 * 0x1p-11f));
+    assertTrue(Float.isNaN(HalfFloatArrayWritable.toFloat(HalfFloatArrayWritable
+        .toHalf(Float.NaN))));
+
+    // Every half-precision value converts to a float and back unchanged.
+    for (int h = 0; h < 1 << 16; h++) {
+      float f = HalfFloatArrayWritable.toFloat((short) h);
+      if (!Float.isNaN(f)) {
+        assertEquals((short) h, HalfFloatArrayWritable.toHalf(f));
+      }
+    }
+  }
+
+  @Test
+  public void testRounding() {
+    // Conversion picks the nearest half-precision value.
+    Random r = new Random(1);
+    for (int i = 0; i < 100000; i++) {
+      float f = Float.intBitsToFloat(r.nextInt());
+      if (Float.isNaN(f) || Math.abs(f) >= 65504.0f) {
+        continue;
+      }
+
+      short h = HalfFloatArrayWritable.toHalf(f);
+      double error = Math.abs((double) HalfFloatArrayWritable.toFloat(h) - f);
+      for (int d = -1; d <= 1; d += 2) {
+        float neighbor = HalfFloatArrayWritable.toFloat((short) (h + d));
+        if (!Float.isNaN(neighbor) && !Float.isInfinite(neighbor)
+            && Math.signum(neighbor) * Math.signum(f) >= 0) {
+          assertTrue(error <= Math.abs((double) neighbor - f));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testBasic() {
+    Random r = new Random(2);
+    float[] values = new float[301];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = (float) r.nextGaussian();
+    }
+
+    HalfFloatArrayWritable vector = new HalfFloatArrayWritable(values);
+    assertEquals(values.length, vector.size());
+    float[] decoded = vector.toArray();
+    for (int i = 0; i < values.length; i++) {
+      assertEquals(values[i], decoded[i], Math.abs(values[i]) * 0x1p-11f);
+      assertEquals(decoded[i], vector.get(i), 0.0f);
+    }
+
+    float[] query = new float[values.length + 1];
+    for (int i = 0; i < query.length; i++) {
+      query[i] = (float) r.nextGaussian();
+    }
+    assertEquals(VectorMath.dot(decoded, 0, query, 1, values.length), vector.dot(query, 1), 1e-4f);
+    assertEquals(VectorMath.dot(values, 0, query, 1, values.length), vector.dot(query, 1), 1e-2f);
+    assertEquals(VectorMath.cosine(decoded, 0, query, 1, values.length), vector.cosine(query, 1),
+        1e-5f);
+
+    HalfFloatArrayWritable other = new HalfFloatArrayWritable();
+    other.set(new FloatArrayWritable(query, values.length));
+    float[] otherDecoded = other.toArray();
+    assertEquals(VectorMath.dot(decoded, 0, otherDecoded, 0, values.length), vector.dot(other),
+        1e-4f);
+    assertEquals(VectorMath.cosine(decoded, 0, otherDecoded, 0, values.length),
+        vector.cosine(other), 1e-5f);
+    assertEquals(VectorMath.norm(decoded, 0, values.length), vector.norm(), 1e-4f);
+    assertEquals(1.0f, vector.cosine(vector), 1e-5f);
+  }
+
+  @Test
+  public void testEmpty() {
+    HalfFloatArrayWritable vector = new HalfFloatArrayWritable(new float[] { 1.0f, 2.0f });
+    // A default-constructed FloatArrayWritable has no array.
+    vector.set(new FloatArrayWritable());
+    assertEquals(0, vector.size());
+    assertEquals(0, vector.toArray().length);
+    assertEquals(0.0f, vector.norm(), 0.0f);
+    assertEquals(0.0f, vector.dot(new HalfFloatArrayWritable()), 0.0f);
+  }
+
+  @Test
+  public void testSerialize() throws IOException {
+    HalfFloatArrayWritable vector = new HalfFloatArrayWritable();
+    vector.set(new ArrayListOfFloats(new float[] { 1.5f, -0.25f, 1000.0f, 3.14159f }));
+
+    ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
+    DataOutputStream dataOut = new DataOutputStream(bytesOut);
+    vector.write(dataOut);
+    assertEquals(4 + 4 * 2, bytesOut.size());
+
+    // Reading reuses a larger buffer.
+    HalfFloatArrayWritable read = new HalfFloatArrayWritable(new float[10]);
+    read.readFields(new DataInputStream(new ByteArrayInputStream(bytesOut.toByteArray())));
+    assertEquals(4, read.size());
+    assertArrayEquals(vector.toArray(), read.toArray(), 0.0f);
+    assertEquals(3.140625f, read.get(3), 0.0f);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSizeMismatch() {
+    new HalfFloatArrayWritable(new float[2]).dot(new HalfFloatArrayWritable(new float[3]));
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testOutOfBounds() {
+    new HalfFloatArrayWritable(new float[2]).get(2);
+  }
+
+  public static junit.framework.Test suite() {
+    return new JUnit4TestAdapter(HalfFloatArrayWritableTest.class);
+  }
+}
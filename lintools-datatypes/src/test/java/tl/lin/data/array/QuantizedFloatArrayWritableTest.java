@@ -0,0 +1,148 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.array;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.Test;
+
+public class QuantizedFloatArrayWritableTest {
+
+  private static float[] randomFloats(Random r, int n, float mean) {
+    float[] a = new float[n];
+    for (int i = 0; i < n; i++) {
+      a[i] = mean + (float) r.nextGaussian();
+    }
+    return a;
+  }
+
+  private static int maxIndex(float[] values) {
+    return VectorMath.argmax(values, 0, values.length);
+  }
+
+  @Test
+  public void testBasic() {
+    Random r = new Random(1);
+    float[] values = randomFloats(r, 301, 0.5f);
+    float min = Float.MAX_VALUE;
+    float max = -Float.MAX_VALUE;
+    for (float v : values) {
+      min = Math.min(min, v);
+      max = Math.max(max, v);
+    }
+
+    QuantizedFloatArrayWritable vector = new QuantizedFloatArrayWritable(values);
+    assertEquals(values.length, vector.size());
+    assertEquals(min, vector.getOffset(), 0.0f);
+    assertEquals((max - min) / 255, vector.getScale(), 1e-6f);
+
+    float[] decoded = vector.toArray();
+    float step = vector.getScale();
+    for (int i = 0; i < values.length; i++) {
+      assertEquals(values[i], decoded[i], step * 0.501f);
+      assertEquals(decoded[i], vector.get(i), 0.0f);
+    }
+    assertEquals(max, vector.toArray()[maxIndex(values)], step * 0.01f);
+
+    float[] query = randomFloats(r, values.length + 1, -0.25f);
+    int n = values.length;
+    assertEquals(VectorMath.dot(decoded, 0, query, 1, n), vector.dot(query, 1), 1e-3f);
+    assertEquals(VectorMath.cosine(decoded, 0, query, 1, n), vector.cosine(query, 1), 1e-5f);
+    assertEquals(VectorMath.norm(decoded, 0, n), vector.norm(), 1e-3f);
+
+    QuantizedFloatArrayWritable other = new QuantizedFloatArrayWritable();
+    other.set(new ArrayListOfFloats(randomFloats(r, n, 2.0f)));
+    float[] otherDecoded = other.toArray();
+    assertEquals(VectorMath.dot(decoded, 0, otherDecoded, 0, n), vector.dot(other), 1e-3f);
+    assertEquals(VectorMath.cosine(decoded, 0, otherDecoded, 0, n), vector.cosine(other), 1e-5f);
+    assertEquals(1.0f, vector.cosine(vector), 1e-5f);
+  }
+
+  @Test
+  public void testConstant() {
+    QuantizedFloatArrayWritable vector = new QuantizedFloatArrayWritable(new float[] { 2.5f,
+        2.5f, 2.5f });
+    assertEquals(0.0f, vector.getScale(), 0.0f);
+    assertArrayEquals(new float[] { 2.5f, 2.5f, 2.5f }, vector.toArray(), 0.0f);
+    assertEquals(7.5f, vector.dot(new float[] { 1.0f, 1.0f, 1.0f }, 0), 0.0f);
+
+    QuantizedFloatArrayWritable zeros = new QuantizedFloatArrayWritable(new float[3]);
+    assertEquals(0.0f, zeros.norm(), 0.0f);
+    assertEquals(0.0f, zeros.cosine(vector), 0.0f);
+
+    QuantizedFloatArrayWritable empty = new QuantizedFloatArrayWritable(new float[0]);
+    assertEquals(0, empty.size());
+    assertEquals(0.0f, empty.dot(empty), 0.0f);
+
+    // A default-constructed FloatArrayWritable has no array.
+    vector.set(new FloatArrayWritable());
+    assertEquals(0, vector.size());
+    assertEquals(0, vector.toArray().length);
+    assertEquals(0.0f, vector.dot(empty), 0.0f);
+  }
+
+  @Test
+  public void testSerialize() throws IOException {
+    QuantizedFloatArrayWritable vector = new QuantizedFloatArrayWritable();
+    vector.set(new FloatArrayWritable(new float[] { -1.0f, 0.0f, 0.5f, 3.0f, 99.0f }, 4));
+
+    ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
+    DataOutputStream dataOut = new DataOutputStream(bytesOut);
+    vector.write(dataOut);
+    assertEquals(12 + 4, bytesOut.size());
+
+    QuantizedFloatArrayWritable read = new QuantizedFloatArrayWritable(new float[10]);
+    read.readFields(new DataInputStream(new ByteArrayInputStream(bytesOut.toByteArray())));
+    assertEquals(4, read.size());
+    assertArrayEquals(vector.toArray(), read.toArray(), 0.0f);
+    assertEquals(-1.0f, read.get(0), 0.0f);
+    assertEquals(3.0f, read.get(3), 1e-6f);
+    // Sums of codes are recomputed on reading.
+    assertEquals(vector.norm(), read.norm(), 0.0f);
+    assertEquals(vector.dot(vector), read.dot(read), 0.0f);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNaN() {
+    new QuantizedFloatArrayWritable(new float[] { 1.0f, Float.NaN });
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSizeMismatch() {
+    new QuantizedFloatArrayWritable(new float[2]).dot(new QuantizedFloatArrayWritable(
+        new float[3]));
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testQueryOutOfBounds() {
+    new QuantizedFloatArrayWritable(new float[4]).dot(new float[4], 1);
+  }
+
+  public static junit.framework.Test suite() {
+    return new JUnit4TestAdapter(QuantizedFloatArrayWritableTest.class);
+  }
+}
@@ -0,0 +1,269 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.array;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.Test;
+
+public class RadixSortTest {
+  private static final int[] SIZES = new int[] { 0, 1, 2, 10, 63, 64, 65, 1000, 50000 };
+
+  private static int[] randomInts(Random r, int n, boolean narrow) {
+    int[] a = new int[n];
+    for (int i = 0; i < n; i++) {
+      a[i] = narrow ? r.nextInt(1000) - 500 : r.nextInt();
+    }
+    return a;
+  }
+
+  private static long[] randomLongs(Random r, int n, boolean narrow) {
+    long[] a = new long[n];
+    for (int i = 0; i < n; i++) {
+      a[i] = narrow ? r.nextInt(1000) - 500 : r.nextLong();
+    }
+    return a;
+  }
+
+  private static float[] randomFloats(Random r, int n) {
+    float[] special = new float[] { 0.0f, -0.0f, Float.NaN, Float.POSITIVE_INFINITY,
+        Float.NEGATIVE_INFINITY, Float.MIN_VALUE, -Float.MIN_VALUE, Float.MAX_VALUE,
+        -Float.MAX_VALUE };
+    float[] a = new float[n];
+    for (int i = 0; i < n; i++) {
+      a[i] = r.nextInt(10) == 0 ? special[r.nextInt(special.length)]
+          : (float) r.nextGaussian() * 100;
+    }
+    return a;
+  }
+
+  private static double[] randomDoubles(Random r, int n) {
+    double[] special = new double[] { 0.0, -0.0, Double.NaN, Double.POSITIVE_INFINITY,
+        Double.NEGATIVE_INFINITY, Double.MIN_VALUE, -Double.MIN_VALUE, Double.MAX_VALUE,
+        -Double.MAX_VALUE };
+    double[] a = new double[n];
+    for (int i = 0; i < n; i++) {
+      a[i] = r.nextInt(10) == 0 ? special[r.nextInt(special.length)] : r.nextGaussian() * 100;
+    }
+    return a;
+  }
+
+  @Test
+  public void testSort() {
+    Random r = new Random(1);
+    for (int n : SIZES) {
+      for (boolean narrow : new boolean[] { false, true }) {
+        int[] ints = randomInts(r, n, narrow);
+        int[] expectedInts = ints.clone();
+        Arrays.sort(expectedInts);
+        RadixSort.sort(ints, 0, n);
+        assertArrayEquals(expectedInts, ints);
+
+        long[] longs = randomLongs(r, n, narrow);
+        long[] expectedLongs = longs.clone();
+        Arrays.sort(expectedLongs);
+        RadixSort.sort(longs, 0, n);
+        assertArrayEquals(expectedLongs, longs);
+      }
+
+      float[] floats = randomFloats(r, n);
+      float[] expectedFloats = floats.clone();
+      Arrays.sort(expectedFloats);
+      RadixSort.sort(floats, 0, n);
+      assertTrue(Arrays.equals(expectedFloats, floats));
+
+      double[] doubles = randomDoubles(r, n);
+      double[] expectedDoubles = doubles.clone();
+      Arrays.sort(expectedDoubles);
+      RadixSort.sort(doubles, 0, n);
+      assertTrue(Arrays.equals(expectedDoubles, doubles));
+    }
+  }
+
+  @Test
+  public void testSortRange() {
+    Random r = new Random(2);
+    int[] a = randomInts(r, 1000, false);
+    int[] expected = a.clone();
+    Arrays.sort(expected, 100, 900);
+    RadixSort.sort(a, 100, 800);
+    assertArrayEquals(expected, a);
+  }
+
+  @Test
+  public void testArgsort() {
+    Random r = new Random(3);
+    for (int n : SIZES) {
+      float[] keys = randomFloats(r, n);
+      // Add ties, to check that the sort is stable.
+      for (int i = 0; i < n / 2; i++) {
+        keys[r.nextInt(n)] = keys[r.nextInt(n)];
+      }
+      float[] original = keys.clone();
+
+      int[] perm = RadixSort.argsort(keys, 0, n);
+      assertTrue(Arrays.equals(original, keys));
+      assertEquals(n, perm.length);
+      for (int i = 1; i < n; i++) {
+        int c = Float.compare(keys[perm[i - 1]], keys[perm[i]]);
+        assertTrue(c < 0 || (c == 0 && perm[i - 1] < perm[i]));
+      }
+
+      int[] ints = randomInts(r, n, true);
+      perm = RadixSort.argsort(ints, 0, n);
+      for (int i = 1; i < n; i++) {
+        assertTrue(ints[perm[i - 1]] < ints[perm[i]]
+            || (ints[perm[i - 1]] == ints[perm[i]] && perm[i - 1] < perm[i]));
+      }
+    }
+
+    // Indexes are into the whole array.
+    int[] perm = RadixSort.argsort(new long[] { 9, 3, 2, 1, 9 }, 1, 3);
+    assertArrayEquals(new int[] { 3, 2, 1 }, perm);
+    perm = RadixSort.argsort(new double[] { 0.5, -1.0, 0.25 }, 0, 3);
+    assertArrayEquals(new int[] { 1, 2, 0 }, perm);
+  }
+
+  @Test
+  public void testSortByKey() {
+    Random r = new Random(4);
+    for (int n : SIZES) {
+      float[] scores = randomFloats(r, n);
+      int[] ids = new int[n];
+      for (int i = 0; i < n; i++) {
+        ids[i] = i;
+      }
+      float[] original = scores.clone();
+
+      int[] perm = RadixSort.argsort(scores, 0, n);
+      RadixSort.sortByKey(scores, ids, 0, n);
+      assertArrayEquals(perm, ids);
+      for (int i = 0; i < n; i++) {
+        assertEquals(Float.floatToIntBits(original[ids[i]]), Float.floatToIntBits(scores[i]));
+      }
+
+      long[] keys = randomLongs(r, n, true);
+      long[] originalKeys = keys.clone();
+      int[] values = new int[n];
+      for (int i = 0; i < n; i++) {
+        values[i] = i;
+      }
+      RadixSort.sortByKey(keys, values, 0, n);
+      for (int i = 0; i < n; i++) {
+        assertEquals(originalKeys[values[i]], keys[i]);
+        if (i > 0) {
+          assertTrue(keys[i - 1] < keys[i]
+              || (keys[i - 1] == keys[i] && values[i - 1] < values[i]));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testParallelSort() {
+    // Use an odd number of chunks, so that some merge rounds have a run left over.
+    int parallelism = RadixSort.parallelism;
+    try {
+      for (int threads : new int[] { 1, 3, 4 }) {
+        RadixSort.parallelism = threads;
+        checkParallelSort(new Random(threads));
+      }
+    } finally {
+      RadixSort.parallelism = parallelism;
+    }
+  }
+
+  private void checkParallelSort(Random r) {
+    int n = 3 * RadixSort.PARALLEL_THRESHOLD + 17;
+
+    int[] ints = randomInts(r, n, false);
+    int[] expectedInts = ints.clone();
+    Arrays.sort(expectedInts);
+    RadixSort.parallelSort(ints, 0, n);
+    assertArrayEquals(expectedInts, ints);
+
+    long[] longs = randomLongs(r, n, false);
+    long[] expectedLongs = longs.clone();
+    Arrays.sort(expectedLongs);
+    RadixSort.parallelSort(longs, 0, n);
+    assertArrayEquals(expectedLongs, longs);
+
+    double[] doubles = randomDoubles(r, n);
+    double[] expectedDoubles = doubles.clone();
+    Arrays.sort(expectedDoubles);
+    RadixSort.parallelSort(doubles, 0, n);
+    assertTrue(Arrays.equals(expectedDoubles, doubles));
+
+    // Parallel sorting by key must be stable, just like the sequential version.
+    int[] keys = randomInts(r, n, true);
+    int[] keysCopy = keys.clone();
+    int[] values = new int[n];
+    int[] valuesCopy = new int[n];
+    for (int i = 0; i < n; i++) {
+      values[i] = i;
+      valuesCopy[i] = i;
+    }
+    RadixSort.sortByKey(keysCopy, valuesCopy, 0, n);
+    RadixSort.parallelSortByKey(keys, values, 0, n);
+    assertArrayEquals(keysCopy, keys);
+    assertArrayEquals(valuesCopy, values);
+
+    float[] scores = randomFloats(r, n);
+    float[] scoresCopy = scores.clone();
+    RadixSort.sortByKey(scoresCopy, valuesCopy, 0, n);
+    RadixSort.parallelSortByKey(scores, values, 0, n);
+    assertTrue(Arrays.equals(scoresCopy, scores));
+    assertArrayEquals(valuesCopy, values);
+  }
+
+  @Test
+  public void testLists() {
+    ArrayListOfInts ints = new ArrayListOfInts(new int[] { 5, -2, 7, 0 });
+    ints.add(3);
+    int capacity = ints.getArray().length;
+    RadixSort.sort(ints);
+    assertEquals(new ArrayListOfInts(new int[] { -2, 0, 3, 5, 7 }), ints);
+    assertEquals(capacity, ints.getArray().length);
+
+    ArrayListOfFloats scores = new ArrayListOfFloats(new float[] { 0.5f, 0.25f, 0.75f });
+    ArrayListOfInts ids = new ArrayListOfInts(new int[] { 10, 20, 30 });
+    RadixSort.sortByKey(scores, ids);
+    assertEquals(new ArrayListOfInts(new int[] { 20, 10, 30 }), ids);
+    assertEquals(0.25f, scores.get(0), 0.0f);
+
+    ArrayListOfLongs longs = new ArrayListOfLongs(new long[] { 3, Long.MIN_VALUE, -1 });
+    RadixSort.parallelSort(longs);
+    assertEquals(Long.MIN_VALUE, longs.get(0));
+    assertEquals(3, longs.get(2));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testListSizeMismatch() {
+    RadixSort.sortByKey(new ArrayListOfInts(new int[] { 1, 2 }), new ArrayListOfInts(new int[1]));
+  }
+
+  public static junit.framework.Test suite() {
+    return new JUnit4TestAdapter(RadixSortTest.class);
+  }
+}
@@ -0,0 +1,269 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.array;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeSet;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.Test;
+
+public class RoaringBitmapWritableTest {
+
+  // Random values spread over a few chunks, with a mix of sparse, dense and run-heavy chunks.
+  private static TreeSet<Integer> randomSet(Random r) {
+    TreeSet<Integer> set = new TreeSet<Integer>();
+    for (int chunk = 0; chunk < 6; chunk++) {
+      int base = r.nextInt(8) << 16;
+      switch (r.nextInt(3)) {
+      case 0:
+        for (int i = 0, n = r.nextInt(3000); i < n; i++) {
+          set.add(base + r.nextInt(1 << 16));
+        }
+        break;
+      case 1:
+        for (int i = 0, n = 5000 + r.nextInt(40000); i < n; i++) {
+          set.add(base + r.nextInt(1 << 16));
+        }
+        break;
+      default:
+        for (int i = 0, n = r.nextInt(20); i < n; i++) {
+          int start = r.nextInt(1 << 16);
+          int end = Math.min(1 << 16, start + r.nextInt(3000));
+          for (int v = start; v < end; v++) {
+            set.add(base + v);
+          }
+        }
+      }
+    }
+    return set;
+  }
+
+  private static RoaringBitmapWritable toBitmap(TreeSet<Integer> set, boolean optimize) {
+    RoaringBitmapWritable bitmap = new RoaringBitmapWritable();
+    // Add in random order, to exercise insertion as well as appending.
+    Integer[] values = set.toArray(new Integer[set.size()]);
+    Random r = new Random(values.length);
+    for (int i = values.length - 1; i > 0; i--) {
+      int j = r.nextInt(i + 1);
+      Integer t = values[i];
+      values[i] = values[j];
+      values[j] = t;
+    }
+    for (Integer v : values) {
+      bitmap.add(v);
+    }
+    if (optimize) {
+      bitmap.runOptimize();
+    }
+    return bitmap;
+  }
+
+  private static int[] toArray(TreeSet<Integer> set) {
+    int[] a = new int[set.size()];
+    int i = 0;
+    for (Integer v : set) {
+      a[i++] = v;
+    }
+    return a;
+  }
+
+  private static int[] toArray(ArrayListOfInts list) {
+    return Arrays.copyOf(list.getArray(), list.size());
+  }
+
+  private static void assertContents(TreeSet<Integer> expected, RoaringBitmapWritable bitmap) {
+    int[] values = toArray(expected);
+    assertEquals(values.length, bitmap.getCardinality());
+    assertArrayEquals(values, toArray(bitmap.toArrayListOfInts()));
+
+    ArrayListOfInts.IntIterator iter = bitmap.iterator();
+    for (int v : values) {
+      assertTrue(iter.hasNext());
+      assertEquals(v, iter.nextInt());
+    }
+    assertFalse(iter.hasNext());
+
+    final ArrayListOfInts visited = new ArrayListOfInts();
+    bitmap.forEachInt(new ArrayListOfInts.IntProcedure() {
+      public void apply(int value) {
+        visited.add(value);
+      }
+    });
+    assertArrayEquals(values, toArray(visited));
+  }
+
+  @Test
+  public void testBasic() {
+    RoaringBitmapWritable bitmap = new RoaringBitmapWritable();
+    assertTrue(bitmap.isEmpty());
+    bitmap.add(5).add(1 << 20).add(3).add(5).add(-1).add(70000);
+    assertEquals(5, bitmap.getCardinality());
+    assertTrue(bitmap.contains(3));
+    assertTrue(bitmap.contains(1 << 20));
+    assertTrue(bitmap.contains(-1));
+    assertFalse(bitmap.contains(4));
+    assertFalse(bitmap.contains(65536 + 5));
+
+    // Values are in unsigned order, so negative values come last.
+    assertArrayEquals(new int[] { 3, 5, 70000, 1 << 20, -1 }, toArray(bitmap.toArrayListOfInts()));
+
+    bitmap.clear();
+    assertTrue(bitmap.isEmpty());
+    assertFalse(bitmap.iterator().hasNext());
+  }
+
+  @Test
+  public void testContents() {
+    Random r = new Random(1);
+    for (int t = 0; t < 10; t++) {
+      TreeSet<Integer> set = randomSet(r);
+      for (boolean optimize : new boolean[] { false, true }) {
+        RoaringBitmapWritable bitmap = toBitmap(set, optimize);
+        assertContents(set, bitmap);
+        for (int i = 0; i < 2000; i++) {
+          int v = r.nextInt(8 << 16);
+          assertEquals(set.contains(v), bitmap.contains(v));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testContainers() {
+    // One container of each kind: sparse, dense and a long run.
+    RoaringBitmapWritable bitmap = new RoaringBitmapWritable();
+    TreeSet<Integer> set = new TreeSet<Integer>();
+    for (int v = 0; v < 1 << 16; v += 100) {
+      set.add(v);
+    }
+    for (int v = 1 << 16; v < 2 << 16; v += 3) {
+      set.add(v);
+    }
+    for (int v = (2 << 16) + 10; v < (2 << 16) + 50000; v++) {
+      set.add(v);
+    }
+    bitmap.addAll(new ArrayListOfInts(toArray(set)));
+    assertContents(set, bitmap);
+    int size = bitmap.getSerializedSize();
+
+    assertTrue(bitmap.runOptimize());
+    assertContents(set, bitmap);
+    assertEquals(size - 8192 + 6, bitmap.getSerializedSize());
+    assertFalse(bitmap.runOptimize());
+
+    // Adding to a run container expands it.
+    bitmap.add((2 << 16) + 5);
+    set.add((2 << 16) + 5);
+    assertContents(set, bitmap);
+  }
+
+  @Test
+  public void testOperations() {
+    Random r = new Random(2);
+    for (int t = 0; t < 10; t++) {
+      TreeSet<Integer> x = randomSet(r);
+      TreeSet<Integer> y = randomSet(r);
+      RoaringBitmapWritable a = toBitmap(x, t % 2 == 0);
+      RoaringBitmapWritable b = toBitmap(y, t % 3 == 0);
+
+      TreeSet<Integer> and = new TreeSet<Integer>(x);
+      and.retainAll(y);
+      TreeSet<Integer> or = new TreeSet<Integer>(x);
+      or.addAll(y);
+      TreeSet<Integer> andNot = new TreeSet<Integer>(x);
+      andNot.removeAll(y);
+
+      assertContents(and, RoaringBitmapWritable.and(a, b));
+      assertEquals(and.size(), RoaringBitmapWritable.andCardinality(a, b));
+      assertContents(or, RoaringBitmapWritable.or(a, b));
+      assertContents(andNot, RoaringBitmapWritable.andNot(a, b));
+
+      // Operands are unchanged.
+      assertContents(x, a);
+      assertContents(y, b);
+    }
+  }
+
+  @Test
+  public void testGalloping() {
+    // A small array container against a large one.
+    TreeSet<Integer> x = new TreeSet<Integer>(Arrays.asList(7, 100, 2001, 4000, 4095));
+    TreeSet<Integer> y = new TreeSet<Integer>();
+    for (int v = 1; v < 4096; v += 2) {
+      y.add(v);
+    }
+    TreeSet<Integer> and = new TreeSet<Integer>(x);
+    and.retainAll(y);
+
+    RoaringBitmapWritable a = toBitmap(x, false);
+    RoaringBitmapWritable b = toBitmap(y, false);
+    assertContents(and, RoaringBitmapWritable.and(a, b));
+    assertContents(and, RoaringBitmapWritable.and(b, a));
+    assertEquals(and.size(), RoaringBitmapWritable.andCardinality(b, a));
+  }
+
+  @Test
+  public void testSerialize() throws IOException {
+    Random r = new Random(3);
+    for (int t = 0; t < 4; t++) {
+      TreeSet<Integer> set = randomSet(r);
+      RoaringBitmapWritable bitmap = toBitmap(set, t % 2 == 1);
+
+      ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
+      DataOutputStream dataOut = new DataOutputStream(bytesOut);
+      bitmap.write(dataOut);
+      assertEquals(bitmap.getSerializedSize(), bytesOut.size());
+
+      RoaringBitmapWritable read = new RoaringBitmapWritable();
+      read.add(12345);
+      read.readFields(new DataInputStream(new ByteArrayInputStream(bytesOut.toByteArray())));
+      assertContents(set, read);
+      assertEquals(bitmap, read);
+      assertEquals(bitmap.hashCode(), read.hashCode());
+    }
+  }
+
+  @Test
+  public void testEquals() {
+    TreeSet<Integer> set = randomSet(new Random(4));
+    RoaringBitmapWritable a = toBitmap(set, false);
+    RoaringBitmapWritable b = toBitmap(set, true);
+    assertEquals(a, b);
+    assertEquals(a.hashCode(), b.hashCode());
+
+    b.add(-5);
+    assertFalse(a.equals(b));
+    assertFalse(a.equals(new RoaringBitmapWritable()));
+  }
+
+  public static junit.framework.Test suite() {
+    return new JUnit4TestAdapter(RoaringBitmapWritableTest.class);
+  }
+}
@@ -0,0 +1,210 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.array;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeSet;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.Test;
+
+public class SortedIntArraysTest {
+
+  private static int[] randomSet(Random r, int n, int range) {
+    TreeSet<Integer> set = new TreeSet<Integer>();
+    while (set.size() < n) {
+      set.add(r.nextInt(range));
+    }
+    return toArray(set);
+  }
+
+  private static int[] toArray(TreeSet<Integer> set) {
+    int[] arr = new int[set.size()];
+    int i = 0;
+    for (int v : set) {
+      arr[i++] = v;
+    }
+    return arr;
+  }
+
+  private static TreeSet<Integer> toSet(int[] arr) {
+    TreeSet<Integer> set = new TreeSet<Integer>();
+    for (int v : arr) {
+      set.add(v);
+    }
+    return set;
+  }
+
+  @Test
+  public void testGallop() {
+    int[] a = new int[] { 1, 3, 5, 7, 9, 11, 13, 15, 17 };
+    assertEquals(0, SortedIntArrays.gallop(a, 0, a.length, 0));
+    assertEquals(0, SortedIntArrays.gallop(a, 0, a.length, 1));
+    assertEquals(1, SortedIntArrays.gallop(a, 0, a.length, 2));
+    assertEquals(7, SortedIntArrays.gallop(a, 0, a.length, 14));
+    assertEquals(8, SortedIntArrays.gallop(a, 0, a.length, 17));
+    assertEquals(9, SortedIntArrays.gallop(a, 0, a.length, 18));
+    assertEquals(4, SortedIntArrays.gallop(a, 4, a.length, 2));
+    assertEquals(6, SortedIntArrays.gallop(a, 2, 6, 100));
+    assertEquals(3, SortedIntArrays.gallop(a, 3, 3, 100));
+
+    for (int from = 0; from < a.length; from++) {
+      for (int key = 0; key < 20; key++) {
+        int expected = from;
+        while (expected < a.length && a[expected] < key) {
+          expected++;
+        }
+        assertEquals(expected, SortedIntArrays.gallop(a, from, a.length, key));
+      }
+    }
+  }
+
+  @Test
+  public void testPairwise() {
+    int[] a = new int[] { 1, 3, 5, 7, 9 };
+    int[] b = new int[] { 2, 3, 4, 9, 10 };
+    int[] out = new int[10];
+
+    int n = SortedIntArrays.intersect(a, a.length, b, b.length, out);
+    assertArrayEquals(new int[] { 3, 9 }, Arrays.copyOf(out, n));
+    n = SortedIntArrays.union(a, a.length, b, b.length, out);
+    assertArrayEquals(new int[] { 1, 2, 3, 4, 5, 7, 9, 10 }, Arrays.copyOf(out, n));
+    n = SortedIntArrays.difference(a, a.length, b, b.length, out);
+    assertArrayEquals(new int[] { 1, 5, 7 }, Arrays.copyOf(out, n));
+
+    assertEquals(0, SortedIntArrays.intersect(a, 0, b, b.length, out));
+    assertEquals(5, SortedIntArrays.union(a, 0, b, b.length, out));
+    assertEquals(5, SortedIntArrays.difference(a, a.length, b, 0, out));
+  }
+
+  @Test
+  public void testPairwiseRandom() {
+    Random r = new Random(1);
+    int[] out = new int[20000];
+    for (int trial = 0; trial < 200; trial++) {
+      // Mix of similar and very skewed sizes, so that both merging and galloping are exercised.
+      int[] a = randomSet(r, r.nextInt(trial % 2 == 0 ? 50 : 5000), 10000);
+      int[] b = randomSet(r, r.nextInt(5000), 10000);
+
+      TreeSet<Integer> expected = toSet(a);
+      expected.retainAll(toSet(b));
+      int n = SortedIntArrays.intersect(a, a.length, b, b.length, out);
+      assertArrayEquals(toArray(expected), Arrays.copyOf(out, n));
+      n = SortedIntArrays.intersect(b, b.length, a, a.length, out);
+      assertArrayEquals(toArray(expected), Arrays.copyOf(out, n));
+
+      expected = toSet(a);
+      expected.addAll(toSet(b));
+      n = SortedIntArrays.union(a, a.length, b, b.length, out);
+      assertArrayEquals(toArray(expected), Arrays.copyOf(out, n));
+
+      expected = toSet(a);
+      expected.removeAll(toSet(b));
+      n = SortedIntArrays.difference(a, a.length, b, b.length, out);
+      assertArrayEquals(toArray(expected), Arrays.copyOf(out, n));
+    }
+  }
+
+  @Test
+  public void testInPlace() {
+    int[] a = new int[] { 1, 2, 3, 4, 5, 6, 7, 8 };
+    int[] b = new int[] { 2, 4, 6, 8, 10 };
+    int n = SortedIntArrays.intersect(a, a.length, b, b.length, a);
+    assertArrayEquals(new int[] { 2, 4, 6, 8 }, Arrays.copyOf(a, n));
+
+    a = new int[] { 1, 2, 3, 4, 5, 6, 7, 8 };
+    n = SortedIntArrays.difference(a, a.length, b, b.length, a);
+    assertArrayEquals(new int[] { 1, 3, 5, 7 }, Arrays.copyOf(a, n));
+  }
+
+  @Test
+  public void testMultiway() {
+    Random r = new Random(2);
+    int[] scratch = new int[64];
+    for (int trial = 0; trial < 100; trial++) {
+      int k = 1 + r.nextInt(20);
+      int[][] lists = new int[k][];
+      int[] lengths = new int[k];
+      int total = 0;
+
+      TreeSet<Integer> intersection = null;
+      TreeSet<Integer> union = new TreeSet<Integer>();
+      for (int i = 0; i < k; i++) {
+        int[] set = randomSet(r, r.nextInt(i % 3 == 0 ? 3000 : 300), 5000);
+        // Pad the backing arrays, as with the arrays underlying a list.
+        lists[i] = Arrays.copyOf(set, set.length + r.nextInt(10));
+        lengths[i] = set.length;
+        total += set.length;
+
+        if (intersection == null) {
+          intersection = toSet(set);
+        } else {
+          intersection.retainAll(toSet(set));
+        }
+        union.addAll(toSet(set));
+      }
+
+      int[] out = new int[total];
+      int n = SortedIntArrays.intersect(lists, lengths, k, out);
+      assertArrayEquals(toArray(intersection), Arrays.copyOf(out, n));
+      n = SortedIntArrays.union(lists, lengths, k, out, scratch);
+      assertArrayEquals(toArray(union), Arrays.copyOf(out, n));
+      n = SortedIntArrays.union(lists, lengths, k, out);
+      assertArrayEquals(toArray(union), Arrays.copyOf(out, n));
+    }
+
+    assertEquals(0, SortedIntArrays.intersect(new int[0][], new int[0], 0, new int[0]));
+    assertEquals(0, SortedIntArrays.union(new int[0][], new int[0], 0, new int[0]));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnionScratchTooSmall() {
+    int[][] lists = new int[][] { { 1 }, { 2 } };
+    SortedIntArrays.union(lists, new int[] { 1, 1 }, 2, new int[2], new int[3]);
+  }
+
+  @Test
+  public void testArrayListOfInts() {
+    ArrayListOfInts a = new ArrayListOfInts(new int[] { 1, 3, 5, 7, 9 });
+    ArrayListOfInts b = new ArrayListOfInts(new int[] { 3, 4, 5, 6 });
+    ArrayListOfInts result = new ArrayListOfInts(1);
+
+    assertSame(result, a.intersection(b, result));
+    assertEquals(new ArrayListOfInts(new int[] { 3, 5 }), result);
+    assertSame(result, a.mergeNoDuplicates(b, result));
+    assertEquals(new ArrayListOfInts(new int[] { 1, 3, 4, 5, 6, 7, 9 }), result);
+
+    a.intersection(b, a);
+    assertEquals(new ArrayListOfInts(new int[] { 3, 5 }), a);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMergeIntoSelf() {
+    ArrayListOfInts a = new ArrayListOfInts(new int[] { 1, 3, 5 });
+    a.mergeNoDuplicates(new ArrayListOfInts(new int[] { 2 }), a);
+  }
+
+  public static junit.framework.Test suite() {
+    return new JUnit4TestAdapter(SortedIntArraysTest.class);
+  }
+}
@@ -0,0 +1,260 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.array;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.Test;
+
+public class VectorMathTest {
+  private static final int[] LENGTHS = new int[] { 0, 1, 2, 3, 4, 5, 7, 8, 9, 128, 301 };
+
+  private static float[] randomFloats(Random r, int n) {
+    float[] a = new float[n];
+    for (int i = 0; i < n; i++) {
+      a[i] = (float) r.nextGaussian();
+    }
+    return a;
+  }
+
+  private static double[] randomDoubles(Random r, int n) {
+    double[] a = new double[n];
+    for (int i = 0; i < n; i++) {
+      a[i] = r.nextGaussian();
+    }
+    return a;
+  }
+
+  private static double naiveDot(float[] a, int aOff, float[] b, int bOff, int len) {
+    double sum = 0;
+    for (int i = 0; i < len; i++) {
+      sum += (double) a[aOff + i] * b[bOff + i];
+    }
+    return sum;
+  }
+
+  private static double naiveDot(double[] a, int aOff, double[] b, int bOff, int len) {
+    double sum = 0;
+    for (int i = 0; i < len; i++) {
+      sum += a[aOff + i] * b[bOff + i];
+    }
+    return sum;
+  }
+
+  @Test
+  public void testFloats() {
+    Random r = new Random(1);
+    for (int len : LENGTHS) {
+      // Offsets make sure that kernels do not assume vectors start at zero.
+      float[] a = randomFloats(r, len + 3);
+      float[] b = randomFloats(r, len + 5);
+
+      double dot = naiveDot(a, 3, b, 5, len);
+      double aa = naiveDot(a, 3, a, 3, len);
+      double bb = naiveDot(b, 5, b, 5, len);
+      assertEquals(dot, VectorMath.dot(a, 3, b, 5, len), 1e-4);
+      assertEquals(aa, VectorMath.normSquared(a, 3, len), 1e-3);
+      assertEquals(Math.sqrt(aa), VectorMath.norm(a, 3, len), 1e-4);
+      assertEquals(len == 0 ? 0 : dot / Math.sqrt(aa * bb), VectorMath.cosine(a, 3, b, 5, len),
+          1e-5);
+
+      float[] y = b.clone();
+      VectorMath.axpy(0.5f, a, 3, y, 5, len);
+      for (int i = 0; i < y.length; i++) {
+        float expected = i >= 5 && i < 5 + len ? b[i] + 0.5f * a[i - 2] : b[i];
+        assertEquals(expected, y[i], 0.0f);
+      }
+
+      VectorMath.scale(2.0f, y, 5, len);
+      for (int i = 5; i < 5 + len; i++) {
+        assertEquals(2.0f * (b[i] + 0.5f * a[i - 2]), y[i], 0.0f);
+      }
+    }
+  }
+
+  @Test
+  public void testDoubles() {
+    Random r = new Random(2);
+    for (int len : LENGTHS) {
+      double[] a = randomDoubles(r, len + 3);
+      double[] b = randomDoubles(r, len + 5);
+
+      double dot = naiveDot(a, 3, b, 5, len);
+      double aa = naiveDot(a, 3, a, 3, len);
+      double bb = naiveDot(b, 5, b, 5, len);
+      assertEquals(dot, VectorMath.dot(a, 3, b, 5, len), 1e-10);
+      assertEquals(aa, VectorMath.normSquared(a, 3, len), 1e-10);
+      assertEquals(Math.sqrt(aa), VectorMath.norm(a, 3, len), 1e-10);
+      assertEquals(len == 0 ? 0 : dot / Math.sqrt(aa * bb), VectorMath.cosine(a, 3, b, 5, len),
+          1e-10);
+
+      double[] y = b.clone();
+      VectorMath.axpy(-1.5, a, 3, y, 5, len);
+      for (int i = 0; i < y.length; i++) {
+        double expected = i >= 5 && i < 5 + len ? b[i] - 1.5 * a[i - 2] : b[i];
+        assertEquals(expected, y[i], 0.0);
+      }
+    }
+  }
+
+  @Test
+  public void testCosine() {
+    float[] a = new float[] { 1.0f, 2.0f, 3.0f };
+    assertEquals(1.0f, VectorMath.cosine(a, 0, new float[] { 2.0f, 4.0f, 6.0f }, 0, 3), 1e-6f);
+    assertEquals(-1.0f, VectorMath.cosine(a, 0, new float[] { -1.0f, -2.0f, -3.0f }, 0, 3), 1e-6f);
+    assertEquals(0.0f, VectorMath.cosine(a, 0, new float[] { 3.0f, 0.0f, -1.0f }, 0, 3), 1e-6f);
+    // Zero vectors have no direction.
+    assertEquals(0.0f, VectorMath.cosine(a, 0, new float[3], 0, 3), 0.0f);
+    assertEquals(0.0, VectorMath.cosine(new double[3], 0, new double[3], 0, 3), 0.0);
+  }
+
+  @Test
+  public void testArgmax() {
+    assertEquals(2, VectorMath.argmax(new float[] { 1.0f, 3.0f, 5.0f, 5.0f, -1.0f }, 0, 5));
+    assertEquals(0, VectorMath.argmax(new float[] { 7.0f }, 0, 1));
+    assertEquals(3, VectorMath.argmax(new float[] { 9.0f, 1.0f, 2.0f, 4.0f, 3.0f }, 1, 4));
+    assertEquals(2, VectorMath.argmax(new float[] { Float.NaN, -1.0f, 2.0f, Float.NaN }, 0, 4));
+    assertEquals(0, VectorMath.argmax(new float[] { Float.NaN, Float.NaN }, 0, 2));
+    assertEquals(1, VectorMath.argmax(new double[] { Double.NEGATIVE_INFINITY, -0.5, -1.0 }, 0,
+        3));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testArgmaxEmpty() {
+    VectorMath.argmax(new double[1], 1, 0);
+  }
+
+  @Test
+  public void testBatch() {
+    Random r = new Random(3);
+    int dim = 37;
+    for (int n : new int[] { 0, 1, 3, 4, 5, 11 }) {
+      float[] query = randomFloats(r, dim + 1);
+      float[] matrix = randomFloats(r, 2 + n * dim);
+      float[] dots = new float[n + 1];
+      float[] cosines = new float[n + 1];
+      VectorMath.dots(query, 1, matrix, 2, dim, n, dots, 1);
+      VectorMath.cosines(query, 1, matrix, 2, dim, n, cosines, 1);
+      assertEquals(0.0f, dots[0], 0.0f);
+      for (int i = 0; i < n; i++) {
+        assertEquals(VectorMath.dot(query, 1, matrix, 2 + i * dim, dim), dots[i + 1], 1e-4f);
+        assertEquals(VectorMath.cosine(query, 1, matrix, 2 + i * dim, dim), cosines[i + 1],
+            1e-5f);
+      }
+
+      double[] dquery = randomDoubles(r, dim);
+      double[] dmatrix = randomDoubles(r, n * dim);
+      double[] ddots = new double[n];
+      double[] dcosines = new double[n];
+      VectorMath.dots(dquery, 0, dmatrix, 0, dim, n, ddots, 0);
+      VectorMath.cosines(dquery, 0, dmatrix, 0, dim, n, dcosines, 0);
+      for (int i = 0; i < n; i++) {
+        assertEquals(VectorMath.dot(dquery, 0, dmatrix, i * dim, dim), ddots[i], 1e-10);
+        assertEquals(VectorMath.cosine(dquery, 0, dmatrix, i * dim, dim), dcosines[i], 1e-10);
+      }
+    }
+  }
+
+  @Test
+  public void testContainers() {
+    ArrayListOfFloats a = new ArrayListOfFloats(new float[] { 1.0f, 2.0f, 2.0f });
+    ArrayListOfFloats b = new ArrayListOfFloats(new float[] { 0.0f, 3.0f, 4.0f });
+    // Extra capacity must not be included.
+    a.add(0.0f).remove(3);
+    assertEquals(14.0f, VectorMath.dot(a, b), 0.0f);
+    assertEquals(3.0f, VectorMath.norm(a), 0.0f);
+    assertEquals(14.0f / 15.0f, VectorMath.cosine(a, b), 1e-6f);
+    assertEquals(2, VectorMath.argmax(b));
+    VectorMath.axpy(2.0f, a, b);
+    assertArrayEquals(new float[] { 2.0f, 7.0f, 8.0f }, Arrays.copyOf(b.getArray(), b.size()),
+        0.0f);
+
+    FloatArrayWritable fa = new FloatArrayWritable(new float[] { 3.0f, 4.0f });
+    FloatArrayWritable fb = new FloatArrayWritable(new float[] { 4.0f, 3.0f });
+    assertEquals(24.0f, VectorMath.dot(fa, fb), 0.0f);
+    assertEquals(5.0f, VectorMath.norm(fa), 0.0f);
+    assertEquals(0.96f, VectorMath.cosine(fa, fb), 1e-6f);
+    assertEquals(1, VectorMath.argmax(fa));
+
+    ArrayListOfDoubles da = new ArrayListOfDoubles(new double[] { 1.0, -1.0 });
+    ArrayListOfDoubles db = new ArrayListOfDoubles(new double[] { 2.0, 5.0 });
+    assertEquals(-3.0, VectorMath.dot(da, db), 0.0);
+    VectorMath.axpy(1.0, da, db);
+    assertArrayEquals(new double[] { 3.0, 4.0 }, Arrays.copyOf(db.getArray(), db.size()), 0.0);
+
+    DoubleArrayWritable wa = new DoubleArrayWritable(new double[] { 0.0, 0.0, 2.0 });
+    assertEquals(2.0, VectorMath.norm(wa), 0.0);
+    assertEquals(2, VectorMath.argmax(wa));
+    assertEquals(1.0, VectorMath.cosine(wa, wa), 1e-12);
+  }
+
+  @Test
+  public void testEmptyWritables() {
+    // Default-constructed writables have no backing array.
+    FloatArrayWritable fa = new FloatArrayWritable();
+    FloatArrayWritable fb = new FloatArrayWritable();
+    assertEquals(0.0f, VectorMath.dot(fa, fb), 0.0f);
+    assertEquals(0.0f, VectorMath.norm(fa), 0.0f);
+    assertEquals(0.0f, VectorMath.cosine(fa, fb), 0.0f);
+    VectorMath.axpy(1.0f, fa, fb);
+    assertEquals(0, fb.size());
+
+    DoubleArrayWritable da = new DoubleArrayWritable();
+    assertEquals(0.0, VectorMath.dot(da, new DoubleArrayWritable()), 0.0);
+    assertEquals(0.0, VectorMath.norm(da), 0.0);
+    assertEquals(0.0, VectorMath.cosine(da, da), 0.0);
+
+    try {
+      VectorMath.argmax(fa);
+      fail();
+    } catch (IllegalArgumentException e) {
+      // Expected: an empty vector has no largest element.
+    }
+    try {
+      VectorMath.argmax(da);
+      fail();
+    } catch (IllegalArgumentException e) {
+      // Expected.
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testLengthMismatch() {
+    VectorMath.dot(new ArrayListOfFloats(new float[2]), new ArrayListOfFloats(new float[3]));
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testOutOfBounds() {
+    VectorMath.dot(new float[4], 1, new float[4], 0, 4);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testBatchOutOfBounds() {
+    VectorMath.dots(new float[4], 0, new float[15], 0, 4, 4, new float[4], 0);
+  }
+
+  public static junit.framework.Test suite() {
+    return new JUnit4TestAdapter(VectorMathTest.class);
+  }
+}
@@ -0,0 +1,153 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.cfd;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.Test;
+
+import tl.lin.data.fd.SortedIntCountReader;
+
+public class ConditionalFrequencyDistributionCodecTest {
+
+  private static DataInputStream input(ByteArrayOutputStream bytes) {
+    return new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+  }
+
+  @Test
+  public void testInts() throws IOException {
+    Int2IntConditionalFrequencyDistribution cfd = new Int2IntConditionalFrequencyDistributionEntry();
+    cfd.set(1, 1, 2);
+    cfd.set(1, 2, 3);
+    cfd.set(1, 3, 4);
+    cfd.set(2, 1, 1);
+    cfd.set(3, 1, 7);
+    cfd.set(-5, Integer.MIN_VALUE, 9);
+
+    ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
+    ConditionalFrequencyDistributionCodec.write(cfd, new DataOutputStream(bytesOut));
+
+    Int2IntConditionalFrequencyDistribution copy = new Int2IntConditionalFrequencyDistributionEntry();
+    ConditionalFrequencyDistributionCodec.read(input(bytesOut), copy);
+    copy.check();
+    assertEquals(cfd.getSumOfAllCounts(), copy.getSumOfAllCounts());
+    assertEquals(2, copy.get(1, 1));
+    assertEquals(3, copy.get(1, 2));
+    assertEquals(4, copy.get(1, 3));
+    assertEquals(1, copy.get(2, 1));
+    assertEquals(7, copy.get(3, 1));
+    assertEquals(9, copy.get(-5, Integer.MIN_VALUE));
+    assertEquals(9, copy.getMarginalCount(1));
+
+    // Skip over the events of the first two conditions without reading them.
+    SortedIntConditionalCountReader reader = new SortedIntConditionalCountReader(input(bytesOut));
+    assertTrue(reader.nextCondition());
+    assertEquals(Integer.MIN_VALUE, reader.getCondition());
+    assertTrue(reader.nextCondition());
+    assertEquals(1, reader.getCondition());
+    assertTrue(reader.nextCondition());
+    assertEquals(2, reader.getCondition());
+    SortedIntCountReader events = reader.getEvents();
+    assertTrue(events.next());
+    assertEquals(1, events.getEvent());
+    assertEquals(3, events.getCount());
+    assertFalse(events.next());
+    assertTrue(reader.nextCondition());
+    assertEquals(3, reader.getCondition());
+    assertFalse(reader.nextCondition());
+  }
+
+  @Test
+  public void testMergeInts() throws IOException {
+    Int2IntConditionalFrequencyDistribution a = new Int2IntConditionalFrequencyDistributionEntry();
+    Int2IntConditionalFrequencyDistribution b = new Int2IntConditionalFrequencyDistributionEntry();
+    a.set(1, 1, 2);
+    a.set(2, 1, 3);
+    a.set(1, 5, 1);
+    b.set(2, 1, 10);
+    b.set(3, 1, 20);
+    b.set(4, 3, 30);
+
+    ByteArrayOutputStream bytesA = new ByteArrayOutputStream();
+    ByteArrayOutputStream bytesB = new ByteArrayOutputStream();
+    ByteArrayOutputStream merged = new ByteArrayOutputStream();
+    ConditionalFrequencyDistributionCodec.write(a, new DataOutputStream(bytesA));
+    ConditionalFrequencyDistributionCodec.write(b, new DataOutputStream(bytesB));
+    ConditionalFrequencyDistributionCodec.mergeInts(input(bytesA), input(bytesB),
+        new DataOutputStream(merged));
+
+    Int2IntConditionalFrequencyDistribution copy = new Int2IntConditionalFrequencyDistributionEntry();
+    ConditionalFrequencyDistributionCodec.read(input(merged), copy);
+    copy.check();
+    assertEquals(66, copy.getSumOfAllCounts());
+    assertEquals(2, copy.get(1, 1));
+    assertEquals(13, copy.get(2, 1));
+    assertEquals(20, copy.get(3, 1));
+    assertEquals(30, copy.get(4, 3));
+    assertEquals(1, copy.get(1, 5));
+  }
+
+  @Test
+  public void testStrings() throws IOException {
+    Object2IntConditionalFrequencyDistribution<String> cfd = new Object2IntConditionalFrequencyDistributionEntry<String>();
+    cfd.set("a", "the", 2);
+    cfd.set("b", "the", 3);
+    cfd.set("a", "then", 4);
+    cfd.set("c", "x", 5);
+
+    Object2IntConditionalFrequencyDistribution<String> other = new Object2IntConditionalFrequencyDistributionEntry<String>();
+    other.set("a", "the", 10);
+    other.set("z", "they", 1);
+
+    ByteArrayOutputStream bytesA = new ByteArrayOutputStream();
+    ByteArrayOutputStream bytesB = new ByteArrayOutputStream();
+    ByteArrayOutputStream merged = new ByteArrayOutputStream();
+    ConditionalFrequencyDistributionCodec.write(cfd, new DataOutputStream(bytesA));
+    ConditionalFrequencyDistributionCodec.write(other, new DataOutputStream(bytesB));
+
+    Object2IntConditionalFrequencyDistribution<String> copy = new Object2IntConditionalFrequencyDistributionEntry<String>();
+    ConditionalFrequencyDistributionCodec.read(input(bytesA), copy);
+    copy.check();
+    assertEquals(14, copy.getSumOfAllCounts());
+    assertEquals(3, copy.get("b", "the"));
+    assertEquals(4, copy.get("a", "then"));
+
+    ConditionalFrequencyDistributionCodec.mergeStrings(input(bytesA), input(bytesB),
+        new DataOutputStream(merged));
+    copy = new Object2IntConditionalFrequencyDistributionEntry<String>();
+    ConditionalFrequencyDistributionCodec.read(input(merged), copy);
+    copy.check();
+    assertEquals(25, copy.getSumOfAllCounts());
+    assertEquals(12, copy.get("a", "the"));
+    assertEquals(1, copy.get("z", "they"));
+    assertEquals(5, copy.get("c", "x"));
+  }
+
+  public static junit.framework.Test suite() {
+    return new JUnit4TestAdapter(ConditionalFrequencyDistributionCodecTest.class);
+  }
+}
@@ -53,6 +53,12 @@ public class Int2IntConditionalFrequencyDistributionEntryTest extends
     testSerialization(fd, Int2IntConditionalFrequencyDistributionEntry.class);
   }
 
+  @Test
+  public void testEntropyEntry() throws Exception {
+    Int2IntConditionalFrequencyDistribution cfd = new Int2IntConditionalFrequencyDistributionEntry();
+    testEntropyCommon(cfd, Int2IntConditionalFrequencyDistributionEntry.class);
+  }
+
   public static junit.framework.Test suite() {
     return new JUnit4TestAdapter(Int2IntConditionalFrequencyDistributionEntryTest.class);
   }
@@ -24,6 +24,9 @@ import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 
+import tl.lin.data.fd.Int2IntFrequencyDistribution;
+import tl.lin.data.pair.PairOfInts;
+
 public class Int2IntConditionalFrequencyDistributionTestBase {
   protected void test1Common(Int2IntConditionalFrequencyDistribution cfd) {
     cfd.set(1, 1, 2);
@@ -154,4 +157,62 @@ public class Int2IntConditionalFrequencyDistributionTestBase {
     assertEquals(7, reconstructed.getMarginalCount(3));
     assertEquals(27, reconstructed.getSumOfAllCounts());
   }
+
+  protected void testEntropyCommon(Int2IntConditionalFrequencyDistribution cfd,
+      Class<? extends Int2IntConditionalFrequencyDistribution> cls) throws Exception {
+    assertEquals(0.0, cfd.computeConditionalEntropy(), 0.0);
+    assertEquals(0.0, cfd.computeMutualInformation(), 0.0);
+
+    // Events independent of conditions.
+    cfd.set(1, 1, 2);
+    cfd.set(2, 1, 2);
+    cfd.set(1, 2, 3);
+    cfd.set(2, 2, 3);
+    assertEquals(Math.log(2), cfd.computeConditionalEntropy(), 10e-12);
+    assertEquals(0.0, cfd.computeMutualInformation(), 10e-12);
+
+    // Events determined by conditions.
+    cfd.set(2, 1, 0);
+    cfd.set(1, 2, 0);
+    assertEquals(0.0, cfd.computeConditionalEntropy(), 10e-12);
+    assertEquals(-0.4 * Math.log(0.4) - 0.6 * Math.log(0.6), cfd.computeMutualInformation(),
+        10e-12);
+
+    cfd.increment(3, 1, 5);
+    cfd.increment(1, 3);
+    cfd.increment(2, 3, 7);
+    cfd.increment(1, 2, 4);
+    assertEntropy(cfd);
+
+    ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
+    cfd.write(new DataOutputStream(bytesOut));
+    Int2IntConditionalFrequencyDistribution reconstructed = cls.newInstance();
+    reconstructed.readFields(new DataInputStream(new ByteArrayInputStream(bytesOut.toByteArray())));
+    assertEquals(cfd.computeConditionalEntropy(), reconstructed.computeConditionalEntropy(),
+        10e-12);
+    assertEquals(cfd.computeMutualInformation(), reconstructed.computeMutualInformation(), 10e-12);
+  }
+
+  // Checks against the definitions, computed from scratch.
+  private static void assertEntropy(Int2IntConditionalFrequencyDistribution cfd) {
+    double n = cfd.getSumOfAllCounts();
+    double conditional = 0.0;
+    double mi = 0.0;
+    for (int cond : cfd.getConditions()) {
+      Int2IntFrequencyDistribution fd = cfd.getConditionalDistribution(cond);
+      for (PairOfInts pair : fd) {
+        if (pair.getRightElement() == 0) {
+          continue;
+        }
+        double joint = pair.getRightElement() / n;
+        double pCond = fd.getSumOfCounts() / n;
+        double pEvent = cfd.getMarginalCount(pair.getLeftElement()) / n;
+        conditional -= joint * Math.log(joint / pCond);
+        mi += joint * Math.log(joint / (pCond * pEvent));
+      }
+    }
+
+    assertEquals(conditional, cfd.computeConditionalEntropy(), 10e-12);
+    assertEquals(mi, cfd.computeMutualInformation(), 10e-12);
+  }
 }
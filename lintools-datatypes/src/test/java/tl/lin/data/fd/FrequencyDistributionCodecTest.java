@@ -0,0 +1,206 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.fd;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.Test;
+
+import tl.lin.data.pair.PairOfInts;
+import tl.lin.data.pair.PairOfObjectInt;
+
+public class FrequencyDistributionCodecTest {
+
+  private static DataInputStream input(ByteArrayOutputStream bytes) {
+    return new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+  }
+
+  @Test
+  public void testInts() throws IOException {
+    Int2IntFrequencyDistribution fd = new Int2IntFrequencyDistributionEntry();
+    Random r = new Random(42);
+    for (int i = 0; i < 10000; i++) {
+      fd.increment(r.nextInt(50000), 1 + r.nextInt(10));
+    }
+    fd.increment(Integer.MIN_VALUE, 3);
+    fd.increment(Integer.MAX_VALUE, 5);
+    fd.increment(-1, 7);
+
+    ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
+    FrequencyDistributionCodec.write(fd, new DataOutputStream(bytesOut));
+
+    ByteArrayOutputStream hashOut = new ByteArrayOutputStream();
+    fd.write(new DataOutputStream(hashOut));
+    assertTrue(bytesOut.size() < hashOut.size() / 2);
+
+    Int2IntFrequencyDistribution copy = new Int2IntFrequencyDistributionEntry();
+    FrequencyDistributionCodec.read(input(bytesOut), copy);
+    assertEquals(fd.getNumberOfEvents(), copy.getNumberOfEvents());
+    assertEquals(fd.getSumOfCounts(), copy.getSumOfCounts());
+    for (PairOfInts pair : fd) {
+      assertEquals(pair.getRightElement(), copy.get(pair.getLeftElement()));
+    }
+
+    // Into the other kind of distribution.
+    Int2LongFrequencyDistribution longs = new Int2LongFrequencyDistributionEntry();
+    FrequencyDistributionCodec.read(input(bytesOut), longs);
+    assertEquals(fd.getSumOfCounts(), longs.getSumOfCounts());
+
+    // Streaming iteration is in sorted order.
+    SortedIntCountReader reader = new SortedIntCountReader(input(bytesOut));
+    assertTrue(reader.next());
+    assertEquals(Integer.MIN_VALUE, reader.getEvent());
+    assertEquals(3, reader.getCount());
+    int prev = reader.getEvent();
+    int n = 1;
+    while (reader.next()) {
+      assertTrue(reader.getEvent() > prev);
+      prev = reader.getEvent();
+      n++;
+    }
+    assertEquals(Integer.MAX_VALUE, prev);
+    assertEquals(fd.getNumberOfEvents(), n);
+    assertFalse(reader.next());
+  }
+
+  @Test
+  public void testEmpty() throws IOException {
+    ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
+    FrequencyDistributionCodec.write(new Int2LongFrequencyDistributionEntry(),
+        new DataOutputStream(bytesOut));
+    assertEquals(1, bytesOut.size());
+
+    Int2LongFrequencyDistribution copy = new Int2LongFrequencyDistributionEntry();
+    FrequencyDistributionCodec.read(input(bytesOut), copy);
+    assertEquals(0, copy.getNumberOfEvents());
+  }
+
+  @Test
+  public void testMergeInts() throws IOException {
+    Int2IntFrequencyDistribution a = new Int2IntFrequencyDistributionEntry();
+    Int2IntFrequencyDistribution b = new Int2IntFrequencyDistributionEntry();
+    Int2IntFrequencyDistribution sum = new Int2IntFrequencyDistributionEntry();
+    Random r = new Random(7);
+    for (int i = 0; i < 1000; i++) {
+      int key = r.nextInt(2000) - 1000;
+      a.increment(key);
+      sum.increment(key);
+      key = r.nextInt(2000) - 500;
+      b.increment(key, 2);
+      sum.increment(key, 2);
+    }
+
+    ByteArrayOutputStream bytesA = new ByteArrayOutputStream();
+    ByteArrayOutputStream bytesB = new ByteArrayOutputStream();
+    ByteArrayOutputStream merged = new ByteArrayOutputStream();
+    FrequencyDistributionCodec.write(a, new DataOutputStream(bytesA));
+    FrequencyDistributionCodec.write(b, new DataOutputStream(bytesB));
+    FrequencyDistributionCodec.mergeInts(input(bytesA), input(bytesB), new DataOutputStream(
+        merged));
+
+    Int2IntFrequencyDistribution copy = new Int2IntFrequencyDistributionEntry();
+    FrequencyDistributionCodec.read(input(merged), copy);
+    assertEquals(sum.getNumberOfEvents(), copy.getNumberOfEvents());
+    assertEquals(sum.getSumOfCounts(), copy.getSumOfCounts());
+    for (PairOfInts pair : sum) {
+      assertEquals(pair.getRightElement(), copy.get(pair.getLeftElement()));
+    }
+  }
+
+  @Test
+  public void testStrings() throws IOException {
+    Object2IntFrequencyDistribution<String> fd = new Object2IntFrequencyDistributionEntry<String>();
+    fd.increment("apple", 3);
+    fd.increment("applesauce", 2);
+    fd.increment("application");
+    fd.increment("banana", 5);
+    fd.increment("", 4);
+    fd.increment("\ud83d\ude00", 1);
+    fd.increment("\ud83d\ude01", 2);
+
+    ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
+    FrequencyDistributionCodec.write(fd, new DataOutputStream(bytesOut));
+
+    Object2IntFrequencyDistribution<String> copy = new Object2IntFrequencyDistributionEntry<String>();
+    FrequencyDistributionCodec.read(input(bytesOut), copy);
+    assertEquals(fd.getNumberOfEvents(), copy.getNumberOfEvents());
+    assertEquals(fd.getSumOfCounts(), copy.getSumOfCounts());
+    for (PairOfObjectInt<String> pair : fd) {
+      assertEquals(pair.getRightElement(), copy.get(pair.getLeftElement()));
+    }
+
+    SortedStringCountReader reader = new SortedStringCountReader(input(bytesOut));
+    assertTrue(reader.next());
+    assertEquals("", reader.getEvent());
+    assertTrue(reader.next());
+    assertEquals("apple", reader.getEvent());
+    assertTrue(reader.next());
+    assertEquals("applesauce", reader.getEvent());
+    assertEquals(2, reader.getCount());
+  }
+
+  @Test
+  public void testMergeStrings() throws IOException {
+    Object2LongFrequencyDistribution<String> a = new Object2LongFrequencyDistributionEntry<String>();
+    Object2LongFrequencyDistribution<String> b = new Object2LongFrequencyDistributionEntry<String>();
+    a.increment("a", 1);
+    a.increment("c", 3);
+    a.increment("d", 4);
+    b.increment("b", 20);
+    b.increment("c", 30);
+    b.increment("d", -4);
+
+    ByteArrayOutputStream bytesA = new ByteArrayOutputStream();
+    ByteArrayOutputStream bytesB = new ByteArrayOutputStream();
+    ByteArrayOutputStream merged = new ByteArrayOutputStream();
+    FrequencyDistributionCodec.write(a, new DataOutputStream(bytesA));
+    FrequencyDistributionCodec.write(b, new DataOutputStream(bytesB));
+    FrequencyDistributionCodec.mergeStrings(input(bytesA), input(bytesB), new DataOutputStream(
+        merged));
+
+    Object2LongFrequencyDistribution<String> copy = new Object2LongFrequencyDistributionEntry<String>();
+    FrequencyDistributionCodec.read(input(merged), copy);
+    assertEquals(3, copy.getNumberOfEvents());
+    assertEquals(1, copy.get("a"));
+    assertEquals(20, copy.get("b"));
+    assertEquals(33, copy.get("c"));
+    assertFalse(copy.contains("d"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testOutOfOrder() throws IOException {
+    SortedIntCountWriter writer = new SortedIntCountWriter(new DataOutputStream(
+        new ByteArrayOutputStream()));
+    writer.add(5, 1);
+    writer.add(5, 1);
+  }
+
+  public static junit.framework.Test suite() {
+    return new JUnit4TestAdapter(FrequencyDistributionCodecTest.class);
+  }
+}
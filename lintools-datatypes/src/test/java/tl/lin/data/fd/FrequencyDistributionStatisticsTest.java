@@ -0,0 +1,151 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.fd;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.Test;
+
+import tl.lin.data.fd.FrequencyDistributionStatistics.CountVector;
+
+public class FrequencyDistributionStatisticsTest {
+
+  @Test
+  public void testCountVector() {
+    Int2IntFrequencyDistribution fd = new Int2IntFrequencyDistributionEntry();
+    fd.increment(5, 2);
+    fd.increment(-3, 7);
+    fd.increment(Integer.MAX_VALUE, 1);
+    fd.increment(Integer.MIN_VALUE, 4);
+
+    CountVector v = FrequencyDistributionStatistics.toCountVector(fd);
+    assertEquals(4, v.size());
+    assertEquals(14, v.getSumOfCounts());
+    assertArrayEquals(new int[] { Integer.MIN_VALUE, -3, 5, Integer.MAX_VALUE }, v.getEvents());
+    assertArrayEquals(new long[] { 4, 7, 2, 1 }, v.getCounts());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnsortedCountVector() {
+    new CountVector(new int[] { 2, 1 }, new long[] { 1, 1 });
+  }
+
+  @Test
+  public void testEntropy() {
+    CountVector v = new CountVector(new int[] { 1, 2, 3, 4 }, new long[] { 1, 1, 1, 1 });
+    assertEquals(Math.log(4), FrequencyDistributionStatistics.entropy(v), 10e-12);
+
+    v = new CountVector(new int[] { 1 }, new long[] { 10 });
+    assertEquals(0.0, FrequencyDistributionStatistics.entropy(v), 10e-12);
+
+    v = new CountVector(new int[0], new long[0]);
+    assertEquals(0.0, FrequencyDistributionStatistics.entropy(v), 0.0);
+  }
+
+  @Test
+  public void testDivergences() {
+    CountVector p = new CountVector(new int[] { 1, 2 }, new long[] { 1, 3 });
+    CountVector q = new CountVector(new int[] { 1, 2, 3 }, new long[] { 2, 2, 4 });
+
+    double kl = 0.25 * Math.log(0.25 / 0.25) + 0.75 * Math.log(0.75 / 0.25);
+    assertEquals(kl, FrequencyDistributionStatistics.klDivergence(p, q), 10e-12);
+    assertEquals(Double.POSITIVE_INFINITY, FrequencyDistributionStatistics.klDivergence(q, p), 0.0);
+    assertEquals(0.0, FrequencyDistributionStatistics.klDivergence(p, p), 10e-12);
+
+    assertEquals(FrequencyDistributionStatistics.jsDivergence(p, q),
+        FrequencyDistributionStatistics.jsDivergence(q, p), 10e-12);
+    assertEquals(0.0, FrequencyDistributionStatistics.jsDivergence(q, q), 10e-12);
+
+    // Disjoint supports.
+    CountVector r = new CountVector(new int[] { 7, 8 }, new long[] { 5, 5 });
+    assertEquals(Math.log(2), FrequencyDistributionStatistics.jsDivergence(p, r), 10e-12);
+    assertEquals(0.0, FrequencyDistributionStatistics.cosine(p, r), 0.0);
+
+    double cosine = (1 * 2 + 3 * 2) / (Math.sqrt(1 + 9) * Math.sqrt(4 + 4 + 16));
+    assertEquals(cosine, FrequencyDistributionStatistics.cosine(p, q), 10e-12);
+    assertEquals(1.0, FrequencyDistributionStatistics.cosine(q, q), 10e-12);
+
+    // D(P || Q) is an empty sum if P is empty, and infinite if only Q is empty.
+    CountVector empty = new CountVector(new int[0], new long[0]);
+    assertEquals(0.0, FrequencyDistributionStatistics.klDivergence(empty, q), 0.0);
+    assertEquals(0.0, FrequencyDistributionStatistics.klDivergence(empty, empty), 0.0);
+    assertEquals(Double.POSITIVE_INFINITY, FrequencyDistributionStatistics.klDivergence(q, empty),
+        0.0);
+  }
+
+  @Test
+  public void testRandomAgainstBruteForce() {
+    Random r = new Random(42);
+    int range = 200;
+
+    for (int trial = 0; trial < 20; trial++) {
+      Int2IntFrequencyDistribution p = new Int2IntFrequencyDistributionEntry();
+      Int2IntFrequencyDistribution q = new Int2IntFrequencyDistributionEntry();
+      for (int i = 0; i < 1000; i++) {
+        p.increment(r.nextInt(range) - range / 2);
+        q.increment(r.nextInt(range) - range / 2, 1 + r.nextInt(3));
+      }
+
+      double[] pp = new double[range];
+      double[] qq = new double[range];
+      for (int i = 0; i < range; i++) {
+        pp[i] = (double) p.get(i - range / 2) / p.getSumOfCounts();
+        qq[i] = (double) q.get(i - range / 2) / q.getSumOfCounts();
+      }
+
+      double h = 0.0, kl = 0.0, js = 0.0, dot = 0.0, np = 0.0, nq = 0.0;
+      boolean infinite = false;
+      for (int i = 0; i < range; i++) {
+        if (pp[i] > 0) {
+          h -= pp[i] * Math.log(pp[i]);
+          if (qq[i] == 0) {
+            infinite = true;
+          } else {
+            kl += pp[i] * Math.log(pp[i] / qq[i]);
+          }
+        }
+        double m = (pp[i] + qq[i]) / 2;
+        if (pp[i] > 0) {
+          js += 0.5 * pp[i] * Math.log(pp[i] / m);
+        }
+        if (qq[i] > 0) {
+          js += 0.5 * qq[i] * Math.log(qq[i] / m);
+        }
+        dot += pp[i] * qq[i];
+        np += pp[i] * pp[i];
+        nq += qq[i] * qq[i];
+      }
+
+      assertEquals(h, p.computeEntropy(), 10e-9);
+      assertEquals(h, FrequencyDistributionStatistics.entropy(
+          FrequencyDistributionStatistics.toCountVector(p)), 10e-9);
+      assertEquals(infinite ? Double.POSITIVE_INFINITY : kl,
+          FrequencyDistributionStatistics.klDivergence(p, q), 10e-9);
+      assertEquals(js, FrequencyDistributionStatistics.jsDivergence(p, q), 10e-9);
+      assertEquals(dot / Math.sqrt(np * nq), FrequencyDistributionStatistics.cosine(p, q), 10e-9);
+    }
+  }
+
+  public static junit.framework.Test suite() {
+    return new JUnit4TestAdapter(FrequencyDistributionStatisticsTest.class);
+  }
+}
@@ -0,0 +1,157 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.fd;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.Test;
+
+import tl.lin.data.pair.PairOfInts;
+
+public class FrozenInt2LogProbabilityTableTest {
+
+  private static Int2IntFrequencyDistribution randomDistribution(int n) {
+    Int2IntFrequencyDistribution fd = new Int2IntFrequencyDistributionEntry();
+    Random r = new Random(42);
+    for (int i = 0; i < n; i++) {
+      fd.increment(r.nextInt(), 1 + r.nextInt(100));
+    }
+    return fd;
+  }
+
+  @Test
+  public void testEmpty() {
+    FrozenInt2LogProbabilityTable table = new Int2IntFrequencyDistributionEntry().freeze(-5.0,
+        false);
+    assertEquals(0, table.getNumberOfEvents());
+    assertFalse(table.contains(0));
+    assertEquals(-5.0, table.getLogProbability(0), 0.0);
+    assertEquals(-5.0, table.getLogProbability(Integer.MIN_VALUE), 0.0);
+  }
+
+  @Test
+  public void testLarge() {
+    Int2IntFrequencyDistribution fd = randomDistribution(100000);
+    FrozenInt2LogProbabilityTable table = fd.freeze();
+    FrozenInt2LogProbabilityTable quantized = fd.freeze(Double.NEGATIVE_INFINITY, true);
+
+    assertEquals(fd.getNumberOfEvents(), table.getNumberOfEvents());
+    assertTrue(quantized.sizeInBytes() < table.sizeInBytes());
+    for (PairOfInts pair : fd) {
+      int key = pair.getLeftElement();
+      assertEquals(fd.computeLogRelativeFrequency(key), table.getLogProbability(key), 10e-12);
+      assertEquals(fd.computeLogRelativeFrequency(key), quantized.getLogProbability(key), 10e-5);
+      assertEquals(fd.computeRelativeFrequency(key), table.getProbability(key), 10e-12);
+    }
+  }
+
+  @Test
+  public void testSerialize() throws IOException {
+    Int2IntFrequencyDistribution fd = randomDistribution(1000);
+    fd.increment(Integer.MIN_VALUE, 7);
+    FrozenInt2LogProbabilityTable table = fd.freeze(-30.0, true);
+
+    ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
+    table.write(new DataOutputStream(bytesOut));
+    assertEquals(table.sizeInBytes(), bytesOut.size());
+
+    FrozenInt2LogProbabilityTable copy = FrozenInt2LogProbabilityTable.read(new DataInputStream(
+        new ByteArrayInputStream(bytesOut.toByteArray())));
+    assertTrue(copy.isQuantized());
+    assertEquals(table.getNumberOfEvents(), copy.getNumberOfEvents());
+    assertEquals(table.getSumOfCounts(), copy.getSumOfCounts());
+    assertEquals(-30.0, copy.getDefaultLogProbability(), 0.0);
+    for (PairOfInts pair : fd) {
+      int key = pair.getLeftElement();
+      assertEquals(table.getLogProbability(key), copy.getLogProbability(key), 0.0);
+    }
+  }
+
+  @Test
+  public void testMap() throws IOException {
+    Int2IntFrequencyDistribution fd = randomDistribution(1000);
+    FrozenInt2LogProbabilityTable table = fd.freeze();
+
+    File file = File.createTempFile("table", ".bin");
+    file.deleteOnExit();
+    FileOutputStream fileOut = new FileOutputStream(file);
+    try {
+      table.write(new DataOutputStream(fileOut));
+    } finally {
+      fileOut.close();
+    }
+
+    FrozenInt2LogProbabilityTable mapped = FrozenInt2LogProbabilityTable.map(file);
+    assertFalse(mapped.isQuantized());
+    for (PairOfInts pair : fd) {
+      int key = pair.getLeftElement();
+      assertEquals(table.getLogProbability(key), mapped.getLogProbability(key), 0.0);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testDuplicateEvents() {
+    FrozenInt2LogProbabilityTable.build(new int[] { 1, 2, 1 }, new long[] { 1, 1, 1 }, 3, 3,
+        Double.NEGATIVE_INFINITY, false);
+  }
+
+  @Test
+  public void testTooLarge() {
+    // The tables are rejected before the events are read, so the arrays can be empty.
+    int[] sizes = new int[] { 1 << 27, (1 << 30) + 1, Integer.MAX_VALUE };
+    for (int n : sizes) {
+      for (boolean quantize : new boolean[] { false, true }) {
+        try {
+          FrozenInt2LogProbabilityTable.build(new int[0], new long[0], n, n,
+              Double.NEGATIVE_INFINITY, quantize);
+          fail();
+        } catch (IllegalArgumentException e) {
+          assertTrue(e.getMessage().contains(Integer.toString(n)));
+        }
+      }
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testCorruptCapacity() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    FrozenInt2LogProbabilityTable.build(new int[] { 1 }, new long[] { 1 }, 1, 1,
+        Double.NEGATIVE_INFINITY, false).write(new DataOutputStream(bytes));
+    byte[] b = bytes.toByteArray();
+    // The capacity is the big-endian int at offset 8.
+    b[8] = (byte) 0x40;
+    FrozenInt2LogProbabilityTable.read(new DataInputStream(new ByteArrayInputStream(b)));
+  }
+
+  public static junit.framework.Test suite() {
+    return new JUnit4TestAdapter(FrozenInt2LogProbabilityTableTest.class);
+  }
+}
@@ -82,6 +82,18 @@ public class Int2IntFrequencyDistributionEntryTest extends Int2IntFrequencyDistr
     testSerialization(fd, Int2IntFrequencyDistributionEntry.class);
   }
 
+  @Test
+  public void testFreezeEntry() {
+    Int2IntFrequencyDistribution fd = new Int2IntFrequencyDistributionEntry();
+    testFreezeCommon(fd);
+  }
+
+  @Test
+  public void testEntropyEntry() {
+    Int2IntFrequencyDistribution fd = new Int2IntFrequencyDistributionEntry();
+    testEntropyCommon(fd);
+  }
+
   public static junit.framework.Test suite() {
     return new JUnit4TestAdapter(Int2IntFrequencyDistributionEntryTest.class);
   }
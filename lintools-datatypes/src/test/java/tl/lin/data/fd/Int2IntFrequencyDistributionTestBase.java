@@ -439,4 +439,58 @@ public class Int2IntFrequencyDistributionTestBase {
     assertEquals(6, reconstructed.getNumberOfEvents());
     assertEquals(26, reconstructed.getSumOfCounts());
   }
+
+  protected void testFreezeCommon(Int2IntFrequencyDistribution fd) {
+    fd.increment(1);
+    fd.increment(2, 2);
+    fd.increment(3, 3);
+    fd.increment(Integer.MIN_VALUE, 4);
+
+    FrozenInt2LogProbabilityTable table = fd.freeze();
+    assertEquals(4, table.getNumberOfEvents());
+    assertEquals(10, table.getSumOfCounts());
+    for (int key : new int[] { 1, 2, 3, Integer.MIN_VALUE }) {
+      assertEquals(fd.computeLogRelativeFrequency(key), table.getLogProbability(key), 10e-12);
+    }
+    assertEquals(Double.NEGATIVE_INFINITY, table.getLogProbability(4), 0.0);
+
+    // The table is a snapshot.
+    fd.increment(4);
+    assertFalse(table.contains(4));
+
+    table = fd.freeze(-20.0, true);
+    assertEquals(Math.log(1.0 / 11), table.getLogProbability(4), 10e-6);
+    assertEquals(-20.0, table.getLogProbability(5), 0.0);
+  }
+
+  protected void testEntropyCommon(Int2IntFrequencyDistribution fd) {
+    assertEquals(0.0, fd.computeEntropy(), 0.0);
+
+    fd.increment(1);
+    fd.increment(2, 2);
+    fd.increment(3, 3);
+    fd.increment(Integer.MIN_VALUE, 4);
+    assertEquals(entropy(fd), fd.computeEntropy(), 10e-12);
+
+    fd.decrement(3, 2);
+    fd.remove(Integer.MIN_VALUE);
+    fd.set(2, 10);
+    assertEquals(entropy(fd), fd.computeEntropy(), 10e-12);
+
+    fd.remove(2);
+    fd.remove(3);
+    assertEquals(0.0, fd.computeEntropy(), 10e-12);
+
+    fd.clear();
+    assertEquals(0.0, fd.computeEntropy(), 0.0);
+  }
+
+  private static double entropy(Int2IntFrequencyDistribution fd) {
+    double h = 0.0;
+    for (PairOfInts pair : fd) {
+      double p = (double) pair.getRightElement() / fd.getSumOfCounts();
+      h -= p * Math.log(p);
+    }
+    return h;
+  }
 }
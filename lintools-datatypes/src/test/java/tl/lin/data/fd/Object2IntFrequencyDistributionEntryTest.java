@@ -76,6 +76,12 @@ public class Object2IntFrequencyDistributionEntryTest extends
     testIterableCommon(fd);
   }
 
+  @Test
+  public void testFreezeEntry() {
+    Object2IntFrequencyDistribution<String> fd = new Object2IntFrequencyDistributionEntry<String>();
+    testFreezeCommon(fd);
+  }
+
   public static junit.framework.Test suite() {
     return new JUnit4TestAdapter(Object2IntFrequencyDistributionEntryTest.class);
   }
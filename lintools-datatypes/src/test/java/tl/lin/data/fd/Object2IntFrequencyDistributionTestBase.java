@@ -412,4 +412,23 @@ public class Object2IntFrequencyDistributionTestBase {
     assertEquals("f", e.getLeftElement());
     assertEquals(9, e.getRightElement());
   }
-}
\ No newline at end of file
+
+  protected void testFreezeCommon(Object2IntFrequencyDistribution<String> fd) {
+    fd.increment("a");
+    fd.increment("b", 2);
+    fd.increment("c", 3);
+
+    FrozenObject2LogProbabilityTable<String> table = fd.freeze();
+    assertEquals(3, table.getNumberOfEvents());
+    assertEquals(6, table.getSumOfCounts());
+    for (String key : new String[] { "a", "b", "c" }) {
+      assertEquals(fd.computeLogRelativeFrequency(key), table.getLogProbability(key), 10e-12);
+    }
+    assertEquals(Double.NEGATIVE_INFINITY, table.getLogProbability("d"), 0.0);
+
+    table = fd.freeze(-20.0, true);
+    assertTrue(table.isQuantized());
+    assertEquals(Math.log(3.0 / 6), table.getLogProbability("c"), 10e-6);
+    assertEquals(-20.0, table.getLogProbability("d"), 0.0);
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.map;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.Test;
+
+import tl.lin.data.pair.PairOfInts;
+
+public class PairOfInts2FloatMapWritableTest {
+
+  @Test
+  public void testBasic() throws IOException {
+    PairOfInts2FloatMapWritable m = new PairOfInts2FloatMapWritable();
+    m.increment(1, 2, 0.5f);
+    m.increment(1, 2);
+    m.put(3, -4, 2.25f);
+    m.put(-3, 4, -1.0f);
+
+    assertEquals(3, m.size());
+    assertEquals(1.5f, m.get(1, 2), 10e-6);
+    assertEquals(0.0f, m.get(2, 1), 10e-6);
+
+    PairOfInts2FloatMapWritable copy = PairOfInts2FloatMapWritable.create(m.serialize());
+    assertEquals(3, copy.size());
+    assertEquals(1.5f, copy.get(1, 2), 10e-6);
+    assertEquals(2.25f, copy.get(3, -4), 10e-6);
+    assertEquals(-1.0f, copy.get(-3, 4), 10e-6);
+
+    HMapIFW stripe = copy.getRow(3);
+    assertEquals(1, stripe.size());
+    assertEquals(2.25f, stripe.get(-4), 10e-6);
+
+    HMapKFW<PairOfInts> pairs = copy.toPairs();
+    assertEquals(-1.0f, pairs.get(new PairOfInts(-3, 4)), 10e-6);
+  }
+
+  public static junit.framework.Test suite() {
+    return new JUnit4TestAdapter(PairOfInts2FloatMapWritableTest.class);
+  }
+}
@@ -0,0 +1,168 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.Test;
+
+import tl.lin.data.pair.PairOfInts;
+
+public class PairOfInts2IntMapTest {
+
+  @Test
+  public void testBasic() {
+    PairOfInts2IntMap m = new PairOfInts2IntMap();
+    assertTrue(m.isEmpty());
+    assertEquals(0, m.get(1, 2));
+
+    m.put(1, 2, 5);
+    m.put(2, 1, 7);
+    m.increment(1, 2);
+    m.increment(1, 3, 4);
+
+    assertEquals(3, m.size());
+    assertEquals(6, m.get(1, 2));
+    assertEquals(7, m.get(2, 1));
+    assertEquals(4, m.get(1, 3));
+    assertFalse(m.containsKey(3, 1));
+
+    assertEquals(6, m.remove(1, 2));
+    assertEquals(0, m.remove(1, 2));
+    assertEquals(2, m.size());
+    assertFalse(m.containsKey(1, 2));
+
+    m.clear();
+    assertEquals(0, m.size());
+    assertEquals(0, m.get(2, 1));
+  }
+
+  @Test
+  public void testExtremeKeys() {
+    PairOfInts2IntMap m = new PairOfInts2IntMap();
+    int[] values = { Integer.MIN_VALUE, -1, 0, 1, Integer.MAX_VALUE };
+    int v = 1;
+    for (int left : values) {
+      for (int right : values) {
+        m.put(left, right, v++);
+      }
+    }
+
+    assertEquals(25, m.size());
+    v = 1;
+    for (int left : values) {
+      for (int right : values) {
+        assertEquals(v++, m.get(left, right));
+      }
+    }
+
+    assertEquals(1, m.remove(Integer.MIN_VALUE, Integer.MIN_VALUE));
+    assertFalse(m.containsKey(Integer.MIN_VALUE, Integer.MIN_VALUE));
+    assertEquals(24, m.size());
+  }
+
+  @Test
+  public void testRandomAgainstHashMap() {
+    PairOfInts2IntMap m = new PairOfInts2IntMap();
+    Map<PairOfInts, Integer> reference = new HashMap<PairOfInts, Integer>();
+    Random r = new Random(42);
+
+    for (int i = 0; i < 200000; i++) {
+      int left = r.nextInt(100);
+      int right = r.nextInt(1000);
+      PairOfInts key = new PairOfInts(left, right);
+      if (r.nextInt(4) == 0) {
+        Integer old = reference.remove(key);
+        assertEquals(old == null ? 0 : old.intValue(), m.remove(left, right));
+      } else {
+        Integer old = reference.get(key);
+        int value = (old == null ? 0 : old.intValue()) + 1;
+        reference.put(key, value);
+        assertEquals(value, m.increment(left, right));
+      }
+    }
+
+    assertEquals(reference.size(), m.size());
+    for (Map.Entry<PairOfInts, Integer> e : reference.entrySet()) {
+      assertEquals(e.getValue().intValue(),
+          m.get(e.getKey().getLeftElement(), e.getKey().getRightElement()));
+    }
+  }
+
+  @Test
+  public void testRows() {
+    PairOfInts2IntMap m = new PairOfInts2IntMap();
+    m.increment(5, 3, 1);
+    m.increment(5, -2, 2);
+    m.increment(5, 10, 3);
+    m.increment(-7, 1, 4);
+    m.increment(6, 0, 5);
+
+    int[] rows = m.getRows();
+    assertEquals(3, rows.length);
+    assertEquals(-7, rows[0]);
+    assertEquals(5, rows[1]);
+    assertEquals(6, rows[2]);
+    assertEquals(3, m.getRowSize(5));
+    assertEquals(0, m.getRowSize(4));
+
+    final StringBuilder sb = new StringBuilder();
+    m.forEachInRow(5, new PairOfInts2IntMap.RowProcedure() {
+      @Override
+      public void apply(int right, int value) {
+        sb.append(right).append(":").append(value).append(" ");
+      }
+    });
+    assertEquals("-2:2 3:1 10:3 ", sb.toString());
+
+    // The row index must reflect later updates.
+    m.increment(5, 4);
+    assertEquals(4, m.getRowSize(5));
+
+    HMapII stripe = m.getRow(5);
+    assertEquals(4, stripe.size());
+    assertEquals(2, stripe.get(-2));
+
+    PairOfInts2IntMap other = new PairOfInts2IntMap();
+    other.plusRow(5, stripe);
+    other.plus(m);
+    assertEquals(4, other.get(5, -2));
+    assertEquals(4, other.get(-7, 1));
+
+    final int[] sum = new int[1];
+    PairOfInts2IntMap.EntryProcedure summer = new PairOfInts2IntMap.EntryProcedure() {
+      @Override
+      public void apply(int left, int right, int value) {
+        sum[0] += value;
+      }
+    };
+    other.forEach(summer);
+    assertEquals(2 * (1 + 2 + 3 + 1) + 4 + 5, sum[0]);
+  }
+
+  public static junit.framework.Test suite() {
+    return new JUnit4TestAdapter(PairOfInts2IntMapTest.class);
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Random;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.Test;
+
+import tl.lin.data.pair.PairOfInts;
+
+public class PairOfInts2IntMapWritableTest {
+
+  @Test
+  public void testSerialize() throws IOException {
+    PairOfInts2IntMapWritable m = new PairOfInts2IntMapWritable();
+    Random r = new Random(42);
+    for (int i = 0; i < 10000; i++) {
+      m.increment(r.nextInt(50), r.nextInt(5000), 1 + r.nextInt(3));
+    }
+    m.put(Integer.MIN_VALUE, Integer.MIN_VALUE, -3);
+    m.put(Integer.MAX_VALUE, Integer.MAX_VALUE, 3);
+    m.put(-1, Integer.MAX_VALUE, 9);
+
+    byte[] bytes = m.serialize();
+    // Well under the four bytes each for left, right, and value of a fixed-width encoding.
+    assertTrue(bytes.length < m.size() * 4);
+
+    PairOfInts2IntMapWritable copy = PairOfInts2IntMapWritable.create(bytes);
+    assertEquals(m.size(), copy.size());
+    assertEquals(m.toString(), copy.toString());
+    assertEquals(-3, copy.get(Integer.MIN_VALUE, Integer.MIN_VALUE));
+    assertEquals(9, copy.get(-1, Integer.MAX_VALUE));
+  }
+
+  @Test
+  public void testSerializeEmpty() throws IOException {
+    PairOfInts2IntMapWritable copy = PairOfInts2IntMapWritable.create(
+        new PairOfInts2IntMapWritable().serialize());
+    assertEquals(0, copy.size());
+  }
+
+  @Test
+  public void testExport() throws IOException {
+    PairOfInts2IntMapWritable m = new PairOfInts2IntMapWritable();
+    m.increment(1, 2, 3);
+    m.increment(1, 4, 5);
+    m.increment(2, 2, 7);
+
+    HMapIIW stripe = m.getRow(1);
+    assertEquals(2, stripe.size());
+    assertEquals(3, stripe.get(2));
+    assertEquals(5, stripe.get(4));
+
+    HMapKIW<PairOfInts> pairs = m.toPairs();
+    assertEquals(3, pairs.size());
+    assertEquals(7, pairs.get(new PairOfInts(2, 2)));
+  }
+
+  public static junit.framework.Test suite() {
+    return new JUnit4TestAdapter(PairOfInts2IntMapWritableTest.class);
+  }
+}
@@ -100,6 +100,40 @@ public class PairOfFloatIntTest {
     assertTrue(WritableComparatorTestHarness.compare(comparator, pair4, pair5) < 0);
   }
 
+  @Test
+  public void testSecondarySort() throws IOException {
+    WritableComparator grouping = new PairOfFloatInt.LeftElementComparator();
+    PairOfFloatInt.LeftElementPartitioner<Object> partitioner =
+        new PairOfFloatInt.LeftElementPartitioner<Object>();
+
+    PairOfFloatInt pair1 = new PairOfFloatInt(1.0f, 1);
+    PairOfFloatInt pair2 = new PairOfFloatInt(1.0f, 2);
+    PairOfFloatInt pair3 = new PairOfFloatInt(2.0f, 1);
+
+    // Pairs with the same left element are grouped together, whatever their right elements.
+    assertEquals(0, WritableComparatorTestHarness.compare(grouping, pair1, pair2));
+    assertEquals(0, grouping.compare(pair1, pair2));
+    assertTrue(WritableComparatorTestHarness.compare(grouping, pair1, pair3) < 0);
+    assertTrue(WritableComparatorTestHarness.compare(grouping, pair3, pair2) > 0);
+    assertTrue(grouping.compare(pair3, pair1) > 0);
+
+    // NaN groups with NaN and sorts after positive infinity, on the raw and the object paths.
+    PairOfFloatInt nan1 = new PairOfFloatInt(Float.NaN, 1);
+    PairOfFloatInt nan2 = new PairOfFloatInt(Float.NaN, 2);
+    PairOfFloatInt inf = new PairOfFloatInt(Float.POSITIVE_INFINITY, 1);
+    assertEquals(0, WritableComparatorTestHarness.compare(grouping, nan1, nan2));
+    assertEquals(0, grouping.compare(nan1, nan2));
+    assertTrue(WritableComparatorTestHarness.compare(grouping, nan1, inf) > 0);
+    assertTrue(grouping.compare(nan1, inf) > 0);
+    assertTrue(grouping.compare(pair1, nan2) < 0);
+
+    for (int n = 1; n < 20; n++) {
+      int partition = partitioner.getPartition(pair1, null, n);
+      assertTrue(partition >= 0 && partition < n);
+      assertEquals(partition, partitioner.getPartition(pair2, null, n));
+    }
+  }
+
   public static junit.framework.Test suite() {
     return new JUnit4TestAdapter(PairOfFloatIntTest.class);
   }
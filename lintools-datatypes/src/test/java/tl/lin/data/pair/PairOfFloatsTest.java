@@ -16,6 +16,7 @@
 
 package tl.lin.data.pair;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -99,6 +100,81 @@ public class PairOfFloatsTest {
     assertTrue(WritableComparatorTestHarness.compare(comparator, pair4, pair5) < 0);
   }
 
+  @Test
+  public void testSecondarySort() throws IOException {
+    WritableComparator grouping = new PairOfFloats.LeftElementComparator();
+    PairOfFloats.LeftElementPartitioner<Object> partitioner =
+        new PairOfFloats.LeftElementPartitioner<Object>();
+
+    PairOfFloats pair1 = new PairOfFloats(1.0f, 1.0f);
+    PairOfFloats pair2 = new PairOfFloats(1.0f, 2.0f);
+    PairOfFloats pair3 = new PairOfFloats(2.0f, 1.0f);
+
+    // Pairs with the same left element are grouped together, whatever their right elements.
+    assertEquals(0, WritableComparatorTestHarness.compare(grouping, pair1, pair2));
+    assertEquals(0, grouping.compare(pair1, pair2));
+    assertTrue(WritableComparatorTestHarness.compare(grouping, pair1, pair3) < 0);
+    assertTrue(WritableComparatorTestHarness.compare(grouping, pair3, pair2) > 0);
+    assertTrue(grouping.compare(pair3, pair1) > 0);
+
+    // NaN groups with NaN and sorts after positive infinity, on the raw and the object paths.
+    PairOfFloats nan1 = new PairOfFloats(Float.NaN, 1.0f);
+    PairOfFloats nan2 = new PairOfFloats(Float.NaN, 2.0f);
+    PairOfFloats inf = new PairOfFloats(Float.POSITIVE_INFINITY, 1.0f);
+    assertEquals(0, WritableComparatorTestHarness.compare(grouping, nan1, nan2));
+    assertEquals(0, grouping.compare(nan1, nan2));
+    assertTrue(WritableComparatorTestHarness.compare(grouping, nan1, inf) > 0);
+    assertTrue(grouping.compare(nan1, inf) > 0);
+    assertTrue(grouping.compare(pair1, nan2) < 0);
+
+    for (int n = 1; n < 20; n++) {
+      int partition = partitioner.getPartition(pair1, null, n);
+      assertTrue(partition >= 0 && partition < n);
+      assertEquals(partition, partitioner.getPartition(pair2, null, n));
+    }
+  }
+
+  @Test
+  public void testSignedZero() {
+    // Equal pairs must have equal hash codes and go to the same partition.
+    PairOfFloats pair1 = new PairOfFloats(0.0f, -0.0f);
+    PairOfFloats pair2 = new PairOfFloats(-0.0f, 0.0f);
+    assertTrue(pair1.equals(pair2));
+    assertEquals(pair1.hashCode(), pair2.hashCode());
+    assertEquals(new PairOfFloats.LeftElementPartitioner<Object>().getPartition(pair1, null, 7),
+        new PairOfFloats.LeftElementPartitioner<Object>().getPartition(pair2, null, 7));
+  }
+
+  @Test
+  public void testTotalOrder() {
+    WritableComparator comparator = new PairOfFloats.Comparator();
+    WritableComparator grouping = new PairOfFloats.LeftElementComparator();
+    float[] values = new float[] { Float.NEGATIVE_INFINITY, -Float.MAX_VALUE, -1.0f,
+        -Float.MIN_VALUE, -0.0f, 0.0f, Float.MIN_VALUE, 1.0f, Float.MAX_VALUE,
+        Float.POSITIVE_INFINITY, Float.NaN };
+
+    // Raw comparators compare the bits of the floats, and must agree with compareTo().
+    for (int i = 0; i < values.length; i++) {
+      for (int j = 0; j < values.length; j++) {
+        // Signed zeros are equal.
+        int expected = values[i] == 0.0f && values[j] == 0.0f ? 0 : Integer.signum(i - j);
+        PairOfFloats pair1 = new PairOfFloats(values[i], 1.0f);
+        PairOfFloats pair2 = new PairOfFloats(values[j], 1.0f);
+        assertEquals(expected, Integer.signum(pair1.compareTo(pair2)));
+        assertEquals(expected,
+            Integer.signum(WritableComparatorTestHarness.compare(comparator, pair1, pair2)));
+        assertEquals(expected,
+            Integer.signum(WritableComparatorTestHarness.compare(grouping, pair1, pair2)));
+
+        pair1 = new PairOfFloats(1.0f, values[i]);
+        pair2 = new PairOfFloats(1.0f, values[j]);
+        assertEquals(expected, Integer.signum(pair1.compareTo(pair2)));
+        assertEquals(expected,
+            Integer.signum(WritableComparatorTestHarness.compare(comparator, pair1, pair2)));
+      }
+    }
+  }
+
   public static junit.framework.Test suite() {
     return new JUnit4TestAdapter(PairOfFloatsTest.class);
   }
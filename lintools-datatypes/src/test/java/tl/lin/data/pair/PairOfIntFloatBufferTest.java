@@ -0,0 +1,122 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.pair;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.Test;
+
+public class PairOfIntFloatBufferTest {
+
+  @Test
+  public void testBasic() {
+    PairOfIntFloatBuffer buffer = new PairOfIntFloatBuffer(0);
+    buffer.add(3, -4.5f).add(new PairOfIntFloat(-1, Float.POSITIVE_INFINITY)).add(0, -0.0f);
+    assertEquals(3, buffer.size());
+    assertEquals(3, buffer.getLeftElement(0));
+    assertEquals(-4.5f, buffer.getRightElement(0), 0.0f);
+    assertEquals(new PairOfIntFloat(-1, Float.POSITIVE_INFINITY),
+        buffer.get(1, new PairOfIntFloat()));
+    // Negative zero is stored as zero.
+    assertEquals(Float.floatToRawIntBits(0.0f), Float.floatToRawIntBits(buffer.getRightElement(2)));
+  }
+
+  @Test
+  public void testSort() {
+    Random r = new Random(1);
+    float[] special = new float[] { Float.NEGATIVE_INFINITY, -Float.MIN_VALUE, 0.0f,
+        Float.MIN_VALUE, Float.MAX_VALUE, Float.NaN };
+    for (int n : new int[] { 0, 1, 1000, 10000 }) {
+      PairOfIntFloatBuffer buffer = new PairOfIntFloatBuffer();
+      List<PairOfIntFloat> list = new ArrayList<PairOfIntFloat>();
+      for (int i = 0; i < n; i++) {
+        int left = r.nextInt(100) - 50;
+        float right = i % 4 == 0 ? special[r.nextInt(special.length)] : (float) r.nextGaussian();
+        buffer.add(left, right);
+        list.add(new PairOfIntFloat(left, right));
+      }
+
+      buffer.sort();
+      Collections.sort(list);
+      for (int i = 0; i < n; i++) {
+        assertEquals(list.get(i).getLeftElement(), buffer.getLeftElement(i));
+        assertEquals(list.get(i).getRightElement(), buffer.getRightElement(i), 0.0f);
+      }
+    }
+  }
+
+  @Test
+  public void testGroups() {
+    PairOfIntFloatBuffer buffer = new PairOfIntFloatBuffer();
+    for (int i = 0; i < 100; i++) {
+      buffer.add(i % 7, i);
+    }
+
+    buffer.sort();
+    int groups = 0;
+    for (int i = 0; i < buffer.size();) {
+      int end = buffer.groupEnd(i);
+      float max = Float.NEGATIVE_INFINITY;
+      for (int j = i; j < end; j++) {
+        max = Math.max(max, buffer.getRightElement(j));
+      }
+      // Within a group, pairs are sorted by their right elements.
+      assertEquals(max, buffer.getRightElement(end - 1), 0.0f);
+      assertTrue(max >= 93 && max < 100);
+      groups++;
+      i = end;
+    }
+    assertEquals(7, groups);
+  }
+
+  @Test
+  public void testSerialize() throws IOException {
+    PairOfIntFloatBuffer origBuffer = new PairOfIntFloatBuffer();
+    for (int i = 0; i < 100; i++) {
+      origBuffer.add(-i, i / 3.0f);
+    }
+
+    ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
+    DataOutputStream dataOut = new DataOutputStream(bytesOut);
+    origBuffer.write(dataOut);
+
+    PairOfIntFloatBuffer buffer = new PairOfIntFloatBuffer();
+    buffer.readFields(new DataInputStream(new ByteArrayInputStream(bytesOut.toByteArray())));
+    assertEquals(100, buffer.size());
+    for (int i = 0; i < 100; i++) {
+      assertEquals(-i, buffer.getLeftElement(i));
+      assertEquals(i / 3.0f, buffer.getRightElement(i), 0.0f);
+    }
+  }
+
+  public static junit.framework.Test suite() {
+    return new JUnit4TestAdapter(PairOfIntFloatBufferTest.class);
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.pair;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.Test;
+
+public class PairOfIntsBufferTest {
+
+  @Test
+  public void testBasic() {
+    PairOfIntsBuffer buffer = new PairOfIntsBuffer(1);
+    assertTrue(buffer.isEmpty());
+    buffer.add(3, -4).add(new PairOfInts(Integer.MIN_VALUE, Integer.MAX_VALUE));
+    assertEquals(2, buffer.size());
+    assertEquals(3, buffer.getLeftElement(0));
+    assertEquals(-4, buffer.getRightElement(0));
+    assertEquals(new PairOfInts(Integer.MIN_VALUE, Integer.MAX_VALUE),
+        buffer.get(1, new PairOfInts()));
+
+    buffer.clear();
+    assertTrue(buffer.isEmpty());
+    buffer.add(1, 1);
+    assertEquals(1, buffer.size());
+  }
+
+  @Test
+  public void testSort() {
+    Random r = new Random(1);
+    for (int n : new int[] { 0, 1, 1000, 10000 }) {
+      PairOfIntsBuffer buffer = new PairOfIntsBuffer();
+      List<PairOfInts> list = new ArrayList<PairOfInts>();
+      for (int i = 0; i < n; i++) {
+        int left = i % 2 == 0 ? r.nextInt(100) - 50 : r.nextInt();
+        int right = i % 3 == 0 ? r.nextInt(10) - 5 : r.nextInt();
+        buffer.add(left, right);
+        list.add(new PairOfInts(left, right));
+      }
+
+      buffer.sort();
+      Collections.sort(list);
+      PairOfInts pair = new PairOfInts();
+      for (int i = 0; i < n; i++) {
+        assertEquals(list.get(i), buffer.get(i, pair));
+      }
+    }
+  }
+
+  @Test
+  public void testGroups() {
+    PairOfIntsBuffer buffer = new PairOfIntsBuffer();
+    Random r = new Random(2);
+    int[] sums = new int[20];
+    for (int i = 0; i < 1000; i++) {
+      int left = r.nextInt(sums.length);
+      int right = r.nextInt(100);
+      sums[left] += right;
+      buffer.add(left, right);
+    }
+
+    buffer.sort();
+    int groups = 0;
+    for (int i = 0; i < buffer.size();) {
+      int end = buffer.groupEnd(i);
+      int sum = 0;
+      for (int j = i; j < end; j++) {
+        assertEquals(buffer.getLeftElement(i), buffer.getLeftElement(j));
+        sum += buffer.getRightElement(j);
+      }
+      assertEquals(sums[buffer.getLeftElement(i)], sum);
+      assertTrue(end == buffer.size() || buffer.getLeftElement(end) != buffer.getLeftElement(i));
+      groups++;
+      i = end;
+    }
+    assertEquals(sums.length, groups);
+  }
+
+  @Test
+  public void testSerialize() throws IOException {
+    PairOfIntsBuffer origBuffer = new PairOfIntsBuffer();
+    for (int i = 0; i < 100; i++) {
+      origBuffer.add(i * 7 - 300, -i);
+    }
+
+    ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
+    DataOutputStream dataOut = new DataOutputStream(bytesOut);
+    origBuffer.write(dataOut);
+
+    PairOfIntsBuffer buffer = new PairOfIntsBuffer();
+    buffer.add(1, 2);
+    buffer.readFields(new DataInputStream(new ByteArrayInputStream(bytesOut.toByteArray())));
+    assertEquals(100, buffer.size());
+    for (int i = 0; i < 100; i++) {
+      assertEquals(i * 7 - 300, buffer.getLeftElement(i));
+      assertEquals(-i, buffer.getRightElement(i));
+    }
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testOutOfBounds() {
+    new PairOfIntsBuffer().add(1, 2).getRightElement(1);
+  }
+
+  public static junit.framework.Test suite() {
+    return new JUnit4TestAdapter(PairOfIntsBufferTest.class);
+  }
+}
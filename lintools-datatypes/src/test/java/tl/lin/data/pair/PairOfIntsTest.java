@@ -25,6 +25,8 @@ import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
 
 import junit.framework.JUnit4TestAdapter;
 
@@ -97,6 +99,53 @@ public class PairOfIntsTest {
     assertTrue(WritableComparatorTestHarness.compare(comparator, pair4, pair5) < 0);
   }
 
+  @Test
+  public void testSecondarySort() throws IOException {
+    WritableComparator grouping = new PairOfInts.LeftElementComparator();
+    PairOfInts.LeftElementPartitioner<Object> partitioner =
+        new PairOfInts.LeftElementPartitioner<Object>();
+
+    PairOfInts pair1 = new PairOfInts(1, 1);
+    PairOfInts pair2 = new PairOfInts(1, 2);
+    PairOfInts pair3 = new PairOfInts(2, 1);
+
+    // Pairs with the same left element are grouped together, whatever their right elements.
+    assertEquals(0, WritableComparatorTestHarness.compare(grouping, pair1, pair2));
+    assertEquals(0, grouping.compare(pair1, pair2));
+    assertTrue(WritableComparatorTestHarness.compare(grouping, pair1, pair3) < 0);
+    assertTrue(WritableComparatorTestHarness.compare(grouping, pair3, pair2) > 0);
+    assertTrue(grouping.compare(pair3, pair1) > 0);
+
+    for (int n = 1; n < 20; n++) {
+      int partition = partitioner.getPartition(pair1, null, n);
+      assertTrue(partition >= 0 && partition < n);
+      assertEquals(partition, partitioner.getPartition(pair2, null, n));
+    }
+  }
+
+  @Test
+  public void testHashCode() {
+    // Small grid of pairs, which a sum of elements would map to only 199 distinct hash codes.
+    Set<Integer> hashes = new HashSet<Integer>();
+    for (int i = 0; i < 100; i++) {
+      for (int j = 0; j < 100; j++) {
+        hashes.add(new PairOfInts(i, j).hashCode());
+      }
+    }
+    assertTrue(hashes.size() > 9990);
+
+    // Consecutive left elements are spread evenly over partitions.
+    PairOfInts.LeftElementPartitioner<Object> partitioner =
+        new PairOfInts.LeftElementPartitioner<Object>();
+    int[] counts = new int[10];
+    for (int i = 0; i < 100000; i++) {
+      counts[partitioner.getPartition(new PairOfInts(i, 0), null, counts.length)]++;
+    }
+    for (int count : counts) {
+      assertTrue(count > 9500 && count < 10500);
+    }
+  }
+
   public static junit.framework.Test suite() {
     return new JUnit4TestAdapter(PairOfIntsTest.class);
   }
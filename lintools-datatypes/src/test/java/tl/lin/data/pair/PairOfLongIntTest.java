@@ -97,6 +97,30 @@ public class PairOfLongIntTest {
     assertTrue(WritableComparatorTestHarness.compare(comparator, pair4, pair5) < 0);
   }
 
+  @Test
+  public void testSecondarySort() throws IOException {
+    WritableComparator grouping = new PairOfLongInt.LeftElementComparator();
+    PairOfLongInt.LeftElementPartitioner<Object> partitioner =
+        new PairOfLongInt.LeftElementPartitioner<Object>();
+
+    PairOfLongInt pair1 = new PairOfLongInt(1L, 1);
+    PairOfLongInt pair2 = new PairOfLongInt(1L, 2);
+    PairOfLongInt pair3 = new PairOfLongInt(2L, 1);
+
+    // Pairs with the same left element are grouped together, whatever their right elements.
+    assertEquals(0, WritableComparatorTestHarness.compare(grouping, pair1, pair2));
+    assertEquals(0, grouping.compare(pair1, pair2));
+    assertTrue(WritableComparatorTestHarness.compare(grouping, pair1, pair3) < 0);
+    assertTrue(WritableComparatorTestHarness.compare(grouping, pair3, pair2) > 0);
+    assertTrue(grouping.compare(pair3, pair1) > 0);
+
+    for (int n = 1; n < 20; n++) {
+      int partition = partitioner.getPartition(pair1, null, n);
+      assertTrue(partition >= 0 && partition < n);
+      assertEquals(partition, partitioner.getPartition(pair2, null, n));
+    }
+  }
+
   public static junit.framework.Test suite() {
     return new JUnit4TestAdapter(PairOfLongIntTest.class);
   }
@@ -25,6 +25,8 @@ import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
 
 import junit.framework.JUnit4TestAdapter;
 
@@ -143,6 +145,44 @@ public class PairOfStringsTest {
     assertTrue(WritableComparatorTestHarness.compare(comparator, pair4, pair5) < 0);
   }
 
+  @Test
+  public void testSecondarySort() throws IOException {
+    WritableComparator grouping = new PairOfStrings.LeftElementComparator();
+    PairOfStrings.LeftElementPartitioner<Object> partitioner =
+        new PairOfStrings.LeftElementPartitioner<Object>();
+
+    PairOfStrings pair1 = new PairOfStrings("a", "a");
+    PairOfStrings pair2 = new PairOfStrings("a", "b");
+    PairOfStrings pair3 = new PairOfStrings("b", "a");
+
+    // Pairs with the same left element are grouped together, whatever their right elements.
+    assertEquals(0, WritableComparatorTestHarness.compare(grouping, pair1, pair2));
+    assertEquals(0, grouping.compare(pair1, pair2));
+    assertTrue(WritableComparatorTestHarness.compare(grouping, pair1, pair3) < 0);
+    assertTrue(WritableComparatorTestHarness.compare(grouping, pair3, pair2) > 0);
+    assertTrue(grouping.compare(pair3, pair1) > 0);
+
+    for (int n = 1; n < 20; n++) {
+      int partition = partitioner.getPartition(pair1, null, n);
+      assertTrue(partition >= 0 && partition < n);
+      assertEquals(partition, partitioner.getPartition(pair2, null, n));
+    }
+  }
+
+  @Test
+  public void testHashCode() {
+    // Swapping elements changes the hash code; with a sum of hashes, it would not.
+    assertTrue(new PairOfStrings("a", "b").hashCode() != new PairOfStrings("b", "a").hashCode());
+
+    Set<Integer> hashes = new HashSet<Integer>();
+    for (int i = 0; i < 100; i++) {
+      for (int j = 0; j < 100; j++) {
+        hashes.add(new PairOfStrings("term" + i, "doc" + j).hashCode());
+      }
+    }
+    assertTrue(hashes.size() > 9990);
+  }
+
   public static junit.framework.Test suite() {
     return new JUnit4TestAdapter(PairOfStringsTest.class);
   }
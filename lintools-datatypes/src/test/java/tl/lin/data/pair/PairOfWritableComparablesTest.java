@@ -0,0 +1,170 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.pair;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.WritableComparator;
+import org.junit.Test;
+
+import tl.lin.data.WritableComparatorTestHarness;
+
+public class PairOfWritableComparablesTest {
+
+  public static class TextPairOfInts extends PairOfWritableComparables<Text, PairOfInts> {
+    public TextPairOfInts() {
+      super(new Text(), new PairOfInts());
+    }
+
+    public TextPairOfInts(String left, int right1, int right2) {
+      super(new Text(left), new PairOfInts(right1, right2));
+    }
+
+    static {
+      WritableComparator.define(TextPairOfInts.class,
+          new Comparator(TextPairOfInts.class, Text.class, PairOfInts.class));
+    }
+
+    public static class Grouping extends LeftElementComparator {
+      public Grouping() {
+        super(TextPairOfInts.class, Text.class);
+      }
+    }
+  }
+
+  @Test
+  public void testSerialize() throws IOException {
+    TextPairOfInts origPair = new TextPairOfInts("hello", 1, 2);
+
+    ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
+    DataOutputStream dataOut = new DataOutputStream(bytesOut);
+    origPair.write(dataOut);
+    origPair.write(dataOut);
+
+    // The pair, and its elements, are reused.
+    TextPairOfInts pair = new TextPairOfInts("a longer string", 3, 4);
+    Text left = pair.getLeftElement();
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytesOut.toByteArray()));
+    pair.readFields(in);
+    assertEquals(origPair, pair);
+    assertEquals(origPair.hashCode(), pair.hashCode());
+    pair.readFields(in);
+    assertEquals(origPair, pair);
+    assertTrue(left == pair.getLeftElement());
+    assertEquals("(hello, (1, 2))", pair.toString());
+  }
+
+  @Test
+  public void testComparison() throws IOException {
+    WritableComparator comparator = WritableComparator.get(TextPairOfInts.class);
+    assertTrue(comparator instanceof PairOfWritableComparables.Comparator);
+
+    TextPairOfInts[] pairs = new TextPairOfInts[] { new TextPairOfInts("", 5, 5),
+        new TextPairOfInts("a", 1, 2), new TextPairOfInts("a", 1, 3),
+        new TextPairOfInts("a", 2, 0), new TextPairOfInts("ab", -1, 0),
+        new TextPairOfInts("b", 0, 0) };
+
+    for (int i = 0; i < pairs.length; i++) {
+      for (int j = 0; j < pairs.length; j++) {
+        int expected = Integer.signum(i - j);
+        assertEquals(expected, Integer.signum(pairs[i].compareTo(pairs[j])));
+        assertEquals(expected,
+            Integer.signum(WritableComparatorTestHarness.compare(comparator, pairs[i], pairs[j])));
+      }
+    }
+    assertFalse(pairs[1].equals(pairs[2]));
+  }
+
+  @Test
+  public void testDefaultComparator() throws IOException {
+    // Types without a registered raw comparator are compared by deserializing them.
+    WritableComparator comparator = new PairOfWritableComparables.Comparator(
+        PairOfWritableComparables.class, IntWritable.class, Text.class);
+    PairOfWritableComparables<IntWritable, Text> pair1 =
+        new PairOfWritableComparables<IntWritable, Text>(new IntWritable(1), new Text("b"));
+    PairOfWritableComparables<IntWritable, Text> pair2 =
+        new PairOfWritableComparables<IntWritable, Text>(new IntWritable(1), new Text("c"));
+    PairOfWritableComparables<IntWritable, Text> pair3 =
+        new PairOfWritableComparables<IntWritable, Text>(new IntWritable(2), new Text("a"));
+
+    assertTrue(WritableComparatorTestHarness.compare(comparator, pair1, pair2) < 0);
+    assertTrue(WritableComparatorTestHarness.compare(comparator, pair2, pair3) < 0);
+    assertTrue(WritableComparatorTestHarness.compare(comparator, pair3, pair1) > 0);
+    assertEquals(0, WritableComparatorTestHarness.compare(comparator, pair1,
+        new PairOfWritableComparables<IntWritable, Text>(new IntWritable(1), new Text("b"))));
+  }
+
+  @Test
+  public void testSecondarySort() throws IOException {
+    WritableComparator grouping = new TextPairOfInts.Grouping();
+    PairOfWritableComparables.LeftElementPartitioner<Object> partitioner =
+        new PairOfWritableComparables.LeftElementPartitioner<Object>();
+
+    TextPairOfInts pair1 = new TextPairOfInts("a", 1, 2);
+    TextPairOfInts pair2 = new TextPairOfInts("a", 3, 0);
+    TextPairOfInts pair3 = new TextPairOfInts("ab", 0, 0);
+
+    // Pairs with the same left element are grouped together, whatever their right elements.
+    assertEquals(0, WritableComparatorTestHarness.compare(grouping, pair1, pair2));
+    assertEquals(0, grouping.compare(pair1, pair2));
+    assertTrue(WritableComparatorTestHarness.compare(grouping, pair1, pair3) < 0);
+    assertTrue(WritableComparatorTestHarness.compare(grouping, pair3, pair2) > 0);
+    assertTrue(grouping.compare(pair3, pair1) > 0);
+
+    for (int n = 1; n < 20; n++) {
+      int partition = partitioner.getPartition(pair1, null, n);
+      assertTrue(partition >= 0 && partition < n);
+      assertEquals(partition, partitioner.getPartition(pair2, null, n));
+    }
+  }
+
+  @Test
+  public void testHashCode() {
+    // Element hashes are mixed, so that (0, 31) and (1, 0) do not collide, as they would with
+    // 31 * left + right.
+    PairOfWritableComparables<IntWritable, IntWritable> pair1 =
+        new PairOfWritableComparables<IntWritable, IntWritable>(new IntWritable(0),
+            new IntWritable(31));
+    PairOfWritableComparables<IntWritable, IntWritable> pair2 =
+        new PairOfWritableComparables<IntWritable, IntWritable>(new IntWritable(1),
+            new IntWritable(0));
+    assertFalse(pair1.hashCode() == pair2.hashCode());
+    assertEquals(pair1.hashCode(), new PairOfWritableComparables<IntWritable, IntWritable>(
+        new IntWritable(0), new IntWritable(31)).hashCode());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullElement() {
+    new PairOfWritableComparables<IntWritable, Text>(null, new Text());
+  }
+
+  public static junit.framework.Test suite() {
+    return new JUnit4TestAdapter(PairOfWritableComparablesTest.class);
+  }
+}
@@ -0,0 +1,185 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.pair;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.apache.hadoop.io.WritableComparator;
+import org.junit.Test;
+
+import tl.lin.data.WritableComparatorTestHarness;
+import tl.lin.data.util.OrderedBytes;
+
+public class TupleKeyTest {
+
+  @Test
+  public void testBasic() {
+    TupleKey key = new TupleKey();
+    key.appendInt(-5).appendLong(1L << 40).appendFloat(-2.5f).appendDouble(Math.PI)
+        .appendString("hello").appendString("").appendInt(7);
+    assertEquals(4 + 8 + 4 + 8 + 7 + 2 + 4, key.getLength());
+
+    for (int n = 0; n < 2; n++) {
+      key.rewind();
+      assertEquals(-5, key.nextInt());
+      assertEquals(1L << 40, key.nextLong());
+      assertEquals(-2.5f, key.nextFloat(), 0.0f);
+      assertEquals(Math.PI, key.nextDouble(), 0.0);
+      assertEquals("hello", key.nextString());
+      assertEquals("", key.nextString());
+      assertTrue(key.hasNext());
+      assertEquals(7, key.nextInt());
+      assertFalse(key.hasNext());
+    }
+
+    key.clear();
+    assertEquals(0, key.getLength());
+    assertFalse(key.hasNext());
+    assertEquals("80000001", key.appendInt(1).toString());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testNoMoreComponents() {
+    TupleKey key = new TupleKey().appendInt(1);
+    key.nextInt();
+    key.nextInt();
+  }
+
+  @Test
+  public void testSerialize() throws IOException {
+    TupleKey origKey = new TupleKey().appendString("a longer string to force growth").appendInt(3);
+
+    ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
+    DataOutputStream dataOut = new DataOutputStream(bytesOut);
+    origKey.write(dataOut);
+    new TupleKey().appendLong(1).write(dataOut);
+
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytesOut.toByteArray()));
+    TupleKey key = new TupleKey();
+    key.readFields(in);
+    assertEquals(origKey, key);
+    assertEquals(origKey.hashCode(), key.hashCode());
+    assertEquals("a longer string to force growth", key.nextString());
+    assertEquals(3, key.nextInt());
+
+    // Keys are reused.
+    key.readFields(in);
+    assertEquals(8, key.getLength());
+    assertEquals(1L, key.nextLong());
+  }
+
+  private static TupleKey randomKey(Random r) {
+    // Same types in the same order, as for keys in the same job.
+    return new TupleKey().appendString(r.nextBoolean() ? "" : "ab".substring(r.nextInt(2)))
+        .appendInt(r.nextInt(5) - 2).appendFloat((r.nextInt(5) - 2) / 2.0f)
+        .appendLong(r.nextLong() >> r.nextInt(64));
+  }
+
+  private static int compareComponents(TupleKey key1, TupleKey key2) {
+    key1.rewind();
+    key2.rewind();
+    int cmp = key1.nextString().compareTo(key2.nextString());
+    if (cmp == 0) {
+      int i1 = key1.nextInt();
+      int i2 = key2.nextInt();
+      cmp = i1 < i2 ? -1 : (i1 == i2 ? 0 : 1);
+    }
+    if (cmp == 0) {
+      cmp = Float.compare(key1.nextFloat(), key2.nextFloat());
+    }
+    if (cmp == 0) {
+      long l1 = key1.nextLong();
+      long l2 = key2.nextLong();
+      cmp = l1 < l2 ? -1 : (l1 == l2 ? 0 : 1);
+    }
+    return Integer.signum(cmp);
+  }
+
+  @Test
+  public void testComparison() {
+    WritableComparator comparator = WritableComparator.get(TupleKey.class);
+    assertTrue(comparator instanceof TupleKey.Comparator);
+
+    Random r = new Random(1);
+    for (int n = 0; n < 2000; n++) {
+      TupleKey key1 = randomKey(r);
+      TupleKey key2 = randomKey(r);
+      int expected = compareComponents(key1, key2);
+      assertEquals(expected, Integer.signum(key1.compareTo(key2)));
+      assertEquals(expected,
+          Integer.signum(WritableComparatorTestHarness.compare(comparator, key1, key2)));
+      assertEquals(expected == 0, key1.equals(key2));
+
+      int prefix = OrderedBytes.compareUnsigned(key1.getPrefix(), key2.getPrefix());
+      assertTrue(prefix == 0 || prefix == expected);
+    }
+  }
+
+  @Test
+  public void testPairs() {
+    Random r = new Random(2);
+    TupleKey key1 = new TupleKey();
+    TupleKey key2 = new TupleKey();
+    for (int n = 0; n < 1000; n++) {
+      PairOfStringInt pair1 = new PairOfStringInt("abc".substring(r.nextInt(4)), r.nextInt(3) - 1);
+      PairOfStringInt pair2 = new PairOfStringInt("abc".substring(r.nextInt(4)), r.nextInt(3) - 1);
+      pair1.appendTo(key1.clear());
+      pair2.appendTo(key2.clear());
+      assertEquals(Integer.signum(pair1.compareTo(pair2)), Integer.signum(key1.compareTo(key2)));
+
+      PairOfStringInt decoded = new PairOfStringInt();
+      decoded.readFrom(key1);
+      assertEquals(pair1, decoded);
+
+      PairOfFloatString pair3 =
+          new PairOfFloatString(r.nextInt(3) - 1.0f, "ab".substring(r.nextInt(3)));
+      PairOfFloatString pair4 =
+          new PairOfFloatString(r.nextInt(3) - 1.0f, "ab".substring(r.nextInt(3)));
+      pair3.appendTo(key1.clear());
+      pair4.appendTo(key2.clear());
+      assertEquals(Integer.signum(pair3.compareTo(pair4)), Integer.signum(key1.compareTo(key2)));
+
+      PairOfLongs pair5 = new PairOfLongs(r.nextLong() >> r.nextInt(64), r.nextInt(3) - 1);
+      PairOfLongs pair6 = new PairOfLongs(r.nextLong() >> r.nextInt(64), r.nextInt(3) - 1);
+      // Keys can hold several pairs.
+      pair6.appendTo(pair5.appendTo(key1.clear()));
+      pair5.appendTo(pair6.appendTo(key2.clear()));
+      assertEquals(Integer.signum(pair5.compareTo(pair6)), Integer.signum(key1.compareTo(key2)));
+
+      PairOfLongs decodedLongs = new PairOfLongs();
+      decodedLongs.readFrom(key2);
+      assertEquals(pair6, decodedLongs);
+      decodedLongs.readFrom(key2);
+      assertEquals(pair5, decodedLongs);
+    }
+  }
+
+  public static junit.framework.Test suite() {
+    return new JUnit4TestAdapter(TupleKeyTest.class);
+  }
+}
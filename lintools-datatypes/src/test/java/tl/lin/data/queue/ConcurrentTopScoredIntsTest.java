@@ -0,0 +1,118 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.queue;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.Test;
+
+public class ConcurrentTopScoredIntsTest {
+  private static final int THREADS = 4;
+
+  private static float[] randomScores(int n, int seed) {
+    Random r = new Random(seed);
+    float[] scores = new float[n];
+    for (int i = 0; i < n; i++) {
+      // Few distinct scores, so that ties are frequent.
+      scores[i] = r.nextInt(1000) / 10.0f;
+    }
+    return scores;
+  }
+
+  @Test
+  public void testAgainstSequential() throws InterruptedException {
+    final float[] scores = randomScores(100000, 1);
+    for (final int k : new int[] { 0, 1, 10, 1000 }) {
+      final ConcurrentTopScoredInts top = new ConcurrentTopScoredInts(k);
+      Thread[] threads = new Thread[THREADS];
+      for (int t = 0; t < THREADS; t++) {
+        final int start = t;
+        threads[t] = new Thread() {
+          @Override
+          public void run() {
+            for (int i = start; i < scores.length; i += THREADS) {
+              top.add(i, scores[i]);
+            }
+          }
+        };
+        threads[t].start();
+      }
+      for (Thread thread : threads) {
+        thread.join();
+      }
+
+      TopScoredInts expected = new TopScoredInts(k);
+      for (int i = 0; i < scores.length; i++) {
+        expected.add(i, scores[i]);
+      }
+
+      int[] expectedIds = new int[k];
+      float[] expectedScores = new float[k];
+      int[] ids = new int[k];
+      float[] outScores = new float[k];
+      assertEquals(expected.copyTo(expectedIds, expectedScores), top.copyTo(ids, outScores));
+      assertArrayEquals(expectedIds, ids);
+      assertArrayEquals(expectedScores, outScores, 0.0f);
+      assertEquals(k, top.size());
+      assertEquals(k, top.extractAll().length);
+      if (k > 0) {
+        assertTrue(top.getThreshold() <= expectedScores[k - 1]);
+      }
+    }
+  }
+
+  @Test
+  public void testThreshold() {
+    ConcurrentTopScoredInts top = new ConcurrentTopScoredInts(3);
+    assertEquals(Float.NEGATIVE_INFINITY, top.getThreshold(), 0.0f);
+    top.add(1, 1.0f);
+    top.add(2, 2.0f);
+    assertEquals(Float.NEGATIVE_INFINITY, top.getThreshold(), 0.0f);
+    top.add(3, 3.0f);
+    assertEquals(1.0f, top.getThreshold(), 0.0f);
+    top.add(4, 0.5f);
+    top.add(5, 5.0f);
+    assertEquals(2.0f, top.getThreshold(), 0.0f);
+
+    // Ties with the threshold are admitted, and broken in favor of larger ints.
+    top.add(6, 2.0f);
+    assertEquals(6, top.extractAll()[2].getLeftElement());
+
+    top.clear();
+    assertEquals(0, top.size());
+    assertEquals(Float.NEGATIVE_INFINITY, top.getThreshold(), 0.0f);
+    top.add(7, 0.0f);
+    assertEquals(7, top.extractAll()[0].getLeftElement());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testArraysTooShort() {
+    ConcurrentTopScoredInts top = new ConcurrentTopScoredInts(3);
+    top.add(1, 1.0f);
+    top.copyTo(new int[2], new float[2]);
+  }
+
+  public static junit.framework.Test suite() {
+    return new JUnit4TestAdapter(ConcurrentTopScoredIntsTest.class);
+  }
+}
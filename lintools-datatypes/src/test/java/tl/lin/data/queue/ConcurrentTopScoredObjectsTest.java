@@ -0,0 +1,83 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.queue;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.Test;
+
+import tl.lin.data.pair.PairOfObjectFloat;
+
+public class ConcurrentTopScoredObjectsTest {
+  private static final int THREADS = 4;
+
+  @Test
+  public void testAgainstSequential() throws InterruptedException {
+    Random r = new Random(1);
+    final String[] keys = new String[50000];
+    final float[] scores = new float[keys.length];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = "key" + i;
+      scores[i] = r.nextInt(100);
+    }
+
+    final ConcurrentTopScoredObjects<String> top = new ConcurrentTopScoredObjects<String>(100);
+    Thread[] threads = new Thread[THREADS];
+    for (int t = 0; t < THREADS; t++) {
+      final int start = t;
+      threads[t] = new Thread() {
+        @Override
+        public void run() {
+          for (int i = start; i < keys.length; i += THREADS) {
+            top.add(keys[i], scores[i]);
+          }
+        }
+      };
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    TopScoredObjects<String> expected = new TopScoredObjects<String>(100);
+    for (int i = 0; i < keys.length; i++) {
+      expected.add(keys[i], scores[i]);
+    }
+
+    PairOfObjectFloat<String>[] expectedArr = expected.extractAll();
+    PairOfObjectFloat<String>[] arr = top.extractAll();
+    assertEquals(100, top.size());
+    assertEquals(expectedArr.length, arr.length);
+    for (int i = 0; i < arr.length; i++) {
+      assertEquals(expectedArr[i].getLeftElement(), arr[i].getLeftElement());
+      assertEquals(expectedArr[i].getRightElement(), arr[i].getRightElement(), 0.0f);
+    }
+    assertEquals(99.0f, top.getThreshold(), 0.0f);
+
+    top.clear();
+    assertEquals(0, top.extractAll().length);
+    assertEquals(Float.NEGATIVE_INFINITY, top.getThreshold(), 0.0f);
+  }
+
+  public static junit.framework.Test suite() {
+    return new JUnit4TestAdapter(ConcurrentTopScoredObjectsTest.class);
+  }
+}
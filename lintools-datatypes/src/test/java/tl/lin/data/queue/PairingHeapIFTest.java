@@ -0,0 +1,180 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.queue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.Test;
+
+public class PairingHeapIFTest {
+
+  // Applies random operations to a heap and to a simple model of it, and compares them.
+  private static void checkRandom(PairingHeapIF heap, Random r) {
+    int capacity = heap.getCapacity();
+    float[] model = new float[capacity];
+    boolean[] present = new boolean[capacity];
+    int size = 0;
+
+    for (int op = 0; op < 20000; op++) {
+      int id = r.nextInt(capacity);
+      // Few distinct priorities, so that ties are frequent.
+      float priority = r.nextInt(50);
+      switch (r.nextInt(5)) {
+      case 0:
+        if (!present[id]) {
+          heap.add(id, priority);
+          model[id] = priority;
+          present[id] = true;
+          size++;
+        }
+        break;
+      case 1:
+        boolean changed = !present[id] || priority < model[id];
+        assertEquals(changed, heap.addOrDecrease(id, priority));
+        if (changed) {
+          size += present[id] ? 0 : 1;
+          model[id] = priority;
+          present[id] = true;
+        }
+        break;
+      case 2:
+        if (present[id] && priority <= model[id]) {
+          heap.decreasePriority(id, priority);
+          model[id] = priority;
+        }
+        break;
+      case 3:
+        if (present[id]) {
+          heap.remove(id);
+          present[id] = false;
+          size--;
+        }
+        break;
+      default:
+        if (size > 0) {
+          float min = Float.POSITIVE_INFINITY;
+          for (int i = 0; i < capacity; i++) {
+            if (present[i] && model[i] < min) {
+              min = model[i];
+            }
+          }
+          assertEquals(min, heap.peekPriority(), 0.0f);
+          int polled = heap.poll();
+          assertTrue(present[polled]);
+          assertEquals(min, model[polled], 0.0f);
+          present[polled] = false;
+          size--;
+        }
+      }
+
+      assertEquals(size, heap.size());
+      assertEquals(present[id], heap.contains(id));
+      if (present[id]) {
+        assertEquals(model[id], heap.getPriority(id), 0.0f);
+      }
+    }
+
+    // Draining the heap yields the priorities in ascending order.
+    float last = Float.NEGATIVE_INFINITY;
+    while (!heap.isEmpty()) {
+      float priority = heap.peekPriority();
+      assertTrue(priority >= last);
+      int id = heap.poll();
+      assertEquals(model[id], priority, 0.0f);
+      last = priority;
+    }
+  }
+
+  @Test
+  public void testRandom() {
+    Random r = new Random(1);
+    for (int capacity : new int[] { 1, 10, 500 }) {
+      checkRandom(new PairingHeapIF(capacity), r);
+    }
+  }
+
+  @Test
+  public void testClear() {
+    PairingHeapIF heap = new PairingHeapIF(10);
+    for (int i = 0; i < 10; i += 2) {
+      heap.add(i, -i);
+    }
+    assertEquals(8, heap.peek());
+    heap.clear();
+    assertTrue(heap.isEmpty());
+    assertFalse(heap.contains(8));
+    heap.add(8, 1.0f);
+    heap.add(3, 2.0f);
+    assertEquals(8, heap.poll());
+    assertEquals(3, heap.poll());
+  }
+
+  @Test
+  public void testErrors() {
+    PairingHeapIF heap = new PairingHeapIF(3);
+    heap.add(1, 1.0f);
+    try {
+      heap.add(1, 0.0f);
+      fail();
+    } catch (IllegalArgumentException e) {
+      // Expected: the id is already in the heap.
+    }
+    try {
+      heap.decreasePriority(1, 2.0f);
+      fail();
+    } catch (IllegalArgumentException e) {
+      // Expected: the priority would increase.
+    }
+    try {
+      heap.addOrDecrease(0, Float.NaN);
+      fail();
+    } catch (IllegalArgumentException e) {
+      // Expected.
+    }
+    try {
+      heap.getPriority(2);
+      fail();
+    } catch (NoSuchElementException e) {
+      // Expected: the id is not in the heap.
+    }
+    try {
+      heap.add(3, 0.0f);
+      fail();
+    } catch (IndexOutOfBoundsException e) {
+      // Expected.
+    }
+    assertEquals(1, heap.poll());
+    try {
+      heap.poll();
+      fail();
+    } catch (NoSuchElementException e) {
+      // Expected: the heap is empty.
+    }
+  }
+
+  public static junit.framework.Test suite() {
+    return new JUnit4TestAdapter(PairingHeapIFTest.class);
+  }
+}
@@ -16,6 +16,7 @@
 
 package tl.lin.data.queue;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
@@ -23,6 +24,9 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Random;
 
 import junit.framework.JUnit4TestAdapter;
@@ -176,9 +180,10 @@ public class TopScoredIntsTest {
     TopScoredInts reconstructed = new TopScoredInts();
     reconstructed.readFields(new DataInputStream(new ByteArrayInputStream(bytesOut.toByteArray())));
 
-    // Note that serialization is destructive.
+    // Serialization is not destructive.
     assertEquals(5, set.getMaxElements());
-    assertEquals(0, set.size());
+    assertEquals(5, set.size());
+    assertEquals(4, set.extractAll()[0].getLeftElement());
 
     assertEquals(5, reconstructed.getMaxElements());
     assertEquals(5, reconstructed.size());
@@ -198,6 +203,92 @@ public class TopScoredIntsTest {
     assertEquals(1, arr[4].getRightElement(), 10e-6);
   }
 
+  // Top n of the elements, in descending order of score, breaking ties by int descending.
+  private static PairOfIntFloat[] topN(int[] ids, float[] scores, int from, int to, int n) {
+    PairOfIntFloat[] all = new PairOfIntFloat[to - from];
+    for (int i = from; i < to; i++) {
+      all[i - from] = new PairOfIntFloat(ids[i], scores[i]);
+    }
+    Arrays.sort(all, Collections.reverseOrder(new Comparator<PairOfIntFloat>() {
+      public int compare(PairOfIntFloat p1, PairOfIntFloat p2) {
+        if (p1.getRightElement() == p2.getRightElement()) {
+          return p1.getLeftElement() < p2.getLeftElement() ? -1
+              : (p1.getLeftElement() == p2.getLeftElement() ? 0 : 1);
+        }
+        return p1.getRightElement() < p2.getRightElement() ? -1 : 1;
+      }
+    }));
+    return Arrays.copyOf(all, Math.min(n, all.length));
+  }
+
+  @Test
+  public void testAgainstSort() {
+    Random random = new Random(1);
+    int[] ids = new int[5000];
+    float[] scores = new float[5000];
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = random.nextInt(10000);
+      // Many ties.
+      scores[i] = random.nextInt(100);
+    }
+
+    for (int n : new int[] { 0, 1, 7, 100, 10000 }) {
+      TopScoredInts set = new TopScoredInts(n);
+      for (int i = 0; i < ids.length; i++) {
+        set.add(ids[i], scores[i]);
+      }
+      PairOfIntFloat[] expected = topN(ids, scores, 0, ids.length, n);
+      assertEquals(expected.length, set.size());
+      assertArrayEquals(expected, set.extractAll());
+
+      // Reading is not destructive.
+      int[] outIds = new int[set.size()];
+      float[] outScores = new float[set.size()];
+      assertEquals(expected.length, set.copyTo(outIds, outScores));
+      for (int i = 0; i < expected.length; i++) {
+        assertEquals(expected[i].getLeftElement(), outIds[i]);
+        assertEquals(expected[i].getRightElement(), outScores[i], 0.0f);
+      }
+      assertEquals(expected.length, set.size());
+    }
+  }
+
+  @Test
+  public void testMerge() {
+    Random random = new Random(2);
+    int[] ids = new int[3000];
+    float[] scores = new float[3000];
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = i;
+      scores[i] = random.nextInt(1000) / 10.0f;
+    }
+
+    // For example, one object per thread or mapper, each with a third of the elements.
+    TopScoredInts merged = new TopScoredInts(50);
+    for (int part = 0; part < 3; part++) {
+      TopScoredInts set = new TopScoredInts(50);
+      for (int i = part * 1000; i < (part + 1) * 1000; i++) {
+        set.add(ids[i], scores[i]);
+      }
+      assertArrayEquals(topN(ids, scores, part * 1000, (part + 1) * 1000, 50), set.extractAll());
+      merged.merge(set);
+    }
+    assertArrayEquals(topN(ids, scores, 0, ids.length, 50), merged.extractAll());
+
+    float sum = 0;
+    for (int i = 0; i < merged.size(); i++) {
+      sum += merged.getScore(i);
+    }
+    float expectedSum = 0;
+    for (PairOfIntFloat pair : merged.extractAll()) {
+      expectedSum += pair.getRightElement();
+    }
+    assertEquals(expectedSum, sum, 1e-3f);
+
+    merged.clear();
+    assertEquals(0, merged.size());
+  }
+
   public static junit.framework.Test suite() {
     return new JUnit4TestAdapter(TopScoredIntsTest.class);
   }
@@ -19,6 +19,9 @@ package tl.lin.data.queue;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Random;
 
 import junit.framework.JUnit4TestAdapter;
@@ -150,6 +153,53 @@ public class TopScoredObjectsTest {
     assertEquals(1.0f, arr[4].getRightElement(), 10e-6);
   }
 
+  @Test
+  public void testMerge() {
+    Random random = new Random(1);
+    String[] keys = new String[3000];
+    float[] scores = new float[3000];
+    PairOfObjectFloat<String>[] all = newArray(keys.length);
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = "" + random.nextInt(100000);
+      scores[i] = random.nextInt(100);
+      all[i] = new PairOfObjectFloat<String>(keys[i], scores[i]);
+    }
+    // Descending order of score, breaking ties by object descending.
+    Arrays.sort(all, Collections.reverseOrder(new Comparator<PairOfObjectFloat<String>>() {
+      public int compare(PairOfObjectFloat<String> p1, PairOfObjectFloat<String> p2) {
+        if (p1.getRightElement() == p2.getRightElement()) {
+          return p1.getLeftElement().compareTo(p2.getLeftElement());
+        }
+        return p1.getRightElement() < p2.getRightElement() ? -1 : 1;
+      }
+    }));
+
+    TopScoredObjects<String> merged = new TopScoredObjects<String>(20);
+    for (int part = 0; part < 3; part++) {
+      TopScoredObjects<String> set = new TopScoredObjects<String>(20);
+      for (int i = part * 1000; i < (part + 1) * 1000; i++) {
+        set.add(keys[i], scores[i]);
+      }
+      merged.merge(set);
+      assertEquals(20, set.size());
+    }
+
+    PairOfObjectFloat<String>[] arr = merged.extractAll();
+    assertEquals(20, arr.length);
+    for (int i = 0; i < arr.length; i++) {
+      assertEquals(all[i].getLeftElement(), arr[i].getLeftElement());
+      assertEquals(all[i].getRightElement(), arr[i].getRightElement(), 0.0f);
+    }
+    // Reading is not destructive.
+    assertEquals(20, merged.size());
+    assertEquals(arr[0].getLeftElement(), merged.extractAll()[0].getLeftElement());
+  }
+
+  @SuppressWarnings("unchecked")
+  private static PairOfObjectFloat<String>[] newArray(int n) {
+    return (PairOfObjectFloat<String>[]) new PairOfObjectFloat[n];
+  }
+
   public static junit.framework.Test suite() {
     return new JUnit4TestAdapter(TopScoredObjectsTest.class);
   }
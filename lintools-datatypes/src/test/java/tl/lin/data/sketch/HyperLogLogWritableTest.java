@@ -0,0 +1,187 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.sketch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Random;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.Test;
+
+public class HyperLogLogWritableTest {
+
+  @Test
+  public void testEmpty() {
+    HyperLogLogWritable hll = new HyperLogLogWritable();
+    assertEquals(0, hll.cardinality());
+    assertTrue(hll.isSparse());
+  }
+
+  @Test
+  public void testSmall() {
+    HyperLogLogWritable hll = new HyperLogLogWritable();
+    for (int i = 0; i < 100; i++) {
+      hll.add(i);
+      hll.add(i);
+    }
+
+    assertTrue(hll.isSparse());
+    assertEquals(100, hll.cardinality(), 2);
+  }
+
+  @Test
+  public void testIntsAndLongsAreTheSameItems() {
+    HyperLogLogWritable hll = new HyperLogLogWritable();
+    for (int i = 0; i < 1000; i++) {
+      hll.add(i);
+      hll.add((long) i);
+    }
+
+    assertEquals(1000, hll.cardinality(), 20);
+  }
+
+  @Test
+  public void testLarge() {
+    HyperLogLogWritable hll = new HyperLogLogWritable();
+    Random r = new Random(42);
+    for (int i = 0; i < 200000; i++) {
+      hll.add(r.nextLong());
+    }
+
+    assertFalse(hll.isSparse());
+    assertEquals(200000, hll.cardinality(), 200000 * 0.03);
+  }
+
+  @Test
+  public void testStrings() {
+    HyperLogLogWritable hll = new HyperLogLogWritable(12);
+    for (int i = 0; i < 50000; i++) {
+      hll.add("term" + (i % 20000));
+    }
+
+    assertEquals(20000, hll.cardinality(), 20000 * 0.05);
+  }
+
+  @Test
+  public void testMerge() {
+    HyperLogLogWritable a = new HyperLogLogWritable();
+    HyperLogLogWritable b = new HyperLogLogWritable();
+    HyperLogLogWritable union = new HyperLogLogWritable();
+
+    for (int i = 0; i < 30000; i++) {
+      a.add(i);
+      union.add(i);
+    }
+    for (int i = 20000; i < 60000; i++) {
+      b.add(i);
+      union.add(i);
+    }
+
+    a.merge(b);
+    assertEquals(union.cardinality(), a.cardinality());
+    assertEquals(60000, a.cardinality(), 60000 * 0.03);
+  }
+
+  @Test
+  public void testMergeSparse() {
+    HyperLogLogWritable a = new HyperLogLogWritable();
+    HyperLogLogWritable b = new HyperLogLogWritable();
+
+    for (int i = 0; i < 500; i++) {
+      a.add(i);
+    }
+    for (int i = 250; i < 1000; i++) {
+      b.add(i);
+    }
+
+    a.merge(b);
+    assertTrue(a.isSparse());
+    assertEquals(1000, a.cardinality(), 20);
+  }
+
+  @Test
+  public void testMergeSparseIntoDense() {
+    HyperLogLogWritable a = new HyperLogLogWritable(10);
+    HyperLogLogWritable b = new HyperLogLogWritable(10);
+
+    for (int i = 0; i < 10000; i++) {
+      a.add(i);
+    }
+    for (int i = 0; i < 10; i++) {
+      b.add(-i - 1);
+    }
+
+    long before = a.cardinality();
+    b.merge(a);
+    assertFalse(b.isSparse());
+    assertTrue(b.cardinality() >= before);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMergeDifferentPrecisions() {
+    new HyperLogLogWritable(10).merge(new HyperLogLogWritable(12));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testIllegalPrecision() {
+    new HyperLogLogWritable(HyperLogLogWritable.MAX_PRECISION + 1);
+  }
+
+  @Test
+  public void testSerializeSparse() throws IOException {
+    HyperLogLogWritable hll = new HyperLogLogWritable();
+    for (int i = 0; i < 300; i++) {
+      hll.add("foo" + i);
+    }
+
+    byte[] bytes = hll.serialize();
+    // Should be much smaller than the dense representation.
+    assertTrue(bytes.length < 1024);
+
+    HyperLogLogWritable copy = HyperLogLogWritable.create(bytes);
+    assertTrue(copy.isSparse());
+    assertEquals(hll.getPrecision(), copy.getPrecision());
+    assertEquals(hll.cardinality(), copy.cardinality());
+  }
+
+  @Test
+  public void testSerializeDense() throws IOException {
+    HyperLogLogWritable hll = new HyperLogLogWritable(8);
+    for (int i = 0; i < 10000; i++) {
+      hll.add(i * 31L);
+    }
+
+    HyperLogLogWritable copy = HyperLogLogWritable.create(hll.serialize());
+    assertFalse(copy.isSparse());
+    assertEquals(8, copy.getPrecision());
+    assertEquals(hll.cardinality(), copy.cardinality());
+
+    copy.add(-1);
+    copy.clear();
+    assertEquals(0, copy.cardinality());
+    assertEquals(8, copy.getPrecision());
+  }
+
+  public static junit.framework.Test suite() {
+    return new JUnit4TestAdapter(HyperLogLogWritableTest.class);
+  }
+}
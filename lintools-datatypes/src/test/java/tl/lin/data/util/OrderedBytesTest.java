@@ -0,0 +1,190 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.apache.hadoop.io.WritableComparator;
+import org.junit.Test;
+
+public class OrderedBytesTest {
+
+  private static int signum(int x) {
+    return Integer.signum(x);
+  }
+
+  private static int compare(byte[] a, byte[] b) {
+    return signum(WritableComparator.compareBytes(a, 0, a.length, b, 0, b.length));
+  }
+
+  @Test
+  public void testInts() {
+    Random r = new Random(1);
+    int[] values = new int[1000];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = i < 4 ? new int[] { 0, -1, Integer.MIN_VALUE, Integer.MAX_VALUE }[i]
+          : r.nextInt() >> r.nextInt(32);
+    }
+
+    for (int i = 0; i < values.length; i++) {
+      byte[] a = new byte[4];
+      assertEquals(4, OrderedBytes.writeInt(a, 0, values[i]));
+      assertEquals(values[i], OrderedBytes.readInt(a, 0));
+      for (int j = 0; j < 50; j++) {
+        byte[] b = new byte[4];
+        OrderedBytes.writeInt(b, 0, values[j]);
+        int expected = values[i] < values[j] ? -1 : (values[i] == values[j] ? 0 : 1);
+        assertEquals(expected, compare(a, b));
+      }
+    }
+  }
+
+  @Test
+  public void testLongs() {
+    Random r = new Random(2);
+    long[] values = new long[1000];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = i < 4 ? new long[] { 0, -1, Long.MIN_VALUE, Long.MAX_VALUE }[i]
+          : r.nextLong() >> r.nextInt(64);
+    }
+
+    for (int i = 0; i < values.length; i++) {
+      byte[] a = new byte[8];
+      assertEquals(8, OrderedBytes.writeLong(a, 0, values[i]));
+      assertEquals(values[i], OrderedBytes.readLong(a, 0));
+      for (int j = 0; j < 50; j++) {
+        byte[] b = new byte[8];
+        OrderedBytes.writeLong(b, 0, values[j]);
+        int expected = values[i] < values[j] ? -1 : (values[i] == values[j] ? 0 : 1);
+        assertEquals(expected, compare(a, b));
+      }
+    }
+  }
+
+  @Test
+  public void testFloatsAndDoubles() {
+    float[] values = new float[] { Float.NEGATIVE_INFINITY, -Float.MAX_VALUE, -1.5f, -1.0f,
+        -Float.MIN_NORMAL, -Float.MIN_VALUE, 0.0f, Float.MIN_VALUE, Float.MIN_NORMAL, 1.0f, 1.5f,
+        Float.MAX_VALUE, Float.POSITIVE_INFINITY, Float.NaN };
+
+    for (int i = 0; i < values.length; i++) {
+      byte[] a = new byte[4];
+      byte[] da = new byte[8];
+      OrderedBytes.writeFloat(a, 0, values[i]);
+      OrderedBytes.writeDouble(da, 0, values[i]);
+      assertEquals(values[i], OrderedBytes.readFloat(a, 0), 0.0f);
+      assertEquals(values[i], OrderedBytes.readDouble(da, 0), 0.0);
+      for (int j = 0; j < values.length; j++) {
+        byte[] b = new byte[4];
+        byte[] db = new byte[8];
+        OrderedBytes.writeFloat(b, 0, values[j]);
+        OrderedBytes.writeDouble(db, 0, values[j]);
+        assertEquals(signum(i - j), compare(a, b));
+        assertEquals(signum(i - j), compare(da, db));
+      }
+    }
+
+    // Negative zero and NaN payloads are canonicalized.
+    byte[] a = new byte[4];
+    byte[] b = new byte[4];
+    OrderedBytes.writeFloat(a, 0, -0.0f);
+    OrderedBytes.writeFloat(b, 0, 0.0f);
+    assertEquals(0, compare(a, b));
+    assertEquals(Float.floatToRawIntBits(0.0f),
+        Float.floatToRawIntBits(OrderedBytes.readFloat(a, 0)));
+    OrderedBytes.writeFloat(a, 0, Float.intBitsToFloat(0xffc00001));
+    OrderedBytes.writeFloat(b, 0, Float.NaN);
+    assertEquals(0, compare(a, b));
+  }
+
+  private static byte[] encode(String s) {
+    byte[] b = new byte[OrderedBytes.maxEncodedLength(s) + 3];
+    int end = OrderedBytes.writeString(b, 3, s);
+    assertEquals(end, OrderedBytes.skipString(b, 3));
+    StringBuilder sb = new StringBuilder();
+    assertEquals(end, OrderedBytes.readString(b, 3, sb));
+    assertEquals(s, sb.toString());
+
+    byte[] encoded = new byte[end - 3];
+    System.arraycopy(b, 3, encoded, 0, encoded.length);
+    return encoded;
+  }
+
+  @Test
+  public void testStrings() {
+    String[] values = new String[] { "", "\u0000", "\u0000\u0000", "\u0000a", "a", "a\u0000",
+        "a\u0000b", "aa", "ab", "b", "\u007f", "\u0080", "\u00e9t\u00e9", "\u07ff", "\u0800",
+        "\ud83d\ude00", "\ue000", "\uffff" };
+    assertEquals(2, encode("").length);
+    assertEquals(5, encode("abc").length);
+
+    for (int i = 0; i < values.length; i++) {
+      byte[] a = encode(values[i]);
+      for (int j = 0; j < values.length; j++) {
+        assertEquals(signum(values[i].compareTo(values[j])), signum(i - j));
+        assertEquals(signum(i - j), compare(a, encode(values[j])));
+      }
+    }
+
+    Random r = new Random(3);
+    for (int n = 0; n < 1000; n++) {
+      String s1 = randomString(r);
+      String s2 = randomString(r);
+      assertEquals(signum(s1.compareTo(s2)), compare(encode(s1), encode(s2)));
+    }
+  }
+
+  private static String randomString(Random r) {
+    char[] chars = new char[r.nextInt(6)];
+    for (int i = 0; i < chars.length; i++) {
+      // Mostly small chars, so that strings often share prefixes.
+      chars[i] = (char) (r.nextBoolean() ? r.nextInt(3) : r.nextInt(0x10000));
+    }
+    return new String(chars);
+  }
+
+  @Test
+  public void testPrefix() {
+    Random r = new Random(4);
+    for (int n = 0; n < 1000; n++) {
+      byte[] a = new byte[r.nextInt(12)];
+      byte[] b = new byte[r.nextInt(12)];
+      r.nextBytes(a);
+      r.nextBytes(b);
+      if (r.nextBoolean() && a.length > 0 && b.length > 0) {
+        // Share a prefix.
+        System.arraycopy(a, 0, b, 0, Math.min(a.length, b.length) - 1);
+      }
+      int cmp = OrderedBytes.compareUnsigned(OrderedBytes.prefix(a, 0, a.length),
+          OrderedBytes.prefix(b, 0, b.length));
+      // Prefixes only decide the order when they differ.
+      if (cmp != 0) {
+        assertEquals(cmp, compare(a, b));
+      }
+    }
+    assertEquals(0x0102000000000000L, OrderedBytes.prefix(new byte[] { 1, 2 }, 0, 2));
+    assertEquals(-1, OrderedBytes.compareUnsigned(1L, -1L));
+  }
+
+  public static junit.framework.Test suite() {
+    return new JUnit4TestAdapter(OrderedBytesTest.class);
+  }
+}
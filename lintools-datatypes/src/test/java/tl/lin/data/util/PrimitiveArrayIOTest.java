@@ -0,0 +1,192 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package tl.lin.data.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Random;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.Test;
+
+public class PrimitiveArrayIOTest {
+  // Spans several chunks of the scratch buffer for every type.
+  private static final int N = 10007;
+
+  private static DataInputStream input(ByteArrayOutputStream bytes) {
+    return new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+  }
+
+  @Test
+  public void testInts() throws IOException {
+    Random r = new Random(1);
+    int[] a = new int[N];
+    for (int i = 0; i < N; i++) {
+      a[i] = r.nextInt();
+    }
+
+    ByteArrayOutputStream bulk = new ByteArrayOutputStream();
+    PrimitiveArrayIO.writeInts(new DataOutputStream(bulk), a, 0, N);
+    ByteArrayOutputStream single = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(single);
+    for (int i = 0; i < N; i++) {
+      out.writeInt(a[i]);
+    }
+    assertArrayEquals(single.toByteArray(), bulk.toByteArray());
+
+    int[] b = new int[N + 2];
+    PrimitiveArrayIO.readInts(input(bulk), b, 1, N);
+    assertEquals(0, b[0]);
+    assertEquals(0, b[N + 1]);
+    for (int i = 0; i < N; i++) {
+      assertEquals(a[i], b[i + 1]);
+    }
+  }
+
+  @Test
+  public void testLongs() throws IOException {
+    Random r = new Random(2);
+    long[] a = new long[N];
+    for (int i = 0; i < N; i++) {
+      a[i] = r.nextLong();
+    }
+
+    ByteArrayOutputStream bulk = new ByteArrayOutputStream();
+    PrimitiveArrayIO.writeLongs(new DataOutputStream(bulk), a, 0, N);
+    ByteArrayOutputStream single = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(single);
+    for (int i = 0; i < N; i++) {
+      out.writeLong(a[i]);
+    }
+    assertArrayEquals(single.toByteArray(), bulk.toByteArray());
+
+    long[] b = new long[N];
+    PrimitiveArrayIO.readLongs(input(bulk), b, 0, N);
+    assertArrayEquals(a, b);
+  }
+
+  @Test
+  public void testShorts() throws IOException {
+    Random r = new Random(3);
+    short[] a = new short[N];
+    for (int i = 0; i < N; i++) {
+      a[i] = (short) r.nextInt();
+    }
+
+    ByteArrayOutputStream bulk = new ByteArrayOutputStream();
+    PrimitiveArrayIO.writeShorts(new DataOutputStream(bulk), a, 0, N);
+    ByteArrayOutputStream single = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(single);
+    for (int i = 0; i < N; i++) {
+      out.writeShort(a[i]);
+    }
+    assertArrayEquals(single.toByteArray(), bulk.toByteArray());
+
+    short[] b = new short[N];
+    PrimitiveArrayIO.readShorts(input(bulk), b, 0, N);
+    assertArrayEquals(a, b);
+  }
+
+  @Test
+  public void testFloats() throws IOException {
+    Random r = new Random(4);
+    float[] a = new float[N];
+    for (int i = 0; i < N; i++) {
+      a[i] = (float) r.nextGaussian();
+    }
+    a[0] = Float.NEGATIVE_INFINITY;
+    a[1] = Float.MIN_VALUE;
+    a[2] = -0.0f;
+
+    ByteArrayOutputStream bulk = new ByteArrayOutputStream();
+    PrimitiveArrayIO.writeFloats(new DataOutputStream(bulk), a, 0, N);
+    ByteArrayOutputStream single = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(single);
+    for (int i = 0; i < N; i++) {
+      out.writeFloat(a[i]);
+    }
+    assertArrayEquals(single.toByteArray(), bulk.toByteArray());
+
+    float[] b = new float[N];
+    PrimitiveArrayIO.readFloats(input(bulk), b, 0, N);
+    for (int i = 0; i < N; i++) {
+      assertEquals(Float.floatToRawIntBits(a[i]), Float.floatToRawIntBits(b[i]));
+    }
+  }
+
+  @Test
+  public void testDoubles() throws IOException {
+    Random r = new Random(5);
+    double[] a = new double[N];
+    for (int i = 0; i < N; i++) {
+      a[i] = r.nextGaussian();
+    }
+    a[0] = Double.POSITIVE_INFINITY;
+    a[1] = Double.MAX_VALUE;
+
+    ByteArrayOutputStream bulk = new ByteArrayOutputStream();
+    PrimitiveArrayIO.writeDoubles(new DataOutputStream(bulk), a, 0, N);
+    ByteArrayOutputStream single = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(single);
+    for (int i = 0; i < N; i++) {
+      out.writeDouble(a[i]);
+    }
+    assertArrayEquals(single.toByteArray(), bulk.toByteArray());
+
+    double[] b = new double[N];
+    PrimitiveArrayIO.readDoubles(input(bulk), b, 0, N);
+    assertArrayEquals(a, b, 0.0);
+  }
+
+  @Test
+  public void testEmptyAndPartial() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    PrimitiveArrayIO.writeInts(out, new int[0], 0, 0);
+    PrimitiveArrayIO.writeInts(out, new int[] { 1, 2, 3, 4 }, 1, 2);
+    assertEquals(8, bytes.size());
+
+    int[] b = new int[2];
+    PrimitiveArrayIO.readInts(input(bytes), b, 0, 2);
+    assertArrayEquals(new int[] { 2, 3 }, b);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testOutOfBounds() throws IOException {
+    PrimitiveArrayIO.writeInts(new DataOutputStream(new ByteArrayOutputStream()), new int[4], 2,
+        3);
+  }
+
+  @Test(expected = EOFException.class)
+  public void testTruncated() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    PrimitiveArrayIO.writeLongs(new DataOutputStream(bytes), new long[3], 0, 3);
+    PrimitiveArrayIO.readLongs(input(bytes), new long[4], 0, 4);
+  }
+
+  public static junit.framework.Test suite() {
+    return new JUnit4TestAdapter(PrimitiveArrayIOTest.class);
+  }
+}
@@ -0,0 +1,210 @@
+/*
+ * Lintools: tools by @lintool
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You may
+ * obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package tl.lin.data.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.Text;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import tl.lin.data.pair.PairOfWritables;
+
+public class SequenceFileUtilsTest {
+  private FileSystem fs;
+  private Path dir;
+
+  @Before
+  public void setUp() throws IOException {
+    Configuration conf = new Configuration();
+    fs = FileSystem.get(conf);
+
+    File tmp = File.createTempFile("SequenceFileUtilsTest", "");
+    tmp.delete();
+    tmp.mkdir();
+    dir = new Path(tmp.getAbsolutePath());
+
+    // Two parts, as written by two reducers, plus the marker of a successful job.
+    write(new Path(dir, "part-00000"), 0, 100);
+    write(new Path(dir, "part-00001"), 100, 50);
+    fs.create(new Path(dir, "_SUCCESS")).close();
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    fs.delete(dir, true);
+  }
+
+  private void write(Path path, int start, int n) throws IOException {
+    SequenceFile.Writer w = SequenceFile.createWriter(fs, fs.getConf(), path, IntWritable.class,
+        Text.class);
+    for (int i = start; i < start + n; i++) {
+      w.append(new IntWritable(i), new Text("value" + i));
+    }
+    w.close();
+  }
+
+  @Test
+  public void testIterateFile() throws IOException {
+    SequenceFileIterator<IntWritable, Text> iter =
+        SequenceFileUtils.<IntWritable, Text> iterateFile(new Path(dir, "part-00000"), fs);
+    assertFalse(iter.isCopying());
+
+    PairOfWritables<IntWritable, Text> first = null;
+    int n = 0;
+    while (iter.hasNext()) {
+      PairOfWritables<IntWritable, Text> pair = iter.next();
+      if (first == null) {
+        first = pair;
+      }
+      // The pair, as well as the key and value, are reused.
+      assertSame(first, pair);
+      assertEquals(n, pair.getKey().get());
+      assertEquals("value" + n, pair.getValue().toString());
+      n++;
+    }
+    assertEquals(100, n);
+    assertEquals("part-00000", iter.getCurrentPath().getName());
+
+    // The iterator closed itself once exhausted.
+    assertFalse(iter.hasNext());
+    try {
+      iter.next();
+      fail();
+    } catch (NoSuchElementException e) {
+      // Expected.
+    }
+    iter.close();
+  }
+
+  @Test
+  public void testIterateFileCopy() throws IOException {
+    Path path = new Path(dir, "part-00001");
+    SequenceFileIterator<IntWritable, Text> iter =
+        SequenceFileUtils.<IntWritable, Text> iterateFile(path, fs, true);
+    assertTrue(iter.isCopying());
+
+    List<PairOfWritables<IntWritable, Text>> pairs =
+        new ArrayList<PairOfWritables<IntWritable, Text>>();
+    while (iter.hasNext()) {
+      pairs.add(iter.next());
+    }
+    assertEquals(50, pairs.size());
+    assertTrue(pairs.get(0) != pairs.get(1));
+    assertTrue(pairs.get(0).getKey() != pairs.get(1).getKey());
+    assertTrue(pairs.get(0).getValue() != pairs.get(1).getValue());
+
+    List<PairOfWritables<IntWritable, Text>> read =
+        SequenceFileUtils.<IntWritable, Text> readFile(path, fs);
+    assertEquals(pairs.size(), read.size());
+    for (int i = 0; i < pairs.size(); i++) {
+      assertEquals(100 + i, pairs.get(i).getKey().get());
+      assertEquals(read.get(i).getKey(), pairs.get(i).getKey());
+      assertEquals(read.get(i).getValue(), pairs.get(i).getValue());
+    }
+  }
+
+  @Test
+  public void testEarlyTermination() throws IOException {
+    SequenceFileIterator<IntWritable, Text> iter =
+        SequenceFileUtils.<IntWritable, Text> iterateDirectory(dir, fs);
+    try {
+      for (int i = 0; i < 3; i++) {
+        assertEquals(i, iter.next().getKey().get());
+      }
+    } finally {
+      iter.close();
+    }
+    assertFalse(iter.hasNext());
+    iter.close();
+
+    assertEquals(7, SequenceFileUtils.<IntWritable, Text> readFile(new Path(dir, "part-00000"),
+        fs, 7).size());
+    assertEquals(0, SequenceFileUtils.<IntWritable, Text> readFile(new Path(dir, "part-00000"),
+        fs, 0).size());
+  }
+
+  @Test
+  public void testIterateDirectory() throws IOException {
+    SequenceFileIterator<IntWritable, Text> iter =
+        SequenceFileUtils.<IntWritable, Text> iterateDirectory(dir, fs);
+    assertEquals(null, iter.getCurrentPath());
+
+    int n = 0;
+    while (iter.hasNext()) {
+      PairOfWritables<IntWritable, Text> pair = iter.next();
+      assertEquals(n, pair.getKey().get());
+      assertEquals("value" + n, pair.getValue().toString());
+      assertEquals(n < 100 ? "part-00000" : "part-00001", iter.getCurrentPath().getName());
+      n++;
+    }
+    // The _SUCCESS marker is skipped.
+    assertEquals(150, n);
+
+    List<PairOfWritables<IntWritable, Text>> read =
+        SequenceFileUtils.<IntWritable, Text> readDirectory(dir, fs, 10);
+    assertEquals(20, read.size());
+    assertEquals(100, read.get(10).getKey().get());
+  }
+
+  @Test
+  public void testReadKeysValues() {
+    Path path = new Path(dir, "part-00000");
+    List<IntWritable> keys = SequenceFileUtils.<IntWritable> readKeys(path, fs, 5);
+    List<Text> values = SequenceFileUtils.<Text> readValues(path, fs);
+    assertEquals(5, keys.size());
+    assertEquals(100, values.size());
+    for (int i = 0; i < keys.size(); i++) {
+      assertEquals(i, keys.get(i).get());
+    }
+    assertEquals("value99", values.get(99).toString());
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void testNotSequenceFile() throws IOException {
+    SequenceFileIterator<IntWritable, Text> iter =
+        SequenceFileUtils.<IntWritable, Text> iterateFile(new Path(dir, "_SUCCESS"), fs);
+    try {
+      iter.hasNext();
+    } finally {
+      iter.close();
+    }
+  }
+
+  public static junit.framework.Test suite() {
+    return new JUnit4TestAdapter(SequenceFileUtilsTest.class);
+  }
+}